@@ -37,4 +37,14 @@ public class AuthenticationCacheConstant {
      * 根据用户id查询用户实体缓存前缀
      */
     public static final String USER_GET_BY_ID_CACHE_NAME = "User:GetById";
+
+    /**
+     * 根据用户id查询用户授权快照缓存前缀
+     */
+    public static final String AUTHORIZATION_SNAPSHOT_GET_BY_USER_ID_CACHE_NAME = "AuthorizationSnapshot:GetByUserId";
+
+    /**
+     * 权限编码字典缓存前缀
+     */
+    public static final String PERMISSION_DICTIONARY_CACHE_NAME = "Permission:Dictionary";
 }
@@ -32,4 +32,14 @@ public class CaptchaConstant {
      * 邮件验证码键前缀
      */
     public static final String EMAIL_CODE_KEY_PREFIX = "EmailCode:";
+
+    /**
+     * 邮件验证码发送记录键前缀，有效期内同一个邮箱只发送一次邮件验证码
+     */
+    public static final String EMAIL_CODE_SENT_KEY_PREFIX = "EmailCodeSent:";
+
+    /**
+     * 二进制图片验证码返回验证码key的响应头
+     */
+    public static final String CAPTCHA_KEY_HEADER = "Captcha-Key";
 }
@@ -0,0 +1,291 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.domain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的权限匹配器
+ * <li>将用户拥有的权限编码按照半角冒号:拆分成段，构造成一棵段字典树，每个用户只需构造一次</li>
+ * <li>匹配规则与使用半角冒号:作为分隔符的AntPathMatcher一致：?代表一个字符，*号代表段内零个或多个字符，**代表任意个段</li>
+ * <li>匹配时只需沿着字典树向下查找，无通配符的段直接哈希定位，不再与每个权限编码逐一匹配</li>
+ *
+ * @author Telechow
+ * @since 2023/4/21 14:05
+ */
+public final class AuthorityMatcher {
+
+    private static final char SEPARATOR = ':';
+
+    private static final String DOUBLE_WILDCARD = "**";
+
+    private static final AuthorityMatcher EMPTY = new AuthorityMatcher(new Node());
+
+    private final Node root;
+
+    private AuthorityMatcher(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * 根据用户拥有的权限编码集合编译权限匹配器
+     *
+     * @param authorityPatterns 用户拥有的权限编码集合，可以包含通配符
+     * @return io.github.telechow.garoupa.api.domain.AuthorityMatcher 编译后的权限匹配器
+     * @author Telechow
+     * @since 2023/4/21 14:08
+     */
+    public static AuthorityMatcher compile(Collection<String> authorityPatterns) {
+        if (authorityPatterns == null || authorityPatterns.isEmpty()) {
+            return EMPTY;
+        }
+        Node root = new Node();
+        for (String authorityPattern : authorityPatterns) {
+            if (authorityPattern == null || authorityPattern.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            for (String segment : split(authorityPattern)) {
+                node = node.child(segment);
+            }
+            node.terminal = true;
+        }
+        return new AuthorityMatcher(root);
+    }
+
+    /**
+     * 是否拥有某个权限
+     *
+     * @param authority 权限标识符
+     * @return boolean 是否拥有此权限
+     * @author Telechow
+     * @since 2023/4/21 14:10
+     */
+    public boolean matches(String authority) {
+        if (authority == null || authority.isEmpty()) {
+            return false;
+        }
+        return match(root, split(authority), 0);
+    }
+
+    /**
+     * 是否拥有多个权限中的任意一个
+     *
+     * @param authorities 权限标识符数组
+     * @return boolean 是否拥有任意一个权限
+     * @author Telechow
+     * @since 2023/4/21 14:11
+     */
+    public boolean matchesAny(String... authorities) {
+        if (authorities == null) {
+            return false;
+        }
+        for (String authority : authorities) {
+            if (matches(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否拥有多个权限中的所有权限，有一个不匹配立即返回
+     *
+     * @param authorities 权限标识符数组
+     * @return boolean 是否拥有所有权限
+     * @author Telechow
+     * @since 2023/4/21 14:12
+     */
+    public boolean matchesAll(String... authorities) {
+        if (authorities == null || authorities.length == 0) {
+            return false;
+        }
+        for (String authority : authorities) {
+            if (!matches(authority)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 从指定节点开始，匹配权限标识符从指定下标开始的段
+     *
+     * @param node     字典树节点
+     * @param segments 权限标识符的段数组
+     * @param index    当前要匹配的段下标
+     * @return boolean 是否匹配
+     * @author Telechow
+     * @since 2023/4/21 14:15
+     */
+    private static boolean match(Node node, String[] segments, int index) {
+        //1.**可以匹配零个或多个段
+        if (node.doubleWildcardChild != null) {
+            for (int i = index; i <= segments.length; i++) {
+                if (match(node.doubleWildcardChild, segments, i)) {
+                    return true;
+                }
+            }
+        }
+
+        //2.所有段都已匹配，当前节点是某个权限编码的结尾则匹配成功
+        if (index == segments.length) {
+            return node.terminal;
+        }
+
+        //3.无通配符的段直接哈希定位
+        String segment = segments[index];
+        Node literalChild = node.literalChildren == null ? null : node.literalChildren.get(segment);
+        if (literalChild != null && match(literalChild, segments, index + 1)) {
+            return true;
+        }
+
+        //4.段内包含通配符的逐一匹配
+        if (node.wildcardChildren != null) {
+            for (Node wildcardChild : node.wildcardChildren) {
+                if (matchSegment(wildcardChild.segment, segment) && match(wildcardChild, segments, index + 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 段内通配符匹配，?代表一个字符，*号代表零个或多个字符
+     *
+     * @param pattern 包含通配符的段
+     * @param segment 要匹配的段
+     * @return boolean 是否匹配
+     * @author Telechow
+     * @since 2023/4/21 14:18
+     */
+    private static boolean matchSegment(String pattern, String segment) {
+        int p = 0, s = 0, starIndex = -1, matchIndex = 0;
+        while (s < segment.length()) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == segment.charAt(s))) {
+                p++;
+                s++;
+            } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                starIndex = p++;
+                matchIndex = s;
+            } else if (starIndex != -1) {
+                p = starIndex + 1;
+                s = ++matchIndex;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    /**
+     * 使用半角冒号:拆分权限编码，忽略空段，与AntPathMatcher的拆分方式一致
+     *
+     * @param authority 权限编码
+     * @return java.lang.String[] 段数组
+     * @author Telechow
+     * @since 2023/4/21 14:20
+     */
+    private static String[] split(String authority) {
+        List<String> segments = new ArrayList<>(4);
+        int start = 0;
+        for (int i = 0; i <= authority.length(); i++) {
+            if (i == authority.length() || authority.charAt(i) == SEPARATOR) {
+                if (i > start) {
+                    segments.add(authority.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    /**
+     * 段字典树节点
+     *
+     * @author Telechow
+     * @since 2023/4/21 14:06
+     */
+    private static final class Node {
+
+        /**
+         * 此节点对应的段
+         */
+        private String segment;
+
+        /**
+         * 是否是某个权限编码的结尾
+         */
+        private boolean terminal;
+
+        /**
+         * 无通配符的下级节点
+         */
+        private Map<String, Node> literalChildren;
+
+        /**
+         * 段内包含通配符的下级节点
+         */
+        private List<Node> wildcardChildren;
+
+        /**
+         * 段为**的下级节点
+         */
+        private Node doubleWildcardChild;
+
+        private Node child(String segment) {
+            if (DOUBLE_WILDCARD.equals(segment)) {
+                if (doubleWildcardChild == null) {
+                    doubleWildcardChild = new Node();
+                    doubleWildcardChild.segment = segment;
+                }
+                return doubleWildcardChild;
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0) {
+                if (wildcardChildren == null) {
+                    wildcardChildren = new ArrayList<>(2);
+                }
+                for (Node wildcardChild : wildcardChildren) {
+                    if (wildcardChild.segment.equals(segment)) {
+                        return wildcardChild;
+                    }
+                }
+                Node node = new Node();
+                node.segment = segment;
+                wildcardChildren.add(node);
+                return node;
+            }
+            if (literalChildren == null) {
+                literalChildren = new HashMap<>(4);
+            }
+            return literalChildren.computeIfAbsent(segment, k -> {
+                Node node = new Node();
+                node.segment = k;
+                return node;
+            });
+        }
+    }
+}
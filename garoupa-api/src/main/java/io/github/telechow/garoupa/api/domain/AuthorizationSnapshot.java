@@ -0,0 +1,134 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.domain;
+
+import io.github.telechow.garoupa.api.entity.User;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 用户授权快照
+ * <li>包含用户实体、去重后的权限编码和资源编码，由一条联合查询加载，作为一个缓存值存储</li>
+ * <li>权限编码按照{@link PermissionDictionary}编码成位图存储，位图只在与字典版本号一致时有效</li>
+ * <li>认证时只需读取一次缓存即可构造{@link GaroupaUser}</li>
+ * <li>快照结构发生变化时增加{@link #CURRENT_VERSION}，读取到旧版本的快照会被丢弃并重新加载</li>
+ *
+ * @author Telechow
+ * @since 2023/4/22 9:10
+ */
+@Data
+public class AuthorizationSnapshot implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 当前的快照版本号
+     */
+    public static final int CURRENT_VERSION = 2;
+
+    /**
+     * 快照版本号
+     */
+    private int version;
+
+    /**
+     * 用户id
+     */
+    private Long userId;
+
+    /**
+     * 用户实体
+     */
+    private User user;
+
+    /**
+     * 去重后的权限编码列表，只在从数据库加载时使用，写入缓存前编码成位图后置空
+     */
+    private List<String> permissionCodes = new ArrayList<>();
+
+    /**
+     * 编码位图时使用的权限编码字典版本号
+     */
+    private String permissionDictionaryVersion;
+
+    /**
+     * 权限位图的字节数组
+     */
+    private byte[] permissionBits;
+
+    /**
+     * 无法用位图表示的权限编码列表，包括包含通配符的权限编码和字典中不存在的权限编码
+     */
+    private List<String> unindexedPermissionCodes = new ArrayList<>();
+
+    /**
+     * 去重后的资源编码列表
+     */
+    private List<String> resourceCodes = new ArrayList<>();
+
+    /**
+     * 根据位图构造的权限集合，第一次使用时构造，快照实例被近端缓存复用时无需重复构造
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile PermissionSet permissionSet;
+
+    /**
+     * 将用户拥有的权限编码按照权限编码字典编码成位图，并置空权限编码列表
+     *
+     * @param permissionDictionary 权限编码字典
+     * @author Telechow
+     * @since 2023/4/22 16:50
+     */
+    public void encodePermissions(PermissionDictionary permissionDictionary) {
+        List<String> grantedPermissionCodes = Objects.isNull(permissionCodes) ? List.of() : permissionCodes;
+        this.permissionDictionaryVersion = permissionDictionary.getVersion();
+        this.permissionBits = permissionDictionary.encode(grantedPermissionCodes);
+        this.unindexedPermissionCodes = new ArrayList<>(permissionDictionary.listUnindexed(grantedPermissionCodes));
+        this.permissionCodes = null;
+        this.permissionSet = null;
+    }
+
+    /**
+     * 根据权限编码字典构造权限集合，字典不变时复用上一次构造的权限集合
+     *
+     * @param permissionDictionary 权限编码字典，版本号必须与{@link #permissionDictionaryVersion}一致
+     * @return io.github.telechow.garoupa.api.domain.PermissionSet 权限集合
+     * @author Telechow
+     * @since 2023/4/22 16:55
+     */
+    public PermissionSet toPermissionSet(PermissionDictionary permissionDictionary) {
+        PermissionSet current = this.permissionSet;
+        if (Objects.isNull(current) || current.getPermissionDictionary() != permissionDictionary) {
+            current = PermissionSet.of(permissionDictionary, permissionBits, unindexedPermissionCodes);
+            this.permissionSet = current;
+        }
+        return current;
+    }
+}
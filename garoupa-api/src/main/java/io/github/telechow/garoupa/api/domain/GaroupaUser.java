@@ -16,14 +16,13 @@
 package io.github.telechow.garoupa.api.domain;
 
 import io.github.telechow.garoupa.api.entity.User;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Garoupa的登录用户信息
@@ -32,7 +31,6 @@ import java.util.List;
  * @since 2023/3/29 10:39
  */
 @Data
-@AllArgsConstructor
 public class GaroupaUser implements UserDetails {
 
     /**
@@ -41,20 +39,24 @@ public class GaroupaUser implements UserDetails {
     private User user;
 
     /**
-     * 权限编码列表
+     * 权限集合，使用位图和权限编码字典匹配权限
      */
-    private List<String> permissions;
+    private PermissionSet permissionSet;
 
     /**
      * 资源编码列表
      */
     private List<String> resources;
 
+    public GaroupaUser(User user, PermissionSet permissionSet, List<String> resources) {
+        this.user = user;
+        this.permissionSet = Objects.isNull(permissionSet) ? PermissionSet.empty() : permissionSet;
+        this.resources = resources;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return permissions.stream()
-                .map(SimpleGrantedAuthority::new)
-                .toList();
+        return permissionSet.getAuthorities();
     }
 
     @Override
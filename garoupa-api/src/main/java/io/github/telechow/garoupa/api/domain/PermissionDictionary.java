@@ -0,0 +1,217 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 权限编码字典
+ * <li>将所有权限编码按照字典序排列，每个权限编码在列表中的下标就是它在位图中的位置</li>
+ * <li>版本号由权限编码列表的内容计算得出，所有节点根据相同的权限编码构造出的字典版本号一致</li>
+ * <li>用户的权限编码按字典编码成位图，位图只有在与字典版本号一致时才有意义</li>
+ * <li>包含通配符的权限编码和字典中不存在的权限编码无法用位图表示，单独保存，匹配时使用{@link AuthorityMatcher}</li>
+ *
+ * @author Telechow
+ * @since 2023/4/22 16:05
+ */
+@Getter
+@Setter
+public class PermissionDictionary implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 字典版本号
+     */
+    private String version;
+
+    /**
+     * 按字典序排列的去重后的权限编码列表
+     */
+    private List<String> permissionCodes = new ArrayList<>();
+
+    /**
+     * 权限编码到位图下标的映射，第一次使用时构造
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient volatile Map<String, Integer> indexMap;
+
+    /**
+     * 根据权限编码集合构造权限编码字典
+     *
+     * @param permissionCodes 权限编码集合
+     * @return io.github.telechow.garoupa.api.domain.PermissionDictionary 权限编码字典
+     * @author Telechow
+     * @since 2023/4/22 16:10
+     */
+    public static PermissionDictionary of(Collection<String> permissionCodes) {
+        List<String> sortedPermissionCodes = permissionCodes.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+        PermissionDictionary permissionDictionary = new PermissionDictionary();
+        permissionDictionary.setPermissionCodes(new ArrayList<>(sortedPermissionCodes));
+        permissionDictionary.setVersion(digest(sortedPermissionCodes));
+        return permissionDictionary;
+    }
+
+    /**
+     * 获取权限编码在位图中的下标
+     *
+     * @param permissionCode 权限编码
+     * @return int 位图下标，字典中不存在此权限编码时返回-1
+     * @author Telechow
+     * @since 2023/4/22 16:12
+     */
+    public int indexOf(String permissionCode) {
+        Integer index = indexMap().get(permissionCode);
+        return Objects.isNull(index) ? -1 : index;
+    }
+
+    /**
+     * 根据位图下标获取权限编码
+     *
+     * @param index 位图下标
+     * @return java.lang.String 权限编码
+     * @author Telechow
+     * @since 2023/4/22 16:13
+     */
+    public String codeAt(int index) {
+        return permissionCodes.get(index);
+    }
+
+    /**
+     * 将用户拥有的权限编码编码成位图
+     * <li>字典中存在的权限编码直接设置对应的位</li>
+     * <li>包含通配符的权限编码会展开，字典中所有与之匹配的权限编码对应的位都会被设置，因此字典中的权限编码只需做位测试</li>
+     *
+     * @param grantedPermissionCodes 用户拥有的权限编码集合
+     * @return byte[] 位图的字节数组
+     * @author Telechow
+     * @since 2023/4/22 16:15
+     */
+    public byte[] encode(Collection<String> grantedPermissionCodes) {
+        BitSet bitSet = new BitSet(permissionCodes.size());
+        List<String> wildcardPermissionCodes = new ArrayList<>();
+        for (String grantedPermissionCode : grantedPermissionCodes) {
+            if (isWildcard(grantedPermissionCode)) {
+                wildcardPermissionCodes.add(grantedPermissionCode);
+                continue;
+            }
+            int index = indexOf(grantedPermissionCode);
+            if (index >= 0) {
+                bitSet.set(index);
+            }
+        }
+        if (!wildcardPermissionCodes.isEmpty()) {
+            AuthorityMatcher wildcardMatcher = AuthorityMatcher.compile(wildcardPermissionCodes);
+            for (int i = 0; i < permissionCodes.size(); i++) {
+                if (wildcardMatcher.matches(permissionCodes.get(i))) {
+                    bitSet.set(i);
+                }
+            }
+        }
+        return bitSet.toByteArray();
+    }
+
+    /**
+     * 从用户拥有的权限编码中筛选出无法用位图表示的权限编码，包括包含通配符的权限编码和字典中不存在的权限编码
+     *
+     * @param grantedPermissionCodes 用户拥有的权限编码集合
+     * @return java.util.List<java.lang.String> 无法用位图表示的权限编码列表
+     * @author Telechow
+     * @since 2023/4/22 16:18
+     */
+    public List<String> listUnindexed(Collection<String> grantedPermissionCodes) {
+        return grantedPermissionCodes.stream()
+                .filter(c -> isWildcard(c) || indexOf(c) < 0)
+                .distinct()
+                .toList();
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 获取权限编码到位图下标的映射，不存在时构造
+     *
+     * @return java.util.Map<java.lang.String, java.lang.Integer> 权限编码到位图下标的映射
+     * @author Telechow
+     * @since 2023/4/22 16:20
+     */
+    private Map<String, Integer> indexMap() {
+        Map<String, Integer> map = this.indexMap;
+        if (Objects.isNull(map)) {
+            map = new HashMap<>(permissionCodes.size() * 2);
+            for (int i = 0; i < permissionCodes.size(); i++) {
+                map.put(permissionCodes.get(i), i);
+            }
+            this.indexMap = map;
+        }
+        return map;
+    }
+
+    /**
+     * 权限编码是否包含通配符
+     *
+     * @param permissionCode 权限编码
+     * @return boolean 是否包含通配符
+     * @author Telechow
+     * @since 2023/4/22 16:21
+     */
+    private static boolean isWildcard(String permissionCode) {
+        return permissionCode.indexOf('*') >= 0 || permissionCode.indexOf('?') >= 0;
+    }
+
+    /**
+     * 根据权限编码列表计算字典版本号
+     *
+     * @param sortedPermissionCodes 按字典序排列的权限编码列表
+     * @return java.lang.String 字典版本号
+     * @author Telechow
+     * @since 2023/4/22 16:22
+     */
+    private static String digest(List<String> sortedPermissionCodes) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            for (String permissionCode : sortedPermissionCodes) {
+                messageDigest.update(permissionCode.getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(messageDigest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.domain;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 用户拥有的权限集合
+ * <li>字典中存在的权限编码使用位图表示，匹配时只需一次哈希定位和一次位测试</li>
+ * <li>无法用位图表示的权限编码（包含通配符或字典中不存在）编译成{@link AuthorityMatcher}，只在字典中不存在被匹配的权限标识符时使用</li>
+ * <li>权限集合构造后不可变，授予的权限列表只构造一次</li>
+ *
+ * @author Telechow
+ * @since 2023/4/22 16:30
+ */
+public final class PermissionSet {
+
+    private static final PermissionSet EMPTY = new PermissionSet(null, new BitSet()
+            , AuthorityMatcher.compile(null), Collections.emptyList());
+
+    private final PermissionDictionary permissionDictionary;
+
+    private final BitSet bitSet;
+
+    private final AuthorityMatcher unindexedMatcher;
+
+    private final List<GrantedAuthority> authorities;
+
+    private PermissionSet(PermissionDictionary permissionDictionary, BitSet bitSet, AuthorityMatcher unindexedMatcher
+            , List<GrantedAuthority> authorities) {
+        this.permissionDictionary = permissionDictionary;
+        this.bitSet = bitSet;
+        this.unindexedMatcher = unindexedMatcher;
+        this.authorities = authorities;
+    }
+
+    /**
+     * 根据权限编码字典、位图和无法用位图表示的权限编码构造权限集合
+     *
+     * @param permissionDictionary      权限编码字典，必须与编码位图时使用的字典版本一致
+     * @param permissionBits            位图的字节数组
+     * @param unindexedPermissionCodes 无法用位图表示的权限编码列表
+     * @return io.github.telechow.garoupa.api.domain.PermissionSet 权限集合
+     * @author Telechow
+     * @since 2023/4/22 16:35
+     */
+    public static PermissionSet of(PermissionDictionary permissionDictionary, byte[] permissionBits
+            , Collection<String> unindexedPermissionCodes) {
+        BitSet bitSet = Objects.isNull(permissionBits) ? new BitSet() : BitSet.valueOf(permissionBits);
+        List<String> unindexed = Objects.isNull(unindexedPermissionCodes)
+                ? Collections.emptyList() : List.copyOf(unindexedPermissionCodes);
+
+        //授予的权限列表包括位图中的权限编码和无法用位图表示的权限编码，构造一次后复用
+        List<GrantedAuthority> authorities = new ArrayList<>(bitSet.cardinality() + unindexed.size());
+        bitSet.stream().forEach(i -> authorities.add(new SimpleGrantedAuthority(permissionDictionary.codeAt(i))));
+        unindexed.forEach(c -> authorities.add(new SimpleGrantedAuthority(c)));
+        return new PermissionSet(permissionDictionary, bitSet, AuthorityMatcher.compile(unindexed)
+                , Collections.unmodifiableList(authorities));
+    }
+
+    /**
+     * 获取空的权限集合
+     *
+     * @return io.github.telechow.garoupa.api.domain.PermissionSet 空的权限集合
+     * @author Telechow
+     * @since 2023/4/22 16:36
+     */
+    public static PermissionSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 是否拥有某个权限
+     *
+     * @param authority 权限标识符
+     * @return boolean 是否拥有此权限
+     * @author Telechow
+     * @since 2023/4/22 16:38
+     */
+    public boolean matches(String authority) {
+        if (Objects.isNull(authority) || authority.isEmpty()) {
+            return false;
+        }
+        //1.字典中存在的权限标识符，通配符在编码时已经展开，只需做位测试
+        int index = Objects.isNull(permissionDictionary) ? -1 : permissionDictionary.indexOf(authority);
+        if (index >= 0) {
+            return bitSet.get(index);
+        }
+
+        //2.字典中不存在的权限标识符，使用无法用位图表示的权限编码匹配
+        return unindexedMatcher.matches(authority);
+    }
+
+    /**
+     * 是否拥有多个权限中的任意一个
+     *
+     * @param authorities 权限标识符数组
+     * @return boolean 是否拥有任意一个权限
+     * @author Telechow
+     * @since 2023/4/22 16:40
+     */
+    public boolean matchesAny(String... authorities) {
+        if (Objects.isNull(authorities)) {
+            return false;
+        }
+        for (String authority : authorities) {
+            if (matches(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否拥有多个权限中的所有权限，有一个不匹配立即返回
+     *
+     * @param authorities 权限标识符数组
+     * @return boolean 是否拥有所有权限
+     * @author Telechow
+     * @since 2023/4/22 16:41
+     */
+    public boolean matchesAll(String... authorities) {
+        if (Objects.isNull(authorities) || authorities.length == 0) {
+            return false;
+        }
+        for (String authority : authorities) {
+            if (!matches(authority)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取授予的权限列表，不可修改
+     *
+     * @return java.util.List<org.springframework.security.core.GrantedAuthority> 授予的权限列表
+     * @author Telechow
+     * @since 2023/4/22 16:42
+     */
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * 获取构造此权限集合时使用的权限编码字典
+     *
+     * @return io.github.telechow.garoupa.api.domain.PermissionDictionary 权限编码字典
+     * @author Telechow
+     * @since 2023/4/22 16:43
+     */
+    public PermissionDictionary getPermissionDictionary() {
+        return permissionDictionary;
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.dto.audit.log;
+
+import io.github.telechow.garoupa.api.dto.common.CommonCursorPageDto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+import java.time.LocalDateTime;
+
+/**
+ * 游标分页查询审计日志dto
+ *
+ * @author Telechow
+ * @since 2023/4/24 16:10
+ */
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(callSuper = true)
+@Schema(description = "游标分页查询审计日志dto")
+public class CursorPageAuditLogDto extends CommonCursorPageDto {
+
+    @Schema(description = "审计日志标题查询条件；限250字")
+    @Size(max = 250,message = "审计日志标题查询条件太长")
+    private String title;
+
+    @Schema(description = "请求用户id查询条件")
+    private Long userId;
+
+    @Schema(description = "用户ip查询条件，精确匹配；支持IPv4和IPv6")
+    @Size(max = 50, message = "用户ip查询条件太长")
+    private String remoteIp;
+
+    @Schema(description = "用户ip网段查询条件，如192.168.0.0/16、2001:db8::/32；与用户ip查询条件同时指定时取交集")
+    @Size(max = 50, message = "用户ip网段查询条件太长")
+    private String remoteIpCidr;
+
+    @Schema(description = "日志类型查询条件；0：正常；10：错误")
+    private Integer logType;
+
+    @Schema(description = "请求时间起（含）；为空时默认只查询最近3个月")
+    private LocalDateTime createTimeBegin;
+
+    @Schema(description = "请求时间止（不含）")
+    private LocalDateTime createTimeEnd;
+}
@@ -43,9 +43,14 @@ public class PageAuditLogDto extends CommonPageDto {
     @Schema(description = "请求用户id查询条件")
     private Long userId;
 
-    @Schema(description = "请求用户ip地址，非空")
+    @Schema(description = "用户ip查询条件，精确匹配；支持IPv4和IPv6")
+    @Size(max = 50, message = "用户ip查询条件太长")
     private String remoteIp;
 
+    @Schema(description = "用户ip网段查询条件，如192.168.0.0/16、2001:db8::/32；与用户ip查询条件同时指定时取交集")
+    @Size(max = 50, message = "用户ip网段查询条件太长")
+    private String remoteIpCidr;
+
     @Schema(description = "日志类型查询条件；0：正常；10：错误")
     private Integer logType;
 
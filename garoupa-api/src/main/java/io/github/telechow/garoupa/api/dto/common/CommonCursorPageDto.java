@@ -0,0 +1,52 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * 通用游标分页dto
+ * <li>游标分页不使用偏移量，每页都从上一页返回的游标处继续查询，翻页深度不影响查询性能</li>
+ *
+ * @author Telechow
+ * @since 2023/4/24 16:05
+ */
+@Data
+@Accessors(chain = true)
+@Schema(description = "通用游标分页dto")
+public class CommonCursorPageDto implements Serializable {
+
+    @Schema(description = "游标，查询第一页时为空，之后使用上一页返回的游标")
+    @Size(max = 100, message = "游标太长")
+    private String cursor;
+
+    @Schema(description = "每页条数")
+    @NotNull(message = "每页条数不能为空")
+    @Positive(message = "每页条数必须为正整数")
+    @Max(value = 100, message = "每页条数太大")
+    private Long size;
+
+    @Schema(description = "是否查询总条数，默认不查询；查询总条数需要统计所有满足条件的数据，数据量大时很慢")
+    private Boolean searchCount = Boolean.FALSE;
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.dto.login.log;
+
+import io.github.telechow.garoupa.api.enums.login.log.StatisticsPeriodEnum;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 查询登录统计dto
+ *
+ * @author Telechow
+ * @since 2023/4/25 14:42
+ */
+@Data
+@Accessors(chain = true)
+@Schema(description = "查询登录统计dto")
+public class LoginStatisticsDto implements Serializable {
+
+    @Schema(description = "统计周期；HOUR：按小时统计，DAY：按天统计")
+    @NotNull(message = "统计周期不能为空")
+    private StatisticsPeriodEnum period = StatisticsPeriodEnum.HOUR;
+
+    @Schema(description = "登录方式查询条件；为空时查询所有登录方式的合计，只有合计包含独立用户数和独立ip数")
+    @Size(max = 255, message = "登录方式查询条件太长")
+    private String loginMode;
+
+    @Schema(description = "统计时间起（含）")
+    @NotNull(message = "统计时间起不能为空")
+    private LocalDateTime createTimeBegin;
+
+    @Schema(description = "统计时间止（不含）")
+    @NotNull(message = "统计时间止不能为空")
+    private LocalDateTime createTimeEnd;
+}
@@ -17,6 +17,7 @@ package io.github.telechow.garoupa.api.dto.login.log;
 
 import io.github.telechow.garoupa.api.dto.common.CommonPageDto;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
@@ -38,9 +39,14 @@ public class PageLoginLogDto extends CommonPageDto {
     @Schema(description = "是否登录成功查询条件；false：失败，true：成功")
     private Boolean isSuccess;
 
-    @Schema(description = "用户ip查询条件")
+    @Schema(description = "用户ip查询条件，精确匹配；支持IPv4和IPv6")
+    @Size(max = 50, message = "用户ip查询条件太长")
     private String remoteIp;
 
+    @Schema(description = "用户ip网段查询条件，如192.168.0.0/16、2001:db8::/32；与用户ip查询条件同时指定时取交集")
+    @Size(max = 50, message = "用户ip网段查询条件太长")
+    private String remoteIpCidr;
+
     @Schema(description = "登录时间起（含）")
     private LocalDateTime createTimeBegin;
 
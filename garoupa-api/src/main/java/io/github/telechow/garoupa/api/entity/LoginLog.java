@@ -64,6 +64,9 @@ public class LoginLog implements Serializable {
     @Schema(description = "用户ip，非空")
     private String remoteIp;
 
+    @Schema(description = "ip地址的16字节二进制，IPv4地址编码成IPv4映射的IPv6地址；ip地址格式错误时为null")
+    private byte[] remoteIpBin;
+
     @Schema(description = "用户代理，非空")
     private String userAgent;
 
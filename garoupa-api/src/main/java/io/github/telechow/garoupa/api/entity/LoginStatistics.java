@@ -0,0 +1,69 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * <p>
+ * 登录统计表
+ * </p>
+ *
+ * @author telechow
+ * @since 2023-04-25
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+@TableName("garoupa_login_statistics")
+@Schema(name = "LoginStatistics", description = "登录统计表")
+public class LoginStatistics implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "统计周期，非空；1：小时；2：天")
+    private Integer periodType;
+
+    @Schema(description = "统计周期的开始时间，非空")
+    private LocalDateTime periodStart;
+
+    @Schema(description = "登录方式，非空；*表示所有登录方式")
+    private String loginMode;
+
+    @Schema(description = "登录次数，非空")
+    private Long totalCount;
+
+    @Schema(description = "登录失败次数，非空")
+    private Long failureCount;
+
+    @Schema(description = "登录成功的独立用户数，非空；HyperLogLog估算值，只统计所有登录方式")
+    private Long uniqueUserCount;
+
+    @Schema(description = "登录成功的独立ip数，非空；HyperLogLog估算值，只统计所有登录方式")
+    private Long uniqueIpCount;
+
+    @Schema(description = "更新时间，非空")
+    private LocalDateTime updateTime;
+}
@@ -42,6 +42,18 @@ public enum ResponseCode {
      */
     FAIL("A0001", "访问失败"),
 
+    ///############################################################ 系统资源相关错误，A01
+
+    /**
+     * 密码散列线程池已满，提示服务器正忙，请稍后再试
+     */
+    PASSWORD_HASHING_BUSY("A0100", "服务器正忙，请稍后再试"),
+
+    /**
+     * 邮件验证码发送队列已满，提示邮件发送繁忙，请稍后再试
+     */
+    EMAIL_CODE_OUTBOX_BUSY("A0101", "邮件发送繁忙，请稍后再试"),
+
     /// ↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑ A类-本系统错误 ↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑↑
 
     /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ B类-客户端错误 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
@@ -169,6 +181,16 @@ public enum ResponseCode {
      */
     EMAIL_VALIDATE_ERROR("B0307","电子邮箱校验错误"),
 
+    /**
+     * 分页游标非法
+     */
+    PAGE_CURSOR_ILLEGAL("B0308", "分页游标非法"),
+
+    /**
+     * ip地址或网段非法
+     */
+    REMOTE_IP_ILLEGAL("B0309", "ip地址或网段非法"),
+
     ///############################################################ 系统参数相关错误，B04
 
     /**
@@ -0,0 +1,41 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.enums.audit.log;
+
+/**
+ * 审计日志记录请求参数的方式枚举
+ *
+ * @author Telechow
+ * @since 2023/4/24 11:05
+ */
+public enum RecordParamsEnum {
+
+    /**
+     * 总是记录请求参数
+     */
+    ALWAYS,
+
+    /**
+     * 只有执行出错时才记录请求参数
+     */
+    ON_ERROR,
+
+    /**
+     * 从不记录请求参数，适用于参数中包含密码等敏感信息的方法
+     */
+    NEVER,
+    ;
+}
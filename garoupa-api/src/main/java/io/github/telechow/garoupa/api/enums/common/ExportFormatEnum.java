@@ -0,0 +1,44 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.enums.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 导出格式枚举
+ *
+ * @author Telechow
+ * @since 2023/4/25 9:05
+ */
+@Getter
+@AllArgsConstructor
+public enum ExportFormatEnum {
+
+    /**
+     * 逗号分隔值，第一行为表头，可以直接用表格软件打开
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * 每行一个json对象，便于程序逐行处理
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+    ;
+
+    private final String contentType;
+    private final String extension;
+}
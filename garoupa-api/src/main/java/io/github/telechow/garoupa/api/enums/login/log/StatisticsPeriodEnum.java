@@ -0,0 +1,43 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.enums.login.log;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 登录统计周期枚举
+ *
+ * @author Telechow
+ * @since 2023/4/25 14:40
+ */
+@Getter
+@AllArgsConstructor
+public enum StatisticsPeriodEnum {
+
+    /**
+     * 按小时统计
+     */
+    HOUR(1),
+
+    /**
+     * 按天统计
+     */
+    DAY(2),
+    ;
+
+    private final Integer code;
+}
@@ -56,6 +56,18 @@ public enum SystemParamEnum {
      * 用户密码校验正则表达式文字要求
      */
     RBAC_USER_PASSWORD_VALID_REGULAR_EXPRESSION_TEXT_REQUIREMENT("rbac.userPasswordValidRegularExpressionTextRequirement", "密码至少包含一个大写字母，一个小写字母，一个数字，长度8-50位"),
+
+    ///############################################################ 日志参数
+
+    /**
+     * 日志保留月数，超出保留月数的日志分区会被删除；小于等于0时不删除
+     */
+    LOG_RETENTION_MONTHS("log.retentionMonths", "6"),
+
+    /**
+     * 删除过期日志分区前是否先归档；false：直接删除，true：先交换到归档表再删除
+     */
+    LOG_ARCHIVE_EXPIRED_PARTITION("log.archiveExpiredPartition", "false"),
     ;
 
     private final String code;
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.vo.audit.log;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * 接口耗时统计vo
+ *
+ * @author Telechow
+ * @since 2023/4/25 13:56
+ */
+@Data
+@Accessors(chain = true)
+@Schema(description = "接口耗时统计vo")
+public class EndpointLatencyVo implements Serializable {
+
+    @Schema(description = "审计日志标题")
+    private String title;
+
+    @Schema(description = "请求路径，优先使用接口的路径模板")
+    private String requestUri;
+
+    @Schema(description = "统计窗口的长度，单位秒")
+    private Long windowSeconds;
+
+    @Schema(description = "统计窗口内的请求次数")
+    private Long count;
+
+    @Schema(description = "统计窗口内出错的请求次数")
+    private Long errorCount;
+
+    @Schema(description = "错误率，0-1")
+    private Double errorRate;
+
+    @Schema(description = "平均耗时，单位毫秒")
+    private Double mean;
+
+    @Schema(description = "耗时的50百分位数，单位毫秒")
+    private Double p50;
+
+    @Schema(description = "耗时的95百分位数，单位毫秒")
+    private Double p95;
+
+    @Schema(description = "耗时的99百分位数，单位毫秒")
+    private Double p99;
+
+    @Schema(description = "最大耗时，单位毫秒")
+    private Double max;
+}
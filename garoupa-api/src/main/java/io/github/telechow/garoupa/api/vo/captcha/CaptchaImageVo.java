@@ -0,0 +1,43 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.vo.captcha;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * 二进制图片验证码vo
+ * <li>图片以png二进制的形式直接写入响应体，验证码key通过响应头返回，避免base64带来的体积膨胀</li>
+ *
+ * @author Telechow
+ * @since 2023/4/23 14:40
+ */
+@Data
+@Accessors(chain = true)
+public class CaptchaImageVo implements Serializable {
+
+    /**
+     * 验证码key
+     */
+    private String captchaKey;
+
+    /**
+     * png格式的验证码图片
+     */
+    private byte[] imageBytes;
+}
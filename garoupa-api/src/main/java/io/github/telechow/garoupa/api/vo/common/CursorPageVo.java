@@ -0,0 +1,48 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.vo.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 通用游标分页vo
+ *
+ * @author Telechow
+ * @since 2023/4/24 16:08
+ */
+@Data
+@Accessors(chain = true)
+@Schema(description = "通用游标分页vo")
+public class CursorPageVo<T> implements Serializable {
+
+    @Schema(description = "本页数据")
+    private List<T> records = new ArrayList<>();
+
+    @Schema(description = "下一页的游标，没有下一页时为null")
+    private String nextCursor;
+
+    @Schema(description = "是否有下一页")
+    private Boolean hasNext;
+
+    @Schema(description = "总条数，只有请求查询总条数时才有值")
+    private Long total;
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.vo.login.log;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 登录统计vo
+ *
+ * @author Telechow
+ * @since 2023/4/25 14:44
+ */
+@Data
+@Accessors(chain = true)
+@Schema(description = "登录统计vo")
+public class LoginStatisticsVo implements Serializable {
+
+    @Schema(description = "统计周期的开始时间")
+    private LocalDateTime periodStart;
+
+    @Schema(description = "登录方式；*表示所有登录方式")
+    private String loginMode;
+
+    @Schema(description = "登录次数")
+    private Long totalCount;
+
+    @Schema(description = "登录失败次数")
+    private Long failureCount;
+
+    @Schema(description = "登录失败率，0-1")
+    private Double failureRate;
+
+    @Schema(description = "登录成功的独立用户数，HyperLogLog估算值，误差约0.81%")
+    private Long uniqueUserCount;
+
+    @Schema(description = "登录成功的独立ip数，HyperLogLog估算值，误差约0.81%")
+    private Long uniqueIpCount;
+}
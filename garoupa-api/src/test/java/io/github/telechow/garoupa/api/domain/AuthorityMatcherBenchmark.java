@@ -0,0 +1,152 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 权限匹配微基准测试
+ * <li>比较编译后的{@link AuthorityMatcher}与原来使用AntPathMatcher逐一匹配每个权限编码的方式</li>
+ * <li>运行方式：在测试类路径下执行此类的main方法，或者mvn test-compile后使用jmh命令行运行</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 17:30
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorityMatcherBenchmark {
+
+    /**
+     * 用户拥有的权限编码个数
+     */
+    @Param({"10", "100", "500"})
+    public int permissionCount;
+
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher(":");
+
+    private List<String> permissionCodes;
+
+    private AuthorityMatcher authorityMatcher;
+
+    /**
+     * 要检查的权限标识符：命中靠后的权限编码、命中通配符权限编码、不命中
+     */
+    private String[] authorities;
+
+    @Setup
+    public void setup() {
+        permissionCodes = permissionCodes(permissionCount);
+        authorityMatcher = AuthorityMatcher.compile(permissionCodes);
+        authorities = new String[]{
+                permissionCodes.get(permissionCount - 2),
+                "report:daily:export",
+                "absent:resource:query"
+        };
+    }
+
+    @Benchmark
+    public int trieMatches() {
+        int matched = 0;
+        for (String authority : authorities) {
+            if (authorityMatcher.matches(authority)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public int antPathScan() {
+        int matched = 0;
+        for (String authority : authorities) {
+            if (antPathScan(authority)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public boolean trieMatchesAll() {
+        return authorityMatcher.matchesAll(authorities[0], authorities[1]);
+    }
+
+    @Benchmark
+    public boolean antPathScanAll() {
+        return antPathScan(authorities[0]) && antPathScan(authorities[1]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AuthorityMatcherBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * 构造指定个数的权限编码，最后一个是通配符权限编码
+     *
+     * @param count 权限编码个数
+     * @return java.util.List<java.lang.String> 权限编码列表
+     * @author Telechow
+     * @since 2023/4/25 17:32
+     */
+    static List<String> permissionCodes(int count) {
+        List<String> permissionCodes = new ArrayList<>(count);
+        String[] actions = {"query", "add", "update", "delete", "export"};
+        for (int i = 0; i < count - 1; i++) {
+            permissionCodes.add("module" + i / 50 + ":resource" + i / 5 % 10 + ":" + actions[i % actions.length]);
+        }
+        permissionCodes.add("report:**");
+        return permissionCodes;
+    }
+
+    /**
+     * 原来的匹配方式：使用AntPathMatcher与每个权限编码逐一匹配
+     *
+     * @param authority 权限标识符
+     * @return boolean 是否拥有此权限
+     * @author Telechow
+     * @since 2023/4/25 17:33
+     */
+    private boolean antPathScan(String authority) {
+        for (String permissionCode : permissionCodes) {
+            if (antPathMatcher.match(permissionCode, authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
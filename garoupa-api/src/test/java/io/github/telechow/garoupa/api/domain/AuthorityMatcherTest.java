@@ -0,0 +1,62 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.api.domain;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 权限匹配器测试，编译后的匹配结果必须与AntPathMatcher逐一匹配的结果一致
+ *
+ * @author Telechow
+ * @since 2023/4/25 17:35
+ */
+class AuthorityMatcherTest {
+
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher(":");
+
+    @Test
+    void matchesSameAsAntPathScan() {
+        List<String> permissionCodes = List.of("system:user:query", "system:role:*", "log:**:export"
+                , "report:**", "dict:?tem:add", "rbac:res*:update");
+        List<String> authorities = List.of("system:user:query", "system:user:add", "system:role:add"
+                , "system:role", "log:audit-log:export", "log:export", "log:a:b:export", "report"
+                , "report:daily:export", "dict:item:add", "dict:items:add", "rbac:resource:update"
+                , "rbac:res:update", "absent");
+
+        AuthorityMatcher authorityMatcher = AuthorityMatcher.compile(permissionCodes);
+        for (String authority : authorities) {
+            boolean expected = permissionCodes.stream().anyMatch(p -> antPathMatcher.match(p, authority));
+            assertEquals(expected, authorityMatcher.matches(authority), authority);
+        }
+    }
+
+    @Test
+    void matchesAllExitsOnMissingAuthority() {
+        AuthorityMatcher authorityMatcher = AuthorityMatcher.compile(
+                AuthorityMatcherBenchmark.permissionCodes(500));
+
+        assertTrue(authorityMatcher.matchesAll("module0:resource0:query", "report:daily:export"));
+        assertFalse(authorityMatcher.matchesAll("module0:resource0:query", "absent:resource:query"));
+        assertFalse(AuthorityMatcher.compile(List.of()).matches("module0:resource0:query"));
+    }
+}
@@ -15,6 +15,14 @@
  */
 package io.github.telechow.garoupa.config.redis.cache;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import io.github.telechow.garoupa.config.redis.cache.flight.SingleFlightCacheLoader;
+import io.github.telechow.garoupa.config.redis.cache.namespace.CacheNamespaceRegistry;
+import io.github.telechow.garoupa.config.redis.cache.near.NearCacheRegistry;
+import io.github.telechow.garoupa.config.redis.cache.negative.NegativeCachePolicy;
+import io.github.telechow.garoupa.config.redis.cache.properties.GaroupaCacheProperties;
+import io.github.telechow.garoupa.config.redis.cache.refresh.RefreshAheadEntry;
+import org.springframework.cache.support.NullValue;
 import org.springframework.cache.support.SimpleValueWrapper;
 import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
@@ -22,11 +30,22 @@ import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.lang.Nullable;
 
 import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 随机增加过期时间redis缓存类
  * <li>用于防止缓存雪崩</li>
+ * <li>如果启用了近端缓存，则读取时优先读取本地的近端缓存，写入和删除时同步修改近端缓存并通知其他节点</li>
+ * <li>@Cacheable(sync = true)的缓存未命中时通过单飞加载器加载，同一个缓存键只有一个线程查询数据库，用于防止缓存击穿</li>
+ * <li>@Cacheable(sync = true)的缓存值与加载耗时、过期时间一起保存，越接近过期时间，读取时越可能提前刷新（XFetch），
+ * 热点缓存键几乎不会在用户请求时过期；提前刷新由抽中刷新的请求在自己的线程中执行，Spring的加载器不会交给后台线程重入</li>
+ * <li>null和空集合等空结果使用单独的较短过期时间缓存，不写入近端缓存，用于防止反复查询不存在的数据；
+ * 没有启用空结果缓存时空结果不写入缓存，缓存注解上不需要再声明unless</li>
+ * <li>缓存键前缀包含缓存名称的版本号，清空缓存时只递增版本号，不在调用方线程按照模式扫描删除redis中的缓存键；
+ * 旧版本的缓存键随过期时间自然过期，或者由显式启用的命名空间后台清理合并限频地删除</li>
  *
  * @author Telechow
  * @since 2023/3/21 18:41
@@ -45,15 +64,38 @@ public class RandomDeltaTtlRedisCache extends RedisCache {
 
 	private final RedisCacheConfiguration cacheConfig;
 
+	private final NearCacheRegistry nearCacheRegistry;
+
+	/**
+	 * 近端缓存，键为redis中完整的缓存键；如果此缓存没有启用近端缓存则为null
+	 */
+	@Nullable
+	private final Cache<String, Object> nearCache;
+
+	private final SingleFlightCacheLoader singleFlightCacheLoader;
+
+	private final GaroupaCacheProperties.RefreshAhead refreshAheadProperties;
+
+	private final NegativeCachePolicy negativeCachePolicy;
+
+	private final CacheNamespaceRegistry cacheNamespaceRegistry;
+
 	/**
 	 * Create new {@link RedisCache}.
 	 *
-	 * @param name        must not be {@literal null}.
-	 * @param cacheWriter must not be {@literal null}.
-	 * @param cacheConfig must not be {@literal null}.
+	 * @param name                    must not be {@literal null}.
+	 * @param cacheWriter             must not be {@literal null}.
+	 * @param cacheConfig             must not be {@literal null}.
+	 * @param nearCacheRegistry       must not be {@literal null}.
+	 * @param singleFlightCacheLoader must not be {@literal null}.
+	 * @param refreshAheadProperties  must not be {@literal null}.
+	 * @param negativeCachePolicy     must not be {@literal null}.
+	 * @param cacheNamespaceRegistry  must not be {@literal null}.
 	 */
 	protected RandomDeltaTtlRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfig
-		, long originMilli, long boundMilli) {
+		, long originMilli, long boundMilli, NearCacheRegistry nearCacheRegistry
+		, SingleFlightCacheLoader singleFlightCacheLoader, GaroupaCacheProperties.RefreshAhead refreshAheadProperties
+		, NegativeCachePolicy negativeCachePolicy, CacheNamespaceRegistry cacheNamespaceRegistry) {
 		super(name, cacheWriter, cacheConfig);
 		if (originMilli < 0) {
 			throw new IllegalArgumentException("originMilli should be bigger than or equal 0");
@@ -66,29 +108,95 @@ public class RandomDeltaTtlRedisCache extends RedisCache {
 		this.name = name;
 		this.cacheWriter = cacheWriter;
 		this.cacheConfig = cacheConfig;
+		this.nearCacheRegistry = nearCacheRegistry;
+		this.nearCache = nearCacheRegistry.getNearCache(name);
+		this.singleFlightCacheLoader = singleFlightCacheLoader;
+		this.refreshAheadProperties = refreshAheadProperties;
+		this.negativeCachePolicy = negativeCachePolicy;
+		this.cacheNamespaceRegistry = cacheNamespaceRegistry;
 	}
 
 	@Override
-	public void put(Object key, @Nullable Object value) {
-		Object cacheValue = preProcessCacheValue(value);
+	protected Object lookup(Object key) {
+		//1.没有启用近端缓存，直接查询redis
+		if (Objects.isNull(nearCache)) {
+			Object value = unwrap(super.lookup(key));
+			negativeCachePolicy.recordHitIfNegative(name, value);
+			return value;
+		}
 
-		if (!isAllowNullValues() && cacheValue == null) {
-			throw new IllegalArgumentException(String.format(
-				"Cache '%s' does not allow 'null' values; Avoid storing null via '@Cacheable(unless=\"#result == null\")' or configure RedisCache to allow 'null' via RedisCacheConfiguration",
-				name));
+		//2.优先查询近端缓存，查询不到再查询redis，并将redis中的值写入近端缓存，空结果不写入近端缓存
+		String cacheKey = createCacheKey(key);
+		Object value = nearCache.getIfPresent(cacheKey);
+		if (value != null) {
+			return value;
+		}
+		value = unwrap(super.lookup(key));
+		if (negativeCachePolicy.isNegative(value)) {
+			negativeCachePolicy.recordHitIfNegative(name, value);
+		} else if (value != null) {
+			nearCache.put(cacheKey, value);
 		}
+		return value;
+	}
 
-		if (cacheConfig.getTtl() != null && !cacheConfig.getTtl().isZero() && !cacheConfig.getTtl().isNegative()) {
-			Duration randomDeltaTtl = cacheConfig.getTtl().plusMillis(random.nextLong(originMilli, boundMilli));
-			cacheWriter.put(name, createAndConvertCacheKey(key), serializeCacheValue(cacheValue), randomDeltaTtl);
+	/**
+	 * 获取缓存值，未命中时单飞加载
+	 * <li>替换父类按整个缓存实例加锁的实现，不同缓存键的加载互不阻塞</li>
+	 * <li>命中redis中的缓存值时，按照加载耗时和剩余过期时间决定是否提前刷新；抽中时在当前线程中执行本次调用的加载器并返回新值，
+	 * 同一个缓存键已经在刷新或刷新失败时返回旧值</li>
+	 *
+	 * @param key         缓存键
+	 * @param valueLoader 加载器
+	 * @return T 缓存值
+	 * @author Telechow
+	 * @since 2023/4/25 15:48
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		String cacheKey = createCacheKey(key);
+
+		//1.近端缓存命中直接返回
+		if (Objects.nonNull(nearCache)) {
+			Object value = nearCache.getIfPresent(cacheKey);
+			if (value != null) {
+				return (T) fromStoreValue(value);
+			}
 		}
+
+		//2.redis命中，抽中提前刷新时在当前线程中重新加载并返回新值，没有刷新时返回旧值
+		Object storeValue = super.lookup(key);
+		if (storeValue != null) {
+			if (storeValue instanceof RefreshAheadEntry entry && shouldRefreshAhead(entry)) {
+				ValueWrapper refreshed = singleFlightCacheLoader.refresh(name, cacheKey, () -> load(key, valueLoader));
+				if (Objects.nonNull(refreshed)) {
+					return (T) refreshed.get();
+				}
+			}
+			storeValue = unwrap(storeValue);
+			if (negativeCachePolicy.isNegative(storeValue)) {
+				negativeCachePolicy.recordHitIfNegative(name, storeValue);
+			} else if (Objects.nonNull(nearCache)) {
+				nearCache.put(cacheKey, storeValue);
+			}
+			return (T) fromStoreValue(storeValue);
+		}
+
+		//3.缓存未命中，单飞加载并写入缓存
+		return (T) singleFlightCacheLoader.load(name, cacheKey, () -> get(key), () -> load(key, valueLoader));
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		put(key, value, 0L);
 	}
 
 	@Override
 	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
 		Object cacheValue = preProcessCacheValue(value);
 
-		if (!isAllowNullValues() && cacheValue == null) {
+		if (!isAllowNullValues() && cacheValue == null || negativeCachePolicy.shouldSkip(cacheValue)) {
 			return get(key);
 		}
 
@@ -103,10 +211,179 @@ public class RandomDeltaTtlRedisCache extends RedisCache {
 			randomDeltaTtl);
 
 		if (result == null) {
+			//写入成功，使近端缓存失效，下次读取时从redis加载
+			if (Objects.nonNull(nearCache)) {
+				String cacheKey = createCacheKey(key);
+				nearCache.invalidate(cacheKey);
+				nearCacheRegistry.publishEvict(name, cacheKey);
+			}
 			return null;
 		}
 
-		return new SimpleValueWrapper(fromStoreValue(deserializeCacheValue(result)));
+		return new SimpleValueWrapper(fromStoreValue(unwrap(deserializeCacheValue(result))));
+	}
+
+	@Override
+	public void evict(Object key) {
+		super.evict(key);
+		if (Objects.nonNull(nearCache)) {
+			String cacheKey = createCacheKey(key);
+			nearCache.invalidate(cacheKey);
+			nearCacheRegistry.publishEvict(name, cacheKey);
+		}
+	}
+
+	/**
+	 * 清空缓存
+	 * <li>启用了命名空间版本号时只递增版本号，旧版本的缓存键不再被访问，随过期时间自然过期；
+	 * 启用了旧版本清理时再交给命名空间注册中心在后台合并限频地清理</li>
+	 * <li>没有启用或缓存键不使用前缀时按照缓存键前缀扫描删除</li>
+	 *
+	 * @author Telechow
+	 * @since 2023/4/25 17:20
+	 */
+	@Override
+	public void clear() {
+		if (cacheNamespaceRegistry.isEnabled() && cacheConfig.usePrefix()) {
+			cacheNamespaceRegistry.increment(name);
+			cacheNamespaceRegistry.purgeSuperseded(name, cacheConfig.getKeyPrefixFor(name));
+		} else {
+			super.clear();
+		}
+		if (Objects.nonNull(nearCache)) {
+			nearCache.invalidateAll();
+			nearCacheRegistry.publishClear(name);
+		}
+	}
+
+	/**
+	 * 创建redis中完整的缓存键
+	 * <li>版本号为0时与父类相同，即"缓存名称::缓存键"，升级前写入的缓存键仍然有效</li>
+	 * <li>版本号大于0时为"缓存名称::v版本号::缓存键"</li>
+	 *
+	 * @param key 缓存键
+	 * @return java.lang.String redis中完整的缓存键
+	 * @author Telechow
+	 * @since 2023/4/25 17:22
+	 */
+	@Override
+	protected String createCacheKey(Object key) {
+		long version = cacheNamespaceRegistry.getVersion(name);
+		if (version == 0L || !cacheConfig.usePrefix()) {
+			return super.createCacheKey(key);
+		}
+		return cacheNamespaceRegistry.versionedKeyPrefix(cacheConfig.getKeyPrefixFor(name), version) + convertKey(key);
+	}
+
+	/// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+	/**
+	 * 执行加载器并写入缓存，同时记录加载耗时
+	 *
+	 * @param key         缓存键
+	 * @param valueLoader 加载器
+	 * @return T 加载到的值
+	 * @author Telechow
+	 * @since 2023/4/25 16:05
+	 */
+	private <T> T load(Object key, Callable<T> valueLoader) {
+		long beginNanos = System.nanoTime();
+		T value;
+		try {
+			value = valueLoader.call();
+		} catch (Exception e) {
+			throw new ValueRetrievalException(key, valueLoader, e);
+		}
+		long loadMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - beginNanos));
+		put(key, value, loadMillis);
+		return value;
+	}
+
+	/**
+	 * 写入缓存
+	 * <li>空结果使用单独的较短过期时间，不提前刷新，也不写入近端缓存；没有启用空结果缓存时空结果不写入缓存</li>
+	 * <li>@Cacheable(sync = true)不支持unless，由此处代替unless = "T(cn.hutool.core.collection.CollectionUtil).isEmpty(#result)"</li>
+	 * <li>加载耗时大于0且启用了提前刷新时，缓存值与加载耗时、过期时间一起保存</li>
+	 *
+	 * @param key        缓存键
+	 * @param value      缓存值
+	 * @param loadMillis 加载耗时，单位毫秒；0表示未知
+	 * @author Telechow
+	 * @since 2023/4/25 16:07
+	 */
+	private void put(Object key, @Nullable Object value, long loadMillis) {
+		Object cacheValue = preProcessCacheValue(value);
+
+		//1.没有启用空结果缓存时，空结果不写入缓存
+		if (negativeCachePolicy.shouldSkip(cacheValue)) {
+			return;
+		}
+		if (!isAllowNullValues() && cacheValue == null) {
+			throw new IllegalArgumentException(String.format(
+				"Cache '%s' does not allow 'null' values; Avoid storing null via '@Cacheable(unless=\"#result == null\")' or configure RedisCache to allow 'null' via RedisCacheConfiguration",
+				name));
+		}
+
+		//2.空结果使用较短的过期时间写入redis，并使近端缓存中可能存在的旧值失效
+		if (negativeCachePolicy.isNegative(cacheValue)) {
+			cacheWriter.put(name, createAndConvertCacheKey(key), serializeCacheValue(cacheValue)
+				, negativeCachePolicy.getTtl());
+			negativeCachePolicy.recordStored(name);
+			if (Objects.nonNull(nearCache)) {
+				String cacheKey = createCacheKey(key);
+				nearCache.invalidate(cacheKey);
+				nearCacheRegistry.publishEvict(name, cacheKey);
+			}
+			return;
+		}
+
+		//3.写入redis，过期时间加上一个随机数
+		if (cacheConfig.getTtl() != null && !cacheConfig.getTtl().isZero() && !cacheConfig.getTtl().isNegative()) {
+			Duration randomDeltaTtl = cacheConfig.getTtl().plusMillis(random.nextLong(originMilli, boundMilli));
+			Object storeValue = cacheValue;
+			if (refreshAheadProperties.isEnabled() && loadMillis > 0 && !(cacheValue instanceof NullValue)) {
+				storeValue = new RefreshAheadEntry(cacheValue, loadMillis
+					, System.currentTimeMillis() + randomDeltaTtl.toMillis());
+			}
+			cacheWriter.put(name, createAndConvertCacheKey(key), serializeCacheValue(storeValue), randomDeltaTtl);
+		}
+
+		//4.更新近端缓存，并通知其他节点此缓存键已失效
+		if (Objects.nonNull(nearCache) && cacheValue != null) {
+			String cacheKey = createCacheKey(key);
+			nearCache.put(cacheKey, cacheValue);
+			nearCacheRegistry.publishEvict(name, cacheKey);
+		}
+	}
+
+	/**
+	 * 是否需要提前刷新
+	 * <li>XFetch：当前时间 - 加载耗时 * beta * ln(random) >= 过期时间时刷新，random在(0, 1]之间均匀分布</li>
+	 * <li>越接近过期时间、加载耗时越长，提前刷新的概率越大</li>
+	 *
+	 * @param entry 提前刷新的缓存条目
+	 * @return boolean 是否需要提前刷新
+	 * @author Telechow
+	 * @since 2023/4/25 16:10
+	 */
+	private boolean shouldRefreshAhead(RefreshAheadEntry entry) {
+		if (!refreshAheadProperties.isEnabled() || entry.getLoadMillis() <= 0 || entry.getExpireAt() <= 0) {
+			return false;
+		}
+		double gap = -entry.getLoadMillis() * refreshAheadProperties.getBeta() * Math.log(1D - random.nextDouble());
+		return System.currentTimeMillis() + gap >= entry.getExpireAt();
+	}
+
+	/**
+	 * 取出提前刷新的缓存条目中的缓存值，其他值原样返回
+	 *
+	 * @param storeValue redis中保存的值
+	 * @return java.lang.Object 缓存值
+	 * @author Telechow
+	 * @since 2023/4/25 16:12
+	 */
+	private static Object unwrap(@Nullable Object storeValue) {
+		return storeValue instanceof RefreshAheadEntry entry ? entry.getValue() : storeValue;
 	}
 
 	/**
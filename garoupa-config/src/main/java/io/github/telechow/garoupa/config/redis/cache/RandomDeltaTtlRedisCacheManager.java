@@ -15,6 +15,12 @@
  */
 package io.github.telechow.garoupa.config.redis.cache;
 
+import io.github.telechow.garoupa.config.redis.cache.codec.CacheValueCodecRegistry;
+import io.github.telechow.garoupa.config.redis.cache.flight.SingleFlightCacheLoader;
+import io.github.telechow.garoupa.config.redis.cache.namespace.CacheNamespaceRegistry;
+import io.github.telechow.garoupa.config.redis.cache.near.NearCacheRegistry;
+import io.github.telechow.garoupa.config.redis.cache.negative.NegativeCachePolicy;
+import io.github.telechow.garoupa.config.redis.cache.properties.GaroupaCacheProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
@@ -41,13 +47,34 @@ public class RandomDeltaTtlRedisCacheManager extends RedisCacheManager {
 
 	private final long boundMilli;
 
+	private final NearCacheRegistry nearCacheRegistry;
+
+	private final SingleFlightCacheLoader singleFlightCacheLoader;
+
+	private final GaroupaCacheProperties.RefreshAhead refreshAheadProperties;
+
+	private final NegativeCachePolicy negativeCachePolicy;
+
+	private final CacheValueCodecRegistry cacheValueCodecRegistry;
+
+	private final CacheNamespaceRegistry cacheNamespaceRegistry;
+
 	public RandomDeltaTtlRedisCacheManager(RedisCacheWriter cacheWriter
-		, RedisCacheConfiguration defaultCacheConfiguration, long originMilli, long boundMilli) {
+		, RedisCacheConfiguration defaultCacheConfiguration, long originMilli, long boundMilli
+		, NearCacheRegistry nearCacheRegistry, SingleFlightCacheLoader singleFlightCacheLoader
+		, GaroupaCacheProperties.RefreshAhead refreshAheadProperties, NegativeCachePolicy negativeCachePolicy
+		, CacheValueCodecRegistry cacheValueCodecRegistry, CacheNamespaceRegistry cacheNamespaceRegistry) {
 		super(cacheWriter, defaultCacheConfiguration);
 		this.cacheWriter = cacheWriter;
 		this.defaultCacheConfig = defaultCacheConfiguration;
 		this.originMilli = originMilli;
 		this.boundMilli = boundMilli;
+		this.nearCacheRegistry = nearCacheRegistry;
+		this.singleFlightCacheLoader = singleFlightCacheLoader;
+		this.refreshAheadProperties = refreshAheadProperties;
+		this.negativeCachePolicy = negativeCachePolicy;
+		this.cacheValueCodecRegistry = cacheValueCodecRegistry;
+		this.cacheNamespaceRegistry = cacheNamespaceRegistry;
 	}
 
 	@Override
@@ -58,9 +85,15 @@ public class RandomDeltaTtlRedisCacheManager extends RedisCacheManager {
 			cacheConfig = cacheConfig.entryTtl(ttl);
 		}
 
-		//2.创建随机增量过期时间redis缓存
-		return new RandomDeltaTtlRedisCache(getCacheName(name), cacheWriter
-			, cacheConfig != null ? cacheConfig : defaultCacheConfig, originMilli, boundMilli);
+		//2.按照缓存名称选择缓存值的编码格式
+		String cacheName = getCacheName(name);
+		cacheConfig = (cacheConfig != null ? cacheConfig : defaultCacheConfig)
+			.serializeValuesWith(cacheValueCodecRegistry.getValueSerializationPair(cacheName));
+
+		//3.创建随机增量过期时间redis缓存，同名缓存共享近端缓存、单飞加载器和命名空间版本号
+		return new RandomDeltaTtlRedisCache(cacheName, cacheWriter, cacheConfig, originMilli, boundMilli
+			, nearCacheRegistry, singleFlightCacheLoader, refreshAheadProperties, negativeCachePolicy
+			, cacheNamespaceRegistry);
 	}
 
 	/// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
@@ -15,7 +15,15 @@
  */
 package io.github.telechow.garoupa.config.redis.cache;
 
-import com.alibaba.fastjson2.support.spring6.data.redis.GenericFastJsonRedisSerializer;
+import io.github.telechow.garoupa.config.redis.cache.codec.CacheValueCodecRegistry;
+import io.github.telechow.garoupa.config.redis.cache.flight.SingleFlightCacheLoader;
+import io.github.telechow.garoupa.config.redis.cache.namespace.CacheNamespaceRegistry;
+import io.github.telechow.garoupa.config.redis.cache.near.NearCacheRegistry;
+import io.github.telechow.garoupa.config.redis.cache.negative.NegativeCachePolicy;
+import io.github.telechow.garoupa.config.redis.cache.properties.GaroupaCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RedissonClient;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -23,6 +31,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 
@@ -36,8 +47,11 @@ import java.time.Duration;
  */
 @EnableCaching
 @Configuration
+@RequiredArgsConstructor
 public class RedisCacheSettingConfiguration {
 
+	private final GaroupaCacheProperties garoupaCacheProperties;
+
 	/**
 	 * 默认缓存的过期时间，30分钟
 	 */
@@ -47,19 +61,120 @@ public class RedisCacheSettingConfiguration {
 	 * 缓存管理器的Bean
 	 * <li>配置多种缓存配置</li>
 	 * <li>配置的缓存过期时间，如果ttl>0，则将加上一个随机数，用于防止缓存雪崩</li>
+	 * <li>@Cacheable(sync = true)的缓存单飞加载，并在接近过期时间时提前刷新</li>
+	 * <li>null和空集合等空结果使用单独的较短过期时间缓存</li>
+	 * <li>缓存值按照缓存名称选择编码格式，达到压缩阈值时压缩</li>
+	 * <li>清空缓存时递增缓存名称的版本号，不按照模式扫描删除</li>
 	 *
+	 * @param redisConnectionFactory  redis连接工厂
+	 * @param nearCacheRegistry       近端缓存注册中心
+	 * @param singleFlightCacheLoader 缓存单飞加载器
+	 * @param negativeCachePolicy     空结果缓存策略
+	 * @param cacheValueCodecRegistry 缓存值编解码器注册中心
+	 * @param cacheNamespaceRegistry  缓存命名空间注册中心
 	 * @return org.springframework.cache.CacheManager 缓存管理器的Bean
 	 * @author Telechow
 	 * @since 2023/3/21 16:48
 	 */
 	@Bean
-	public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
-		GenericFastJsonRedisSerializer fastJsonRedisSerializer = new GenericFastJsonRedisSerializer();
+	public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory, NearCacheRegistry nearCacheRegistry
+		, SingleFlightCacheLoader singleFlightCacheLoader, NegativeCachePolicy negativeCachePolicy
+		, CacheValueCodecRegistry cacheValueCodecRegistry, CacheNamespaceRegistry cacheNamespaceRegistry) {
 		RedisCacheConfiguration redisCacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
 			.entryTtl(DEFAULT_CACHE_TTL)
 			.serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.string()))
-			.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(fastJsonRedisSerializer));
+			.serializeValuesWith(cacheValueCodecRegistry.getDefaultValueSerializationPair());
 		return new RandomDeltaTtlRedisCacheManager(RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory)
-			, redisCacheConfiguration, 0, 60 * 1000);
+			, redisCacheConfiguration, 0, 60 * 1000, nearCacheRegistry, singleFlightCacheLoader
+			, garoupaCacheProperties.getRefreshAhead(), negativeCachePolicy, cacheValueCodecRegistry
+			, cacheNamespaceRegistry);
+	}
+
+	/**
+	 * 缓存单飞加载器的Bean
+	 *
+	 * @param redissonClient redisson客户端，用于跨节点协调加载
+	 * @param meterRegistry  指标注册中心
+	 * @return io.github.telechow.garoupa.config.redis.cache.flight.SingleFlightCacheLoader 缓存单飞加载器的Bean
+	 * @author Telechow
+	 * @since 2023/4/25 15:50
+	 */
+	@Bean
+	public SingleFlightCacheLoader singleFlightCacheLoader(RedissonClient redissonClient, MeterRegistry meterRegistry) {
+		return new SingleFlightCacheLoader(garoupaCacheProperties.getSingleFlight(), redissonClient, meterRegistry);
+	}
+
+	/**
+	 * 空结果缓存策略的Bean
+	 *
+	 * @param meterRegistry 指标注册中心
+	 * @return io.github.telechow.garoupa.config.redis.cache.negative.NegativeCachePolicy 空结果缓存策略的Bean
+	 * @author Telechow
+	 * @since 2023/4/25 16:32
+	 */
+	@Bean
+	public NegativeCachePolicy negativeCachePolicy(MeterRegistry meterRegistry) {
+		return new NegativeCachePolicy(garoupaCacheProperties.getNegative(), meterRegistry);
+	}
+
+	/**
+	 * 缓存值编解码器注册中心的Bean
+	 *
+	 * @return io.github.telechow.garoupa.config.redis.cache.codec.CacheValueCodecRegistry 缓存值编解码器注册中心的Bean
+	 * @author Telechow
+	 * @since 2023/4/25 17:00
+	 */
+	@Bean
+	public CacheValueCodecRegistry cacheValueCodecRegistry() {
+		return new CacheValueCodecRegistry(garoupaCacheProperties.getCodec());
+	}
+
+	/**
+	 * 缓存命名空间注册中心的Bean
+	 *
+	 * @param stringRedisTemplate StringRedisTemplate，用于读写版本号和发布版本号变更消息
+	 * @return io.github.telechow.garoupa.config.redis.cache.namespace.CacheNamespaceRegistry 缓存命名空间注册中心的Bean
+	 * @author Telechow
+	 * @since 2023/4/25 17:25
+	 */
+	@Bean
+	public CacheNamespaceRegistry cacheNamespaceRegistry(StringRedisTemplate stringRedisTemplate) {
+		return new CacheNamespaceRegistry(garoupaCacheProperties.getNamespace(), stringRedisTemplate);
+	}
+
+	/**
+	 * 近端缓存注册中心的Bean
+	 *
+	 * @param stringRedisTemplate StringRedisTemplate，用于发布近端缓存失效消息
+	 * @return io.github.telechow.garoupa.config.redis.cache.near.NearCacheRegistry 近端缓存注册中心的Bean
+	 * @author Telechow
+	 * @since 2023/4/21 10:50
+	 */
+	@Bean
+	public NearCacheRegistry nearCacheRegistry(StringRedisTemplate stringRedisTemplate) {
+		return new NearCacheRegistry(garoupaCacheProperties.getNear(), stringRedisTemplate);
+	}
+
+	/**
+	 * 近端缓存失效消息监听容器的Bean
+	 * <li>订阅近端缓存失效频道，收到其他节点的失效消息后使本节点的近端缓存失效</li>
+	 * <li>订阅缓存命名空间版本号变更频道，收到其他节点的变更消息后更新本节点缓存的版本号</li>
+	 *
+	 * @param redisConnectionFactory redis连接工厂
+	 * @param nearCacheRegistry      近端缓存注册中心
+	 * @param cacheNamespaceRegistry 缓存命名空间注册中心
+	 * @return org.springframework.data.redis.listener.RedisMessageListenerContainer 近端缓存失效消息监听容器的Bean
+	 * @author Telechow
+	 * @since 2023/4/21 10:52
+	 */
+	@Bean
+	public RedisMessageListenerContainer nearCacheListenerContainer(RedisConnectionFactory redisConnectionFactory
+		, NearCacheRegistry nearCacheRegistry, CacheNamespaceRegistry cacheNamespaceRegistry) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(redisConnectionFactory);
+		container.addMessageListener(nearCacheRegistry, new ChannelTopic(garoupaCacheProperties.getNear().getTopic()));
+		container.addMessageListener(cacheNamespaceRegistry
+			, new ChannelTopic(garoupaCacheProperties.getNamespace().getTopic()));
+		return container;
 	}
 }
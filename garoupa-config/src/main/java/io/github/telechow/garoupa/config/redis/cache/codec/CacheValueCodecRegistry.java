@@ -0,0 +1,70 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.config.redis.cache.codec;
+
+import io.github.telechow.garoupa.config.redis.cache.properties.GaroupaCacheProperties;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 缓存值编解码器注册中心
+ * <li>按照缓存名称（不包含过期时间部分）选择写入时使用的编码格式，没有单独配置的缓存使用默认编码格式</li>
+ * <li>每种编码格式只构造一个序列化器，所有序列化器都能解码任意编码格式写入的缓存值</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 16:55
+ */
+public class CacheValueCodecRegistry {
+
+	private final GaroupaCacheProperties.Codec codecProperties;
+
+	private final Map<CacheValueFormat, RedisSerializationContext.SerializationPair<Object>> serializationPairMap =
+		new EnumMap<>(CacheValueFormat.class);
+
+	public CacheValueCodecRegistry(GaroupaCacheProperties.Codec codecProperties) {
+		this.codecProperties = codecProperties;
+		for (CacheValueFormat format : CacheValueFormat.values()) {
+			serializationPairMap.put(format, RedisSerializationContext.SerializationPair.fromSerializer(
+				new CompactCacheValueSerializer(format, codecProperties.getCompressionThreshold())));
+		}
+	}
+
+	/**
+	 * 获取默认编码格式的缓存值序列化对
+	 *
+	 * @return org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair<java.lang.Object> 缓存值序列化对
+	 * @author Telechow
+	 * @since 2023/4/25 16:57
+	 */
+	public RedisSerializationContext.SerializationPair<Object> getDefaultValueSerializationPair() {
+		return serializationPairMap.get(codecProperties.getFormat());
+	}
+
+	/**
+	 * 获取指定缓存名称的缓存值序列化对
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @return org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair<java.lang.Object> 缓存值序列化对
+	 * @author Telechow
+	 * @since 2023/4/25 16:58
+	 */
+	public RedisSerializationContext.SerializationPair<Object> getValueSerializationPair(String cacheName) {
+		return serializationPairMap.get(codecProperties.getFormats()
+			.getOrDefault(cacheName, codecProperties.getFormat()));
+	}
+}
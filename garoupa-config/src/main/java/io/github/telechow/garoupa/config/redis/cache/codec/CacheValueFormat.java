@@ -0,0 +1,63 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.config.redis.cache.codec;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 缓存值的编码格式
+ *
+ * @author Telechow
+ * @since 2023/4/25 16:40
+ */
+@Getter
+@AllArgsConstructor
+public enum CacheValueFormat {
+
+	/**
+	 * fastjson2文本json，带类型信息；未压缩时不写入格式头，与升级前写入的缓存值完全相同
+	 */
+	JSON((byte) 1),
+
+	/**
+	 * fastjson2二进制json（JSONB），带类型信息，比文本json更紧凑，编码和解码更快
+	 */
+	JSONB((byte) 2),
+	;
+
+	/**
+	 * 写入格式头的格式编码
+	 */
+	private final byte code;
+
+	/**
+	 * 根据格式编码获取编码格式
+	 *
+	 * @param code 格式编码
+	 * @return io.github.telechow.garoupa.config.redis.cache.codec.CacheValueFormat 编码格式；未知的格式编码返回null
+	 * @author Telechow
+	 * @since 2023/4/25 16:41
+	 */
+	public static CacheValueFormat ofCode(byte code) {
+		for (CacheValueFormat format : values()) {
+			if (format.code == code) {
+				return format;
+			}
+		}
+		return null;
+	}
+}
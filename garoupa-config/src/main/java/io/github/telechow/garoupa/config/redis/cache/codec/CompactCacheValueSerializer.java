@@ -0,0 +1,242 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.config.redis.cache.codec;
+
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
+import com.alibaba.fastjson2.support.spring6.data.redis.GenericFastJsonRedisSerializer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 紧凑的缓存值序列化器
+ * <li>按照指定的编码格式编码缓存值，编码后的字节数达到压缩阈值时使用Deflate压缩，压缩后更大则不压缩</li>
+ * <li>除未压缩的文本json外，缓存值以4字节的格式头开始：魔数、格式版本、编码格式、标志位</li>
+ * <li>解码时根据格式头识别编码格式，与写入时的编码格式无关；没有格式头的按照升级前的文本json解码，
+ * 更高版本写入的缓存值视为未命中，重新加载后覆盖</li>
+ * <li>滚动升级时先以默认配置（文本json、不压缩）升级所有节点，再切换编码格式或启用压缩</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 16:42
+ */
+@Slf4j
+public class CompactCacheValueSerializer implements RedisSerializer<Object> {
+
+	/**
+	 * 格式头的魔数，UTF-8编码的文本json不会出现此字节
+	 */
+	static final byte MAGIC = (byte) 0xFE;
+
+	/**
+	 * 当前的格式版本
+	 */
+	static final byte VERSION = 1;
+
+	/**
+	 * 格式头的长度
+	 */
+	static final int HEADER_LENGTH = 4;
+
+	/**
+	 * 标志位：负载已使用Deflate压缩
+	 */
+	static final byte FLAG_DEFLATE = 1;
+
+	private final CacheValueFormat format;
+
+	private final int compressionThreshold;
+
+	private final GenericFastJsonRedisSerializer fastJsonRedisSerializer = new GenericFastJsonRedisSerializer();
+
+	/**
+	 * 构造紧凑的缓存值序列化器
+	 *
+	 * @param format               写入时使用的编码格式
+	 * @param compressionThreshold 压缩阈值，编码后的字节数达到此值时压缩；小于等于0时不压缩
+	 */
+	public CompactCacheValueSerializer(CacheValueFormat format, int compressionThreshold) {
+		this.format = Objects.requireNonNull(format, "format must not be null");
+		this.compressionThreshold = compressionThreshold;
+	}
+
+	@Override
+	public byte[] serialize(@Nullable Object value) throws SerializationException {
+		if (Objects.isNull(value)) {
+			return new byte[0];
+		}
+
+		//1.按照编码格式编码
+		byte[] payload = encode(format, value);
+
+		//2.达到压缩阈值时压缩，压缩后更大则不压缩
+		byte flags = 0;
+		if (compressionThreshold > 0 && payload.length >= compressionThreshold) {
+			byte[] deflated = deflate(payload);
+			if (deflated.length < payload.length) {
+				payload = deflated;
+				flags |= FLAG_DEFLATE;
+			}
+		}
+
+		//3.未压缩的文本json不写入格式头，与升级前写入的缓存值完全相同
+		if (format == CacheValueFormat.JSON && flags == 0) {
+			return payload;
+		}
+		byte[] bytes = new byte[HEADER_LENGTH + payload.length];
+		bytes[0] = MAGIC;
+		bytes[1] = VERSION;
+		bytes[2] = format.getCode();
+		bytes[3] = flags;
+		System.arraycopy(payload, 0, bytes, HEADER_LENGTH, payload.length);
+		return bytes;
+	}
+
+	@Override
+	public Object deserialize(@Nullable byte[] bytes) throws SerializationException {
+		if (Objects.isNull(bytes) || bytes.length == 0) {
+			return null;
+		}
+
+		//1.没有格式头，按照升级前的文本json解码
+		if (bytes[0] != MAGIC) {
+			return fastJsonRedisSerializer.deserialize(bytes);
+		}
+
+		//2.更高版本或未知编码格式写入的缓存值视为未命中
+		CacheValueFormat valueFormat = bytes.length >= HEADER_LENGTH ? CacheValueFormat.ofCode(bytes[2]) : null;
+		if (bytes[1] > VERSION || Objects.isNull(valueFormat)) {
+			log.warn("无法识别的缓存值格式头，版本：{}，视为未命中", bytes[1]);
+			return null;
+		}
+
+		//3.按照标志位解压，再按照编码格式解码
+		byte[] payload = Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+		if ((bytes[3] & FLAG_DEFLATE) != 0) {
+			payload = inflate(payload);
+		}
+		return decode(valueFormat, payload);
+	}
+
+	/// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+	/**
+	 * 按照编码格式编码缓存值
+	 *
+	 * @param valueFormat 编码格式
+	 * @param value       缓存值
+	 * @return byte[] 编码后的字节数组
+	 * @author Telechow
+	 * @since 2023/4/25 16:46
+	 */
+	private byte[] encode(CacheValueFormat valueFormat, Object value) {
+		try {
+			return switch (valueFormat) {
+				case JSON -> fastJsonRedisSerializer.serialize(value);
+				case JSONB -> JSONB.toBytes(value, JSONWriter.Feature.WriteClassName
+					, JSONWriter.Feature.WriteNameAsSymbol);
+			};
+		} catch (SerializationException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new SerializationException("Could not serialize cache value: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 按照编码格式解码缓存值
+	 *
+	 * @param valueFormat 编码格式
+	 * @param payload     编码后的字节数组
+	 * @return java.lang.Object 缓存值
+	 * @author Telechow
+	 * @since 2023/4/25 16:48
+	 */
+	private Object decode(CacheValueFormat valueFormat, byte[] payload) {
+		try {
+			return switch (valueFormat) {
+				case JSON -> fastJsonRedisSerializer.deserialize(payload);
+				case JSONB -> JSONB.parseObject(payload, Object.class, JSONReader.Feature.SupportAutoType);
+			};
+		} catch (SerializationException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new SerializationException("Could not deserialize cache value: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 使用Deflate压缩
+	 *
+	 * @param payload 要压缩的字节数组
+	 * @return byte[] 压缩后的字节数组
+	 * @author Telechow
+	 * @since 2023/4/25 16:50
+	 */
+	private static byte[] deflate(byte[] payload) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(payload);
+			deflater.finish();
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream(payload.length / 2 + 16);
+			byte[] buffer = new byte[4096];
+			while (!deflater.finished()) {
+				outputStream.write(buffer, 0, deflater.deflate(buffer));
+			}
+			return outputStream.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * 使用Deflate解压
+	 *
+	 * @param payload 压缩后的字节数组
+	 * @return byte[] 解压后的字节数组
+	 * @author Telechow
+	 * @since 2023/4/25 16:51
+	 */
+	private static byte[] inflate(byte[] payload) {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(payload);
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream(payload.length * 4);
+			byte[] buffer = new byte[4096];
+			while (!inflater.finished()) {
+				int length = inflater.inflate(buffer);
+				if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new SerializationException("Could not inflate cache value: truncated payload");
+				}
+				outputStream.write(buffer, 0, length);
+			}
+			return outputStream.toByteArray();
+		} catch (DataFormatException e) {
+			throw new SerializationException("Could not inflate cache value: " + e.getMessage(), e);
+		} finally {
+			inflater.end();
+		}
+	}
+}
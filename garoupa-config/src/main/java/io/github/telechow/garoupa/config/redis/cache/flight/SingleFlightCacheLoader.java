@@ -0,0 +1,352 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.config.redis.cache.flight;
+
+import io.github.telechow.garoupa.config.redis.cache.properties.GaroupaCacheProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 缓存单飞加载器
+ * <li>缓存未命中时，同一个缓存键在本节点内同时只有一个线程执行加载，其他线程等待并复用它的加载结果</li>
+ * <li>启用跨节点协调时，加载前先获取此缓存键的redisson短租约锁，获取到锁后再查询一次缓存，其他节点已经写入则直接复用</li>
+ * <li>等待锁超时不会失败，而是直接加载，最多退化为不协调时的行为</li>
+ * <li>提前刷新由抽中刷新的请求线程自己执行，加载器在调用方的安全上下文、事务和请求上下文中只执行一次，不会在其他线程中重入；
+ * 同一个缓存键同时只有一个线程刷新，其他线程直接返回旧值；启用跨节点协调时，其他节点正在刷新也跳过</li>
+ * <li>按照缓存名称输出加载指标，用于观察缓存击穿的情况</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 15:30
+ */
+@Slf4j
+public class SingleFlightCacheLoader {
+
+	/**
+	 * 单飞加载结果指标名称
+	 * <li>loaded：本线程执行了加载</li>
+	 * <li>coalesced：复用了本节点其他线程正在执行的加载结果</li>
+	 * <li>reused：加载前再次查询缓存时命中，复用了其他线程或其他节点写入的值</li>
+	 * <li>lock-timeout：等待跨节点加载锁超时，未协调直接加载</li>
+	 */
+	public static final String OUTCOME_METER_NAME = "garoupa.cache.single.flight";
+
+	/**
+	 * 加载耗时指标名称
+	 */
+	public static final String LOAD_METER_NAME = "garoupa.cache.load";
+
+	/**
+	 * 本节点正在加载的缓存键个数指标名称
+	 */
+	public static final String IN_FLIGHT_METER_NAME = "garoupa.cache.single.flight.in.flight";
+
+	/**
+	 * 提前刷新结果指标名称
+	 * <li>refreshed：刷新成功，本次请求返回新值</li>
+	 * <li>skipped：本节点或其他节点正在刷新此缓存键，跳过，本次请求返回旧值</li>
+	 * <li>failed：刷新失败，本次请求返回旧值，旧值保留到过期</li>
+	 */
+	public static final String REFRESH_METER_NAME = "garoupa.cache.refresh.ahead";
+
+	private static final String OUTCOME_LOADED = "loaded";
+
+	private static final String OUTCOME_COALESCED = "coalesced";
+
+	private static final String OUTCOME_REUSED = "reused";
+
+	private static final String OUTCOME_LOCK_TIMEOUT = "lock-timeout";
+
+	private static final String OUTCOME_REFRESHED = "refreshed";
+
+	private static final String OUTCOME_SKIPPED = "skipped";
+
+	private static final String OUTCOME_FAILED = "failed";
+
+	private final GaroupaCacheProperties.SingleFlight singleFlightProperties;
+
+	private final RedissonClient redissonClient;
+
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * 本节点正在执行的加载，键为redis中完整的缓存键
+	 */
+	private final Map<String, CompletableFuture<Object>> inFlightMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 本节点正在提前刷新的缓存键
+	 */
+	private final Set<String> refreshingKeys = ConcurrentHashMap.newKeySet();
+
+	public SingleFlightCacheLoader(GaroupaCacheProperties.SingleFlight singleFlightProperties
+		, RedissonClient redissonClient, MeterRegistry meterRegistry) {
+		this.singleFlightProperties = singleFlightProperties;
+		this.redissonClient = redissonClient;
+		this.meterRegistry = meterRegistry;
+		Gauge.builder(IN_FLIGHT_METER_NAME, inFlightMap, Map::size)
+			.description("本节点正在加载的缓存键个数")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * 单飞加载缓存值
+	 * <li>加载器负责执行真正的查询并写入缓存，同一个缓存键的加载器在本节点内同时只会执行一次</li>
+	 * <li>加载器抛出的异常原样抛给所有等待此次加载的线程</li>
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @param cacheKey  redis中完整的缓存键
+	 * @param lookup    查询缓存，未命中返回null
+	 * @param loader    加载器，返回加载到的值
+	 * @return java.lang.Object 加载到的值或复用的值
+	 * @author Telechow
+	 * @since 2023/4/25 15:34
+	 */
+	public Object load(String cacheName, String cacheKey, Supplier<Cache.ValueWrapper> lookup
+		, Supplier<Object> loader) {
+		//1.没有启用单飞加载，直接加载
+		if (!singleFlightProperties.isEnabled()) {
+			return invokeLoader(cacheName, loader);
+		}
+
+		//2.本节点已有线程在加载此缓存键，等待并复用它的加载结果
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		CompletableFuture<Object> inFlight = inFlightMap.putIfAbsent(cacheKey, future);
+		if (Objects.nonNull(inFlight)) {
+			count(OUTCOME_METER_NAME, cacheName, OUTCOME_COALESCED);
+			return join(inFlight);
+		}
+
+		//3.本线程负责加载，结束后唤醒等待的线程
+		try {
+			Object value = loadExclusively(cacheName, cacheKey, lookup, loader);
+			future.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlightMap.remove(cacheKey, future);
+		}
+	}
+
+	/**
+	 * 在当前线程中提前刷新缓存值
+	 * <li>由抽中刷新的请求线程执行，刷新器只在调用方的上下文中执行一次，不会交给其他线程</li>
+	 * <li>同一个缓存键在本节点同时只有一个线程刷新，启用跨节点协调时其他节点正在刷新也跳过，跳过时不等待</li>
+	 * <li>刷新失败只记录日志，旧值保留到过期</li>
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @param cacheKey  redis中完整的缓存键
+	 * @param refresher 刷新器，负责执行真正的查询并写入缓存，返回刷新后的值
+	 * @return org.springframework.cache.Cache.ValueWrapper 刷新后的值；跳过或刷新失败时返回null，调用方应返回旧值
+	 * @author Telechow
+	 * @since 2023/4/25 16:15
+	 */
+	public Cache.ValueWrapper refresh(String cacheName, String cacheKey, Supplier<Object> refresher) {
+		//1.本节点已经在刷新此缓存键，跳过
+		if (!refreshingKeys.add(cacheKey)) {
+			count(REFRESH_METER_NAME, cacheName, OUTCOME_SKIPPED);
+			return null;
+		}
+
+		//2.在当前线程中刷新
+		try {
+			return refreshExclusively(cacheName, cacheKey, refresher);
+		} finally {
+			refreshingKeys.remove(cacheKey);
+		}
+	}
+
+	/// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+	/**
+	 * 由本节点唯一的加载线程执行加载，启用跨节点协调时持有此缓存键的加载锁
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @param cacheKey  redis中完整的缓存键
+	 * @param lookup    查询缓存，未命中返回null
+	 * @param loader    加载器，返回加载到的值
+	 * @return java.lang.Object 加载到的值或复用的值
+	 * @author Telechow
+	 * @since 2023/4/25 15:38
+	 */
+	private Object loadExclusively(String cacheName, String cacheKey, Supplier<Cache.ValueWrapper> lookup
+		, Supplier<Object> loader) {
+		//1.再次查询缓存，上一个加载线程可能刚刚写入
+		Cache.ValueWrapper valueWrapper = lookup.get();
+		if (Objects.nonNull(valueWrapper)) {
+			count(OUTCOME_METER_NAME, cacheName, OUTCOME_REUSED);
+			return valueWrapper.get();
+		}
+
+		//2.没有启用跨节点协调，直接加载
+		if (!singleFlightProperties.isDistributed()) {
+			return invokeLoader(cacheName, loader);
+		}
+
+		//3.获取此缓存键的加载锁，等待超时则不协调直接加载
+		RLock lock = redissonClient.getLock(singleFlightProperties.getLockKeyPrefix() + cacheKey);
+		boolean locked = false;
+		try {
+			locked = lock.tryLock(singleFlightProperties.getLockWait().toMillis()
+				, singleFlightProperties.getLockLease().toMillis(), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			log.warn("获取缓存加载锁失败，缓存键：{}", cacheKey, e);
+		}
+		if (!locked) {
+			count(OUTCOME_METER_NAME, cacheName, OUTCOME_LOCK_TIMEOUT);
+			return invokeLoader(cacheName, loader);
+		}
+
+		//4.获取到锁后再次查询缓存，持有锁的其他节点可能已经写入
+		try {
+			valueWrapper = lookup.get();
+			if (Objects.nonNull(valueWrapper)) {
+				count(OUTCOME_METER_NAME, cacheName, OUTCOME_REUSED);
+				return valueWrapper.get();
+			}
+			return invokeLoader(cacheName, loader);
+		} finally {
+			unlock(lock, cacheKey);
+		}
+	}
+
+	/**
+	 * 执行提前刷新，启用跨节点协调时不等待加载锁，其他节点正在加载或刷新则跳过
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @param cacheKey  redis中完整的缓存键
+	 * @param refresher 刷新器
+	 * @return org.springframework.cache.Cache.ValueWrapper 刷新后的值；跳过或刷新失败时返回null
+	 * @author Telechow
+	 * @since 2023/4/25 16:18
+	 */
+	private Cache.ValueWrapper refreshExclusively(String cacheName, String cacheKey, Supplier<Object> refresher) {
+		RLock lock = null;
+		try {
+			if (singleFlightProperties.isDistributed()) {
+				lock = redissonClient.getLock(singleFlightProperties.getLockKeyPrefix() + cacheKey);
+				if (!lock.tryLock(0L, singleFlightProperties.getLockLease().toMillis(), TimeUnit.MILLISECONDS)) {
+					count(REFRESH_METER_NAME, cacheName, OUTCOME_SKIPPED);
+					return null;
+				}
+			}
+			Object value = invokeLoader(cacheName, refresher);
+			count(REFRESH_METER_NAME, cacheName, OUTCOME_REFRESHED);
+			return new SimpleValueWrapper(value);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (Exception e) {
+			count(REFRESH_METER_NAME, cacheName, OUTCOME_FAILED);
+			log.warn("缓存提前刷新失败，缓存键：{}", cacheKey, e);
+			return null;
+		} finally {
+			if (Objects.nonNull(lock)) {
+				unlock(lock, cacheKey);
+			}
+		}
+	}
+
+	/**
+	 * 执行加载器，记录加载次数和加载耗时
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @param loader    加载器
+	 * @return java.lang.Object 加载到的值
+	 * @author Telechow
+	 * @since 2023/4/25 15:41
+	 */
+	private Object invokeLoader(String cacheName, Supplier<Object> loader) {
+		count(OUTCOME_METER_NAME, cacheName, OUTCOME_LOADED);
+		return Timer.builder(LOAD_METER_NAME)
+			.description("缓存未命中时执行加载的耗时")
+			.tag("cache", cacheName)
+			.register(meterRegistry)
+			.record(loader);
+	}
+
+	/**
+	 * 等待本节点其他线程的加载结果，加载失败时抛出原始异常
+	 *
+	 * @param inFlight 正在执行的加载
+	 * @return java.lang.Object 加载到的值
+	 * @author Telechow
+	 * @since 2023/4/25 15:43
+	 */
+	private Object join(CompletableFuture<Object> inFlight) {
+		try {
+			return inFlight.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * 释放加载锁，锁已经因租约到期释放时只记录日志
+	 *
+	 * @param lock     加载锁
+	 * @param cacheKey redis中完整的缓存键
+	 * @author Telechow
+	 * @since 2023/4/25 15:45
+	 */
+	private void unlock(RLock lock, String cacheKey) {
+		try {
+			if (lock.isHeldByCurrentThread()) {
+				lock.unlock();
+			}
+		} catch (Exception e) {
+			log.warn("释放缓存加载锁失败，缓存键：{}", cacheKey, e);
+		}
+	}
+
+	/**
+	 * 累加单飞加载或提前刷新的结果次数
+	 *
+	 * @param meterName 指标名称
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @param outcome   结果
+	 * @author Telechow
+	 * @since 2023/4/25 15:46
+	 */
+	private void count(String meterName, String cacheName, String outcome) {
+		meterRegistry.counter(meterName, "cache", cacheName, "outcome", outcome).increment();
+	}
+}
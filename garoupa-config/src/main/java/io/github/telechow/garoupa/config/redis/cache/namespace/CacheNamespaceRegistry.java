@@ -0,0 +1,350 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.config.redis.cache.namespace;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.IdUtil;
+import com.alibaba.fastjson2.JSON;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.github.telechow.garoupa.config.redis.cache.properties.GaroupaCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存命名空间注册中心
+ * <li>每个缓存名称（不包含过期时间部分）有一个保存在redis哈希中的版本号，版本号是缓存键前缀的一部分</li>
+ * <li>清空缓存时只需递增版本号，旧版本的缓存键不再被访问，随过期时间自然过期，无需按照模式扫描删除</li>
+ * <li>版本号在本地缓存，递增后通过redis发布订阅通知其他节点；通知丢失时，本地缓存的版本号最晚在过期后重新从redis读取</li>
+ * <li>可选地在后台清理被取代的旧版本缓存键，默认关闭；清理按照缓存名称合并、限频，每次只扫描一遍</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 17:12
+ */
+@Slf4j
+public class CacheNamespaceRegistry implements MessageListener, DisposableBean {
+
+	private static final String VERSION_PREFIX = "v";
+
+	private static final String VERSION_SEPARATOR = "::";
+
+	private final GaroupaCacheProperties.Namespace namespaceProperties;
+
+	private final StringRedisTemplate stringRedisTemplate;
+
+	/**
+	 * 本节点id，用于忽略本节点自己发送的版本号变更消息
+	 */
+	private final String nodeId = IdUtil.fastSimpleUUID();
+
+	/**
+	 * 本地缓存的版本号，键为缓存名称
+	 */
+	private final LoadingCache<String, Long> versionCache;
+
+	/**
+	 * 清理被取代的旧版本缓存键的线程池，没有启用命名空间版本号或没有启用清理时为null
+	 */
+	@Nullable
+	private final ScheduledExecutorService purgeExecutor;
+
+	/**
+	 * 等待清理的缓存名称，值为缓存名称的缓存键前缀；同一个缓存名称同时只有一次等待中的清理
+	 */
+	private final Map<String, String> pendingPurges = new ConcurrentHashMap<>();
+
+	/**
+	 * 缓存名称上一次清理的时间戳，用于限制同一个缓存名称的清理频率
+	 */
+	private final Map<String, Long> lastPurgeMillis = new ConcurrentHashMap<>();
+
+	public CacheNamespaceRegistry(GaroupaCacheProperties.Namespace namespaceProperties
+		, StringRedisTemplate stringRedisTemplate) {
+		this.namespaceProperties = namespaceProperties;
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.versionCache = Caffeine.newBuilder()
+			.expireAfterWrite(namespaceProperties.getVersionCacheTtl())
+			.build(this::loadVersion);
+		this.purgeExecutor = namespaceProperties.isEnabled() && namespaceProperties.isPurgeSuperseded()
+			? Executors.newSingleThreadScheduledExecutor(
+			ThreadFactoryBuilder.create().setNamePrefix("cache-namespace-purge-").setDaemon(true).build())
+			: null;
+	}
+
+	/**
+	 * 是否启用了命名空间版本号
+	 *
+	 * @return boolean 是否启用了命名空间版本号
+	 * @author Telechow
+	 * @since 2023/4/25 17:14
+	 */
+	public boolean isEnabled() {
+		return namespaceProperties.isEnabled();
+	}
+
+	/**
+	 * 获取缓存名称当前的版本号，没有启用命名空间版本号或从未清空过时返回0
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @return long 版本号
+	 * @author Telechow
+	 * @since 2023/4/25 17:15
+	 */
+	public long getVersion(String cacheName) {
+		if (!namespaceProperties.isEnabled()) {
+			return 0L;
+		}
+		return versionCache.get(cacheName);
+	}
+
+	/**
+	 * 获取指定版本号的缓存键前缀
+	 * <li>版本号为0时即为缓存名称的缓存键前缀，升级前写入的缓存键仍然有效</li>
+	 * <li>版本号大于0时为"缓存键前缀v版本号::"</li>
+	 *
+	 * @param keyPrefix 缓存名称的缓存键前缀，如"缓存名称::"
+	 * @param version   版本号
+	 * @return java.lang.String 指定版本号的缓存键前缀
+	 * @author Telechow
+	 * @since 2023/4/25 18:30
+	 */
+	public String versionedKeyPrefix(String keyPrefix, long version) {
+		if (version == 0L) {
+			return keyPrefix;
+		}
+		return keyPrefix + VERSION_PREFIX + version + VERSION_SEPARATOR;
+	}
+
+	/**
+	 * 递增缓存名称的版本号，并通知其他节点
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @return long 递增后的版本号
+	 * @author Telechow
+	 * @since 2023/4/25 17:16
+	 */
+	public long increment(String cacheName) {
+		//1.在redis中递增版本号，并更新本地缓存
+		Long version = stringRedisTemplate.opsForHash().increment(namespaceProperties.getVersionKey(), cacheName, 1L);
+		versionCache.put(cacheName, version);
+
+		//2.通知其他节点，发布失败只记录日志，其他节点最晚在本地版本号过期后读取到新版本号
+		try {
+			stringRedisTemplate.convertAndSend(namespaceProperties.getTopic()
+				, JSON.toJSONString(new CacheNamespaceVersionMessage(nodeId, cacheName, version)));
+		} catch (Exception e) {
+			log.warn("缓存命名空间版本号变更消息发布失败", e);
+		}
+		return version;
+	}
+
+	/**
+	 * 安排在后台清理缓存名称被取代的旧版本缓存键，默认不启用，清空缓存本身仍然只是递增版本号
+	 * <li>清理延迟到本地版本号过期之后，此时所有节点都已经读取到新版本号，不会再写入旧版本的缓存键</li>
+	 * <li>同一个缓存名称已经有等待中的清理时直接合并；距离上一次清理不足最小间隔时顺延，频繁清空缓存也只扫描一遍</li>
+	 * <li>没有启用清理或节点正在关闭时直接返回，旧版本的缓存键随过期时间自然过期</li>
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @param keyPrefix 缓存名称的缓存键前缀，如"缓存名称::"
+	 * @author Telechow
+	 * @since 2023/4/25 18:31
+	 */
+	public void purgeSuperseded(String cacheName, String keyPrefix) {
+		if (Objects.isNull(purgeExecutor) || Objects.nonNull(pendingPurges.putIfAbsent(cacheName, keyPrefix))) {
+			return;
+		}
+		long delayMillis = namespaceProperties.getVersionCacheTtl().toMillis();
+		Long lastMillis = lastPurgeMillis.get(cacheName);
+		if (Objects.nonNull(lastMillis)) {
+			long nextAllowedMillis = lastMillis + namespaceProperties.getPurgeMinInterval().toMillis();
+			delayMillis = Math.max(delayMillis, nextAllowedMillis - System.currentTimeMillis());
+		}
+		try {
+			purgeExecutor.schedule(() -> purge(cacheName), delayMillis, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			pendingPurges.remove(cacheName);
+			log.debug("节点正在关闭，跳过清理旧版本缓存键，缓存名称：{}", cacheName);
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (Objects.nonNull(purgeExecutor)) {
+			purgeExecutor.shutdownNow();
+		}
+	}
+
+	@Override
+	public void onMessage(Message message, @Nullable byte[] pattern) {
+		CacheNamespaceVersionMessage versionMessage;
+		try {
+			versionMessage = JSON.parseObject(new String(message.getBody(), StandardCharsets.UTF_8)
+				, CacheNamespaceVersionMessage.class);
+		} catch (Exception e) {
+			log.warn("缓存命名空间版本号变更消息解析失败", e);
+			return;
+		}
+		//忽略本节点发送的消息，版本号只增不减，乱序到达的旧版本号不覆盖新版本号
+		if (Objects.isNull(versionMessage) || Objects.equals(nodeId, versionMessage.nodeId())) {
+			return;
+		}
+		versionCache.asMap().merge(versionMessage.cacheName(), versionMessage.version(), Math::max);
+	}
+
+	/// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+	/**
+	 * 扫描缓存名称带版本号的缓存键，分批UNLINK版本号小于当前版本号的缓存键
+	 * <li>只扫描一遍"缓存键前缀v*"，每批之间暂停，避免清理占满redis</li>
+	 * <li>版本号0的缓存键与当前版本号的缓存键无法通过前缀区分，不清理，随过期时间自然过期</li>
+	 * <li>版本号0中以"v数字::"开头的缓存键与带版本号的缓存键无法区分，启用清理的缓存名称的缓存键不应当以此开头</li>
+	 * <li>清理失败只记录日志，旧版本的缓存键随过期时间自然过期</li>
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @author Telechow
+	 * @since 2023/4/25 18:32
+	 */
+	private void purge(String cacheName) {
+		//1.取出等待中的清理，记录清理时间，从redis读取最新的版本号
+		String keyPrefix = pendingPurges.remove(cacheName);
+		if (Objects.isNull(keyPrefix)) {
+			return;
+		}
+		lastPurgeMillis.put(cacheName, System.currentTimeMillis());
+		long currentVersion;
+		int batchSize = Math.max(1, namespaceProperties.getPurgeBatchSize());
+		long pauseMillis = namespaceProperties.getPurgeBatchPause().toMillis();
+		ScanOptions scanOptions = ScanOptions.scanOptions()
+			.match(escapeGlob(keyPrefix + VERSION_PREFIX) + "*").count(batchSize).build();
+
+		//2.扫描并分批UNLINK
+		long purged = 0L;
+		List<String> batch = new ArrayList<>(batchSize);
+		try (Cursor<String> cursor = stringRedisTemplate.scan(scanOptions)) {
+			currentVersion = loadVersion(cacheName);
+			while (cursor.hasNext() && !Thread.currentThread().isInterrupted()) {
+				String key = cursor.next();
+				long version = parseVersion(key.substring(keyPrefix.length()));
+				if (version <= 0L || version >= currentVersion) {
+					continue;
+				}
+				batch.add(key);
+				if (batch.size() >= batchSize) {
+					purged += unlink(batch);
+					TimeUnit.MILLISECONDS.sleep(pauseMillis);
+				}
+			}
+			purged += unlink(batch);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		} catch (Exception e) {
+			log.warn("清理旧版本缓存键失败，缓存名称：{}", cacheName, e);
+			return;
+		}
+		if (purged > 0L) {
+			log.debug("清理旧版本缓存键{}个，缓存名称：{}，当前版本号：{}", purged, cacheName, currentVersion);
+		}
+	}
+
+	/**
+	 * 解析缓存键前缀之后"v版本号::"中的版本号
+	 *
+	 * @param keySuffix 缓存键前缀之后的部分
+	 * @return long 版本号，不是"v版本号::"开头时返回-1
+	 * @author Telechow
+	 * @since 2023/4/25 18:35
+	 */
+	private static long parseVersion(String keySuffix) {
+		int end = keySuffix.indexOf(VERSION_SEPARATOR);
+		if (!keySuffix.startsWith(VERSION_PREFIX) || end <= VERSION_PREFIX.length() || end > VERSION_PREFIX.length() + 18) {
+			return -1L;
+		}
+		for (int i = VERSION_PREFIX.length(); i < end; i++) {
+			char c = keySuffix.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1L;
+			}
+		}
+		return Long.parseLong(keySuffix.substring(VERSION_PREFIX.length(), end));
+	}
+
+	/**
+	 * UNLINK一批缓存键并清空这一批
+	 *
+	 * @param batch 一批缓存键
+	 * @return long 删除的缓存键数量
+	 * @author Telechow
+	 * @since 2023/4/25 18:33
+	 */
+	private long unlink(List<String> batch) {
+		if (batch.isEmpty()) {
+			return 0L;
+		}
+		Long unlinked = stringRedisTemplate.unlink(batch);
+		batch.clear();
+		return Objects.isNull(unlinked) ? 0L : unlinked;
+	}
+
+	/**
+	 * 转义redis SCAN模式中的特殊字符，缓存名称中的特殊字符按照字面匹配
+	 *
+	 * @param text 文本
+	 * @return java.lang.String 转义后的文本
+	 * @author Telechow
+	 * @since 2023/4/25 18:34
+	 */
+	private static String escapeGlob(String text) {
+		StringBuilder sb = new StringBuilder(text.length());
+		for (char c : text.toCharArray()) {
+			if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+				sb.append('\\');
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 从redis中读取缓存名称的版本号，从未清空过时为0
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @return java.lang.Long 版本号
+	 * @author Telechow
+	 * @since 2023/4/25 17:18
+	 */
+	private Long loadVersion(String cacheName) {
+		Object version = stringRedisTemplate.opsForHash().get(namespaceProperties.getVersionKey(), cacheName);
+		return Objects.isNull(version) ? 0L : Long.parseLong(version.toString());
+	}
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.config.redis.cache.namespace;
+
+/**
+ * 缓存命名空间版本号变更消息
+ *
+ * @param nodeId    发送消息的节点id，节点收到自己发送的消息时忽略
+ * @param cacheName 缓存名称，不包含过期时间部分
+ * @param version   变更后的版本号
+ * @author Telechow
+ * @since 2023/4/25 17:10
+ */
+public record CacheNamespaceVersionMessage(String nodeId, String cacheName, long version) {
+
+}
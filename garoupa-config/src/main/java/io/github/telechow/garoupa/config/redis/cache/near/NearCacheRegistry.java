@@ -0,0 +1,146 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.config.redis.cache.near;
+
+import cn.hutool.core.util.IdUtil;
+import com.alibaba.fastjson2.JSON;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.telechow.garoupa.config.redis.cache.properties.GaroupaCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 近端缓存注册中心
+ * <li>按照缓存名称（不包含过期时间部分）维护本地的近端缓存，同名缓存的多个RedisCache实例共享同一个近端缓存</li>
+ * <li>本节点修改或删除缓存时，通过redis发布订阅通知其他节点使近端缓存失效</li>
+ *
+ * @author Telechow
+ * @since 2023/4/21 10:25
+ */
+@Slf4j
+public class NearCacheRegistry implements MessageListener {
+
+	private final GaroupaCacheProperties.Near nearProperties;
+
+	private final StringRedisTemplate stringRedisTemplate;
+
+	/**
+	 * 本节点id，用于忽略本节点自己发送的失效消息
+	 */
+	private final String nodeId = IdUtil.fastSimpleUUID();
+
+	private final Map<String, Cache<String, Object>> nearCacheMap = new ConcurrentHashMap<>();
+
+	public NearCacheRegistry(GaroupaCacheProperties.Near nearProperties, StringRedisTemplate stringRedisTemplate) {
+		this.nearProperties = nearProperties;
+		this.stringRedisTemplate = stringRedisTemplate;
+	}
+
+	/**
+	 * 获取指定缓存名称的近端缓存，如果此缓存名称没有启用近端缓存则返回null
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @return com.github.benmanes.caffeine.cache.Cache<java.lang.String, java.lang.Object> 近端缓存
+	 * @author Telechow
+	 * @since 2023/4/21 10:31
+	 */
+	@Nullable
+	public Cache<String, Object> getNearCache(String cacheName) {
+		if (!nearProperties.getCacheNames().contains(cacheName)) {
+			return null;
+		}
+		return nearCacheMap.computeIfAbsent(cacheName, n -> Caffeine.newBuilder()
+			.maximumSize(nearProperties.getMaximumSize())
+			.expireAfterWrite(nearProperties.getTtl())
+			.build());
+	}
+
+	/**
+	 * 通知其他节点使指定缓存键的近端缓存失效
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @param cacheKey  redis中完整的缓存键
+	 * @author Telechow
+	 * @since 2023/4/21 10:35
+	 */
+	public void publishEvict(String cacheName, String cacheKey) {
+		publish(new NearCacheInvalidateMessage(nodeId, cacheName, cacheKey));
+	}
+
+	/**
+	 * 通知其他节点清空指定缓存名称的近端缓存
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @author Telechow
+	 * @since 2023/4/21 10:36
+	 */
+	public void publishClear(String cacheName) {
+		publish(new NearCacheInvalidateMessage(nodeId, cacheName, null));
+	}
+
+	@Override
+	public void onMessage(Message message, @Nullable byte[] pattern) {
+		NearCacheInvalidateMessage invalidateMessage;
+		try {
+			invalidateMessage = JSON.parseObject(new String(message.getBody(), StandardCharsets.UTF_8)
+				, NearCacheInvalidateMessage.class);
+		} catch (Exception e) {
+			log.warn("近端缓存失效消息解析失败", e);
+			return;
+		}
+		//1.忽略本节点发送的消息和没有启用近端缓存的缓存名称
+		if (Objects.isNull(invalidateMessage) || Objects.equals(nodeId, invalidateMessage.nodeId())) {
+			return;
+		}
+		Cache<String, Object> nearCache = nearCacheMap.get(invalidateMessage.cacheName());
+		if (Objects.isNull(nearCache)) {
+			return;
+		}
+
+		//2.缓存键为空则清空整个近端缓存，否则只使指定缓存键失效
+		if (Objects.isNull(invalidateMessage.cacheKey())) {
+			nearCache.invalidateAll();
+		} else {
+			nearCache.invalidate(invalidateMessage.cacheKey());
+		}
+	}
+
+	/// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+	/**
+	 * 发布近端缓存失效消息，发布失败只记录日志，近端缓存最终会因过期时间而失效
+	 *
+	 * @param invalidateMessage 近端缓存失效消息
+	 * @author Telechow
+	 * @since 2023/4/21 10:40
+	 */
+	private void publish(NearCacheInvalidateMessage invalidateMessage) {
+		try {
+			stringRedisTemplate.convertAndSend(nearProperties.getTopic(), JSON.toJSONString(invalidateMessage));
+		} catch (Exception e) {
+			log.warn("近端缓存失效消息发布失败", e);
+		}
+	}
+}
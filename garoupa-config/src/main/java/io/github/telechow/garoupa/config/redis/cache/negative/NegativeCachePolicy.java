@@ -0,0 +1,135 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.config.redis.cache.negative;
+
+import io.github.telechow.garoupa.config.redis.cache.properties.GaroupaCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.support.NullValue;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 空结果缓存策略
+ * <li>查询结果为null（缓存中保存为{@link NullValue}）或空集合、空映射时视为空结果</li>
+ * <li>空结果使用单独的较短过期时间写入redis，不写入近端缓存，重复查询不存在的数据时直接由缓存返回</li>
+ * <li>没有启用空结果缓存时空结果不写入缓存，避免空结果与普通结果一样长期有效</li>
+ * <li>按照缓存名称分别统计空结果的写入次数和命中次数</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 16:25
+ */
+public class NegativeCachePolicy {
+
+	/**
+	 * 空结果缓存指标名称
+	 * <li>stored：写入了空结果</li>
+	 * <li>hit：命中了空结果</li>
+	 */
+	public static final String METER_NAME = "garoupa.cache.negative";
+
+	private static final String OUTCOME_STORED = "stored";
+
+	private static final String OUTCOME_HIT = "hit";
+
+	private final GaroupaCacheProperties.Negative negativeProperties;
+
+	private final MeterRegistry meterRegistry;
+
+	public NegativeCachePolicy(GaroupaCacheProperties.Negative negativeProperties, MeterRegistry meterRegistry) {
+		this.negativeProperties = negativeProperties;
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * 是否是需要使用较短过期时间缓存的空结果，没有启用空结果缓存时始终返回false
+	 *
+	 * @param cacheValue 缓存值，null已经转换成{@link NullValue}
+	 * @return boolean 是否是空结果
+	 * @author Telechow
+	 * @since 2023/4/25 16:27
+	 */
+	public boolean isNegative(@Nullable Object cacheValue) {
+		return negativeProperties.isEnabled() && isEmpty(cacheValue);
+	}
+
+	/**
+	 * 是否是不应该写入缓存的空结果，只有没有启用空结果缓存时才可能返回true
+	 *
+	 * @param cacheValue 缓存值，不允许缓存null时可能为null
+	 * @return boolean 是否拒绝写入
+	 * @author Telechow
+	 * @since 2023/4/25 18:15
+	 */
+	public boolean shouldSkip(@Nullable Object cacheValue) {
+		return !negativeProperties.isEnabled() && isEmpty(cacheValue);
+	}
+
+	/**
+	 * 获取空结果的过期时间
+	 *
+	 * @return java.time.Duration 空结果的过期时间
+	 * @author Telechow
+	 * @since 2023/4/25 16:28
+	 */
+	public Duration getTtl() {
+		return negativeProperties.getTtl();
+	}
+
+	/**
+	 * 记录一次空结果写入
+	 *
+	 * @param cacheName 缓存名称，不包含过期时间部分
+	 * @author Telechow
+	 * @since 2023/4/25 16:29
+	 */
+	public void recordStored(String cacheName) {
+		meterRegistry.counter(METER_NAME, "cache", cacheName, "outcome", OUTCOME_STORED).increment();
+	}
+
+	/**
+	 * 缓存值是空结果时记录一次空结果命中
+	 *
+	 * @param cacheName  缓存名称，不包含过期时间部分
+	 * @param cacheValue 命中的缓存值
+	 * @author Telechow
+	 * @since 2023/4/25 16:30
+	 */
+	public void recordHitIfNegative(String cacheName, @Nullable Object cacheValue) {
+		if (isNegative(cacheValue)) {
+			meterRegistry.counter(METER_NAME, "cache", cacheName, "outcome", OUTCOME_HIT).increment();
+		}
+	}
+
+	/// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+	/**
+	 * 缓存值是否为空，null、{@link NullValue}、空集合、空映射视为空
+	 *
+	 * @param cacheValue 缓存值
+	 * @return boolean 是否为空
+	 * @author Telechow
+	 * @since 2023/4/25 18:16
+	 */
+	private static boolean isEmpty(@Nullable Object cacheValue) {
+		return cacheValue == null
+			|| cacheValue instanceof NullValue
+			|| cacheValue instanceof Collection<?> collection && collection.isEmpty()
+			|| cacheValue instanceof Map<?, ?> map && map.isEmpty();
+	}
+}
@@ -0,0 +1,264 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.config.redis.cache.properties;
+
+import io.github.telechow.garoupa.config.redis.cache.codec.CacheValueFormat;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Garoupa缓存配置参数
+ *
+ * @author Telechow
+ * @since 2023/4/21 10:12
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "garoupa.cache")
+public class GaroupaCacheProperties {
+
+	/**
+	 * 近端缓存（一级缓存）配置
+	 */
+	private Near near = new Near();
+
+	/**
+	 * 缓存单飞加载配置
+	 */
+	private SingleFlight singleFlight = new SingleFlight();
+
+	/**
+	 * 缓存提前刷新配置
+	 */
+	private RefreshAhead refreshAhead = new RefreshAhead();
+
+	/**
+	 * 空结果缓存配置
+	 */
+	private Negative negative = new Negative();
+
+	/**
+	 * 缓存值编码配置
+	 */
+	private Codec codec = new Codec();
+
+	/**
+	 * 缓存命名空间配置
+	 */
+	private Namespace namespace = new Namespace();
+
+	/**
+	 * 近端缓存配置参数
+	 * <li>近端缓存是位于redis缓存之前的本地内存缓存，命中时无需访问redis，也无需反序列化</li>
+	 * <li>各节点之间通过redis发布订阅通知失效</li>
+	 *
+	 * @author Telechow
+	 * @since 2023/4/21 10:12
+	 */
+	@Data
+	public static class Near {
+
+		/**
+		 * 启用近端缓存的缓存名称列表，不包含过期时间部分；为空则不启用近端缓存
+		 */
+		private List<String> cacheNames = new ArrayList<>();
+
+		/**
+		 * 每个缓存名称的近端缓存最大条目数
+		 */
+		private long maximumSize = 10000L;
+
+		/**
+		 * 近端缓存条目写入后的过期时间，用于兜底跨节点失效通知丢失的情况
+		 */
+		private Duration ttl = Duration.ofMinutes(1L);
+
+		/**
+		 * 近端缓存失效通知的redis频道
+		 */
+		private String topic = "Garoupa:NearCache:Invalidate";
+	}
+
+	/**
+	 * 缓存单飞加载配置参数
+	 * <li>只对使用@Cacheable(sync = true)的缓存生效，缓存未命中时同一个缓存键只有一个线程执行加载</li>
+	 * <li>启用跨节点协调时，各节点通过redisson短租约锁保证同一个缓存键只有一个节点查询数据库</li>
+	 *
+	 * @author Telechow
+	 * @since 2023/4/25 15:30
+	 */
+	@Data
+	public static class SingleFlight {
+
+		/**
+		 * 是否启用本节点内的单飞加载
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * 是否启用跨节点协调
+		 */
+		private boolean distributed = false;
+
+		/**
+		 * 等待其他节点加载完成的最长时间，超时后不再协调，直接加载
+		 */
+		private Duration lockWait = Duration.ofSeconds(3L);
+
+		/**
+		 * 加载锁的租约时间，加载线程异常退出时锁最晚在此时间后释放
+		 */
+		private Duration lockLease = Duration.ofSeconds(10L);
+
+		/**
+		 * 加载锁的redis键前缀，后接redis中完整的缓存键
+		 */
+		private String lockKeyPrefix = "Garoupa:CacheLoad:Lock:";
+	}
+
+	/**
+	 * 缓存提前刷新配置参数
+	 * <li>只对使用@Cacheable(sync = true)的缓存生效，缓存值与加载耗时、过期时间一起保存</li>
+	 * <li>读取时按照XFetch算法决定是否提前刷新，越接近过期时间、加载耗时越长，提前刷新的概率越大</li>
+	 * <li>抽中刷新的请求在自己的线程中重新加载并返回新值，其他请求继续返回旧值，不使用后台线程</li>
+	 *
+	 * @author Telechow
+	 * @since 2023/4/25 16:00
+	 */
+	@Data
+	public static class RefreshAhead {
+
+		/**
+		 * 是否启用提前刷新
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * XFetch算法的beta参数，大于1时更早刷新，小于1时更晚刷新
+		 */
+		private double beta = 1.0D;
+	}
+
+	/**
+	 * 空结果缓存配置参数
+	 * <li>查询结果为null或空集合时也写入缓存，使用单独的较短过期时间，重复查询不存在的数据时直接由缓存返回</li>
+	 * <li>空结果不写入近端缓存</li>
+	 *
+	 * @author Telechow
+	 * @since 2023/4/25 16:25
+	 */
+	@Data
+	public static class Negative {
+
+		/**
+		 * 是否启用空结果缓存；不启用时空结果不写入缓存，与在@Cacheable上声明unless的效果相同
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * 空结果的过期时间
+		 */
+		private Duration ttl = Duration.ofMinutes(1L);
+	}
+
+	/**
+	 * 缓存值编码配置参数
+	 * <li>可以按照缓存名称选择编码格式，编码后的字节数达到压缩阈值时使用Deflate压缩</li>
+	 * <li>缓存值带有格式头，解码时与当前配置无关；默认配置（文本json、不压缩）写入的缓存值与升级前完全相同</li>
+	 * <li>滚动升级时先以默认配置升级所有节点，再切换编码格式或启用压缩</li>
+	 *
+	 * @author Telechow
+	 * @since 2023/4/25 16:40
+	 */
+	@Data
+	public static class Codec {
+
+		/**
+		 * 默认编码格式
+		 */
+		private CacheValueFormat format = CacheValueFormat.JSON;
+
+		/**
+		 * 按照缓存名称单独配置的编码格式，键为不包含过期时间部分的缓存名称
+		 */
+		private Map<String, CacheValueFormat> formats = new HashMap<>();
+
+		/**
+		 * 压缩阈值，编码后的字节数达到此值时压缩；小于等于0时不压缩
+		 */
+		private int compressionThreshold = 0;
+	}
+
+	/**
+	 * 缓存命名空间配置参数
+	 * <li>每个缓存名称有一个版本号，版本号是缓存键前缀的一部分；清空缓存时只递增版本号，旧版本的缓存键随过期时间自然过期</li>
+	 * <li>版本号保存在redis哈希中，各节点在本地缓存版本号，并通过redis发布订阅通知版本号变更</li>
+	 *
+	 * @author Telechow
+	 * @since 2023/4/25 17:10
+	 */
+	@Data
+	public static class Namespace {
+
+		/**
+		 * 是否启用命名空间版本号；不启用时清空缓存按照缓存键前缀扫描删除
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * 保存版本号的redis哈希键，哈希的字段为缓存名称
+		 */
+		private String versionKey = "Garoupa:CacheNamespace:Version";
+
+		/**
+		 * 版本号变更通知的redis频道
+		 */
+		private String topic = "Garoupa:CacheNamespace:Invalidate";
+
+		/**
+		 * 本地缓存版本号的过期时间，用于兜底版本号变更通知丢失的情况
+		 */
+		private Duration versionCacheTtl = Duration.ofSeconds(30L);
+
+		/**
+		 * 清空缓存后是否在后台扫描并UNLINK被取代的旧版本缓存键，默认不清理，旧版本的缓存键随过期时间自然过期；
+		 * 每次清理都要SCAN整个redis键空间，只应当在旧版本缓存键占用内存明显时启用
+		 */
+		private boolean purgeSuperseded = false;
+
+		/**
+		 * 同一个缓存名称两次清理的最小间隔，间隔内的多次清空缓存合并为一次清理
+		 */
+		private Duration purgeMinInterval = Duration.ofMinutes(10L);
+
+		/**
+		 * 清理旧版本缓存键时每次SCAN的COUNT以及每批UNLINK的缓存键数量
+		 */
+		private int purgeBatchSize = 500;
+
+		/**
+		 * 清理旧版本缓存键时每批UNLINK之后的暂停时间，用于限制清理对redis的压力
+		 */
+		private Duration purgeBatchPause = Duration.ofMillis(50L);
+	}
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.config.redis.cache.refresh;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 提前刷新的缓存条目
+ * <li>与缓存值一起保存加载耗时和过期时间，读取时据此判断是否需要提前刷新</li>
+ * <li>只有记录了加载耗时的缓存值才会包装成此条目，没有包装的缓存值按原样读取，不会提前刷新</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 16:00
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshAheadEntry {
+
+	/**
+	 * 缓存值
+	 */
+	private Object value;
+
+	/**
+	 * 加载耗时，单位毫秒
+	 */
+	private long loadMillis;
+
+	/**
+	 * 过期时间的毫秒时间戳
+	 */
+	private long expireAt;
+}
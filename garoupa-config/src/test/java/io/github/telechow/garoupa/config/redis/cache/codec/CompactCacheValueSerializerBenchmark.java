@@ -0,0 +1,188 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.config.redis.cache.codec;
+
+import com.alibaba.fastjson2.support.spring6.data.redis.GenericFastJsonRedisSerializer;
+import lombok.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存值序列化微基准测试
+ * <li>比较{@link CompactCacheValueSerializer}的各种编码格式和压缩方式与原来的{@link GenericFastJsonRedisSerializer}</li>
+ * <li>编码和解码耗时由jmh测量，编码后的字节数在main方法运行jmh之前打印</li>
+ * <li>运行方式：在测试类路径下执行此类的main方法，或者mvn test-compile后使用jmh命令行运行</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 18:20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactCacheValueSerializerBenchmark {
+
+	/**
+	 * 压缩阈值，默认配置不压缩，启用压缩时建议的阈值
+	 */
+	static final int COMPRESSION_THRESHOLD = 1024;
+
+	/**
+	 * 序列化方式
+	 * <li>baseline：原来的GenericFastJsonRedisSerializer</li>
+	 * <li>json-deflate：文本json，达到压缩阈值时压缩</li>
+	 * <li>jsonb：二进制json，不压缩</li>
+	 * <li>jsonb-deflate：二进制json，达到压缩阈值时压缩</li>
+	 */
+	@Param({"baseline", "json-deflate", "jsonb", "jsonb-deflate"})
+	public String codec;
+
+	/**
+	 * 缓存值中的字典项个数
+	 */
+	@Param({"1", "20", "200"})
+	public int itemCount;
+
+	private RedisSerializer<Object> serializer;
+
+	private List<CachedDictItem> value;
+
+	private byte[] bytes;
+
+	@Setup
+	public void setup() {
+		serializer = serializer(codec);
+		value = dictItems(itemCount);
+		bytes = serializer.serialize(value);
+	}
+
+	@Benchmark
+	public byte[] encode() {
+		return serializer.serialize(value);
+	}
+
+	@Benchmark
+	public Object decode() {
+		return serializer.deserialize(bytes);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		//1.打印每种序列化方式编码后的字节数
+		String[] codecs = {"baseline", "json-deflate", "jsonb", "jsonb-deflate"};
+		for (int itemCount : new int[]{1, 20, 200}) {
+			List<CachedDictItem> value = dictItems(itemCount);
+			StringBuilder line = new StringBuilder("itemCount=" + itemCount);
+			for (String codec : codecs) {
+				line.append(", ").append(codec).append('=').append(serializer(codec).serialize(value).length).append('B');
+			}
+			System.out.println(line);
+		}
+
+		//2.测量编码和解码耗时
+		new Runner(new OptionsBuilder().include(CompactCacheValueSerializerBenchmark.class.getSimpleName()).build())
+			.run();
+	}
+
+	/**
+	 * 按照名称构造序列化器
+	 *
+	 * @param codec 序列化方式
+	 * @return org.springframework.data.redis.serializer.RedisSerializer<java.lang.Object> 序列化器
+	 * @author Telechow
+	 * @since 2023/4/25 18:22
+	 */
+	static RedisSerializer<Object> serializer(String codec) {
+		return switch (codec) {
+			case "baseline" -> new GenericFastJsonRedisSerializer();
+			case "json-deflate" -> new CompactCacheValueSerializer(CacheValueFormat.JSON, COMPRESSION_THRESHOLD);
+			case "jsonb" -> new CompactCacheValueSerializer(CacheValueFormat.JSONB, 0);
+			case "jsonb-deflate" -> new CompactCacheValueSerializer(CacheValueFormat.JSONB, COMPRESSION_THRESHOLD);
+			default -> throw new IllegalArgumentException("unknown codec: " + codec);
+		};
+	}
+
+	/**
+	 * 构造指定个数的字典项，模拟字典列表缓存
+	 *
+	 * @param count 字典项个数
+	 * @return java.util.List<io.github.telechow.garoupa.config.redis.cache.codec.CompactCacheValueSerializerBenchmark.CachedDictItem> 字典项列表
+	 * @author Telechow
+	 * @since 2023/4/25 18:23
+	 */
+	static List<CachedDictItem> dictItems(int count) {
+		List<CachedDictItem> dictItems = new ArrayList<>(count);
+		LocalDateTime createTime = LocalDateTime.of(2023, 4, 25, 18, 20);
+		for (int i = 0; i < count; i++) {
+			CachedDictItem dictItem = new CachedDictItem();
+			dictItem.setId(1650000000000000000L + i);
+			dictItem.setDictCode("order_status");
+			dictItem.setItemValue(String.valueOf(i));
+			dictItem.setItemText("订单状态" + i);
+			dictItem.setSort(i);
+			dictItem.setEffective(i % 10 != 0);
+			dictItem.setRemark("由系统初始化的字典项，请勿删除");
+			dictItem.setCreateTime(createTime.plusMinutes(i));
+			dictItems.add(dictItem);
+		}
+		return dictItems;
+	}
+
+	/**
+	 * 缓存的字典项，字段与字典项实体相近
+	 *
+	 * @author Telechow
+	 * @since 2023/4/25 18:24
+	 */
+	@Data
+	public static class CachedDictItem {
+
+		private Long id;
+
+		private String dictCode;
+
+		private String itemValue;
+
+		private String itemText;
+
+		private Integer sort;
+
+		private Boolean effective;
+
+		private String remark;
+
+		private LocalDateTime createTime;
+	}
+}
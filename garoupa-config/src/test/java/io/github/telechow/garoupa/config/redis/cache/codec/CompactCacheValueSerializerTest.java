@@ -0,0 +1,59 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.config.redis.cache.codec;
+
+import com.alibaba.fastjson2.support.spring6.data.redis.GenericFastJsonRedisSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 紧凑的缓存值序列化器测试
+ *
+ * @author Telechow
+ * @since 2023/4/25 18:26
+ */
+class CompactCacheValueSerializerTest {
+
+	@ParameterizedTest
+	@ValueSource(strings = {"json-deflate", "jsonb", "jsonb-deflate"})
+	void roundTripsAndReadsValuesWrittenByBaseline(String codec) {
+		List<CompactCacheValueSerializerBenchmark.CachedDictItem> value = CompactCacheValueSerializerBenchmark
+			.dictItems(200);
+		CompactCacheValueSerializer serializer = (CompactCacheValueSerializer) CompactCacheValueSerializerBenchmark
+			.serializer(codec);
+
+		assertEquals(value, serializer.deserialize(serializer.serialize(value)));
+		assertEquals(value, serializer.deserialize(new GenericFastJsonRedisSerializer().serialize(value)));
+	}
+
+	@Test
+	void compressedValuesAreSmallerThanBaseline() {
+		List<CompactCacheValueSerializerBenchmark.CachedDictItem> value = CompactCacheValueSerializerBenchmark
+			.dictItems(200);
+		int baselineLength = new GenericFastJsonRedisSerializer().serialize(value).length;
+
+		for (String codec : new String[]{"json-deflate", "jsonb", "jsonb-deflate"}) {
+			int length = CompactCacheValueSerializerBenchmark.serializer(codec).serialize(value).length;
+			assertTrue(length < baselineLength, codec + ": " + length + " >= " + baselineLength);
+		}
+	}
+}
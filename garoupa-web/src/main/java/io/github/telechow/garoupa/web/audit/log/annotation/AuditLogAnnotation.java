@@ -1,5 +1,7 @@
 package io.github.telechow.garoupa.web.audit.log.annotation;
 
+import io.github.telechow.garoupa.api.enums.audit.log.RecordParamsEnum;
+
 import java.lang.annotation.*;
 
 /**
@@ -20,4 +22,22 @@ public @interface AuditLogAnnotation {
      * @since 2023/4/20 8:47
      */
     String value() default "";
+
+    /**
+     * 记录请求参数的方式，默认总是记录
+     *
+     * @author Telechow
+     * @since 2023/4/24 11:08
+     */
+    RecordParamsEnum recordParams() default RecordParamsEnum.ALWAYS;
+
+    /**
+     * 是否在方法执行前对请求参数做快照，默认不做快照，只保存参数引用，由审计日志写入器的后台线程序列化
+     * <li>方法会修改请求参数，且审计日志需要记录方法收到的参数时才开启，开启后在请求线程中序列化可变参数</li>
+     * <li>快照按照每个请求参数的最大字节数截断；记录方式为出错时记录的方法开启后，每次调用都要付出快照的开销</li>
+     *
+     * @author Telechow
+     * @since 2023/4/25 18:40
+     */
+    boolean snapshotParams() default false;
 }
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.archive;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.time.Period;
+
+/**
+ * 审计日志归档配置参数
+ * <li>超出归档时间的审计日志分区转存为列式压缩分段文件，转存后删除分区</li>
+ * <li>分段文件只由获得分区维护锁的节点写入，其他节点只能读到共享目录中的分段文件，因此只有声明了共享目录才会转存并删除分区</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 10:35
+ */
+@Data
+public class AuditLogArchiveProperties {
+
+    /**
+     * 是否启用审计日志归档，不启用时审计日志分区按照保留月数删除
+     */
+    private boolean enabled = false;
+
+    /**
+     * 分段文件的目录
+     */
+    private String directory = "logs/Garoupa/archive/audit-log";
+
+    /**
+     * 分段文件的目录是否对所有节点可见，如挂载到每个节点的共享存储，或者只部署了一个节点
+     * <li>不可见时不转存也不删除分区，审计日志分区按照保留月数删除，避免其他节点查询不到已经删除的分区中的审计日志</li>
+     */
+    private boolean shared = false;
+
+    /**
+     * 每个节点重新扫描分段文件目录的间隔，使每个节点都能读到其他节点转存的分段文件
+     */
+    private Duration refreshInterval = Duration.ofMinutes(1L);
+
+    /**
+     * 审计日志超过多长时间后归档，只有整个分区都超过此时间才会归档
+     */
+    private Duration archiveAfter = Duration.ofDays(90L);
+
+    /**
+     * 分段文件的保留时间，分段文件中最新的审计日志超过此时间后删除分段文件；为0时不删除
+     */
+    private Period retention = Period.ofYears(5);
+
+    /**
+     * 每个行组的最大行数，行组是分段文件中压缩和跳过的最小单位
+     */
+    private int rowGroupSize = 8192;
+
+    /**
+     * 压缩级别，0-9，越大压缩率越高，压缩越慢
+     */
+    private int compressionLevel = 6;
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.archive;
+
+import io.github.telechow.garoupa.web.log.ip.IpAddressRange;
+import io.github.telechow.garoupa.web.log.page.LogPageCursor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 审计日志归档查询条件，与审计日志分页查询的条件一致
+ *
+ * @param title           审计日志标题查询条件
+ * @param userId          请求用户id查询条件
+ * @param remoteIpRange   用户ip地址区间查询条件
+ * @param logType         日志类型查询条件
+ * @param createTimeBegin 请求时间起（含）
+ * @param createTimeEnd   请求时间止（不含），可以为null
+ * @param cursor          游标分页的游标，只返回游标之后的审计日志，可以为null
+ * @param skip            跳过满足条件的前几条审计日志
+ * @param limit           最多返回的审计日志条数
+ * @param searchCount     是否统计满足条件的总条数，不统计时取够条数即停止扫描
+ * @author Telechow
+ * @since 2023/4/25 11:25
+ */
+public record AuditLogArchiveQuery(String title, Long userId, IpAddressRange remoteIpRange, Integer logType
+        , LocalDateTime createTimeBegin, LocalDateTime createTimeEnd, LogPageCursor cursor
+        , long skip, long limit, boolean searchCount) {
+
+}
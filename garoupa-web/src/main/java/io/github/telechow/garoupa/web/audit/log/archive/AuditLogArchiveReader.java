@@ -0,0 +1,381 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.archive;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.StrUtil;
+import io.github.telechow.garoupa.api.entity.AuditLog;
+import io.github.telechow.garoupa.web.audit.log.properties.AuditLogProperties;
+import io.github.telechow.garoupa.web.log.ip.IpAddressCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 审计日志归档读取器
+ * <li>维护所有已经打开的分段文件，分段文件按照最晚的创建时间降序排列，各分段文件的时间范围互不重叠</li>
+ * <li>查询时先用分段文件和行组的最小值与最大值跳过不可能满足条件的行组，再只解压过滤需要的列</li>
+ * <li>行组中有需要返回的审计日志时，才解压其余的列</li>
+ * <li>分段文件由获得分区维护锁的节点写入共享目录，每个节点定时重新扫描目录，打开其他节点转存的分段文件</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 11:30
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditLogArchiveReader implements InitializingBean, DisposableBean {
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private final AuditLogProperties auditLogProperties;
+
+    private volatile List<AuditLogSegment> segments = List.of();
+
+    private ScheduledExecutorService executor;
+
+    @Override
+    public void afterPropertiesSet() {
+        this.refresh();
+        AuditLogArchiveProperties archiveProperties = auditLogProperties.getArchive();
+        if (!archiveProperties.isEnabled()) {
+            return;
+        }
+        if (!archiveProperties.isShared()) {
+            log.warn("审计日志归档目录[{}]没有声明为所有节点可见的共享目录，不会转存和删除审计日志分区"
+                    , archiveProperties.getDirectory());
+        }
+        long intervalMillis = Math.max(1L, archiveProperties.getRefreshInterval().toMillis());
+        executor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create().setNamePrefix("audit-log-archive-refresh-").setDaemon(true).build());
+        executor.scheduleWithFixedDelay(this::refresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(executor)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 重新扫描分段文件目录，打开新增的分段文件，移除已经删除的分段文件
+     *
+     * @author Telechow
+     * @since 2023/4/25 11:32
+     */
+    public synchronized void refresh() {
+        AuditLogArchiveProperties archiveProperties = auditLogProperties.getArchive();
+        Path directory = Path.of(archiveProperties.getDirectory());
+        if (!archiveProperties.isEnabled() || !Files.isDirectory(directory)) {
+            segments = List.of();
+            return;
+        }
+        Map<Path, AuditLogSegment> openedSegmentMap = new HashMap<>(segments.size() * 2);
+        segments.forEach(s -> openedSegmentMap.put(s.path(), s));
+        List<AuditLogSegment> refreshedSegments = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : paths.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                AuditLogSegment segment = openedSegmentMap.get(path);
+                if (Objects.isNull(segment)) {
+                    try {
+                        segment = AuditLogSegment.open(path);
+                    } catch (IOException e) {
+                        log.error("审计日志分段文件[{}]打开失败", path, e);
+                        continue;
+                    }
+                }
+                refreshedSegments.add(segment);
+            }
+        } catch (IOException e) {
+            log.error("审计日志分段文件目录[{}]扫描失败", directory, e);
+            return;
+        }
+        refreshedSegments.sort(Comparator.comparingLong(AuditLogSegment::maxCreateTime).reversed());
+        segments = List.copyOf(refreshedSegments);
+    }
+
+    /**
+     * 获取所有已经打开的分段文件
+     *
+     * @return java.util.List<io.github.telechow.garoupa.web.audit.log.archive.AuditLogSegment> 分段文件列表
+     * @author Telechow
+     * @since 2023/4/25 11:33
+     */
+    public List<AuditLogSegment> segments() {
+        return segments;
+    }
+
+    /**
+     * 查询时间范围是否与已归档的审计日志重叠，不重叠时无需查询归档
+     *
+     * @param createTimeBegin 请求时间起（含）
+     * @param createTimeEnd   请求时间止（不含），可以为null
+     * @return boolean 是否重叠
+     * @author Telechow
+     * @since 2023/4/25 11:34
+     */
+    public boolean overlaps(LocalDateTime createTimeBegin, LocalDateTime createTimeEnd) {
+        long lower = lowerBound(createTimeBegin);
+        long upper = upperBound(createTimeEnd);
+        return segments.stream().anyMatch(s -> s.maxCreateTime() >= lower && s.minCreateTime() < upper);
+    }
+
+    /**
+     * 查询已归档的审计日志，按照创建时间降序、id升序返回
+     *
+     * @param query 审计日志归档查询条件
+     * @return io.github.telechow.garoupa.web.audit.log.archive.AuditLogArchiveResult 审计日志归档查询结果
+     * @author Telechow
+     * @since 2023/4/25 11:36
+     */
+    public AuditLogArchiveResult query(AuditLogArchiveQuery query) {
+        long lower = lowerBound(query.createTimeBegin());
+        long upper = upperBound(query.createTimeEnd());
+        long cursorCreateTime = Objects.isNull(query.cursor()) ? Long.MAX_VALUE
+                : query.cursor().createTime().toEpochSecond(ZoneOffset.UTC);
+        List<AuditLog> records = new ArrayList<>();
+        long skip = query.skip();
+        long total = 0L;
+        for (AuditLogSegment segment : segments) {
+            //1.跳过时间范围不重叠的分段文件
+            if (segment.maxCreateTime() < lower || segment.minCreateTime() >= upper
+                    || segment.minCreateTime() > cursorCreateTime) {
+                continue;
+            }
+            for (AuditLogSegment.RowGroup rowGroup : segment.rowGroups()) {
+                //2.已经取够条数且不需要统计总条数时停止扫描
+                if (!query.searchCount() && records.size() >= query.limit()) {
+                    return new AuditLogArchiveResult(records, null);
+                }
+                //3.用行组的最小值与最大值跳过不可能满足条件的行组
+                if (!this.mayMatch(rowGroup, query, lower, upper, cursorCreateTime)) {
+                    continue;
+                }
+                //4.只解压过滤需要的列，找出满足条件的行
+                int[] matchedRows = this.filter(segment, rowGroup, query, lower, upper);
+                total += matchedRows.length;
+                int from = (int) Math.min(skip, matchedRows.length);
+                skip -= from;
+                int to = (int) Math.min(matchedRows.length, from + Math.max(0L, query.limit() - records.size()));
+                //5.有需要返回的行时，才解压其余的列
+                if (from < to) {
+                    records.addAll(this.materialize(segment, rowGroup, matchedRows, from, to));
+                }
+            }
+        }
+        return new AuditLogArchiveResult(records, query.searchCount() ? total : null);
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 根据行组的最小值与最大值判断行组中是否可能有满足条件的行
+     *
+     * @param rowGroup         行组
+     * @param query            审计日志归档查询条件
+     * @param lower            创建时间下界（含），秒级时间戳
+     * @param upper            创建时间上界（不含），秒级时间戳
+     * @param cursorCreateTime 游标的创建时间，秒级时间戳
+     * @return boolean 是否可能有满足条件的行
+     * @author Telechow
+     * @since 2023/4/25 11:40
+     */
+    private boolean mayMatch(AuditLogSegment.RowGroup rowGroup, AuditLogArchiveQuery query, long lower, long upper
+            , long cursorCreateTime) {
+        if (rowGroup.maxCreateTime() < lower || rowGroup.minCreateTime() >= upper
+                || rowGroup.minCreateTime() > cursorCreateTime) {
+            return false;
+        }
+        if (Objects.nonNull(query.userId())
+                && (query.userId() < rowGroup.minUserId() || query.userId() > rowGroup.maxUserId())) {
+            return false;
+        }
+        return !StrUtil.isNotBlank(query.title())
+                || (query.title().compareTo(rowGroup.minTitle()) >= 0 && query.title().compareTo(rowGroup.maxTitle()) <= 0);
+    }
+
+    /**
+     * 解压过滤需要的列，找出行组中满足条件的行
+     *
+     * @param segment  分段文件
+     * @param rowGroup 行组
+     * @param query    审计日志归档查询条件
+     * @param lower    创建时间下界（含），秒级时间戳
+     * @param upper    创建时间上界（不含），秒级时间戳
+     * @return int[] 满足条件的行下标，按照行的顺序排列
+     * @author Telechow
+     * @since 2023/4/25 11:42
+     */
+    private int[] filter(AuditLogSegment segment, AuditLogSegment.RowGroup rowGroup, AuditLogArchiveQuery query
+            , long lower, long upper) {
+        int rowCount = rowGroup.rowCount();
+        //1.解压过滤需要的列
+        long[] createTimes = AuditLogSegment.decodeLongs(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_CREATE_TIME), rowCount);
+        long[] ids = Objects.isNull(query.cursor()) ? null : AuditLogSegment.decodeLongs(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_ID), rowCount);
+        long[] userIds = Objects.isNull(query.userId()) ? null : AuditLogSegment.decodeLongs(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_USER_ID), rowCount);
+        int[] logTypes = Objects.isNull(query.logType()) ? null : AuditLogSegment.decodeInts(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_LOG_TYPE), rowCount);
+        String[] titles = StrUtil.isBlank(query.title()) ? null : AuditLogSegment.decodeStrings(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_TITLE), rowCount);
+        String[] remoteIps = Objects.isNull(query.remoteIpRange()) ? null : AuditLogSegment.decodeStrings(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_REMOTE_IP), rowCount);
+
+        //2.逐行判断是否满足条件
+        int[] matchedRows = new int[rowCount];
+        int matchedCount = 0;
+        for (int i = 0; i < rowCount; i++) {
+            long createTime = createTimes[i];
+            if (createTime < lower || createTime >= upper) {
+                continue;
+            }
+            if (Objects.nonNull(ids)) {
+                long cursorCreateTime = query.cursor().createTime().toEpochSecond(ZoneOffset.UTC);
+                if (createTime > cursorCreateTime || (createTime == cursorCreateTime && ids[i] <= query.cursor().id())) {
+                    continue;
+                }
+            }
+            if (Objects.nonNull(userIds) && userIds[i] != query.userId()) {
+                continue;
+            }
+            if (Objects.nonNull(logTypes) && logTypes[i] != query.logType()) {
+                continue;
+            }
+            if (Objects.nonNull(titles) && !query.title().equals(titles[i])) {
+                continue;
+            }
+            if (Objects.nonNull(remoteIps) && !query.remoteIpRange().contains(IpAddressCodec.encode(remoteIps[i]))) {
+                continue;
+            }
+            matchedRows[matchedCount++] = i;
+        }
+        return matchedCount == rowCount ? matchedRows : Arrays.copyOf(matchedRows, matchedCount);
+    }
+
+    /**
+     * 解压所有列，将满足条件的行转换成审计日志实体
+     *
+     * @param segment     分段文件
+     * @param rowGroup    行组
+     * @param matchedRows 满足条件的行下标
+     * @param from        需要返回的第一个行下标在matchedRows中的位置（含）
+     * @param to          需要返回的最后一个行下标在matchedRows中的位置（不含）
+     * @return java.util.List<io.github.telechow.garoupa.api.entity.AuditLog> 审计日志实体列表
+     * @author Telechow
+     * @since 2023/4/25 11:45
+     */
+    private List<AuditLog> materialize(AuditLogSegment segment, AuditLogSegment.RowGroup rowGroup, int[] matchedRows
+            , int from, int to) {
+        int rowCount = rowGroup.rowCount();
+        long[] ids = AuditLogSegment.decodeLongs(segment.readColumn(rowGroup, AuditLogSegment.COLUMN_ID), rowCount);
+        String[] titles = AuditLogSegment.decodeStrings(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_TITLE), rowCount);
+        long[] userIds = AuditLogSegment.decodeLongs(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_USER_ID), rowCount);
+        String[] remoteIps = AuditLogSegment.decodeStrings(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_REMOTE_IP), rowCount);
+        String[] userAgents = AuditLogSegment.decodeStrings(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_USER_AGENT), rowCount);
+        String[] requestUris = AuditLogSegment.decodeStrings(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_REQUEST_URI), rowCount);
+        String[] methods = AuditLogSegment.decodeStrings(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_METHOD), rowCount);
+        String[] requestParams = AuditLogSegment.decodeStrings(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_REQUEST_PARAMS), rowCount);
+        long[] executeDurations = AuditLogSegment.decodeLongs(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_EXECUTE_DURATION), rowCount);
+        int[] logTypes = AuditLogSegment.decodeInts(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_LOG_TYPE), rowCount);
+        String[] exceptionMessages = AuditLogSegment.decodeStrings(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_EXCEPTION_MESSAGE), rowCount);
+        long[] createTimes = AuditLogSegment.decodeLongs(
+                segment.readColumn(rowGroup, AuditLogSegment.COLUMN_CREATE_TIME), rowCount);
+
+        List<AuditLog> auditLogs = new ArrayList<>(to - from);
+        for (int m = from; m < to; m++) {
+            int i = matchedRows[m];
+            AuditLog auditLog = new AuditLog();
+            auditLog.setId(ids[i]);
+            auditLog.setTitle(titles[i]);
+            auditLog.setUserId(userIds[i]);
+            auditLog.setRemoteIp(remoteIps[i]);
+            auditLog.setUserAgent(userAgents[i]);
+            auditLog.setRequestUri(requestUris[i]);
+            auditLog.setMethod(methods[i]);
+            auditLog.setRequestParams(requestParams[i]);
+            auditLog.setExecuteDuration(executeDurations[i]);
+            auditLog.setLogType(logTypes[i]);
+            auditLog.setExceptionMessage(exceptionMessages[i]);
+            auditLog.setCreateTime(LocalDateTime.ofEpochSecond(createTimes[i], 0, ZoneOffset.UTC));
+            auditLogs.add(auditLog);
+        }
+        return auditLogs;
+    }
+
+    /**
+     * 创建时间下界（含）转换成秒级时间戳，不足一秒的部分向上取整
+     *
+     * @param createTimeBegin 请求时间起（含），可以为null
+     * @return long 秒级时间戳
+     * @author Telechow
+     * @since 2023/4/25 11:47
+     */
+    private static long lowerBound(LocalDateTime createTimeBegin) {
+        if (Objects.isNull(createTimeBegin)) {
+            return Long.MIN_VALUE;
+        }
+        long epochSecond = createTimeBegin.toEpochSecond(ZoneOffset.UTC);
+        return createTimeBegin.getNano() > 0 ? epochSecond + 1 : epochSecond;
+    }
+
+    /**
+     * 创建时间上界（不含）转换成秒级时间戳，不足一秒的部分向上取整
+     *
+     * @param createTimeEnd 请求时间止（不含），可以为null
+     * @return long 秒级时间戳
+     * @author Telechow
+     * @since 2023/4/25 11:48
+     */
+    private static long upperBound(LocalDateTime createTimeEnd) {
+        if (Objects.isNull(createTimeEnd)) {
+            return Long.MAX_VALUE;
+        }
+        long epochSecond = createTimeEnd.toEpochSecond(ZoneOffset.UTC);
+        return createTimeEnd.getNano() > 0 ? epochSecond + 1 : epochSecond;
+    }
+}
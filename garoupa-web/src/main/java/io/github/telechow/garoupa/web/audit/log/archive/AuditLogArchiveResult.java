@@ -0,0 +1,32 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.archive;
+
+import io.github.telechow.garoupa.api.entity.AuditLog;
+
+import java.util.List;
+
+/**
+ * 审计日志归档查询结果
+ *
+ * @param records 审计日志实体列表，按照创建时间降序、id升序排序
+ * @param total   满足条件的总条数，不统计总条数时为null
+ * @author Telechow
+ * @since 2023/4/25 11:26
+ */
+public record AuditLogArchiveResult(List<AuditLog> records, Long total) {
+
+}
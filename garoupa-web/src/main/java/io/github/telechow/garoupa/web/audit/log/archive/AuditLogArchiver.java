@@ -0,0 +1,139 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.archive;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import io.github.telechow.garoupa.api.entity.AuditLog;
+import io.github.telechow.garoupa.web.audit.log.properties.AuditLogProperties;
+import io.github.telechow.garoupa.web.auto.service.IAuditLogAutoService;
+import io.github.telechow.garoupa.web.log.partition.LogPartitionArchiver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+
+/**
+ * 审计日志归档器
+ * <li>将超出归档时间的审计日志分区转存为一个分段文件，文件名为分区名称，转存完成后由分区维护任务删除分区</li>
+ * <li>分段文件先写入临时文件，写完后原子地重命名，读取器只会看到完整的分段文件</li>
+ * <li>分段文件的目录必须对所有节点可见才会启用，否则删除分区后其他节点查询不到这些审计日志</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 11:50
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditLogArchiver implements LogPartitionArchiver {
+
+    private static final String TABLE_NAME = "garoupa_audit_log";
+
+    private final AuditLogProperties auditLogProperties;
+
+    private final IAuditLogAutoService auditLogAutoService;
+
+    private final AuditLogArchiveReader auditLogArchiveReader;
+
+    @Override
+    public String tableName() {
+        return TABLE_NAME;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        AuditLogArchiveProperties archiveProperties = auditLogProperties.getArchive();
+        return archiveProperties.isEnabled() && archiveProperties.isShared();
+    }
+
+    @Override
+    public LocalDate archiveBefore() {
+        return LocalDate.now().minusDays(auditLogProperties.getArchive().getArchiveAfter().toDays());
+    }
+
+    @Override
+    @Transactional(readOnly = true, rollbackFor = Exception.class)
+    public void archive(String partitionName, LocalDateTime begin, LocalDateTime end) {
+        AuditLogArchiveProperties archiveProperties = auditLogProperties.getArchive();
+        Path directory = Path.of(archiveProperties.getDirectory());
+        Path segmentPath = directory.resolve(partitionName + AuditLogArchiveReader.SEGMENT_SUFFIX);
+        //1.分段文件已经存在，说明上次转存完成但分区没有删除，直接返回
+        if (Files.exists(segmentPath)) {
+            return;
+        }
+
+        //2.以流式游标按照创建时间降序、id升序读取分区中的审计日志，逐行写入分段文件
+        LambdaQueryWrapper<AuditLog> lambdaQueryWrapper = Wrappers.<AuditLog>lambdaQuery()
+                .ge(AuditLog::getCreateTime, begin)
+                .lt(AuditLog::getCreateTime, end)
+                .orderByDesc(AuditLog::getCreateTime)
+                .orderByAsc(AuditLog::getId);
+        long rowCount = 0L;
+        try {
+            Files.createDirectories(directory);
+            try (AuditLogSegmentWriter writer = new AuditLogSegmentWriter(segmentPath
+                    , archiveProperties.getRowGroupSize(), archiveProperties.getCompressionLevel());
+                 Cursor<AuditLog> cursor = auditLogAutoService.cursor(lambdaQueryWrapper)) {
+                for (AuditLog auditLog : cursor) {
+                    writer.write(auditLog);
+                    rowCount++;
+                }
+                writer.finish();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("审计日志分区[{}]已归档到[{}]，共{}条", partitionName, segmentPath, rowCount);
+
+        //3.通知本节点的读取器立即打开新的分段文件，其他节点的读取器定时扫描共享目录
+        auditLogArchiveReader.refresh();
+    }
+
+    @Override
+    public void expire() {
+        Period retention = auditLogProperties.getArchive().getRetention();
+        if (retention.isZero()) {
+            return;
+        }
+        long expireBefore = LocalDateTime.now().minus(retention).toEpochSecond(ZoneOffset.UTC);
+        boolean expired = false;
+        for (AuditLogSegment segment : auditLogArchiveReader.segments()) {
+            if (segment.maxCreateTime() >= expireBefore) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(segment.path());
+                expired = true;
+                log.info("审计日志分段文件[{}]已过期删除", segment.path());
+            } catch (IOException e) {
+                log.error("审计日志分段文件[{}]删除失败", segment.path(), e);
+            }
+        }
+        if (expired) {
+            auditLogArchiveReader.refresh();
+        }
+    }
+}
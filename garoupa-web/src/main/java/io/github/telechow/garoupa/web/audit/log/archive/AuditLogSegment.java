@@ -0,0 +1,279 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 审计日志分段文件
+ * <li>分段文件以只读方式映射到内存，读取列数据块时直接从映射的内存解压，不经过额外的读缓冲</li>
+ * <li>打开时只解析文件尾的行组索引，列数据在查询时按需解压，不需要的列不解压</li>
+ * <li>分段文件写入后不再修改，可以被多个线程同时读取；单个分段文件不能超过2GB</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 11:10
+ */
+public final class AuditLogSegment {
+
+    static final int MAGIC = 0x47414C53;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_LENGTH = 8;
+
+    static final int TAIL_LENGTH = 8;
+
+    static final int COLUMN_ID = 0;
+
+    static final int COLUMN_TITLE = 1;
+
+    static final int COLUMN_USER_ID = 2;
+
+    static final int COLUMN_REMOTE_IP = 3;
+
+    static final int COLUMN_USER_AGENT = 4;
+
+    static final int COLUMN_REQUEST_URI = 5;
+
+    static final int COLUMN_METHOD = 6;
+
+    static final int COLUMN_REQUEST_PARAMS = 7;
+
+    static final int COLUMN_EXECUTE_DURATION = 8;
+
+    static final int COLUMN_LOG_TYPE = 9;
+
+    static final int COLUMN_EXCEPTION_MESSAGE = 10;
+
+    static final int COLUMN_CREATE_TIME = 11;
+
+    static final int COLUMN_COUNT = 12;
+
+    private final Path path;
+
+    private final MappedByteBuffer mappedByteBuffer;
+
+    private final List<RowGroup> rowGroups;
+
+    private final long minCreateTime;
+
+    private final long maxCreateTime;
+
+    private AuditLogSegment(Path path, MappedByteBuffer mappedByteBuffer, List<RowGroup> rowGroups) {
+        this.path = path;
+        this.mappedByteBuffer = mappedByteBuffer;
+        this.rowGroups = rowGroups;
+        this.minCreateTime = rowGroups.stream().mapToLong(RowGroup::minCreateTime).min().orElse(Long.MAX_VALUE);
+        this.maxCreateTime = rowGroups.stream().mapToLong(RowGroup::maxCreateTime).max().orElse(Long.MIN_VALUE);
+    }
+
+    /**
+     * 打开分段文件，映射到内存并解析行组索引
+     *
+     * @param path 分段文件路径
+     * @return io.github.telechow.garoupa.web.audit.log.archive.AuditLogSegment 审计日志分段文件
+     * @throws IOException 文件读取失败或文件格式错误
+     * @author Telechow
+     * @since 2023/4/25 11:12
+     */
+    public static AuditLogSegment open(Path path) throws IOException {
+        //1.映射整个文件，映射建立后关闭文件通道不影响映射
+        MappedByteBuffer mappedByteBuffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            mappedByteBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+        }
+
+        //2.校验文件头和文件尾的魔数
+        int size = mappedByteBuffer.capacity();
+        if (size < HEADER_LENGTH + TAIL_LENGTH || mappedByteBuffer.getInt(0) != MAGIC
+                || mappedByteBuffer.getInt(size - 4) != MAGIC) {
+            throw new IOException("审计日志分段文件格式错误：" + path);
+        }
+        if (mappedByteBuffer.getInt(4) != VERSION) {
+            throw new IOException("审计日志分段文件版本不支持：" + path);
+        }
+
+        //3.解析文件尾的行组索引
+        int footerLength = mappedByteBuffer.getInt(size - TAIL_LENGTH);
+        byte[] footerBytes = new byte[footerLength];
+        mappedByteBuffer.get(size - TAIL_LENGTH - footerLength, footerBytes);
+        DataInputStream footer = new DataInputStream(new ByteArrayInputStream(footerBytes));
+        int rowGroupCount = footer.readInt();
+        List<RowGroup> rowGroups = new ArrayList<>(rowGroupCount);
+        for (int i = 0; i < rowGroupCount; i++) {
+            int rowCount = footer.readInt();
+            long minCreateTime = footer.readLong();
+            long maxCreateTime = footer.readLong();
+            long minUserId = footer.readLong();
+            long maxUserId = footer.readLong();
+            String minTitle = footer.readUTF();
+            String maxTitle = footer.readUTF();
+            long[] offsets = new long[COLUMN_COUNT];
+            int[] compressedLengths = new int[COLUMN_COUNT];
+            int[] rawLengths = new int[COLUMN_COUNT];
+            for (int column = 0; column < COLUMN_COUNT; column++) {
+                offsets[column] = footer.readLong();
+                compressedLengths[column] = footer.readInt();
+                rawLengths[column] = footer.readInt();
+            }
+            rowGroups.add(new RowGroup(rowCount, minCreateTime, maxCreateTime, minUserId, maxUserId, minTitle, maxTitle
+                    , offsets, compressedLengths, rawLengths));
+        }
+        return new AuditLogSegment(path, mappedByteBuffer, Collections.unmodifiableList(rowGroups));
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public List<RowGroup> rowGroups() {
+        return rowGroups;
+    }
+
+    /**
+     * 分段文件中最早的创建时间，秒级时间戳；空分段文件为Long.MAX_VALUE
+     */
+    public long minCreateTime() {
+        return minCreateTime;
+    }
+
+    /**
+     * 分段文件中最晚的创建时间，秒级时间戳；空分段文件为Long.MIN_VALUE
+     */
+    public long maxCreateTime() {
+        return maxCreateTime;
+    }
+
+    /**
+     * 从映射的内存中解压一个列数据块
+     *
+     * @param rowGroup 行组
+     * @param column   列下标
+     * @return java.nio.ByteBuffer 解压后的列数据
+     * @author Telechow
+     * @since 2023/4/25 11:15
+     */
+    public ByteBuffer readColumn(RowGroup rowGroup, int column) {
+        ByteBuffer compressed = mappedByteBuffer.slice((int) rowGroup.offsets()[column]
+                , rowGroup.compressedLengths()[column]);
+        ByteBuffer raw = ByteBuffer.allocate(rowGroup.rawLengths()[column]);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            while (!inflater.finished() && raw.hasRemaining()) {
+                if (inflater.inflate(raw) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("审计日志分段文件数据损坏：" + path, e);
+        } finally {
+            inflater.end();
+        }
+        return raw.flip();
+    }
+
+    /**
+     * 解码数值列
+     *
+     * @param column   解压后的列数据
+     * @param rowCount 行数
+     * @return long[] 每行的值
+     * @author Telechow
+     * @since 2023/4/25 11:17
+     */
+    public static long[] decodeLongs(ByteBuffer column, int rowCount) {
+        long[] values = new long[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            values[i] = column.getLong();
+        }
+        return values;
+    }
+
+    /**
+     * 解码整数列
+     *
+     * @param column   解压后的列数据
+     * @param rowCount 行数
+     * @return int[] 每行的值
+     * @author Telechow
+     * @since 2023/4/25 11:18
+     */
+    public static int[] decodeInts(ByteBuffer column, int rowCount) {
+        int[] values = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            values[i] = column.getInt();
+        }
+        return values;
+    }
+
+    /**
+     * 解码字符串列
+     *
+     * @param column   解压后的列数据
+     * @param rowCount 行数
+     * @return java.lang.String[] 每行的值
+     * @author Telechow
+     * @since 2023/4/25 11:19
+     */
+    public static String[] decodeStrings(ByteBuffer column, int rowCount) {
+        String[] values = new String[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            int length = column.getInt();
+            if (length < 0) {
+                continue;
+            }
+            values[i] = new String(column.array(), column.arrayOffset() + column.position(), length
+                    , StandardCharsets.UTF_8);
+            column.position(column.position() + length);
+        }
+        return values;
+    }
+
+    /**
+     * 行组索引
+     *
+     * @param rowCount          行数
+     * @param minCreateTime     最早的创建时间，秒级时间戳
+     * @param maxCreateTime     最晚的创建时间，秒级时间戳
+     * @param minUserId         最小的用户id
+     * @param maxUserId         最大的用户id
+     * @param minTitle          最小的标题
+     * @param maxTitle          最大的标题
+     * @param offsets           每个列数据块在文件中的位置
+     * @param compressedLengths 每个列数据块压缩后的长度
+     * @param rawLengths        每个列数据块解压后的长度
+     * @author Telechow
+     * @since 2023/4/25 11:11
+     */
+    public record RowGroup(int rowCount, long minCreateTime, long maxCreateTime, long minUserId, long maxUserId
+            , String minTitle, String maxTitle, long[] offsets, int[] compressedLengths, int[] rawLengths) {
+
+    }
+}
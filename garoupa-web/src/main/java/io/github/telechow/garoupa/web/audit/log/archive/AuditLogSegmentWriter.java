@@ -0,0 +1,297 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.archive;
+
+import io.github.telechow.garoupa.api.entity.AuditLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.zip.Deflater;
+
+/**
+ * 审计日志分段文件写入器
+ * <li>审计日志按照写入顺序每{@code rowGroupSize}行组成一个行组，行组中的每一列单独编码并压缩</li>
+ * <li>文件结构：文件头（魔数、版本）、所有行组的列数据块、文件尾（行组索引、文件尾长度、魔数）</li>
+ * <li>行组索引记录每个行组的行数、创建时间、用户id和标题的最小值与最大值，以及每个列数据块的位置和长度</li>
+ * <li>先写入临时文件，完成后原子重命名，分段文件一旦存在就是完整的</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 10:45
+ */
+public class AuditLogSegmentWriter implements Closeable {
+
+    private final Path path;
+
+    private final Path tempPath;
+
+    private final int rowGroupSize;
+
+    private final FileChannel channel;
+
+    private final Deflater deflater;
+
+    private final List<AuditLog> rowGroup;
+
+    private final List<AuditLogSegment.RowGroup> rowGroups = new ArrayList<>();
+
+    private boolean finished;
+
+    public AuditLogSegmentWriter(Path path, int rowGroupSize, int compressionLevel) throws IOException {
+        this.path = path;
+        this.tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        this.rowGroupSize = Math.max(1, rowGroupSize);
+        this.channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE
+                , StandardOpenOption.TRUNCATE_EXISTING);
+        this.deflater = new Deflater(compressionLevel);
+        this.rowGroup = new ArrayList<>(this.rowGroupSize);
+        ByteBuffer header = ByteBuffer.allocate(AuditLogSegment.HEADER_LENGTH);
+        header.putInt(AuditLogSegment.MAGIC).putInt(AuditLogSegment.VERSION).flip();
+        this.writeFully(header);
+    }
+
+    /**
+     * 写入一条审计日志，审计日志需要按照创建时间降序、id升序的顺序写入
+     *
+     * @param auditLog 审计日志实体
+     * @throws IOException 写入失败
+     * @author Telechow
+     * @since 2023/4/25 10:50
+     */
+    public void write(AuditLog auditLog) throws IOException {
+        rowGroup.add(auditLog);
+        if (rowGroup.size() >= rowGroupSize) {
+            this.flushRowGroup();
+        }
+    }
+
+    /**
+     * 写入剩余的行组和文件尾，刷盘后将临时文件重命名为分段文件
+     *
+     * @throws IOException 写入失败
+     * @author Telechow
+     * @since 2023/4/25 10:52
+     */
+    public void finish() throws IOException {
+        //1.写入剩余的行组
+        this.flushRowGroup();
+
+        //2.写入文件尾
+        ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+        DataOutputStream footer = new DataOutputStream(footerBytes);
+        footer.writeInt(rowGroups.size());
+        for (AuditLogSegment.RowGroup group : rowGroups) {
+            footer.writeInt(group.rowCount());
+            footer.writeLong(group.minCreateTime());
+            footer.writeLong(group.maxCreateTime());
+            footer.writeLong(group.minUserId());
+            footer.writeLong(group.maxUserId());
+            footer.writeUTF(group.minTitle());
+            footer.writeUTF(group.maxTitle());
+            for (int column = 0; column < AuditLogSegment.COLUMN_COUNT; column++) {
+                footer.writeLong(group.offsets()[column]);
+                footer.writeInt(group.compressedLengths()[column]);
+                footer.writeInt(group.rawLengths()[column]);
+            }
+        }
+        footer.flush();
+        ByteBuffer tail = ByteBuffer.allocate(footerBytes.size() + AuditLogSegment.TAIL_LENGTH);
+        tail.put(footerBytes.toByteArray()).putInt(footerBytes.size()).putInt(AuditLogSegment.MAGIC).flip();
+        this.writeFully(tail);
+
+        //3.刷盘后原子重命名
+        channel.force(true);
+        channel.close();
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+    }
+
+    /**
+     * 关闭写入器，没有完成的分段文件删除临时文件
+     *
+     * @throws IOException 关闭失败
+     * @author Telechow
+     * @since 2023/4/25 10:54
+     */
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!finished) {
+            channel.close();
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 将缓存的审计日志作为一个行组写入文件
+     *
+     * @throws IOException 写入失败
+     * @author Telechow
+     * @since 2023/4/25 10:56
+     */
+    private void flushRowGroup() throws IOException {
+        if (rowGroup.isEmpty()) {
+            return;
+        }
+        //1.统计行组的最小值和最大值
+        long minCreateTime = Long.MAX_VALUE, maxCreateTime = Long.MIN_VALUE;
+        long minUserId = Long.MAX_VALUE, maxUserId = Long.MIN_VALUE;
+        String minTitle = null, maxTitle = null;
+        for (AuditLog auditLog : rowGroup) {
+            long createTime = toEpochSecond(auditLog.getCreateTime());
+            minCreateTime = Math.min(minCreateTime, createTime);
+            maxCreateTime = Math.max(maxCreateTime, createTime);
+            long userId = Optional.ofNullable(auditLog.getUserId()).orElse(0L);
+            minUserId = Math.min(minUserId, userId);
+            maxUserId = Math.max(maxUserId, userId);
+            String title = Optional.ofNullable(auditLog.getTitle()).orElse("");
+            minTitle = Objects.isNull(minTitle) || title.compareTo(minTitle) < 0 ? title : minTitle;
+            maxTitle = Objects.isNull(maxTitle) || title.compareTo(maxTitle) > 0 ? title : maxTitle;
+        }
+
+        //2.逐列编码、压缩并写入
+        long[] offsets = new long[AuditLogSegment.COLUMN_COUNT];
+        int[] compressedLengths = new int[AuditLogSegment.COLUMN_COUNT];
+        int[] rawLengths = new int[AuditLogSegment.COLUMN_COUNT];
+        for (int column = 0; column < AuditLogSegment.COLUMN_COUNT; column++) {
+            byte[] raw = this.encodeColumn(column);
+            byte[] compressed = this.compress(raw);
+            offsets[column] = channel.position();
+            compressedLengths[column] = compressed.length;
+            rawLengths[column] = raw.length;
+            this.writeFully(ByteBuffer.wrap(compressed));
+        }
+        rowGroups.add(new AuditLogSegment.RowGroup(rowGroup.size(), minCreateTime, maxCreateTime, minUserId, maxUserId
+                , minTitle, maxTitle, offsets, compressedLengths, rawLengths));
+        rowGroup.clear();
+    }
+
+    /**
+     * 编码行组中的一列，数值列为定长的大端整数，字符串列为长度加UTF-8字节，长度为-1表示null
+     *
+     * @param column 列下标
+     * @return byte[] 编码后的列数据
+     * @throws IOException 编码失败
+     * @author Telechow
+     * @since 2023/4/25 10:58
+     */
+    private byte[] encodeColumn(int column) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rowGroup.size() * 8);
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (AuditLog auditLog : rowGroup) {
+            switch (column) {
+                case AuditLogSegment.COLUMN_ID -> out.writeLong(auditLog.getId());
+                case AuditLogSegment.COLUMN_TITLE -> writeString(out, auditLog.getTitle());
+                case AuditLogSegment.COLUMN_USER_ID -> out.writeLong(Optional.ofNullable(auditLog.getUserId()).orElse(0L));
+                case AuditLogSegment.COLUMN_REMOTE_IP -> writeString(out, auditLog.getRemoteIp());
+                case AuditLogSegment.COLUMN_USER_AGENT -> writeString(out, auditLog.getUserAgent());
+                case AuditLogSegment.COLUMN_REQUEST_URI -> writeString(out, auditLog.getRequestUri());
+                case AuditLogSegment.COLUMN_METHOD -> writeString(out, auditLog.getMethod());
+                case AuditLogSegment.COLUMN_REQUEST_PARAMS -> writeString(out, auditLog.getRequestParams());
+                case AuditLogSegment.COLUMN_EXECUTE_DURATION ->
+                        out.writeLong(Optional.ofNullable(auditLog.getExecuteDuration()).orElse(0L));
+                case AuditLogSegment.COLUMN_LOG_TYPE -> out.writeInt(Optional.ofNullable(auditLog.getLogType()).orElse(0));
+                case AuditLogSegment.COLUMN_EXCEPTION_MESSAGE -> writeString(out, auditLog.getExceptionMessage());
+                case AuditLogSegment.COLUMN_CREATE_TIME -> out.writeLong(toEpochSecond(auditLog.getCreateTime()));
+                default -> throw new IllegalArgumentException("未知的列：" + column);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 压缩一列数据
+     *
+     * @param raw 编码后的列数据
+     * @return byte[] 压缩后的列数据
+     * @author Telechow
+     * @since 2023/4/25 11:00
+     */
+    private byte[] compress(byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(buffer);
+            compressed.write(buffer, 0, length);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * 将缓冲区中的数据全部写入文件
+     *
+     * @param buffer 缓冲区
+     * @throws IOException 写入失败
+     * @author Telechow
+     * @since 2023/4/25 11:01
+     */
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * 写入一个字符串，长度为-1表示null
+     *
+     * @param out   输出流
+     * @param value 字符串
+     * @throws IOException 写入失败
+     * @author Telechow
+     * @since 2023/4/25 11:02
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (Objects.isNull(value)) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * 将创建时间转换成秒级时间戳，与日志游标的转换方式一致
+     *
+     * @param createTime 创建时间
+     * @return long 秒级时间戳
+     * @author Telechow
+     * @since 2023/4/25 11:03
+     */
+    private static long toEpochSecond(LocalDateTime createTime) {
+        return createTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -15,13 +15,16 @@
  */
 package io.github.telechow.garoupa.web.audit.log.aspect;
 
-import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.extra.servlet.JakartaServletUtil;
-import com.alibaba.fastjson2.JSON;
 import io.github.telechow.garoupa.api.entity.AuditLog;
 import io.github.telechow.garoupa.api.enums.audit.log.LogTypeEnum;
 import io.github.telechow.garoupa.web.audit.log.annotation.AuditLogAnnotation;
 import io.github.telechow.garoupa.web.audit.log.event.AuditLogEvent;
+import io.github.telechow.garoupa.web.audit.log.latency.EndpointLatencyRecorder;
+import io.github.telechow.garoupa.web.audit.log.param.AuditLogMethodDescriptor;
+import io.github.telechow.garoupa.web.audit.log.param.AuditLogParamSnapshot;
+import io.github.telechow.garoupa.web.audit.log.properties.AuditLogProperties;
+import io.github.telechow.garoupa.web.log.ip.IpAddressCodec;
 import io.github.telechow.garoupa.web.utils.AuthenticationUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -35,14 +38,21 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
 
+import java.lang.reflect.Method;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 审计日志切面处理
+ * <li>每个方法的参数名称和注解配置解析一次后缓存在审计日志方法描述中</li>
+ * <li>请求参数只保存引用，序列化、截断和拼接都交给审计日志写入器的后台线程，请求线程不为序列化付出时间</li>
+ * <li>注解显式开启了快照的方法会修改请求参数，可变的参数在方法执行前序列化成截断后的快照，记录的是方法收到的参数</li>
+ * <li>以纳秒计时，请求结束时同时记录到接口耗时统计器中，统计键优先使用接口的路径模板</li>
  *
  * @author Telechow
  * @since 2023/4/20 8:49
@@ -54,6 +64,12 @@ public class AuditLogAspect {
 
     private final ApplicationEventPublisher applicationEventPublisher;
 
+    private final EndpointLatencyRecorder endpointLatencyRecorder;
+
+    private final AuditLogProperties auditLogProperties;
+
+    private final Map<Method, AuditLogMethodDescriptor> methodDescriptorMap = new ConcurrentHashMap<>();
+
     /**
      * 环绕通知
      *
@@ -67,46 +83,54 @@ public class AuditLogAspect {
     @Around("@annotation(auditLogAnnotation)")
     public Object around(ProceedingJoinPoint point, AuditLogAnnotation auditLogAnnotation) {
         //1.实例化审计日志实体
+        MethodSignature methodSignature = (MethodSignature) point.getSignature();
+        AuditLogMethodDescriptor methodDescriptor = methodDescriptorMap.computeIfAbsent(methodSignature.getMethod()
+                , m -> AuditLogMethodDescriptor.of(methodSignature, auditLogAnnotation));
         AuditLog auditLog = new AuditLog();
         //1.1.审计日志标题、请求用户id
-        auditLog.setTitle(auditLogAnnotation.value());
+        auditLog.setTitle(methodDescriptor.title());
         auditLog.setUserId(AuthenticationUtil.getUserId());
         //1.2.请求用户ip地址、用户代理、请求uri、请求方法
         HttpServletRequest request = ((ServletRequestAttributes) Objects
                 .requireNonNull(RequestContextHolder.getRequestAttributes())).getRequest();
-        auditLog.setRemoteIp(JakartaServletUtil.getClientIP(request))
+        String clientIp = JakartaServletUtil.getClientIP(request);
+        auditLog.setRemoteIp(clientIp).setRemoteIpBin(IpAddressCodec.encode(clientIp))
                 .setUserAgent(request.getHeader(HttpHeaders.USER_AGENT))
                 .setRequestUri(request.getRequestURI()).setMethod(request.getMethod());
-        //1.3.请求参数的json
-        String[] parameterNames = ((MethodSignature) point.getSignature()).getParameterNames();
-        Map<String, Object> requestParamMap = new HashMap<>(parameterNames.length);
-        if (ArrayUtil.isNotEmpty(parameterNames)) {
-            Object[] args = point.getArgs();
-            for (int i = 0; i < parameterNames.length; i++) {
-                requestParamMap.put(parameterNames[i], args[i]);
-            }
-        }
-        auditLog.setRequestParams(JSON.toJSONString(requestParamMap));
-        //1.4.日志类型，设置为正常
+        //1.3.日志类型，设置为正常
         auditLog.setLogType(LogTypeEnum.NORMAL.getCode());
-        //1.5.请求时间，设置为当前系统时间
+        //1.4.请求时间，设置为当前系统时间
         auditLog.setCreateTime(LocalDateTime.now());
 
+        //1.5.请求参数默认只保存引用，注解显式开启了快照时在方法执行前对可变参数做快照
+        final Object[] args = methodDescriptor.shouldSnapshotParams()
+                ? AuditLogParamSnapshot.snapshot(methodDescriptor, point.getArgs()
+                , auditLogProperties.getMaxParamBytes())
+                : point.getArgs();
+
         //2.执行切面方法
-        Long startTime = System.currentTimeMillis();
+        final long startNanos = System.nanoTime();
         Object obj;
+        boolean error = false;
         try {
             obj = point.proceed();
         } catch (Exception e) {
             //2.1.如果执行切面方法抛出异常，则设置审计日志类型为错误，并设置异常信息
+            error = true;
             auditLog.setLogType(LogTypeEnum.ERROR.getCode()).setExceptionMessage(e.getMessage());
             //2.2.然后将异常原样抛出
             throw e;
         } finally {
-            //3.发送异步日志事件
-            Long endTime = System.currentTimeMillis();
-            auditLog.setExecuteDuration(endTime - startTime);
-            applicationEventPublisher.publishEvent(new AuditLogEvent(auditLog));
+            //3.记录接口耗时，路径模板不存在时使用请求uri
+            long durationNanos = System.nanoTime() - startNanos;
+            auditLog.setExecuteDuration(TimeUnit.NANOSECONDS.toMillis(durationNanos));
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            endpointLatencyRecorder.record(methodDescriptor.title()
+                    , Objects.isNull(pattern) ? auditLog.getRequestUri() : pattern.toString(), durationNanos, error);
+
+            //4.发送异步日志事件，需要记录请求参数时传递参数引用或快照，由审计日志写入器的后台线程完成序列化
+            applicationEventPublisher.publishEvent(new AuditLogEvent(auditLog, methodDescriptor
+                    , methodDescriptor.shouldRecordParams(error) ? args : null));
         }
         return obj;
     }
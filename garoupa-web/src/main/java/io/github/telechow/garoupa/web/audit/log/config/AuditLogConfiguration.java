@@ -15,14 +15,26 @@
  */
 package io.github.telechow.garoupa.web.audit.log.config;
 
+import io.github.telechow.garoupa.api.entity.AuditLog;
 import io.github.telechow.garoupa.web.audit.log.aspect.AuditLogAspect;
+import io.github.telechow.garoupa.web.audit.log.event.AuditLogEvent;
+import io.github.telechow.garoupa.web.audit.log.latency.EndpointLatencyRecorder;
 import io.github.telechow.garoupa.web.audit.log.listener.AuditLogListener;
+import io.github.telechow.garoupa.web.audit.log.param.AuditLogParamSerializer;
+import io.github.telechow.garoupa.web.audit.log.properties.AuditLogProperties;
 import io.github.telechow.garoupa.web.auto.service.IAuditLogAutoService;
+import io.github.telechow.garoupa.web.log.journal.SpillJournal;
+import io.github.telechow.garoupa.web.log.journal.SpillJournalProperties;
+import io.github.telechow.garoupa.web.log.writer.BatchingLogWriter;
+import io.github.telechow.garoupa.web.log.writer.LogSpiller;
+import io.github.telechow.garoupa.web.log.writer.Slf4jLogSpiller;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.util.List;
 
 /**
  * 审计日志配置
@@ -30,35 +42,109 @@ import org.springframework.scheduling.annotation.EnableAsync;
  * @author Telechow
  * @since 2023/4/20 9:35
  */
-@EnableAsync
 @Configuration
 @RequiredArgsConstructor
 public class AuditLogConfiguration {
 
+    private static final String NAME = "audit-log";
+
     private final IAuditLogAutoService auditLogAutoService;
 
+    private final AuditLogProperties auditLogProperties;
+
+    /**
+     * 审计日志请求参数序列化器的Bean
+     *
+     * @return io.github.telechow.garoupa.web.audit.log.param.AuditLogParamSerializer 审计日志请求参数序列化器的Bean
+     * @author Telechow
+     * @since 2023/4/24 11:40
+     */
+    @Bean
+    public AuditLogParamSerializer auditLogParamSerializer() {
+        return new AuditLogParamSerializer(auditLogProperties);
+    }
+
+    /**
+     * 审计日志溢出处理器的Bean
+     * <li>启用溢出日志文件时，溢出的审计日志追加到本地的溢出日志文件，数据库恢复后重放</li>
+     * <li>不启用时，溢出的审计日志以json的形式输出到日志文件</li>
+     *
+     * @param meterRegistry 指标注册中心
+     * @return io.github.telechow.garoupa.web.log.writer.LogSpiller<io.github.telechow.garoupa.api.entity.AuditLog> 审计日志溢出处理器的Bean
+     * @author Telechow
+     * @since 2023/4/24 15:40
+     */
+    @Bean
+    public LogSpiller<AuditLog> auditLogSpiller(MeterRegistry meterRegistry) {
+        SpillJournalProperties journalProperties = auditLogProperties.getJournal();
+        if (!journalProperties.isEnabled()) {
+            return new Slf4jLogSpiller<>(NAME);
+        }
+        return new SpillJournal<>(NAME, journalProperties, AuditLog.class
+                , auditLogAutoService::insertBatchIgnoreDuplicate, meterRegistry);
+    }
+
+    /**
+     * 审计日志批量写入器的Bean
+     * <li>写入或溢出前在后台线程中序列化请求参数</li>
+     * <li>缓冲区已满或写入数据库失败的审计日志先分配好id，再交给溢出处理器</li>
+     *
+     * @param auditLogParamSerializer 审计日志请求参数序列化器
+     * @param auditLogSpiller         审计日志溢出处理器
+     * @param meterRegistry           指标注册中心
+     * @return io.github.telechow.garoupa.web.log.writer.BatchingLogWriter<io.github.telechow.garoupa.web.audit.log.event.AuditLogEvent> 审计日志批量写入器的Bean
+     * @author Telechow
+     * @since 2023/4/24 9:40
+     */
+    @Bean
+    public BatchingLogWriter<AuditLogEvent> auditLogWriter(AuditLogParamSerializer auditLogParamSerializer
+            , LogSpiller<AuditLog> auditLogSpiller, MeterRegistry meterRegistry) {
+        return new BatchingLogWriter<>(NAME, auditLogProperties.getWriter()
+                , events -> auditLogAutoService.insertBatch(auditLogParamSerializer.resolve(events))
+                , events -> {
+                    List<AuditLog> auditLogs = auditLogParamSerializer.resolve(events);
+                    auditLogAutoService.fillIdAndCreateTime(auditLogs);
+                    auditLogSpiller.spill(auditLogs);
+                }, meterRegistry);
+    }
+
     /**
      * 审计日志监听器的Bean
      *
+     * @param auditLogWriter 审计日志批量写入器
      * @return io.github.telechow.garoupa.web.audit.log.listener.AuditLogListener 审计日志监听器的Bean
      * @author Telechow
      * @since 2023/4/20 9:34
      */
     @Bean
-    public AuditLogListener auditLogListener() {
-        return new AuditLogListener(auditLogAutoService);
+    public AuditLogListener auditLogListener(BatchingLogWriter<AuditLogEvent> auditLogWriter) {
+        return new AuditLogListener(auditLogWriter);
+    }
+
+    /**
+     * 接口耗时统计器的Bean
+     *
+     * @return io.github.telechow.garoupa.web.audit.log.latency.EndpointLatencyRecorder 接口耗时统计器的Bean
+     * @author Telechow
+     * @since 2023/4/25 14:06
+     */
+    @Bean
+    public EndpointLatencyRecorder endpointLatencyRecorder() {
+        return new EndpointLatencyRecorder(auditLogProperties.getLatency());
     }
 
     /**
      * 审计日志切面处理类的Bean
      *
-     * @param publisher 应用事件发布者
+     * @param publisher               应用事件发布者
+     * @param endpointLatencyRecorder 接口耗时统计器
      * @return io.github.telechow.garoupa.web.audit.log.aspect.AuditLogAspect 审计日志切面处理类的Bean
      * @author Telechow
      * @since 2023/4/20 9:35
      */
     @Bean
-    public AuditLogAspect auditLogAspect(ApplicationEventPublisher publisher) {
-        return new AuditLogAspect(publisher);
+    public AuditLogAspect auditLogAspect(ApplicationEventPublisher publisher
+            , EndpointLatencyRecorder endpointLatencyRecorder) {
+        return new AuditLogAspect(publisher, endpointLatencyRecorder, auditLogProperties);
     }
 }
@@ -16,13 +16,18 @@
 package io.github.telechow.garoupa.web.audit.log.event;
 
 import io.github.telechow.garoupa.api.entity.AuditLog;
+import io.github.telechow.garoupa.web.audit.log.param.AuditLogMethodDescriptor;
 
 /**
  * 审计日志事件
+ * <li>请求参数只保存引用，由审计日志写入器的后台线程序列化</li>
  *
+ * @param auditLog         审计日志实体，请求参数尚未序列化
+ * @param methodDescriptor 审计日志方法描述
+ * @param args             请求参数数组，为null时表示不记录请求参数
  * @author Telechow
  * @since 2023/4/20 9:15
  */
-public record AuditLogEvent(AuditLog auditLog) {
+public record AuditLogEvent(AuditLog auditLog, AuditLogMethodDescriptor methodDescriptor, Object[] args) {
 
 }
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.latency;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * 接口耗时统计配置参数
+ * <li>按照审计日志标题和请求路径统计最近一段时间内的耗时分布和错误率，只保存在内存中</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 13:30
+ */
+@Data
+public class AuditLogLatencyProperties {
+
+    /**
+     * 是否启用接口耗时统计
+     */
+    private boolean enabled = true;
+
+    /**
+     * 统计窗口的长度，只统计最近这段时间内的请求
+     */
+    private Duration window = Duration.ofMinutes(5L);
+
+    /**
+     * 统计窗口拆分成的时间片个数，时间片越多，窗口滚动越平滑，占用的内存越多
+     */
+    private int slotCount = 10;
+
+    /**
+     * 最多统计的接口个数，超出后新接口不再统计
+     */
+    private int maxEndpoints = 500;
+}
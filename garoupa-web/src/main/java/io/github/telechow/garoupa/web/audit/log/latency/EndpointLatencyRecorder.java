@@ -0,0 +1,135 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.latency;
+
+import io.github.telechow.garoupa.api.vo.audit.log.EndpointLatencyVo;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 接口耗时统计器
+ * <li>按照审计日志标题和请求路径分别维护滚动窗口的耗时直方图，由审计日志切面在请求结束时记录</li>
+ * <li>查询统计值时直接合并内存中的直方图，不查询审计日志表</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 13:58
+ */
+public class EndpointLatencyRecorder {
+
+    private static final double MICROS_PER_MILLI = 1000D;
+
+    private final AuditLogLatencyProperties latencyProperties;
+
+    private final long windowNanos;
+
+    private final Map<EndpointKey, RollingLatencyWindow> windowMap = new ConcurrentHashMap<>();
+
+    public EndpointLatencyRecorder(AuditLogLatencyProperties latencyProperties) {
+        this.latencyProperties = latencyProperties;
+        this.windowNanos = latencyProperties.getWindow().toNanos();
+    }
+
+    /**
+     * 记录一次请求的耗时
+     *
+     * @param title      审计日志标题
+     * @param requestUri 请求路径
+     * @param nanos      耗时，单位纳秒
+     * @param error      请求是否出错
+     * @author Telechow
+     * @since 2023/4/25 14:00
+     */
+    public void record(String title, String requestUri, long nanos, boolean error) {
+        if (!latencyProperties.isEnabled()) {
+            return;
+        }
+        //1.获取接口的滚动窗口，接口个数达到上限后新接口不再统计
+        EndpointKey endpointKey = new EndpointKey(title, requestUri);
+        RollingLatencyWindow window = windowMap.get(endpointKey);
+        if (Objects.isNull(window)) {
+            if (windowMap.size() >= latencyProperties.getMaxEndpoints()) {
+                return;
+            }
+            window = windowMap.computeIfAbsent(endpointKey
+                    , k -> new RollingLatencyWindow(windowNanos, latencyProperties.getSlotCount()));
+        }
+
+        //2.记录耗时
+        window.record(System.nanoTime(), nanos / 1000L, error);
+    }
+
+    /**
+     * 查询所有接口在统计窗口内的耗时统计，按照请求次数降序排序，窗口内没有请求的接口不返回
+     *
+     * @return java.util.List<io.github.telechow.garoupa.api.vo.audit.log.EndpointLatencyVo> 接口耗时统计vo列表
+     * @author Telechow
+     * @since 2023/4/25 14:02
+     */
+    public List<EndpointLatencyVo> snapshot() {
+        long nowNanos = System.nanoTime();
+        long windowSeconds = latencyProperties.getWindow().toSeconds();
+        return windowMap.entrySet().stream()
+                .map(e -> this.toEndpointLatencyVo(e.getKey(), e.getValue().merge(nowNanos), windowSeconds))
+                .filter(vo -> vo.getCount() > 0L)
+                .sorted(Comparator.comparing(EndpointLatencyVo::getCount).reversed())
+                .toList();
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 将合并后的直方图转换成接口耗时统计vo
+     *
+     * @param endpointKey   接口标识
+     * @param merged        合并后的直方图
+     * @param windowSeconds 统计窗口的长度，单位秒
+     * @return io.github.telechow.garoupa.api.vo.audit.log.EndpointLatencyVo 接口耗时统计vo
+     * @author Telechow
+     * @since 2023/4/25 14:04
+     */
+    private EndpointLatencyVo toEndpointLatencyVo(EndpointKey endpointKey, LatencyHistogram.Merged merged
+            , long windowSeconds) {
+        long count = merged.count();
+        return new EndpointLatencyVo()
+                .setTitle(endpointKey.title())
+                .setRequestUri(endpointKey.requestUri())
+                .setWindowSeconds(windowSeconds)
+                .setCount(count)
+                .setErrorCount(merged.errorCount())
+                .setErrorRate(count == 0L ? 0D : (double) merged.errorCount() / count)
+                .setMean(count == 0L ? 0D : merged.totalMicros() / MICROS_PER_MILLI / count)
+                .setP50(merged.percentile(50D) / MICROS_PER_MILLI)
+                .setP95(merged.percentile(95D) / MICROS_PER_MILLI)
+                .setP99(merged.percentile(99D) / MICROS_PER_MILLI)
+                .setMax(merged.maxMicros() / MICROS_PER_MILLI);
+    }
+
+    /**
+     * 接口标识
+     *
+     * @param title      审计日志标题
+     * @param requestUri 请求路径
+     * @author Telechow
+     * @since 2023/4/25 13:59
+     */
+    private record EndpointKey(String title, String requestUri) {
+
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.latency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁的耗时直方图
+ * <li>桶的划分方式与HdrHistogram一致：小于32微秒的耗时每微秒一个桶，之后每翻一倍划分16个等宽的桶，相对误差不超过1/16</li>
+ * <li>最大可记录约19小时的耗时，超出的耗时记录在最后一个桶中</li>
+ * <li>记录时只有原子自增，没有锁；多个直方图可以合并后再计算百分位数</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 13:35
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_HALF_BITS = 4;
+
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_BITS;
+
+    private static final int SUB_BUCKET_COUNT = SUB_BUCKET_HALF_COUNT << 1;
+
+    static final long MAX_TRACKABLE_MICROS = (1L << 36) - 1;
+
+    static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_MICROS) + 1;
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong errorCount = new AtomicLong();
+
+    private final AtomicLong totalMicros = new AtomicLong();
+
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * 记录一次请求的耗时
+     *
+     * @param micros 耗时，单位微秒
+     * @param error  请求是否出错
+     * @author Telechow
+     * @since 2023/4/25 13:38
+     */
+    public void record(long micros, boolean error) {
+        long value = Math.min(Math.max(micros, 0L), MAX_TRACKABLE_MICROS);
+        bucketCounts.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        totalMicros.addAndGet(value);
+        if (error) {
+            errorCount.incrementAndGet();
+        }
+        long currentMax = maxMicros.get();
+        while (value > currentMax && !maxMicros.compareAndSet(currentMax, value)) {
+            currentMax = maxMicros.get();
+        }
+    }
+
+    /**
+     * 将此直方图累加到合并结果中
+     *
+     * @param merged 合并结果
+     * @author Telechow
+     * @since 2023/4/25 13:40
+     */
+    void mergeInto(Merged merged) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            merged.bucketCounts[i] += bucketCounts.get(i);
+        }
+        merged.count += count.get();
+        merged.errorCount += errorCount.get();
+        merged.totalMicros += totalMicros.get();
+        merged.maxMicros = Math.max(merged.maxMicros, maxMicros.get());
+    }
+
+    /**
+     * 计算耗时所在的桶下标
+     *
+     * @param micros 耗时，单位微秒，不小于0
+     * @return int 桶下标
+     * @author Telechow
+     * @since 2023/4/25 13:42
+     */
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+        //右移后的值落在[16, 32)之间，每次右移对应16个桶
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_HALF_BITS;
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT
+                + (int) (micros >>> shift) - SUB_BUCKET_HALF_COUNT;
+    }
+
+    /**
+     * 计算桶中最大的耗时
+     *
+     * @param index 桶下标
+     * @return long 桶中最大的耗时，单位微秒
+     * @author Telechow
+     * @since 2023/4/25 13:44
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * 多个直方图合并后的结果，只在计算统计值的线程中使用
+     *
+     * @author Telechow
+     * @since 2023/4/25 13:46
+     */
+    static final class Merged {
+
+        private final long[] bucketCounts = new long[BUCKET_COUNT];
+
+        private long count;
+
+        private long errorCount;
+
+        private long totalMicros;
+
+        private long maxMicros;
+
+        long count() {
+            return count;
+        }
+
+        long errorCount() {
+            return errorCount;
+        }
+
+        long totalMicros() {
+            return totalMicros;
+        }
+
+        long maxMicros() {
+            return maxMicros;
+        }
+
+        /**
+         * 计算百分位数，返回所在桶中最大的耗时，且不超过记录到的最大耗时
+         *
+         * @param percentile 百分位，0-100
+         * @return long 百分位数，单位微秒；没有记录时返回0
+         * @author Telechow
+         * @since 2023/4/25 13:48
+         */
+        long percentile(double percentile) {
+            if (count == 0L) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(count * percentile / 100D));
+            long accumulated = 0L;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                accumulated += bucketCounts[i];
+                if (accumulated >= rank) {
+                    return Math.min(bucketUpperBound(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.latency;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 滚动窗口的耗时直方图
+ * <li>统计窗口拆分成若干个时间片，每个时间片一个直方图，时间片环形复用</li>
+ * <li>进入新的时间片时，以CAS替换掉环上过期的时间片，没有锁；计算统计值时只合并窗口内的时间片</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 13:50
+ */
+public final class RollingLatencyWindow {
+
+    private final long slotNanos;
+
+    private final AtomicReferenceArray<Slot> slots;
+
+    public RollingLatencyWindow(long windowNanos, int slotCount) {
+        this.slotNanos = Math.max(1L, windowNanos / slotCount);
+        this.slots = new AtomicReferenceArray<>(slotCount);
+    }
+
+    /**
+     * 记录一次请求的耗时
+     *
+     * @param nowNanos 当前时间，System.nanoTime()
+     * @param micros   耗时，单位微秒
+     * @param error    请求是否出错
+     * @author Telechow
+     * @since 2023/4/25 13:52
+     */
+    public void record(long nowNanos, long micros, boolean error) {
+        long epoch = Math.floorDiv(nowNanos, slotNanos);
+        int index = (int) Math.floorMod(epoch, (long) slots.length());
+        Slot slot = slots.get(index);
+        //1.环上的时间片已经过期，替换成新的时间片；替换失败说明其他线程已经替换，重新获取
+        while (slot == null || slot.epoch < epoch) {
+            Slot newSlot = new Slot(epoch);
+            if (slots.compareAndSet(index, slot, newSlot)) {
+                slot = newSlot;
+                break;
+            }
+            slot = slots.get(index);
+        }
+        //2.记录到时间片的直方图中，记录前被挂起而落后一个窗口的线程记录到较新的时间片中，误差可以忽略
+        slot.histogram.record(micros, error);
+    }
+
+    /**
+     * 合并窗口内所有时间片的直方图
+     *
+     * @param nowNanos 当前时间，System.nanoTime()
+     * @return io.github.telechow.garoupa.web.audit.log.latency.LatencyHistogram.Merged 合并后的直方图
+     * @author Telechow
+     * @since 2023/4/25 13:54
+     */
+    LatencyHistogram.Merged merge(long nowNanos) {
+        long epoch = Math.floorDiv(nowNanos, slotNanos);
+        LatencyHistogram.Merged merged = new LatencyHistogram.Merged();
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null && slot.epoch > epoch - slots.length()) {
+                slot.histogram.mergeInto(merged);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 时间片
+     *
+     * @author Telechow
+     * @since 2023/4/25 13:51
+     */
+    private static final class Slot {
+
+        /**
+         * 时间片序号，当前时间除以时间片长度
+         */
+        private final long epoch;
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Slot(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+}
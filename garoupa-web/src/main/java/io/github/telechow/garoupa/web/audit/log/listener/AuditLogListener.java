@@ -16,11 +16,10 @@
 package io.github.telechow.garoupa.web.audit.log.listener;
 
 import io.github.telechow.garoupa.web.audit.log.event.AuditLogEvent;
-import io.github.telechow.garoupa.web.auto.service.IAuditLogAutoService;
+import io.github.telechow.garoupa.web.log.writer.BatchingLogWriter;
 import lombok.AllArgsConstructor;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.Order;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * 审计日志监听器
@@ -31,19 +30,18 @@ import org.springframework.scheduling.annotation.Async;
 @AllArgsConstructor
 public class AuditLogListener {
 
-    private final IAuditLogAutoService auditLogAutoService;
+    private final BatchingLogWriter<AuditLogEvent> auditLogWriter;
 
     /**
-     * 异步执行审计日志入库
+     * 将审计日志放入批量写入器的缓冲区，由写入器的后台线程批量入库
      *
      * @param auditLogEvent 审计日志事件
      * @author Telechow
      * @since 2023/4/20 9:31
      */
-    @Async
     @Order
     @EventListener(AuditLogEvent.class)
     public void saveAuditLog(AuditLogEvent auditLogEvent) {
-        auditLogAutoService.save(auditLogEvent.auditLog());
+        auditLogWriter.offer(auditLogEvent);
     }
 }
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.param;
+
+import io.github.telechow.garoupa.api.enums.audit.log.RecordParamsEnum;
+import io.github.telechow.garoupa.web.audit.log.annotation.AuditLogAnnotation;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.validation.BindingResult;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * 审计日志方法描述
+ * <li>每个被审计的方法只解析一次参数名称和注解配置，之后的调用直接复用</li>
+ * <li>请求、响应、流、上传文件等无法或不应该序列化的参数，在描述中标记为不记录</li>
+ *
+ * @param title          审计日志标题
+ * @param recordParams   记录请求参数的方式
+ * @param snapshotParams 是否在方法执行前对请求参数做快照
+ * @param parameterNames 参数名称数组
+ * @param recordable     每个参数是否记录
+ * @author Telechow
+ * @since 2023/4/24 11:10
+ */
+public record AuditLogMethodDescriptor(String title, RecordParamsEnum recordParams, boolean snapshotParams
+        , String[] parameterNames, boolean[] recordable) {
+
+    /**
+     * 不记录的参数类型
+     */
+    private static final Class<?>[] UNRECORDABLE_TYPES = {ServletRequest.class, ServletResponse.class
+            , InputStreamSource.class, InputStream.class, OutputStream.class, Reader.class, Writer.class
+            , BindingResult.class};
+
+    /**
+     * 根据方法签名和审计日志注解构造审计日志方法描述
+     *
+     * @param methodSignature    方法签名
+     * @param auditLogAnnotation 审计日志注解
+     * @return io.github.telechow.garoupa.web.audit.log.param.AuditLogMethodDescriptor 审计日志方法描述
+     * @author Telechow
+     * @since 2023/4/24 11:12
+     */
+    public static AuditLogMethodDescriptor of(MethodSignature methodSignature, AuditLogAnnotation auditLogAnnotation) {
+        String[] parameterNames = Objects.requireNonNullElse(methodSignature.getParameterNames(), new String[0]);
+        Class<?>[] parameterTypes = methodSignature.getParameterTypes();
+        boolean[] recordable = new boolean[parameterNames.length];
+        for (int i = 0; i < parameterNames.length; i++) {
+            recordable[i] = isRecordable(parameterTypes[i]);
+        }
+        return new AuditLogMethodDescriptor(auditLogAnnotation.value(), auditLogAnnotation.recordParams()
+                , auditLogAnnotation.snapshotParams(), parameterNames, recordable);
+    }
+
+    /**
+     * 方法执行前是否需要对请求参数做快照，只有注解显式开启了快照且可能记录请求参数时才需要
+     *
+     * @return boolean 是否需要对请求参数做快照
+     * @author Telechow
+     * @since 2023/4/25 17:58
+     */
+    public boolean shouldSnapshotParams() {
+        return snapshotParams && recordParams != RecordParamsEnum.NEVER;
+    }
+
+    /**
+     * 方法执行完毕后是否需要记录请求参数
+     *
+     * @param error 方法执行是否出错
+     * @return boolean 是否需要记录请求参数
+     * @author Telechow
+     * @since 2023/4/24 11:14
+     */
+    public boolean shouldRecordParams(boolean error) {
+        return switch (recordParams) {
+            case ALWAYS -> true;
+            case ON_ERROR -> error;
+            case NEVER -> false;
+        };
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 指定类型的参数是否记录
+     *
+     * @param parameterType 参数类型
+     * @return boolean 是否记录
+     * @author Telechow
+     * @since 2023/4/24 11:16
+     */
+    private static boolean isRecordable(Class<?> parameterType) {
+        for (Class<?> unrecordableType : UNRECORDABLE_TYPES) {
+            if (unrecordableType.isAssignableFrom(parameterType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
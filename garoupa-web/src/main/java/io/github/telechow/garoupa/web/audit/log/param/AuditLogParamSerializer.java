@@ -0,0 +1,230 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.param;
+
+import com.alibaba.fastjson2.JSON;
+import io.github.telechow.garoupa.api.entity.AuditLog;
+import io.github.telechow.garoupa.web.audit.log.event.AuditLogEvent;
+import io.github.telechow.garoupa.web.audit.log.properties.AuditLogProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 审计日志请求参数序列化器
+ * <li>在审计日志写入器的后台线程中序列化请求参数，被审计的方法不再为序列化付出时间</li>
+ * <li>每个参数序列化后超过字节预算时截断，并追加截断标记；所有参数拼接后不超过请求参数字段的最大长度</li>
+ *
+ * @author Telechow
+ * @since 2023/4/24 11:20
+ */
+public class AuditLogParamSerializer {
+
+    /**
+     * 不记录请求参数时的请求参数json
+     */
+    private static final String EMPTY_PARAMS = "{}";
+
+    /**
+     * 请求参数字段剩余长度不足以放下参数时的替代值
+     */
+    private static final String OMITTED_VALUE = "\"[已省略]\"";
+
+    private final AuditLogProperties auditLogProperties;
+
+    public AuditLogParamSerializer(AuditLogProperties auditLogProperties) {
+        this.auditLogProperties = auditLogProperties;
+    }
+
+    /**
+     * 解析审计日志事件，序列化请求参数后返回审计日志实体；已经序列化过的不会重复序列化
+     *
+     * @param auditLogEvent 审计日志事件
+     * @return io.github.telechow.garoupa.api.entity.AuditLog 审计日志实体
+     * @author Telechow
+     * @since 2023/4/24 11:22
+     */
+    public AuditLog resolve(AuditLogEvent auditLogEvent) {
+        AuditLog auditLog = auditLogEvent.auditLog();
+        if (Objects.isNull(auditLog.getRequestParams())) {
+            auditLog.setRequestParams(serialize(auditLogEvent.methodDescriptor(), auditLogEvent.args()));
+        }
+        return auditLog;
+    }
+
+    /**
+     * 批量解析审计日志事件
+     *
+     * @param auditLogEvents 审计日志事件列表
+     * @return java.util.List<io.github.telechow.garoupa.api.entity.AuditLog> 审计日志实体列表
+     * @author Telechow
+     * @since 2023/4/24 11:23
+     */
+    public List<AuditLog> resolve(List<AuditLogEvent> auditLogEvents) {
+        List<AuditLog> auditLogs = new ArrayList<>(auditLogEvents.size());
+        for (AuditLogEvent auditLogEvent : auditLogEvents) {
+            auditLogs.add(resolve(auditLogEvent));
+        }
+        return auditLogs;
+    }
+
+    /**
+     * 将请求参数序列化成json对象，键是参数名称，值是参数的json
+     *
+     * @param methodDescriptor 审计日志方法描述
+     * @param args             请求参数数组，为null时表示不记录请求参数
+     * @return java.lang.String 请求参数的json
+     * @author Telechow
+     * @since 2023/4/24 11:25
+     */
+    public String serialize(AuditLogMethodDescriptor methodDescriptor, Object[] args) {
+        if (Objects.isNull(methodDescriptor) || Objects.isNull(args)) {
+            return EMPTY_PARAMS;
+        }
+        //1.剩余长度需要扣除json对象的一对花括号
+        int remaining = auditLogProperties.getMaxParamsLength() - 2;
+        StringBuilder builder = new StringBuilder(Math.min(256, Math.max(16, remaining))).append('{');
+        boolean first = true;
+        String[] parameterNames = methodDescriptor.parameterNames();
+        for (int i = 0; i < parameterNames.length && i < args.length; i++) {
+            if (!methodDescriptor.recordable()[i]) {
+                continue;
+            }
+            //2.序列化参数，剩余长度不足时使用替代值，连替代值都放不下时不再记录后续参数
+            String prefix = (first ? "" : ",") + JSON.toJSONString(parameterNames[i]) + ":";
+            String value = serializeValue(args[i]);
+            if (prefix.length() + value.length() > remaining) {
+                value = OMITTED_VALUE;
+                if (prefix.length() + value.length() > remaining) {
+                    break;
+                }
+            }
+            builder.append(prefix).append(value);
+            remaining -= prefix.length() + value.length();
+            first = false;
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * 参数的json超过字节预算时截断成json字符串并追加截断标记，不超过时原样返回
+     *
+     * @param json          参数的json
+     * @param maxParamBytes 每个请求参数序列化后的最大字节数
+     * @return java.lang.String 不超过字节预算的参数json
+     * @author Telechow
+     * @since 2023/4/25 18:42
+     */
+    static String limit(String json, int maxParamBytes) {
+        int bytes = utf8Length(json);
+        if (bytes <= maxParamBytes) {
+            return json;
+        }
+        return JSON.toJSONString(truncateUtf8(json, maxParamBytes) + "...[已截断，共" + bytes + "字节]");
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 序列化单个参数，超过字节预算时截断成json字符串并追加截断标记；已经做过快照的参数直接使用快照
+     *
+     * @param arg 参数
+     * @return java.lang.String 参数的json
+     * @author Telechow
+     * @since 2023/4/24 11:28
+     */
+    private String serializeValue(Object arg) {
+        //1.已经做过快照的参数在快照时已经截断过，直接使用快照
+        if (arg instanceof AuditLogParamSnapshot snapshot) {
+            return snapshot.json();
+        }
+
+        //2.序列化参数，序列化失败时记录失败原因
+        String json;
+        try {
+            json = JSON.toJSONString(arg);
+        } catch (Exception e) {
+            return JSON.toJSONString("[序列化失败：" + e.getClass().getSimpleName() + "]");
+        }
+
+        //3.超过字节预算时截断
+        return limit(json, auditLogProperties.getMaxParamBytes());
+    }
+
+    /**
+     * 计算字符串utf-8编码后的字节数，不产生字节数组
+     *
+     * @param text 字符串
+     * @return int utf-8编码后的字节数
+     * @author Telechow
+     * @since 2023/4/24 11:30
+     */
+    private static int utf8Length(String text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 截取字符串，使截取结果utf-8编码后不超过指定字节数，不会拆开代理对
+     *
+     * @param text     字符串
+     * @param maxBytes 最大字节数
+     * @return java.lang.String 截取结果
+     * @author Telechow
+     * @since 2023/4/24 11:32
+     */
+    private static String truncateUtf8(String text, int maxBytes) {
+        int bytes = 0;
+        int end = 0;
+        while (end < text.length()) {
+            char c = text.charAt(end);
+            int charBytes;
+            int charLength = 1;
+            if (c < 0x80) {
+                charBytes = 1;
+            } else if (c < 0x800) {
+                charBytes = 2;
+            } else if (Character.isHighSurrogate(c) && end + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(end + 1))) {
+                charBytes = 4;
+                charLength = 2;
+            } else {
+                charBytes = 3;
+            }
+            if (bytes + charBytes > maxBytes) {
+                break;
+            }
+            bytes += charBytes;
+            end += charLength;
+        }
+        return text.substring(0, end);
+    }
+}
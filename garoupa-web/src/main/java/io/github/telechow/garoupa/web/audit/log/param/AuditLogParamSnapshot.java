@@ -0,0 +1,93 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.param;
+
+import com.alibaba.fastjson2.JSON;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.TemporalAccessor;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * 审计日志请求参数快照
+ * <li>只用于审计日志注解显式开启了快照的方法，这些方法会修改请求参数，可变的参数在方法执行前序列化成json</li>
+ * <li>快照按照每个请求参数的最大字节数截断，排队等待写入时占用的内存有上限</li>
+ * <li>字符串、数字、日期时间等不可变的参数不做快照，仍然只传递引用，由审计日志写入器的后台线程序列化</li>
+ *
+ * @param json 参数的json
+ * @author Telechow
+ * @since 2023/4/25 17:50
+ */
+public record AuditLogParamSnapshot(String json) {
+
+    /**
+     * 对请求参数数组做快照，不记录的参数和不可变的参数保持原样
+     *
+     * @param methodDescriptor 审计日志方法描述
+     * @param args             请求参数数组
+     * @param maxParamBytes    每个请求参数序列化后的最大字节数
+     * @return java.lang.Object[] 快照后的请求参数数组
+     * @author Telechow
+     * @since 2023/4/25 17:52
+     */
+    public static Object[] snapshot(AuditLogMethodDescriptor methodDescriptor, Object[] args, int maxParamBytes) {
+        Object[] snapshot = args.clone();
+        boolean[] recordable = methodDescriptor.recordable();
+        for (int i = 0; i < snapshot.length && i < recordable.length; i++) {
+            if (recordable[i] && !isImmutable(snapshot[i])) {
+                snapshot[i] = of(snapshot[i], maxParamBytes);
+            }
+        }
+        return snapshot;
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 序列化单个参数并按照字节预算截断，序列化失败时记录失败原因
+     *
+     * @param arg           参数
+     * @param maxParamBytes 每个请求参数序列化后的最大字节数
+     * @return io.github.telechow.garoupa.web.audit.log.param.AuditLogParamSnapshot 参数快照
+     * @author Telechow
+     * @since 2023/4/25 17:54
+     */
+    private static AuditLogParamSnapshot of(Object arg, int maxParamBytes) {
+        try {
+            return new AuditLogParamSnapshot(AuditLogParamSerializer.limit(JSON.toJSONString(arg), maxParamBytes));
+        } catch (Exception e) {
+            return new AuditLogParamSnapshot(JSON.toJSONString("[序列化失败：" + e.getClass().getSimpleName() + "]"));
+        }
+    }
+
+    /**
+     * 参数是否不可变，不可变的参数不需要快照
+     *
+     * @param arg 参数
+     * @return boolean 是否不可变
+     * @author Telechow
+     * @since 2023/4/25 17:56
+     */
+    private static boolean isImmutable(Object arg) {
+        return Objects.isNull(arg) || arg instanceof String || arg instanceof Boolean || arg instanceof Character
+                || arg instanceof Byte || arg instanceof Short || arg instanceof Integer || arg instanceof Long
+                || arg instanceof Float || arg instanceof Double || arg instanceof BigDecimal
+                || arg instanceof BigInteger || arg instanceof Enum<?> || arg instanceof UUID
+                || arg instanceof TemporalAccessor && arg.getClass().getName().startsWith("java.time.");
+    }
+}
@@ -16,7 +16,11 @@
 package io.github.telechow.garoupa.web.auto.service;
 
 import io.github.telechow.garoupa.api.entity.AuditLog;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.extension.service.IService;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.util.List;
 
 /**
  * <p>
@@ -28,4 +32,45 @@ import com.baomidou.mybatisplus.extension.service.IService;
  */
 public interface IAuditLogAutoService extends IService<AuditLog> {
 
+    /**
+     * 使用一条多行insert语句批量插入审计日志
+     * <li>插入前调用{@link #fillIdAndCreateTime(List)}补齐id和请求时间</li>
+     *
+     * @param auditLogList 审计日志实体列表
+     * @author Telechow
+     * @since 2023/4/24 9:32
+     */
+    void insertBatch(List<AuditLog> auditLogList);
+
+    /**
+     * 使用一条多行insert语句批量插入审计日志，忽略已经存在的记录
+     * <li>用于重放溢出的审计日志，同一条审计日志重放多次也只会插入一次</li>
+     *
+     * @param auditLogList 审计日志实体列表
+     * @author Telechow
+     * @since 2023/4/24 15:22
+     */
+    void insertBatchIgnoreDuplicate(List<AuditLog> auditLogList);
+
+    /**
+     * 补齐审计日志的id和请求时间
+     * <li>没有id的审计日志按顺序从id生成器中取号，没有请求时间的审计日志使用当前时间</li>
+     * <li>审计日志溢出到本地文件之前也需要调用，使重放时的id与首次写入时一致</li>
+     *
+     * @param auditLogList 审计日志实体列表
+     * @author Telechow
+     * @since 2023/4/24 15:22
+     */
+    void fillIdAndCreateTime(List<AuditLog> auditLogList);
+
+    /**
+     * 以流式游标查询审计日志，用于导出
+     * <li>游标必须在事务中使用，遍历结束前数据库连接一直被占用</li>
+     *
+     * @param queryWrapper 查询条件
+     * @return org.apache.ibatis.cursor.Cursor<io.github.telechow.garoupa.api.entity.AuditLog> 审计日志游标
+     * @author Telechow
+     * @since 2023/4/25 9:32
+     */
+    Cursor<AuditLog> cursor(Wrapper<AuditLog> queryWrapper);
 }
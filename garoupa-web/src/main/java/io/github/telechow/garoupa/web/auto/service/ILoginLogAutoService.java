@@ -16,7 +16,11 @@
 package io.github.telechow.garoupa.web.auto.service;
 
 import io.github.telechow.garoupa.api.entity.LoginLog;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.extension.service.IService;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.util.List;
 
 /**
  * <p>
@@ -28,4 +32,45 @@ import com.baomidou.mybatisplus.extension.service.IService;
  */
 public interface ILoginLogAutoService extends IService<LoginLog> {
 
+    /**
+     * 使用一条多行insert语句批量插入登录日志
+     * <li>插入前调用{@link #fillIdAndCreateTime(List)}补齐id和创建时间</li>
+     *
+     * @param loginLogList 登录日志实体列表
+     * @author Telechow
+     * @since 2023/4/23 19:48
+     */
+    void insertBatch(List<LoginLog> loginLogList);
+
+    /**
+     * 使用一条多行insert语句批量插入登录日志，忽略已经存在的记录
+     * <li>用于重放溢出的登录日志，同一条登录日志重放多次也只会插入一次</li>
+     *
+     * @param loginLogList 登录日志实体列表
+     * @author Telechow
+     * @since 2023/4/24 15:20
+     */
+    void insertBatchIgnoreDuplicate(List<LoginLog> loginLogList);
+
+    /**
+     * 补齐登录日志的id和创建时间
+     * <li>没有id的登录日志按顺序从id生成器中取号，没有创建时间的登录日志使用当前时间</li>
+     * <li>登录日志溢出到本地文件之前也需要调用，使重放时的id与首次写入时一致</li>
+     *
+     * @param loginLogList 登录日志实体列表
+     * @author Telechow
+     * @since 2023/4/24 15:20
+     */
+    void fillIdAndCreateTime(List<LoginLog> loginLogList);
+
+    /**
+     * 以流式游标查询登录日志，用于导出
+     * <li>游标必须在事务中使用，遍历结束前数据库连接一直被占用</li>
+     *
+     * @param queryWrapper 查询条件
+     * @return org.apache.ibatis.cursor.Cursor<io.github.telechow.garoupa.api.entity.LoginLog> 登录日志游标
+     * @author Telechow
+     * @since 2023/4/25 9:32
+     */
+    Cursor<LoginLog> cursor(Wrapper<LoginLog> queryWrapper);
 }
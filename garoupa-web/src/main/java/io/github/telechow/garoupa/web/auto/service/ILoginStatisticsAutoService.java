@@ -0,0 +1,41 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.auto.service;
+
+import io.github.telechow.garoupa.api.entity.LoginStatistics;
+import com.baomidou.mybatisplus.extension.service.IService;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 登录统计表 服务类
+ * </p>
+ *
+ * @author telechow
+ * @since 2023-04-25
+ */
+public interface ILoginStatisticsAutoService extends IService<LoginStatistics> {
+
+    /**
+     * 使用一条多行insert语句批量写入登录统计，统计周期和登录方式相同的记录直接覆盖
+     *
+     * @param loginStatisticsList 登录统计实体列表
+     * @author Telechow
+     * @since 2023/4/25 14:48
+     */
+    void upsertBatch(List<LoginStatistics> loginStatisticsList);
+}
@@ -15,6 +15,7 @@
  */
 package io.github.telechow.garoupa.web.auto.service;
 
+import io.github.telechow.garoupa.api.domain.PermissionDictionary;
 import io.github.telechow.garoupa.api.entity.Permission;
 import com.baomidou.mybatisplus.extension.service.IService;
 
@@ -41,4 +42,14 @@ public interface IPermissionAutoService extends IService<Permission> {
      */
     List<Permission> listPermissionByUserIdPutCache(Long userId);
 
+    /**
+     * 查询所有未删除的权限编码，构造权限编码字典
+     * <li color=red>此方法要加入缓存</li>
+     *
+     * @return io.github.telechow.garoupa.api.domain.PermissionDictionary 权限编码字典
+     * @author Telechow
+     * @since 2023/4/22 17:05
+     */
+    PermissionDictionary getPermissionDictionaryPutCache();
+
 }
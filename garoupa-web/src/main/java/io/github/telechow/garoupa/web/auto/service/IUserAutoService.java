@@ -15,6 +15,8 @@
  */
 package io.github.telechow.garoupa.web.auto.service;
 
+import io.github.telechow.garoupa.api.domain.AuthorizationSnapshot;
+import io.github.telechow.garoupa.api.domain.PermissionDictionary;
 import io.github.telechow.garoupa.api.entity.User;
 import com.baomidou.mybatisplus.extension.service.IService;
 
@@ -38,4 +40,26 @@ public interface IUserAutoService extends IService<User> {
      * @since 2023/4/3 20:18
      */
     User getUerByIdPutCache(Long id);
+
+    /**
+     * 根据用户id查询用户授权快照
+     * <li color=red>此方法要加入缓存</li>
+     *
+     * @param userId 用户id
+     * @return io.github.telechow.garoupa.api.domain.AuthorizationSnapshot 用户授权快照
+     * @author Telechow
+     * @since 2023/4/22 9:25
+     */
+    AuthorizationSnapshot getAuthorizationSnapshotByUserIdPutCache(Long userId);
+
+    /**
+     * 根据用户id查询用户授权快照，并按照指定的权限编码字典编码权限位图
+     *
+     * @param userId               用户id
+     * @param permissionDictionary 权限编码字典
+     * @return io.github.telechow.garoupa.api.domain.AuthorizationSnapshot 用户授权快照，用户不存在时返回null
+     * @author Telechow
+     * @since 2023/4/22 17:20
+     */
+    AuthorizationSnapshot getAuthorizationSnapshotByUserId(Long userId, PermissionDictionary permissionDictionary);
 }
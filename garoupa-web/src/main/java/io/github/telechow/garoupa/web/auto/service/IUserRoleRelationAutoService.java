@@ -18,6 +18,8 @@ package io.github.telechow.garoupa.web.auto.service;
 import io.github.telechow.garoupa.api.entity.UserRoleRelation;
 import com.baomidou.mybatisplus.extension.service.IService;
 
+import java.util.List;
+
 /**
  * <p>
  * 用户角色关系表 服务类
@@ -28,4 +30,33 @@ import com.baomidou.mybatisplus.extension.service.IService;
  */
 public interface IUserRoleRelationAutoService extends IService<UserRoleRelation> {
 
+    /**
+     * 根据角色id查询关联了此角色的用户id列表
+     *
+     * @param roleId 角色id
+     * @return java.util.List<java.lang.Long> 去重后的用户id列表
+     * @author Telechow
+     * @since 2023/4/22 14:15
+     */
+    List<Long> listUserIdByRoleId(Long roleId);
+
+    /**
+     * 根据资源id查询关联了此资源的角色所关联的用户id列表
+     *
+     * @param resourceId 资源id
+     * @return java.util.List<java.lang.Long> 去重后的用户id列表
+     * @author Telechow
+     * @since 2023/4/22 14:16
+     */
+    List<Long> listUserIdByResourceId(Long resourceId);
+
+    /**
+     * 根据权限id查询关联了此权限的角色所关联的用户id列表
+     *
+     * @param permissionId 权限id
+     * @return java.util.List<java.lang.Long> 去重后的用户id列表
+     * @author Telechow
+     * @since 2023/4/22 14:17
+     */
+    List<Long> listUserIdByPermissionId(Long permissionId);
 }
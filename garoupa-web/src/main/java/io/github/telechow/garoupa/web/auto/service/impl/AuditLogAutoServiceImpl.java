@@ -18,9 +18,19 @@ package io.github.telechow.garoupa.web.auto.service.impl;
 import io.github.telechow.garoupa.api.entity.AuditLog;
 import io.github.telechow.garoupa.web.mapper.AuditLogMapper;
 import io.github.telechow.garoupa.web.auto.service.IAuditLogAutoService;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import cn.hutool.core.collection.CollectionUtil;
+import lombok.RequiredArgsConstructor;
+import me.ahoo.cosid.IdGenerator;
+import me.ahoo.cosid.provider.IdGeneratorProvider;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
 /**
  * <p>
  * 审计日志表 服务实现类
@@ -30,6 +40,51 @@ import org.springframework.stereotype.Service;
  * @since 2023-04-19
  */
 @Service
+@RequiredArgsConstructor
 public class AuditLogAutoServiceImpl extends ServiceImpl<AuditLogMapper, AuditLog> implements IAuditLogAutoService {
 
+    /**
+     * 审计日志id生成器的名称，与{@link AuditLog#getId()}上CosId注解的值一致
+     */
+    private static final String ID_GENERATOR_NAME = "AuditLog";
+
+    private final IdGeneratorProvider idGeneratorProvider;
+
+    @Override
+    public void insertBatch(List<AuditLog> auditLogList) {
+        if (CollectionUtil.isEmpty(auditLogList)) {
+            return;
+        }
+        this.fillIdAndCreateTime(auditLogList);
+        this.getBaseMapper().insertBatch(auditLogList, false);
+    }
+
+    @Override
+    public void insertBatchIgnoreDuplicate(List<AuditLog> auditLogList) {
+        if (CollectionUtil.isEmpty(auditLogList)) {
+            return;
+        }
+        this.fillIdAndCreateTime(auditLogList);
+        this.getBaseMapper().insertBatch(auditLogList, true);
+    }
+
+    @Override
+    public Cursor<AuditLog> cursor(Wrapper<AuditLog> queryWrapper) {
+        return this.getBaseMapper().selectCursor(queryWrapper);
+    }
+
+    @Override
+    public void fillIdAndCreateTime(List<AuditLog> auditLogList) {
+        //多行insert不经过自动填充，提前设置id和请求时间；id生成器按号段预取，整批取号不访问数据库
+        IdGenerator idGenerator = idGeneratorProvider.getRequired(ID_GENERATOR_NAME);
+        final LocalDateTime now = LocalDateTime.now();
+        for (AuditLog auditLog : auditLogList) {
+            if (Objects.isNull(auditLog.getId())) {
+                auditLog.setId(idGenerator.generate());
+            }
+            if (Objects.isNull(auditLog.getCreateTime())) {
+                auditLog.setCreateTime(now);
+            }
+        }
+    }
 }
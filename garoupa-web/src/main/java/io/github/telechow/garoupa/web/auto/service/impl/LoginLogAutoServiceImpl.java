@@ -18,9 +18,19 @@ package io.github.telechow.garoupa.web.auto.service.impl;
 import io.github.telechow.garoupa.api.entity.LoginLog;
 import io.github.telechow.garoupa.web.mapper.LoginLogMapper;
 import io.github.telechow.garoupa.web.auto.service.ILoginLogAutoService;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import cn.hutool.core.collection.CollectionUtil;
+import lombok.RequiredArgsConstructor;
+import me.ahoo.cosid.IdGenerator;
+import me.ahoo.cosid.provider.IdGeneratorProvider;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
 /**
  * <p>
  * 登录日志表 服务实现类
@@ -30,6 +40,51 @@ import org.springframework.stereotype.Service;
  * @since 2023-04-18
  */
 @Service
+@RequiredArgsConstructor
 public class LoginLogAutoServiceImpl extends ServiceImpl<LoginLogMapper, LoginLog> implements ILoginLogAutoService {
 
+    /**
+     * 登录日志id生成器的名称，与{@link LoginLog#getId()}上CosId注解的值一致
+     */
+    private static final String ID_GENERATOR_NAME = "LoginLog";
+
+    private final IdGeneratorProvider idGeneratorProvider;
+
+    @Override
+    public void insertBatch(List<LoginLog> loginLogList) {
+        if (CollectionUtil.isEmpty(loginLogList)) {
+            return;
+        }
+        this.fillIdAndCreateTime(loginLogList);
+        this.getBaseMapper().insertBatch(loginLogList, false);
+    }
+
+    @Override
+    public void insertBatchIgnoreDuplicate(List<LoginLog> loginLogList) {
+        if (CollectionUtil.isEmpty(loginLogList)) {
+            return;
+        }
+        this.fillIdAndCreateTime(loginLogList);
+        this.getBaseMapper().insertBatch(loginLogList, true);
+    }
+
+    @Override
+    public Cursor<LoginLog> cursor(Wrapper<LoginLog> queryWrapper) {
+        return this.getBaseMapper().selectCursor(queryWrapper);
+    }
+
+    @Override
+    public void fillIdAndCreateTime(List<LoginLog> loginLogList) {
+        //多行insert不经过自动填充，提前设置id和创建时间；id生成器按号段预取，整批取号不访问数据库
+        IdGenerator idGenerator = idGeneratorProvider.getRequired(ID_GENERATOR_NAME);
+        final LocalDateTime now = LocalDateTime.now();
+        for (LoginLog loginLog : loginLogList) {
+            if (Objects.isNull(loginLog.getId())) {
+                loginLog.setId(idGenerator.generate());
+            }
+            if (Objects.isNull(loginLog.getCreateTime())) {
+                loginLog.setCreateTime(now);
+            }
+        }
+    }
 }
@@ -15,7 +15,9 @@
  */
 package io.github.telechow.garoupa.web.auto.service.impl;
 
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import io.github.telechow.garoupa.api.constant.AuthenticationCacheConstant;
+import io.github.telechow.garoupa.api.domain.PermissionDictionary;
 import io.github.telechow.garoupa.api.entity.Permission;
 import io.github.telechow.garoupa.web.mapper.PermissionMapper;
 import io.github.telechow.garoupa.web.auto.service.IPermissionAutoService;
@@ -40,8 +42,20 @@ public class PermissionAutoServiceImpl extends ServiceImpl<PermissionMapper, Per
 
     @Override
     @Cacheable(value = AuthenticationCacheConstant.PERMISSION_LIST_BY_USER_ID_CACHE_NAME + "#2592000000"
-            , key = "#userId", unless = "T(cn.hutool.core.collection.CollectionUtil).isEmpty(#result)")
+            , key = "#userId", sync = true)
     public List<Permission> listPermissionByUserIdPutCache(Long userId) {
         return this.getBaseMapper().listPermissionByUserId(userId);
     }
+
+    @Override
+    @Cacheable(value = AuthenticationCacheConstant.PERMISSION_DICTIONARY_CACHE_NAME + "#2592000000"
+            , key = "#root.method.name")
+    public PermissionDictionary getPermissionDictionaryPutCache() {
+        List<String> permissionCodes = this.list(Wrappers.<Permission>lambdaQuery()
+                        .select(Permission::getPermissionCode)
+                ).stream()
+                .map(Permission::getPermissionCode)
+                .toList();
+        return PermissionDictionary.of(permissionCodes);
+    }
 }
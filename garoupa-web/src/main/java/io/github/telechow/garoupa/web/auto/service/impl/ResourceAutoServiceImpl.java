@@ -38,7 +38,7 @@ public class ResourceAutoServiceImpl extends ServiceImpl<ResourceMapper, Resourc
 
     @Override
     @Cacheable(value = AuthenticationCacheConstant.RESOURCE_LIST_BY_USER_ID_CACHE_NAME + "#2592000000"
-            , key = "#userId", unless = "T(cn.hutool.core.collection.CollectionUtil).isEmpty(#result)")
+            , key = "#userId", sync = true)
     public List<Resource> listResourceByUserIdPutCache(Long userId) {
         return this.getBaseMapper().listResourceByUserId(userId);
     }
@@ -43,7 +43,7 @@ public class SystemDictItemAutoServiceImpl extends ServiceImpl<SystemDictItemMap
 
     @Override
     @Cacheable(value = SystemDictCacheConstant.SYSTEM_DICT_ITEM_GET_BY_DICT_CODE_AND_ITEM_VALUE_CACHE_NAME + "#2592000000"
-            , key = "#dictCode + ':' + #itemValue", unless = "#result == null")
+            , key = "#dictCode + ':' + #itemValue")
     public SystemDictItem getByDictCodeAndItemValuePutCache(String dictCode, String itemValue) {
         return this.getBaseMapper().selectOne(Wrappers.<SystemDictItem>lambdaQuery()
                 .eq(SystemDictItem::getDictCode, dictCode)
@@ -54,7 +54,7 @@ public class SystemDictItemAutoServiceImpl extends ServiceImpl<SystemDictItemMap
 
     @Override
     @Cacheable(value = SystemDictCacheConstant.SYSTEM_DICT_ITEM_LIST_BY_DICT_CODE_CACHE_NAME + "#2592000000"
-            , key = "#dictCode + ':' + #onlyEffective", unless = "T(cn.hutool.core.collection.CollectionUtil).isEmpty(#result)")
+            , key = "#dictCode + ':' + #onlyEffective")
     public List<SystemDictItemVo> listSystemDictItemByDictCodePutCache(String dictCode, boolean onlyEffective) {
         //1.构造查询条件
         LambdaQueryWrapper<SystemDictItem> lambdaQueryWrapper = Wrappers.<SystemDictItem>lambdaQuery()
@@ -38,7 +38,7 @@ public class SystemParamAutoServiceImpl extends ServiceImpl<SystemParamMapper, S
 
     @Override
     @Cacheable(value = SystemParamCacheConstant.SYSTEM_PARAM_GET_BY_PARAM_CODE_CACHE_NAME + "#2592000000"
-            , key = "#paramCode", unless = "#result == null")
+            , key = "#paramCode")
     public SystemParam getSystemParamByParamCodePutCache(String paramCode) {
         return this.getBaseMapper().selectOne(Wrappers.<SystemParam>lambdaQuery()
                 .eq(SystemParam::getParamCode, paramCode)
@@ -37,7 +37,7 @@ public class SystemParamCategoryAutoServiceImpl extends ServiceImpl<SystemParamC
 
     @Override
     @Cacheable(value = SystemParamCacheConstant.SYSTEM_PARAM_CATEGORY_GET_BY_ID_CACHE_NAME + "#2592000000"
-            , key = "#id", unless = "#result == null")
+            , key = "#id")
     public SystemParamCategory getByIdPutCache(Long id) {
         return this.getBaseMapper().selectById(id);
     }
@@ -16,13 +16,19 @@
 package io.github.telechow.garoupa.web.auto.service.impl;
 
 import io.github.telechow.garoupa.api.constant.AuthenticationCacheConstant;
+import io.github.telechow.garoupa.api.domain.AuthorizationSnapshot;
+import io.github.telechow.garoupa.api.domain.PermissionDictionary;
 import io.github.telechow.garoupa.api.entity.User;
+import io.github.telechow.garoupa.web.auto.service.IPermissionAutoService;
 import io.github.telechow.garoupa.web.mapper.UserMapper;
 import io.github.telechow.garoupa.web.auto.service.IUserAutoService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 /**
  * <p>
  * 用户表 服务实现类
@@ -32,12 +38,35 @@ import org.springframework.stereotype.Service;
  * @since 2023-03-26
  */
 @Service
+@RequiredArgsConstructor
 public class UserAutoServiceImpl extends ServiceImpl<UserMapper, User> implements IUserAutoService {
 
+    private final IPermissionAutoService permissionAutoService;
+
     @Override
     @Cacheable(value = AuthenticationCacheConstant.USER_GET_BY_ID_CACHE_NAME + "#2592000000"
-            , key = "#id", unless = "#result == null")
+            , key = "#id")
     public User getUerByIdPutCache(Long id) {
         return this.getBaseMapper().selectById(id);
     }
+
+    @Override
+    @Cacheable(value = AuthenticationCacheConstant.AUTHORIZATION_SNAPSHOT_GET_BY_USER_ID_CACHE_NAME + "#2592000000"
+            , key = "#userId")
+    public AuthorizationSnapshot getAuthorizationSnapshotByUserIdPutCache(Long userId) {
+        return this.getAuthorizationSnapshotByUserId(userId, permissionAutoService.getPermissionDictionaryPutCache());
+    }
+
+    @Override
+    public AuthorizationSnapshot getAuthorizationSnapshotByUserId(Long userId, PermissionDictionary permissionDictionary) {
+        //1.查询用户实体、权限编码和资源编码
+        AuthorizationSnapshot authorizationSnapshot = this.getBaseMapper().getAuthorizationSnapshotByUserId(userId);
+
+        //2.按照权限编码字典将权限编码编码成位图，并设置快照版本号
+        Optional.ofNullable(authorizationSnapshot).ifPresent(s -> {
+            s.encodePermissions(permissionDictionary);
+            s.setVersion(AuthorizationSnapshot.CURRENT_VERSION);
+        });
+        return authorizationSnapshot;
+    }
 }
@@ -15,12 +15,15 @@
  */
 package io.github.telechow.garoupa.web.auto.service.impl;
 
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import io.github.telechow.garoupa.api.entity.UserRoleRelation;
 import io.github.telechow.garoupa.web.mapper.UserRoleRelationMapper;
 import io.github.telechow.garoupa.web.auto.service.IUserRoleRelationAutoService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * <p>
  * 用户角色关系表 服务实现类
@@ -32,4 +35,24 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserRoleRelationAutoServiceImpl extends ServiceImpl<UserRoleRelationMapper, UserRoleRelation> implements IUserRoleRelationAutoService {
 
+    @Override
+    public List<Long> listUserIdByRoleId(Long roleId) {
+        return this.list(Wrappers.<UserRoleRelation>lambdaQuery()
+                        .select(UserRoleRelation::getUserId)
+                        .eq(UserRoleRelation::getRoleId, roleId)
+                ).stream()
+                .map(UserRoleRelation::getUserId)
+                .distinct()
+                .toList();
+    }
+
+    @Override
+    public List<Long> listUserIdByResourceId(Long resourceId) {
+        return this.getBaseMapper().listUserIdByResourceId(resourceId);
+    }
+
+    @Override
+    public List<Long> listUserIdByPermissionId(Long permissionId) {
+        return this.getBaseMapper().listUserIdByPermissionId(permissionId);
+    }
 }
@@ -0,0 +1,335 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.captcha.email;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import io.github.telechow.garoupa.api.constant.CaptchaConstant;
+import io.github.telechow.garoupa.config.email.properties.EmailProperties;
+import io.github.telechow.garoupa.web.captcha.properties.EmailCodeProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 邮件验证码发件箱
+ * <li>请求线程只把邮件验证码放入有界的发件箱，立即返回，不再阻塞在smtp握手和发送上</li>
+ * <li>后台线程每次从发件箱中取出一批邮件，通过{@link JavaMailSender#send(SimpleMailMessage...)}在同一个smtp连接上发送整批邮件</li>
+ * <li>发送失败的邮件按照退避时间重新放入发件箱，超过最大尝试次数后放弃，并删除发送记录，使用户可以重新获取邮件验证码</li>
+ * <li>关闭时不再接收新的邮件，在限定时间内把发件箱中的邮件发送完毕，超时仍未发送以及等待重试的邮件验证码全部撤销</li>
+ *
+ * @author Telechow
+ * @since 2023/4/23 16:20
+ */
+@Slf4j
+@Component
+public class EmailCodeOutbox implements InitializingBean, DisposableBean {
+
+    private static final String METRIC_PREFIX = "garoupa.email.code.outbox";
+
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+
+    private final JavaMailSender javaMailSender;
+
+    private final EmailProperties emailProperties;
+
+    private final EmailCodeProperties emailCodeProperties;
+
+    private final RedissonClient redissonClient;
+
+    private final BlockingQueue<EmailCodeMessage> queue;
+
+    private final Set<EmailCodeMessage> pendingRetries = ConcurrentHashMap.newKeySet();
+
+    private final Counter sentCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter failedCounter;
+
+    private final Counter rejectedCounter;
+
+    private ExecutorService workerExecutor;
+
+    private ScheduledExecutorService retryExecutor;
+
+    private volatile boolean closed;
+
+    public EmailCodeOutbox(JavaMailSender javaMailSender, EmailProperties emailProperties
+            , EmailCodeProperties emailCodeProperties, RedissonClient redissonClient, MeterRegistry meterRegistry) {
+        this.javaMailSender = javaMailSender;
+        this.emailProperties = emailProperties;
+        this.emailCodeProperties = emailCodeProperties;
+        this.redissonClient = redissonClient;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, emailCodeProperties.getOutbox().getQueueCapacity()));
+
+        //注册指标
+        this.sentCounter = Counter.builder(METRIC_PREFIX + ".messages")
+                .description("邮件验证码的发送结果")
+                .tag("result", "sent")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder(METRIC_PREFIX + ".messages")
+                .description("邮件验证码的发送结果")
+                .tag("result", "retried")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder(METRIC_PREFIX + ".messages")
+                .description("邮件验证码的发送结果")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(METRIC_PREFIX + ".messages")
+                .description("邮件验证码的发送结果")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", queue, BlockingQueue::size)
+                .description("发件箱中待发送的邮件数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        int workerThreads = Math.max(1, emailCodeProperties.getOutbox().getWorkerThreads());
+        workerExecutor = Executors.newFixedThreadPool(workerThreads
+                , ThreadFactoryBuilder.create().setNamePrefix("email-code-sender-").setDaemon(true).build());
+        for (int i = 0; i < workerThreads; i++) {
+            workerExecutor.execute(this::work);
+        }
+        retryExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create().setNamePrefix("email-code-retry-").setDaemon(true).build());
+    }
+
+    @Override
+    public void destroy() {
+        //1.不再接收新的邮件，等待重试的邮件不再放回发件箱，直接撤销
+        closed = true;
+        if (Objects.nonNull(retryExecutor)) {
+            retryExecutor.shutdownNow();
+        }
+        for (EmailCodeMessage emailCodeMessage : pendingRetries) {
+            if (pendingRetries.remove(emailCodeMessage)) {
+                giveUp(emailCodeMessage);
+            }
+        }
+
+        //2.等待发送线程把发件箱中的邮件发送完毕，超时后中断发送线程
+        if (Objects.nonNull(workerExecutor)) {
+            workerExecutor.shutdown();
+            try {
+                long timeoutMillis = emailCodeProperties.getOutbox().getShutdownTimeout().toMillis();
+                if (!workerExecutor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    log.warn("邮件验证码发件箱未能在{}毫秒内发送完毕，撤销剩余的邮件验证码", timeoutMillis);
+                    workerExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                workerExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        //3.撤销发件箱中仍未发送的邮件验证码，使用户可以重新获取
+        List<EmailCodeMessage> unsent = new ArrayList<>(queue.size());
+        queue.drainTo(unsent);
+        unsent.forEach(this::giveUp);
+    }
+
+    /**
+     * 将邮件验证码放入发件箱，发件箱已满或已关闭时立即返回false
+     *
+     * @param email     收件邮箱
+     * @param emailCode 邮件验证码
+     * @return boolean 是否成功放入发件箱
+     * @author Telechow
+     * @since 2023/4/23 16:30
+     */
+    public boolean offer(String email, String emailCode) {
+        EmailCodeMessage emailCodeMessage = new EmailCodeMessage(email, emailCode, 1);
+        if (!closed && queue.offer(emailCodeMessage)) {
+            //放入后发件箱开始关闭，则这封邮件可能错过发送和撤销，能取回时按拒绝处理
+            if (!closed || !queue.remove(emailCodeMessage)) {
+                return true;
+            }
+        }
+        rejectedCounter.increment();
+        return false;
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 后台线程持续从发件箱中取出一批邮件发送，直到被中断，或者发件箱关闭且已经发送完毕
+     *
+     * @author Telechow
+     * @since 2023/4/23 16:32
+     */
+    private void work() {
+        final int batchSize = Math.max(1, emailCodeProperties.getOutbox().getBatchSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            List<EmailCodeMessage> batch = new ArrayList<>(batchSize);
+            try {
+                //1.等待第一封邮件，再取出已经在排队的邮件凑成一批；发件箱关闭且已经取空时退出
+                EmailCodeMessage first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (Objects.isNull(first)) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                //2.发送整批邮件
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("邮件验证码发送线程异常", e);
+            }
+        }
+    }
+
+    /**
+     * 在同一个smtp连接上发送一批邮件，发送失败的邮件进行重试
+     *
+     * @param batch 一批邮件验证码消息
+     * @author Telechow
+     * @since 2023/4/23 16:35
+     */
+    private void send(List<EmailCodeMessage> batch) {
+        //1.构造邮件，记录邮件与消息的对应关系，发送失败时据此找到对应的消息
+        Map<SimpleMailMessage, EmailCodeMessage> messageMap = new IdentityHashMap<>(batch.size());
+        for (EmailCodeMessage emailCodeMessage : batch) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(emailProperties.getUsername());
+            message.setTo(emailCodeMessage.email());
+            message.setSubject(emailCodeProperties.getSubject());
+            message.setText("你的邮件验证码是：" + emailCodeMessage.emailCode());
+            messageMap.put(message, emailCodeMessage);
+        }
+
+        //2.发送整批邮件
+        try {
+            javaMailSender.send(messageMap.keySet().toArray(new SimpleMailMessage[0]));
+            sentCounter.increment(batch.size());
+        } catch (MailSendException e) {
+            //2.1.部分邮件发送失败，只重试发送失败的邮件；没有失败明细时重试整批邮件
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            if (failedMessages.isEmpty()) {
+                log.warn("邮件验证码发送失败", e);
+                batch.forEach(this::retry);
+                return;
+            }
+            sentCounter.increment(Math.max(0, batch.size() - failedMessages.size()));
+            failedMessages.forEach((message, exception) -> {
+                log.warn("邮件验证码发送失败", exception);
+                Optional.ofNullable(messageMap.get(message)).ifPresent(this::retry);
+            });
+        } catch (MailException e) {
+            //2.2.连接或认证失败，重试整批邮件
+            log.warn("邮件验证码发送失败", e);
+            batch.forEach(this::retry);
+        }
+    }
+
+    /**
+     * 按照退避时间重新放入发件箱，超过最大尝试次数、发件箱已满或已关闭时放弃
+     *
+     * @param emailCodeMessage 邮件验证码消息
+     * @author Telechow
+     * @since 2023/4/23 16:40
+     */
+    private void retry(EmailCodeMessage emailCodeMessage) {
+        EmailCodeProperties.Outbox outboxProperties = emailCodeProperties.getOutbox();
+        if (emailCodeMessage.attempt() >= outboxProperties.getMaxAttempts() || closed) {
+            giveUp(emailCodeMessage);
+            return;
+        }
+        retriedCounter.increment();
+        EmailCodeMessage next = new EmailCodeMessage(emailCodeMessage.email(), emailCodeMessage.emailCode()
+                , emailCodeMessage.attempt() + 1);
+        long delayMillis = outboxProperties.getRetryBackoff().toMillis() * emailCodeMessage.attempt();
+
+        //等待重试的邮件记录下来，关闭时由关闭线程撤销；谁先从记录中移除就由谁处理，避免重复处理
+        pendingRetries.add(next);
+        try {
+            retryExecutor.schedule(() -> {
+                if (pendingRetries.remove(next) && (closed || !queue.offer(next))) {
+                    giveUp(next);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (pendingRetries.remove(next)) {
+                giveUp(next);
+            }
+        }
+    }
+
+    /**
+     * 放弃发送邮件验证码，删除邮件验证码和发送记录，使用户可以重新获取邮件验证码
+     *
+     * @param emailCodeMessage 邮件验证码消息
+     * @author Telechow
+     * @since 2023/4/23 16:42
+     */
+    private void giveUp(EmailCodeMessage emailCodeMessage) {
+        failedCounter.increment();
+        log.error("邮件验证码发送失败，已放弃发送，邮箱：{}", emailCodeMessage.email());
+        try {
+            redissonClient.getBucket(CaptchaConstant.EMAIL_CODE_KEY_PREFIX + emailCodeMessage.emailCode()
+                    , StringCodec.INSTANCE).delete();
+            redissonClient.getBucket(CaptchaConstant.EMAIL_CODE_SENT_KEY_PREFIX + emailCodeMessage.email()
+                    , StringCodec.INSTANCE).delete();
+        } catch (Exception e) {
+            log.warn("删除邮件验证码发送记录失败", e);
+        }
+    }
+
+    /**
+     * 邮件验证码消息
+     *
+     * @param email     收件邮箱
+     * @param emailCode 邮件验证码
+     * @param attempt   第几次尝试发送
+     * @author Telechow
+     * @since 2023/4/23 16:22
+     */
+    private record EmailCodeMessage(String email, String emailCode, int attempt) {
+
+    }
+}
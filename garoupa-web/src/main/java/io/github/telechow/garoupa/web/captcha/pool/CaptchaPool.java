@@ -0,0 +1,166 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.captcha.pool;
+
+import cn.hutool.captcha.CaptchaUtil;
+import cn.hutool.captcha.ShearCaptcha;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import io.github.telechow.garoupa.web.captcha.properties.CaptchaProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.awt.*;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预生成图片验证码池
+ * <li>验证码图片的绘制和png编码是cpu密集型操作，由后台线程预先生成并放入有界队列，请求线程只需取出一个</li>
+ * <li>队列满时后台线程阻塞等待，不会无限占用内存；每个验证码只会被取出一次</li>
+ * <li>池中没有可用的验证码时，在请求线程中生成一个作为兜底，并记录未命中次数</li>
+ *
+ * @author Telechow
+ * @since 2023/4/23 14:20
+ */
+@Slf4j
+@Component
+public class CaptchaPool implements InitializingBean, DisposableBean {
+
+    private static final String METRIC_PREFIX = "garoupa.captcha.pool";
+
+    private final CaptchaProperties captchaProperties;
+
+    /**
+     * 所有验证码共用同一个字体对象，字体对象是不可变的
+     */
+    private final Font font;
+
+    private final BlockingQueue<PreRenderedCaptcha> queue;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private ExecutorService refillExecutor;
+
+    public CaptchaPool(CaptchaProperties captchaProperties, MeterRegistry meterRegistry) {
+        this.captchaProperties = captchaProperties;
+        this.font = new Font(null, Font.PLAIN, captchaProperties.getFontSize());
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, captchaProperties.getPool().getSize()));
+
+        //注册指标
+        this.hitCounter = Counter.builder(METRIC_PREFIX + ".requests")
+                .description("从验证码池中获取验证码的次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder(METRIC_PREFIX + ".requests")
+                .description("从验证码池中获取验证码的次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", queue, BlockingQueue::size)
+                .description("验证码池中可用的验证码个数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        CaptchaProperties.Pool poolProperties = captchaProperties.getPool();
+        if (!poolProperties.isEnabled()) {
+            return;
+        }
+        int refillThreads = Math.max(1, poolProperties.getRefillThreads());
+        refillExecutor = Executors.newFixedThreadPool(refillThreads
+                , ThreadFactoryBuilder.create().setNamePrefix("captcha-refill-").setDaemon(true).build());
+        for (int i = 0; i < refillThreads; i++) {
+            refillExecutor.execute(this::refill);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(refillExecutor)) {
+            refillExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 取出一个验证码，池中没有可用的验证码时在当前线程生成一个
+     *
+     * @return io.github.telechow.garoupa.web.captcha.pool.PreRenderedCaptcha 预生成的图片验证码
+     * @author Telechow
+     * @since 2023/4/23 14:30
+     */
+    public PreRenderedCaptcha take() {
+        PreRenderedCaptcha captcha = queue.poll();
+        if (Objects.nonNull(captcha)) {
+            hitCounter.increment();
+            return captcha;
+        }
+        missCounter.increment();
+        return render();
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 后台线程持续生成验证码放入池中，池满时阻塞等待，直到被中断
+     *
+     * @author Telechow
+     * @since 2023/4/23 14:32
+     */
+    private void refill() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                queue.put(render());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                //生成失败时稍后重试，避免空转
+                log.warn("预生成图片验证码失败", e);
+                try {
+                    TimeUnit.SECONDS.sleep(1L);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * 生成一个图片验证码
+     *
+     * @return io.github.telechow.garoupa.web.captcha.pool.PreRenderedCaptcha 预生成的图片验证码
+     * @author Telechow
+     * @since 2023/4/23 14:35
+     */
+    private PreRenderedCaptcha render() {
+        ShearCaptcha shearCaptcha = CaptchaUtil.createShearCaptcha(captchaProperties.getWidth()
+                , captchaProperties.getHeight(), captchaProperties.getCodeCount(), captchaProperties.getThickness());
+        shearCaptcha.setFont(font);
+        //获取验证码时才会绘制图片，必须在设置字体之后
+        String code = shearCaptcha.getCode();
+        return new PreRenderedCaptcha(code, shearCaptcha.getImageBytes());
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.captcha.pool;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.util.URLUtil;
+
+/**
+ * 预生成的图片验证码
+ *
+ * @param code       验证码
+ * @param imageBytes png格式的验证码图片
+ * @author Telechow
+ * @since 2023/4/23 14:15
+ */
+public record PreRenderedCaptcha(String code, byte[] imageBytes) {
+
+    /**
+     * png图片的媒体类型
+     */
+    public static final String IMAGE_TYPE = "image/png";
+
+    /**
+     * 获取data uri形式的base64图片，与{@link cn.hutool.captcha.AbstractCaptcha#getImageBase64Data()}一致
+     *
+     * @return java.lang.String data uri形式的base64图片
+     * @author Telechow
+     * @since 2023/4/23 14:16
+     */
+    public String imageBase64Data() {
+        return URLUtil.getDataUriBase64(IMAGE_TYPE, Base64.encode(imageBytes));
+    }
+}
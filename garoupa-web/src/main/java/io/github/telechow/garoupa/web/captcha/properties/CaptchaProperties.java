@@ -0,0 +1,95 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.captcha.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 图片验证码配置参数
+ *
+ * @author Telechow
+ * @since 2023/4/23 14:10
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "garoupa.captcha")
+public class CaptchaProperties {
+
+    /**
+     * 图片宽度
+     */
+    private int width = 240;
+
+    /**
+     * 图片高度
+     */
+    private int height = 60;
+
+    /**
+     * 验证码字符个数
+     */
+    private int codeCount = 6;
+
+    /**
+     * 干扰线宽度
+     */
+    private int thickness = 4;
+
+    /**
+     * 字体大小
+     */
+    private int fontSize = 40;
+
+    /**
+     * 验证码在redis中的有效期
+     */
+    private Duration ttl = Duration.ofSeconds(30L);
+
+    /**
+     * 预生成验证码池配置
+     */
+    private Pool pool = new Pool();
+
+    /**
+     * 预生成验证码池配置参数
+     * <li>验证码图片由后台线程预先生成并放入有界的池中，请求时直接从池中取出，不在请求线程中绘制图片</li>
+     *
+     * @author Telechow
+     * @since 2023/4/23 14:12
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * 是否启用预生成验证码池，不启用时每次请求都在请求线程中生成验证码
+         */
+        private boolean enabled = true;
+
+        /**
+         * 池中最多预生成的验证码个数
+         */
+        private int size = 256;
+
+        /**
+         * 补充验证码的后台线程数
+         */
+        private int refillThreads = 1;
+    }
+}
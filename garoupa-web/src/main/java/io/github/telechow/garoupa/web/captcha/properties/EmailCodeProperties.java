@@ -0,0 +1,90 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.captcha.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 邮件验证码配置参数
+ *
+ * @author Telechow
+ * @since 2023/4/23 16:10
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "garoupa.email-code")
+public class EmailCodeProperties {
+
+    /**
+     * 邮件验证码的有效期，有效期内同一个邮箱只发送一次邮件验证码
+     */
+    private Duration ttl = Duration.ofMinutes(1L);
+
+    /**
+     * 邮件主题
+     */
+    private String subject = "Garoupa邮件验证码";
+
+    /**
+     * 邮件验证码发件箱配置
+     */
+    private Outbox outbox = new Outbox();
+
+    /**
+     * 邮件验证码发件箱配置参数
+     * <li>请求线程只把邮件放入发件箱，由后台线程批量发送，接口耗时不再受邮件服务器影响</li>
+     *
+     * @author Telechow
+     * @since 2023/4/23 16:12
+     */
+    @Data
+    public static class Outbox {
+
+        /**
+         * 发件箱最多容纳的待发送邮件数，超出后立即拒绝
+         */
+        private int queueCapacity = 1024;
+
+        /**
+         * 发送邮件的后台线程数，每个线程发送一批邮件时复用同一个smtp连接
+         */
+        private int workerThreads = 1;
+
+        /**
+         * 每批最多发送的邮件数
+         */
+        private int batchSize = 50;
+
+        /**
+         * 每封邮件最多尝试发送的次数
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * 重试的间隔时间，第n次重试等待n倍的间隔时间
+         */
+        private Duration retryBackoff = Duration.ofSeconds(5L);
+
+        /**
+         * 关闭时等待发件箱中的邮件发送完毕的最长时间，超时仍未发送的邮件验证码会被撤销，使用户可以重新获取
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10L);
+    }
+}
@@ -15,20 +15,34 @@
  */
 package io.github.telechow.garoupa.web.controller.management;
 
+import cn.hutool.core.date.LocalDateTimeUtil;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.github.telechow.garoupa.api.dto.audit.log.ExportAuditLogDto;
+import io.github.telechow.garoupa.api.dto.audit.log.CursorPageAuditLogDto;
 import io.github.telechow.garoupa.api.dto.audit.log.PageAuditLogDto;
 import io.github.telechow.garoupa.api.vo.ResponseResult;
+import io.github.telechow.garoupa.api.vo.common.CursorPageVo;
 import io.github.telechow.garoupa.api.vo.audit.log.AuditLogPageVo;
+import io.github.telechow.garoupa.api.vo.audit.log.EndpointLatencyVo;
+import io.github.telechow.garoupa.web.audit.log.annotation.AuditLogAnnotation;
 import io.github.telechow.garoupa.web.service.IAuditLogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * <p>
  * 审计日志表 前端控制器
@@ -48,6 +62,7 @@ public class AuditLogController {
     /**
      * 分页查询审计日志
      * <li>按照创建时间降序排序</li>
+     * <li>没有指定开始时间时，只查询默认时间窗口内的日志</li>
      *
      * @param dto 分页查询审计日志dto
      * @return io.github.telechow.garoupa.api.vo.ResponseResult<com.baomidou.mybatisplus.extension.plugins.pagination.Page < io.github.telechow.garoupa.api.vo.audit.log.AuditLogPageVo>> 分页的审计日志分页vo
@@ -56,10 +71,81 @@ public class AuditLogController {
      */
     @GetMapping("/page")
     @Operation(summary = "分页查询审计日志"
-            , description = "<li>按照创建时间降序排序</li>")
+            , description = "<li>按照创建时间降序排序</li>" +
+            "<li>没有指定开始时间时，只查询默认时间窗口内的日志</li>")
     @PreAuthorize("@garoupaExpressionRoot.hasAuthority('log:audit-log:page')")
     public ResponseResult<Page<AuditLogPageVo>> page(@Validated PageAuditLogDto dto) {
         return ResponseResult.data(auditLogService.page(dto));
     }
 
+    /**
+     * 游标分页查询审计日志
+     * <li>按照创建时间降序排序，创建时间相同时按照id升序排序</li>
+     * <li>没有指定开始时间时，只查询默认时间窗口内的日志</li>
+     * <li>从上一页返回的游标处继续查询，不使用偏移量；默认不查询总条数</li>
+     *
+     * @param dto 游标分页查询审计日志dto
+     * @return io.github.telechow.garoupa.api.vo.ResponseResult<io.github.telechow.garoupa.api.vo.common.CursorPageVo<io.github.telechow.garoupa.api.vo.audit.log.AuditLogPageVo>> 游标分页的审计日志分页vo
+     * @author Telechow
+     * @since 2023/4/24 16:36
+     */
+    @GetMapping("/cursor/page")
+    @Operation(summary = "游标分页查询审计日志"
+            , description = "<li>按照创建时间降序排序，创建时间相同时按照id升序排序</li>" +
+            "<li>没有指定开始时间时，只查询默认时间窗口内的日志</li>" +
+            "<li>从上一页返回的游标处继续查询，不使用偏移量；默认不查询总条数</li>")
+    @PreAuthorize("@garoupaExpressionRoot.hasAuthority('log:audit-log:page')")
+    public ResponseResult<CursorPageVo<AuditLogPageVo>> cursorPage(@Validated CursorPageAuditLogDto dto) {
+        return ResponseResult.data(auditLogService.cursorPage(dto));
+    }
+
+    /**
+     * 导出审计日志
+     * <li>按照创建时间降序排序，以流式游标逐行查询并写入响应，不限制导出条数</li>
+     * <li>没有指定开始时间时，只查询默认时间窗口内的日志</li>
+     * <li>响应不设置内容长度，以分块传输的方式边查询边发送</li>
+     *
+     * @param dto      导出审计日志dto
+     * @param response HttpServletResponse对象
+     * @throws IOException 写入失败，通常是客户端断开了连接
+     * @author Telechow
+     * @since 2023/4/25 9:50
+     */
+    @GetMapping("/export")
+    @Operation(summary = "导出审计日志"
+            , description = "<li>按照创建时间降序排序，以流式游标逐行查询并写入响应，不限制导出条数</li>" +
+            "<li>没有指定开始时间时，只查询默认时间窗口内的日志</li>" +
+            "<li>响应不设置内容长度，以分块传输的方式边查询边发送</li>")
+    @PreAuthorize("@garoupaExpressionRoot.hasAuthority('log:audit-log:export')")
+    @AuditLogAnnotation("导出审计日志")
+    public void export(@Validated ExportAuditLogDto dto, HttpServletResponse response) throws IOException {
+        //1.设置响应头
+        String fileName = "audit-log-" + LocalDateTimeUtil.format(LocalDateTime.now(), "yyyyMMddHHmmss")
+                + "." + dto.getFormat().getExtension();
+        response.setContentType(dto.getFormat().getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName).build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+
+        //2.导出审计日志
+        auditLogService.export(dto, response.getOutputStream());
+    }
+
+    /**
+     * 查询接口耗时统计
+     * <li>统计最近一段时间内各接口的请求次数、错误率和耗时的百分位数，按照请求次数降序排序</li>
+     * <li>统计值来自内存中的耗时直方图，不查询审计日志表；多节点部署时只返回当前节点的统计</li>
+     *
+     * @return io.github.telechow.garoupa.api.vo.ResponseResult<java.util.List<io.github.telechow.garoupa.api.vo.audit.log.EndpointLatencyVo>> 接口耗时统计vo列表
+     * @author Telechow
+     * @since 2023/4/25 14:10
+     */
+    @GetMapping("/latency/list")
+    @Operation(summary = "查询接口耗时统计"
+            , description = "<li>统计最近一段时间内各接口的请求次数、错误率和耗时的百分位数，按照请求次数降序排序</li>" +
+            "<li>统计值来自内存中的耗时直方图，不查询审计日志表；多节点部署时只返回当前节点的统计</li>")
+    @PreAuthorize("@garoupaExpressionRoot.hasAuthority('log:audit-log:latency')")
+    public ResponseResult<List<EndpointLatencyVo>> listEndpointLatency() {
+        return ResponseResult.data(auditLogService.listEndpointLatency());
+    }
 }
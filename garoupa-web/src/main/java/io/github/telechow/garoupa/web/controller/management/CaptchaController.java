@@ -15,12 +15,17 @@
  */
 package io.github.telechow.garoupa.web.controller.management;
 
+import io.github.telechow.garoupa.api.constant.CaptchaConstant;
 import io.github.telechow.garoupa.api.vo.ResponseResult;
+import io.github.telechow.garoupa.api.vo.captcha.CaptchaImageVo;
 import io.github.telechow.garoupa.api.vo.captcha.CaptchaVo;
 import io.github.telechow.garoupa.web.service.ICaptchaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -57,6 +62,28 @@ public class CaptchaController {
         return ResponseResult.data(captchaService.get());
     }
 
+    /**
+     * 获取一个二进制图片验证码
+     * <li>此接口可以匿名访问</li>
+     * <li>响应体是png格式的验证码图片，验证码key通过响应头Captcha-Key返回</li>
+     *
+     * @return org.springframework.http.ResponseEntity<byte[]> png格式的验证码图片
+     * @author Telechow
+     * @since 2023/4/23 14:55
+     */
+    @GetMapping(value = "/get/image", produces = MediaType.IMAGE_PNG_VALUE)
+    @Operation(summary = "获取一个二进制图片验证码"
+            , description = "<li>此接口可以匿名访问</li>" +
+            "<li>响应体是png格式的验证码图片，验证码key通过响应头Captcha-Key返回</li>")
+    public ResponseEntity<byte[]> getImage() {
+        CaptchaImageVo vo = captchaService.getImage();
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .cacheControl(CacheControl.noStore())
+                .header(CaptchaConstant.CAPTCHA_KEY_HEADER, vo.getCaptchaKey())
+                .body(vo.getImageBytes());
+    }
+
     /**
      * 获取一个邮件验证码
      * <li>需要验证是否存在指定邮箱的用户，如果不存在则什么都不做</li>
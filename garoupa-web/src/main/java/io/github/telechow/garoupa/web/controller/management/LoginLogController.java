@@ -15,20 +15,35 @@
  */
 package io.github.telechow.garoupa.web.controller.management;
 
+import cn.hutool.core.date.LocalDateTimeUtil;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.github.telechow.garoupa.api.dto.login.log.ExportLoginLogDto;
+import io.github.telechow.garoupa.api.dto.login.log.CursorPageLoginLogDto;
+import io.github.telechow.garoupa.api.dto.login.log.LoginStatisticsDto;
 import io.github.telechow.garoupa.api.dto.login.log.PageLoginLogDto;
 import io.github.telechow.garoupa.api.vo.ResponseResult;
+import io.github.telechow.garoupa.api.vo.common.CursorPageVo;
 import io.github.telechow.garoupa.api.vo.login.log.LoginLogPageVo;
+import io.github.telechow.garoupa.api.vo.login.log.LoginStatisticsVo;
+import io.github.telechow.garoupa.web.audit.log.annotation.AuditLogAnnotation;
 import io.github.telechow.garoupa.web.service.ILoginLogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * <p>
  * 登录日志表 前端控制器
@@ -48,6 +63,7 @@ public class LoginLogController {
     /**
      * 分页查询登录日志
      * <li>按照创建时间降序排序</li>
+     * <li>没有指定开始时间时，只查询默认时间窗口内的日志</li>
      *
      * @param dto 分页查询登录日志dto
      * @return io.github.telechow.garoupa.api.vo.ResponseResult<com.baomidou.mybatisplus.extension.plugins.pagination.Page < io.github.telechow.garoupa.api.vo.login.log.LoginLogPageVo>> 分页的登录日志分页vo
@@ -56,10 +72,84 @@ public class LoginLogController {
      */
     @GetMapping("/page")
     @Operation(summary = "分页查询登录日志"
-            , description = "<li>按照创建时间降序排序</li>")
+            , description = "<li>按照创建时间降序排序</li>" +
+            "<li>没有指定开始时间时，只查询默认时间窗口内的日志</li>")
     @PreAuthorize("@garoupaExpressionRoot.hasAuthority('log:login-log:page')")
     public ResponseResult<Page<LoginLogPageVo>> page(@Validated PageLoginLogDto dto) {
         return ResponseResult.data(loginLogService.page(dto));
     }
 
+    /**
+     * 游标分页查询登录日志
+     * <li>按照创建时间降序排序，创建时间相同时按照id升序排序</li>
+     * <li>没有指定开始时间时，只查询默认时间窗口内的日志</li>
+     * <li>从上一页返回的游标处继续查询，不使用偏移量；默认不查询总条数</li>
+     *
+     * @param dto 游标分页查询登录日志dto
+     * @return io.github.telechow.garoupa.api.vo.ResponseResult<io.github.telechow.garoupa.api.vo.common.CursorPageVo<io.github.telechow.garoupa.api.vo.login.log.LoginLogPageVo>> 游标分页的登录日志分页vo
+     * @author Telechow
+     * @since 2023/4/24 16:35
+     */
+    @GetMapping("/cursor/page")
+    @Operation(summary = "游标分页查询登录日志"
+            , description = "<li>按照创建时间降序排序，创建时间相同时按照id升序排序</li>" +
+            "<li>没有指定开始时间时，只查询默认时间窗口内的日志</li>" +
+            "<li>从上一页返回的游标处继续查询，不使用偏移量；默认不查询总条数</li>")
+    @PreAuthorize("@garoupaExpressionRoot.hasAuthority('log:login-log:page')")
+    public ResponseResult<CursorPageVo<LoginLogPageVo>> cursorPage(@Validated CursorPageLoginLogDto dto) {
+        return ResponseResult.data(loginLogService.cursorPage(dto));
+    }
+
+    /**
+     * 导出登录日志
+     * <li>按照创建时间降序排序，以流式游标逐行查询并写入响应，不限制导出条数</li>
+     * <li>没有指定开始时间时，只查询默认时间窗口内的日志</li>
+     * <li>响应不设置内容长度，以分块传输的方式边查询边发送</li>
+     *
+     * @param dto      导出登录日志dto
+     * @param response HttpServletResponse对象
+     * @throws IOException 写入失败，通常是客户端断开了连接
+     * @author Telechow
+     * @since 2023/4/25 9:50
+     */
+    @GetMapping("/export")
+    @Operation(summary = "导出登录日志"
+            , description = "<li>按照创建时间降序排序，以流式游标逐行查询并写入响应，不限制导出条数</li>" +
+            "<li>没有指定开始时间时，只查询默认时间窗口内的日志</li>" +
+            "<li>响应不设置内容长度，以分块传输的方式边查询边发送</li>")
+    @PreAuthorize("@garoupaExpressionRoot.hasAuthority('log:login-log:export')")
+    @AuditLogAnnotation("导出登录日志")
+    public void export(@Validated ExportLoginLogDto dto, HttpServletResponse response) throws IOException {
+        //1.设置响应头
+        String fileName = "login-log-" + LocalDateTimeUtil.format(LocalDateTime.now(), "yyyyMMddHHmmss")
+                + "." + dto.getFormat().getExtension();
+        response.setContentType(dto.getFormat().getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName).build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+
+        //2.导出登录日志
+        loginLogService.export(dto, response.getOutputStream());
+    }
+
+    /**
+     * 查询登录统计
+     * <li>按小时或按天返回登录次数、登录失败率、登录成功的独立用户数和登录成功的独立ip数，按照统计周期的开始时间升序排序</li>
+     * <li>只读登录写入时累加的统计值，不查询登录日志表；最近的统计值可能稍有延迟</li>
+     * <li>登录方式为空时返回所有登录方式的合计，只有合计包含独立用户数和独立ip数</li>
+     *
+     * @param dto 查询登录统计dto
+     * @return io.github.telechow.garoupa.api.vo.ResponseResult<java.util.List<io.github.telechow.garoupa.api.vo.login.log.LoginStatisticsVo>> 登录统计vo列表
+     * @author Telechow
+     * @since 2023/4/25 15:18
+     */
+    @GetMapping("/statistics")
+    @Operation(summary = "查询登录统计"
+            , description = "<li>按小时或按天返回登录次数、登录失败率、登录成功的独立用户数和登录成功的独立ip数，按照统计周期的开始时间升序排序</li>" +
+            "<li>只读登录写入时累加的统计值，不查询登录日志表；最近的统计值可能稍有延迟</li>" +
+            "<li>登录方式为空时返回所有登录方式的合计，只有合计包含独立用户数和独立ip数</li>")
+    @PreAuthorize("@garoupaExpressionRoot.hasAuthority('log:login-log:statistics')")
+    public ResponseResult<List<LoginStatisticsVo>> statistics(@Validated LoginStatisticsDto dto) {
+        return ResponseResult.data(loginLogService.statistics(dto));
+    }
 }
@@ -18,6 +18,7 @@ package io.github.telechow.garoupa.web.controller.management;
 import com.baomidou.lock.annotation.Lock4j;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import io.github.telechow.garoupa.api.dto.user.*;
+import io.github.telechow.garoupa.api.enums.audit.log.RecordParamsEnum;
 import io.github.telechow.garoupa.api.vo.ResponseResult;
 import io.github.telechow.garoupa.api.vo.user.UserPageVo;
 import io.github.telechow.garoupa.web.audit.log.annotation.AuditLogAnnotation;
@@ -169,7 +170,7 @@ public class UserController {
      * @author Telechow
      * @since 2023/4/16 20:20
      */
-    @AuditLogAnnotation("当前登录用户修改自己的密码")
+    @AuditLogAnnotation(value = "当前登录用户修改自己的密码", recordParams = RecordParamsEnum.NEVER)
     @PutMapping("/update/password/self")
     @Operation(summary = "当前登录用户修改自己的密码"
             , description = "<li>此接口要根据当前登录用户id开启分布式锁</li>" +
@@ -0,0 +1,228 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.helper;
+
+import cn.hutool.core.collection.CollectionUtil;
+import io.github.telechow.garoupa.api.constant.AuthenticationCacheConstant;
+import io.github.telechow.garoupa.api.domain.AuthorizationSnapshot;
+import io.github.telechow.garoupa.api.domain.GaroupaUser;
+import io.github.telechow.garoupa.api.domain.PermissionDictionary;
+import io.github.telechow.garoupa.api.entity.User;
+import io.github.telechow.garoupa.web.auto.service.IPermissionAutoService;
+import io.github.telechow.garoupa.web.auto.service.IUserAutoService;
+import io.github.telechow.garoupa.web.auto.service.IUserRoleRelationAutoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 用户授权快照帮助类
+ * <li>RBAC数据变化时，通过用户角色关系、角色资源关系和角色权限关系反查受影响的用户，只删除这些用户的授权缓存</li>
+ *
+ * @author Telechow
+ * @since 2023/4/22 9:30
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthorizationSnapshotHelper {
+
+    /**
+     * 以用户id为缓存键的授权相关缓存名称
+     */
+    private static final List<String> USER_AUTHORIZATION_CACHE_NAMES = List.of(
+            AuthenticationCacheConstant.AUTHORIZATION_SNAPSHOT_GET_BY_USER_ID_CACHE_NAME,
+            AuthenticationCacheConstant.PERMISSION_LIST_BY_USER_ID_CACHE_NAME,
+            AuthenticationCacheConstant.RESOURCE_LIST_BY_USER_ID_CACHE_NAME
+    );
+
+    private final IUserAutoService userAutoService;
+    private final IPermissionAutoService permissionAutoService;
+    private final IUserRoleRelationAutoService userRoleRelationAutoService;
+
+    private final CacheManager cacheManager;
+
+    /**
+     * 根据用户id获取登录用户信息
+     *
+     * @param userId 用户id
+     * @return io.github.telechow.garoupa.api.domain.GaroupaUser 登录用户信息，用户不存在时返回null
+     * @author Telechow
+     * @since 2023/4/22 9:32
+     */
+    public GaroupaUser getGaroupaUser(Long userId) {
+        PermissionDictionary permissionDictionary = permissionAutoService.getPermissionDictionaryPutCache();
+        AuthorizationSnapshot authorizationSnapshot = getAuthorizationSnapshot(userId, permissionDictionary);
+        if (Objects.isNull(authorizationSnapshot)) {
+            return null;
+        }
+        return new GaroupaUser(authorizationSnapshot.getUser()
+                , authorizationSnapshot.toPermissionSet(permissionDictionary), authorizationSnapshot.getResourceCodes());
+    }
+
+    /**
+     * 根据用户实体获取登录用户信息
+     * <li>用户实体以传入的为准，只从用户授权快照中获取权限和资源，用于登录时校验最新的密码</li>
+     *
+     * @param user 用户实体
+     * @return io.github.telechow.garoupa.api.domain.GaroupaUser 登录用户信息，用户不存在时返回null
+     * @author Telechow
+     * @since 2023/4/22 17:10
+     */
+    public GaroupaUser getGaroupaUser(User user) {
+        PermissionDictionary permissionDictionary = permissionAutoService.getPermissionDictionaryPutCache();
+        AuthorizationSnapshot authorizationSnapshot = getAuthorizationSnapshot(user.getId(), permissionDictionary);
+        if (Objects.isNull(authorizationSnapshot)) {
+            return null;
+        }
+        return new GaroupaUser(user
+                , authorizationSnapshot.toPermissionSet(permissionDictionary), authorizationSnapshot.getResourceCodes());
+    }
+
+    /**
+     * 删除指定用户的授权缓存
+     *
+     * @param userId 用户id
+     * @author Telechow
+     * @since 2023/4/22 9:35
+     */
+    public void evict(Long userId) {
+        evictByUserIds(List.of(userId));
+    }
+
+    /**
+     * 删除关联了指定角色的用户的授权缓存
+     *
+     * @param roleId 角色id
+     * @author Telechow
+     * @since 2023/4/22 14:20
+     */
+    public void evictByRoleId(Long roleId) {
+        evictByUserIds(userRoleRelationAutoService.listUserIdByRoleId(roleId));
+    }
+
+    /**
+     * 删除通过角色关联了指定资源的用户的授权缓存
+     *
+     * @param resourceId 资源id
+     * @author Telechow
+     * @since 2023/4/22 14:22
+     */
+    public void evictByResourceId(Long resourceId) {
+        evictByUserIds(userRoleRelationAutoService.listUserIdByResourceId(resourceId));
+    }
+
+    /**
+     * 删除通过角色关联了指定权限的用户的授权缓存
+     *
+     * @param permissionId 权限id
+     * @author Telechow
+     * @since 2023/4/22 14:23
+     */
+    public void evictByPermissionId(Long permissionId) {
+        evictByUserIds(userRoleRelationAutoService.listUserIdByPermissionId(permissionId));
+    }
+
+    /**
+     * 删除指定用户集合的授权缓存
+     * <li>包括用户授权快照、按用户id缓存的权限实体列表和资源实体列表</li>
+     * <li>如果当前存在事务，在事务提交后再删除，避免其他请求在提交前把旧数据重新加载进缓存；事务回滚则无需删除</li>
+     *
+     * @param userIds 用户id集合
+     * @author Telechow
+     * @since 2023/4/22 14:25
+     */
+    public void evictByUserIds(Collection<Long> userIds) {
+        if (CollectionUtil.isEmpty(userIds)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            doEvict(userIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                doEvict(userIds);
+            }
+        });
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 获取与权限编码字典版本一致的用户授权快照
+     * <li>缓存中的快照版本号与当前版本号不一致，或编码位图时使用的字典已经变化时，删除缓存并重新加载</li>
+     * <li>重新加载后字典版本仍不一致（字典恰好在此期间变化），则不经过缓存直接查询并使用传入的字典编码</li>
+     *
+     * @param userId               用户id
+     * @param permissionDictionary 权限编码字典
+     * @return io.github.telechow.garoupa.api.domain.AuthorizationSnapshot 用户授权快照，用户不存在时返回null
+     * @author Telechow
+     * @since 2023/4/22 17:15
+     */
+    private AuthorizationSnapshot getAuthorizationSnapshot(Long userId, PermissionDictionary permissionDictionary) {
+        //1.查询用户授权快照
+        AuthorizationSnapshot authorizationSnapshot = userAutoService.getAuthorizationSnapshotByUserIdPutCache(userId);
+        if (Objects.isNull(authorizationSnapshot) || !isStale(authorizationSnapshot, permissionDictionary)) {
+            return authorizationSnapshot;
+        }
+
+        //2.如果快照已经过时，删除缓存并重新加载
+        doEvict(List.of(userId));
+        authorizationSnapshot = userAutoService.getAuthorizationSnapshotByUserIdPutCache(userId);
+        if (Objects.isNull(authorizationSnapshot) || !isStale(authorizationSnapshot, permissionDictionary)) {
+            return authorizationSnapshot;
+        }
+
+        //3.仍然过时，直接查询数据库，并使用传入的字典编码
+        return userAutoService.getAuthorizationSnapshotByUserId(userId, permissionDictionary);
+    }
+
+    /**
+     * 用户授权快照是否已经过时
+     *
+     * @param authorizationSnapshot 用户授权快照
+     * @param permissionDictionary  权限编码字典
+     * @return boolean 是否已经过时
+     * @author Telechow
+     * @since 2023/4/22 17:18
+     */
+    private boolean isStale(AuthorizationSnapshot authorizationSnapshot, PermissionDictionary permissionDictionary) {
+        return authorizationSnapshot.getVersion() != AuthorizationSnapshot.CURRENT_VERSION
+                || !Objects.equals(authorizationSnapshot.getPermissionDictionaryVersion(), permissionDictionary.getVersion());
+    }
+
+    /**
+     * 立即删除指定用户集合的授权缓存，删除次数只与用户数量有关
+     *
+     * @param userIds 用户id集合
+     * @author Telechow
+     * @since 2023/4/22 14:28
+     */
+    private void doEvict(Collection<Long> userIds) {
+        for (String cacheName : USER_AUTHORIZATION_CACHE_NAMES) {
+            Optional.ofNullable(cacheManager.getCache(cacheName))
+                    .ifPresent(c -> userIds.forEach(c::evict));
+        }
+    }
+}
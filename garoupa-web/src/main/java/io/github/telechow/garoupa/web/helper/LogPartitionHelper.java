@@ -0,0 +1,58 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.helper;
+
+import io.github.telechow.garoupa.web.log.partition.LogPartitionProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 日志分区帮助类
+ *
+ * @author Telechow
+ * @since 2023/4/24 17:40
+ */
+@Component
+@RequiredArgsConstructor
+public class LogPartitionHelper {
+
+    private final LogPartitionProperties logPartitionProperties;
+
+    /**
+     * 获取游标分页查询和导出日志的开始时间，保证查询带有时间下界，只扫描时间范围内的分区
+     * <li>分页查询不使用，分页查询没有指定开始时间时查询全部日志</li>
+     * <li>指定了开始时间时直接使用</li>
+     * <li>没有指定开始时间时，使用结束时间（没有结束时间则使用当前时间）往前推默认查询时间窗口</li>
+     *
+     * @param createTimeBegin 查询条件中的开始时间（含）
+     * @param createTimeEnd   查询条件中的结束时间（不含）
+     * @return java.time.LocalDateTime 日志查询的开始时间（含）
+     * @author Telechow
+     * @since 2023/4/24 17:42
+     */
+    public LocalDateTime resolveCreateTimeBegin(LocalDateTime createTimeBegin, LocalDateTime createTimeEnd) {
+        if (Objects.nonNull(createTimeBegin)) {
+            return createTimeBegin;
+        }
+        return Optional.ofNullable(createTimeEnd)
+                .orElseGet(LocalDateTime::now)
+                .minus(logPartitionProperties.getDefaultQueryWindow());
+    }
+}
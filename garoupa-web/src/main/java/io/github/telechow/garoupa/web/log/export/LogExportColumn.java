@@ -0,0 +1,31 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.export;
+
+import java.util.function.Function;
+
+/**
+ * 日志导出列
+ *
+ * @param key    列的键，NDJSON格式中作为json对象的属性名
+ * @param header 列的表头，CSV格式中作为第一行的列名
+ * @param getter 从一行数据中获取此列的值
+ * @author Telechow
+ * @since 2023/4/25 9:15
+ */
+public record LogExportColumn<T>(String key, String header, Function<T, Object> getter) {
+
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.export;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import io.github.telechow.garoupa.api.enums.common.ExportFormatEnum;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 日志导出写入器
+ * <li>逐行写入输出流，每写入一定行数刷新一次，已写入的数据以分块传输的方式发送给客户端，内存占用与导出行数无关</li>
+ * <li>CSV格式以UTF-8 BOM开头，第一行为表头，按照RFC 4180转义；NDJSON格式每行一个json对象</li>
+ * <li>不关闭输出流，输出流由调用者管理</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 9:18
+ */
+public class LogExportWriter<T> {
+
+    private static final int FLUSH_ROWS = 500;
+
+    private static final char UTF8_BOM = '\uFEFF';
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ExportFormatEnum format;
+
+    private final List<LogExportColumn<T>> columns;
+
+    private final Writer writer;
+
+    private int unflushedRows;
+
+    public LogExportWriter(ExportFormatEnum format, List<LogExportColumn<T>> columns, OutputStream outputStream) {
+        this.format = format;
+        this.columns = columns;
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 写入表头，只有CSV格式有表头
+     *
+     * @throws IOException 写入失败，通常是客户端断开了连接
+     * @author Telechow
+     * @since 2023/4/25 9:20
+     */
+    public void writeHeader() throws IOException {
+        if (format != ExportFormatEnum.CSV) {
+            return;
+        }
+        writer.write(UTF8_BOM);
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            this.writeCsvValue(columns.get(i).header());
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * 写入一行数据
+     *
+     * @param row 一行数据
+     * @throws IOException 写入失败，通常是客户端断开了连接
+     * @author Telechow
+     * @since 2023/4/25 9:22
+     */
+    public void write(T row) throws IOException {
+        //1.按照导出格式写入一行
+        if (format == ExportFormatEnum.CSV) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                this.writeCsvValue(columns.get(i).getter().apply(row));
+            }
+            writer.write("\r\n");
+        } else {
+            JSONObject jsonObject = new JSONObject(columns.size());
+            for (LogExportColumn<T> column : columns) {
+                jsonObject.put(column.key(), column.getter().apply(row));
+            }
+            writer.write(JSON.toJSONString(jsonObject));
+            writer.write('\n');
+        }
+
+        //2.每写入一定行数刷新一次，把数据发送给客户端
+        if (++unflushedRows >= FLUSH_ROWS) {
+            this.flush();
+        }
+    }
+
+    /**
+     * 刷新缓冲区中的数据到输出流
+     *
+     * @throws IOException 写入失败，通常是客户端断开了连接
+     * @author Telechow
+     * @since 2023/4/25 9:24
+     */
+    public void flush() throws IOException {
+        writer.flush();
+        unflushedRows = 0;
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 写入一个CSV值，包含逗号、双引号或换行符的值用双引号包围，值中的双引号写两次
+     * <li>以=、+、-、@、制表符或回车符开头的文本会被电子表格当作公式执行，在前面加上单引号，防止CSV公式注入</li>
+     *
+     * @param value 值
+     * @throws IOException 写入失败
+     * @author Telechow
+     * @since 2023/4/25 9:26
+     */
+    private void writeCsvValue(Object value) throws IOException {
+        if (Objects.isNull(value)) {
+            return;
+        }
+        String text = value instanceof LocalDateTime localDateTime
+                ? DATE_TIME_FORMATTER.format(localDateTime) : value.toString();
+        if (!(value instanceof Number) && isFormulaPrefix(text)) {
+            text = "'" + text;
+        }
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    /**
+     * 文本是否以电子表格的公式前缀开头
+     *
+     * @param text 文本
+     * @return boolean 是否以公式前缀开头
+     * @author Telechow
+     * @since 2023/4/25 18:00
+     */
+    private static boolean isFormulaPrefix(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        char c = text.charAt(0);
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.ip;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.util.Arrays;
+
+/**
+ * ip地址编解码器
+ * <li>ip地址统一编码成16字节的二进制，IPv4地址编码成IPv4映射的IPv6地址（::ffff:a.b.c.d）</li>
+ * <li>定长的二进制按字节比较的顺序与ip地址的数值顺序一致，网段对应一个连续的区间，可以走索引范围扫描</li>
+ * <li>IPv4和IPv6地址都手动按字面量解析，不经过{@link java.net.InetAddress}，任何输入都不会触发域名解析</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 14:20
+ */
+public final class IpAddressCodec {
+
+    /**
+     * 编码后的字节数
+     */
+    public static final int LENGTH = 16;
+
+    private static final int IPV4_LENGTH = 4;
+
+    private static final int IPV4_MAPPED_PREFIX_BITS = 96;
+
+    private IpAddressCodec() {
+    }
+
+    /**
+     * 将ip地址编码成16字节的二进制
+     *
+     * @param ip ip地址，IPv4或IPv6的字面量
+     * @return byte[] 16字节的二进制；ip地址为空或格式错误时返回null
+     * @author Telechow
+     * @since 2023/4/25 14:22
+     */
+    public static byte[] encode(String ip) {
+        if (StrUtil.isBlank(ip)) {
+            return null;
+        }
+        String trimmed = ip.trim();
+        //1.IPv4地址手动解析，编码成IPv4映射的IPv6地址
+        if (trimmed.indexOf(':') < 0) {
+            byte[] ipv4 = parseIpv4(trimmed);
+            return ipv4 == null ? null : toIpv4Mapped(ipv4);
+        }
+
+        //2.IPv6地址手动解析，只接受十六进制数字、冒号、内嵌IPv4地址的点和区域标识
+        return parseIpv6(trimmed);
+    }
+
+    /**
+     * 解析网段，IPv4网段的前缀长度换算成IPv4映射的IPv6地址的前缀长度
+     *
+     * @param cidr 网段，如192.168.0.0/16、2001:db8::/32；不带前缀长度时表示单个ip地址
+     * @return io.github.telechow.garoupa.web.log.ip.IpAddressRange ip地址区间；网段格式错误时返回null
+     * @author Telechow
+     * @since 2023/4/25 14:25
+     */
+    public static IpAddressRange parseCidr(String cidr) {
+        if (StrUtil.isBlank(cidr)) {
+            return null;
+        }
+        //1.拆分ip地址和前缀长度
+        String trimmed = cidr.trim();
+        int slashIndex = trimmed.indexOf('/');
+        String ip = slashIndex < 0 ? trimmed : trimmed.substring(0, slashIndex);
+        byte[] address = encode(ip);
+        if (address == null) {
+            return null;
+        }
+        int maxPrefixBits = ip.indexOf(':') < 0 ? LENGTH * Byte.SIZE - IPV4_MAPPED_PREFIX_BITS : LENGTH * Byte.SIZE;
+        int prefixBits = maxPrefixBits;
+        if (slashIndex >= 0) {
+            String prefix = trimmed.substring(slashIndex + 1);
+            if (prefix.isEmpty() || prefix.length() > 3 || !StrUtil.isNumeric(prefix)) {
+                return null;
+            }
+            prefixBits = Integer.parseInt(prefix);
+            if (prefixBits > maxPrefixBits) {
+                return null;
+            }
+        }
+        if (ip.indexOf(':') < 0) {
+            prefixBits += IPV4_MAPPED_PREFIX_BITS;
+        }
+
+        //2.前缀之后的位全部置0得到下界，全部置1得到上界
+        byte[] lower = address.clone();
+        byte[] upper = address.clone();
+        for (int bit = prefixBits; bit < LENGTH * Byte.SIZE; bit++) {
+            int mask = 0x80 >>> (bit % Byte.SIZE);
+            lower[bit / Byte.SIZE] &= (byte) ~mask;
+            upper[bit / Byte.SIZE] |= (byte) mask;
+        }
+        return new IpAddressRange(lower, upper);
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 解析点分十进制的IPv4地址
+     *
+     * @param ip IPv4地址
+     * @return byte[] 4字节的二进制；格式错误时返回null
+     * @author Telechow
+     * @since 2023/4/25 14:27
+     */
+    private static byte[] parseIpv4(String ip) {
+        byte[] address = new byte[IPV4_LENGTH];
+        int part = 0, value = 0, digits = 0;
+        for (int i = 0; i <= ip.length(); i++) {
+            char c = i == ip.length() ? '.' : ip.charAt(i);
+            if (c == '.') {
+                if (digits == 0 || part == IPV4_LENGTH) {
+                    return null;
+                }
+                address[part++] = (byte) value;
+                value = 0;
+                digits = 0;
+            } else if (c >= '0' && c <= '9' && digits < 3) {
+                value = value * 10 + (c - '0');
+                digits++;
+                if (value > 255) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+        }
+        return part == IPV4_LENGTH ? address : null;
+    }
+
+    /**
+     * 解析IPv6地址，支持双冒号压缩、末尾内嵌的IPv4地址和区域标识，区域标识不参与编码
+     *
+     * @param ip IPv6地址
+     * @return byte[] 16字节的二进制；格式错误时返回null
+     * @author Telechow
+     * @since 2023/4/25 18:05
+     */
+    private static byte[] parseIpv6(String ip) {
+        //1.去掉区域标识，如fe80::1%eth0
+        int zoneIndex = ip.indexOf('%');
+        if (zoneIndex >= 0) {
+            if (zoneIndex == ip.length() - 1) {
+                return null;
+            }
+            ip = ip.substring(0, zoneIndex);
+        }
+
+        //2.以双冒号拆分成前后两部分，双冒号最多出现一次
+        int doubleColonIndex = ip.indexOf("::");
+        if (doubleColonIndex >= 0 && ip.indexOf("::", doubleColonIndex + 1) >= 0) {
+            return null;
+        }
+        boolean compressed = doubleColonIndex >= 0;
+        byte[] head = parseIpv6Groups(compressed ? ip.substring(0, doubleColonIndex) : ip, !compressed);
+        byte[] tail = compressed ? parseIpv6Groups(ip.substring(doubleColonIndex + 2), true) : new byte[0];
+        if (head == null || tail == null) {
+            return null;
+        }
+
+        //3.没有压缩时必须正好16字节，双冒号至少代表一组0
+        if (compressed ? head.length + tail.length > LENGTH - 2 : head.length != LENGTH) {
+            return null;
+        }
+        byte[] address = new byte[LENGTH];
+        System.arraycopy(head, 0, address, 0, head.length);
+        System.arraycopy(tail, 0, address, LENGTH - tail.length, tail.length);
+        return address;
+    }
+
+    /**
+     * 解析以冒号分隔的若干组十六进制数
+     *
+     * @param part      以冒号分隔的若干组十六进制数，可以为空字符串
+     * @param allowIpv4 最后一组是否可以是内嵌的IPv4地址
+     * @return byte[] 每组2字节，内嵌的IPv4地址4字节；格式错误时返回null
+     * @author Telechow
+     * @since 2023/4/25 18:07
+     */
+    private static byte[] parseIpv6Groups(String part, boolean allowIpv4) {
+        if (part.isEmpty()) {
+            return new byte[0];
+        }
+        String[] groups = part.split(":", -1);
+        byte[] bytes = new byte[LENGTH];
+        int length = 0;
+        for (int i = 0; i < groups.length; i++) {
+            String group = groups[i];
+            //1.最后一组可以是内嵌的IPv4地址，如::ffff:192.168.0.1
+            if (allowIpv4 && i == groups.length - 1 && group.indexOf('.') >= 0) {
+                byte[] ipv4 = parseIpv4(group);
+                if (ipv4 == null || length + IPV4_LENGTH > LENGTH) {
+                    return null;
+                }
+                System.arraycopy(ipv4, 0, bytes, length, IPV4_LENGTH);
+                length += IPV4_LENGTH;
+                continue;
+            }
+
+            //2.每组1到4个十六进制数字
+            if (group.isEmpty() || group.length() > 4 || length + 2 > LENGTH) {
+                return null;
+            }
+            int value = 0;
+            for (int j = 0; j < group.length(); j++) {
+                int digit = hexDigit(group.charAt(j));
+                if (digit < 0) {
+                    return null;
+                }
+                value = value << 4 | digit;
+            }
+            bytes[length++] = (byte) (value >>> Byte.SIZE);
+            bytes[length++] = (byte) value;
+        }
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * 将十六进制数字字符转换成数值，只接受ASCII字符
+     *
+     * @param c 字符
+     * @return int 数值；不是十六进制数字时返回-1
+     * @author Telechow
+     * @since 2023/4/25 18:08
+     */
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * 将4字节的IPv4地址转换成IPv4映射的IPv6地址
+     *
+     * @param ipv4 4字节的IPv4地址
+     * @return byte[] 16字节的二进制
+     * @author Telechow
+     * @since 2023/4/25 14:28
+     */
+    private static byte[] toIpv4Mapped(byte[] ipv4) {
+        byte[] address = new byte[LENGTH];
+        address[10] = (byte) 0xff;
+        address[11] = (byte) 0xff;
+        System.arraycopy(ipv4, 0, address, LENGTH - IPV4_LENGTH, IPV4_LENGTH);
+        return address;
+    }
+}
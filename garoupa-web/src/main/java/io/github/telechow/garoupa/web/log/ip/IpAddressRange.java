@@ -0,0 +1,93 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.ip;
+
+import cn.hutool.core.util.StrUtil;
+import io.github.telechow.garoupa.api.enums.ResponseCode;
+import io.github.telechow.garoupa.config.exception.ServiceException;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * ip地址区间，上下界都包含在区间内，都是16字节的二进制
+ * <li>日志的ip地址查询条件统一转换成区间：精确的ip地址是上下界相等的区间，网段是连续的区间</li>
+ * <li>二进制按照无符号字节比较，与数据库中VARBINARY的比较方式一致</li>
+ *
+ * @param lower 下界（含）
+ * @param upper 上界（含）
+ * @author Telechow
+ * @since 2023/4/25 14:30
+ */
+public record IpAddressRange(byte[] lower, byte[] upper) {
+
+    /**
+     * 根据ip地址和网段查询条件解析出ip地址区间，同时指定时取两者的交集
+     *
+     * @param remoteIp     ip地址查询条件，精确匹配
+     * @param remoteIpCidr 网段查询条件
+     * @return io.github.telechow.garoupa.web.log.ip.IpAddressRange ip地址区间；两个查询条件都为空时返回null
+     * @author Telechow
+     * @since 2023/4/25 14:32
+     */
+    public static IpAddressRange resolve(String remoteIp, String remoteIpCidr) {
+        IpAddressRange range = null;
+        //1.ip地址查询条件
+        if (StrUtil.isNotBlank(remoteIp)) {
+            byte[] address = IpAddressCodec.encode(remoteIp);
+            if (Objects.isNull(address)) {
+                throw new ServiceException(ResponseCode.REMOTE_IP_ILLEGAL);
+            }
+            range = new IpAddressRange(address, address);
+        }
+
+        //2.网段查询条件，与ip地址查询条件取交集；交集为空时下界大于上界，查询不到任何数据
+        if (StrUtil.isNotBlank(remoteIpCidr)) {
+            IpAddressRange cidrRange = IpAddressCodec.parseCidr(remoteIpCidr);
+            if (Objects.isNull(cidrRange)) {
+                throw new ServiceException(ResponseCode.REMOTE_IP_ILLEGAL);
+            }
+            range = Objects.isNull(range) ? cidrRange : new IpAddressRange(
+                    Arrays.compareUnsigned(range.lower, cidrRange.lower) >= 0 ? range.lower : cidrRange.lower,
+                    Arrays.compareUnsigned(range.upper, cidrRange.upper) <= 0 ? range.upper : cidrRange.upper);
+        }
+        return range;
+    }
+
+    /**
+     * 是否是单个ip地址，单个ip地址使用等值查询
+     *
+     * @return boolean 是否是单个ip地址
+     * @author Telechow
+     * @since 2023/4/25 14:34
+     */
+    public boolean isSingle() {
+        return Arrays.equals(lower, upper);
+    }
+
+    /**
+     * 区间是否包含指定的ip地址
+     *
+     * @param address 16字节的ip地址，可以为null
+     * @return boolean 是否包含
+     * @author Telechow
+     * @since 2023/4/25 14:35
+     */
+    public boolean contains(byte[] address) {
+        return Objects.nonNull(address)
+                && Arrays.compareUnsigned(address, lower) >= 0 && Arrays.compareUnsigned(address, upper) <= 0;
+    }
+}
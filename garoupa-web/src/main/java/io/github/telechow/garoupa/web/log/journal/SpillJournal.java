@@ -0,0 +1,567 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.journal;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.alibaba.fastjson2.JSON;
+import io.github.telechow.garoupa.web.log.writer.LogSpiller;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 溢出日志文件
+ * <li>批量日志写入器缓冲区已满或写入数据库失败时，日志以json的形式追加到本地的分段文件中，分段文件通过内存映射读写</li>
+ * <li>每条记录的格式为：4字节长度 + 4字节crc32校验值 + json内容；长度为0表示分段文件的有效内容到此为止</li>
+ * <li>后台线程定期从检查点开始批量读取记录并重新写入数据库，写入成功后推进并保存检查点，已经消费完的分段文件会被删除</li>
+ * <li>记录在溢出前已经分配好id，重放使用忽略重复的insert，即使保存检查点之前进程退出，重新重放也不会重复写入</li>
+ *
+ * @author Telechow
+ * @since 2023/4/24 14:20
+ */
+@Slf4j
+public class SpillJournal<T> implements LogSpiller<T>, InitializingBean, DisposableBean {
+
+    private static final String METRIC_PREFIX = "garoupa.log.journal";
+
+    private static final String NAME_TAG = "name";
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final String CHECKPOINT_FILE_NAME = "checkpoint";
+
+    /**
+     * 记录头的字节数：4字节长度 + 4字节crc32校验值
+     */
+    private static final int HEADER_BYTES = 8;
+
+    private final String name;
+
+    private final SpillJournalProperties properties;
+
+    private final Class<T> entryType;
+
+    private final Consumer<List<T>> replayWriter;
+
+    private final Path directory;
+
+    private final int segmentBytes;
+
+    private final ConcurrentNavigableMap<Long, Segment> segmentMap = new ConcurrentSkipListMap<>();
+
+    private final Counter appendedCounter;
+
+    private final Counter replayedCounter;
+
+    private final Counter replayFailedCounter;
+
+    /**
+     * 正在追加记录的分段文件，只在持有当前对象的锁时访问
+     */
+    private Segment writeSegment;
+
+    /**
+     * 已经完整写入的位置，重放线程最多读到此位置
+     */
+    private volatile Position committed;
+
+    /**
+     * 检查点，此位置之前的记录都已经写入数据库
+     */
+    private volatile Position checkpoint;
+
+    private ScheduledExecutorService replayExecutor;
+
+    /**
+     * 构造溢出日志文件
+     *
+     * @param name          名称，用作分段文件所在的子目录名称和指标标签
+     * @param properties    溢出日志文件配置参数
+     * @param entryType     日志的类型，用于反序列化
+     * @param replayWriter  将一批重放的日志写入数据库的逻辑，必须忽略已经存在的记录
+     * @param meterRegistry 指标注册中心
+     * @author Telechow
+     * @since 2023/4/24 14:22
+     */
+    public SpillJournal(String name, SpillJournalProperties properties, Class<T> entryType
+            , Consumer<List<T>> replayWriter, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.properties = properties;
+        this.entryType = entryType;
+        this.replayWriter = replayWriter;
+        this.directory = Path.of(properties.getDirectory(), name);
+        this.segmentBytes = (int) Math.min(Integer.MAX_VALUE, properties.getSegmentSize().toBytes());
+
+        //注册指标
+        this.appendedCounter = Counter.builder(METRIC_PREFIX + ".records")
+                .description("溢出日志文件处理的记录条数")
+                .tag(NAME_TAG, name)
+                .tag("result", "appended")
+                .register(meterRegistry);
+        this.replayedCounter = Counter.builder(METRIC_PREFIX + ".records")
+                .description("溢出日志文件处理的记录条数")
+                .tag(NAME_TAG, name)
+                .tag("result", "replayed")
+                .register(meterRegistry);
+        this.replayFailedCounter = Counter.builder(METRIC_PREFIX + ".replay.failures")
+                .description("溢出日志重放失败的次数")
+                .tag(NAME_TAG, name)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".segments", segmentMap, ConcurrentNavigableMap::size)
+                .description("溢出日志文件的分段文件个数")
+                .tag(NAME_TAG, name)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".pending.bytes", this, SpillJournal::pendingBytes)
+                .description("等待重放的记录字节数")
+                .tag(NAME_TAG, name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void afterPropertiesSet() throws IOException {
+        //1.打开已有的分段文件，没有则创建第一个分段文件
+        Files.createDirectories(directory);
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : paths.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                String fileName = path.getFileName().toString();
+                long seq = Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+                segmentMap.put(seq, Segment.open(path, seq, segmentBytes));
+            }
+        }
+        if (segmentMap.isEmpty()) {
+            segmentMap.put(0L, Segment.open(segmentPath(0L), 0L, segmentBytes));
+        }
+
+        //2.从最后一个分段文件中找到追加位置，清除进程异常退出时可能残留的半条记录
+        writeSegment = segmentMap.lastEntry().getValue();
+        writeSegment.writeOffset = scanEnd(writeSegment);
+        writeSegment.clearFrom(writeSegment.writeOffset);
+        committed = new Position(writeSegment.seq, writeSegment.writeOffset);
+
+        //3.读取检查点，检查点所在的分段文件已经不存在时从第一个分段文件开始
+        checkpoint = readCheckpoint();
+        if (checkpoint.seq() < segmentMap.firstKey()) {
+            checkpoint = new Position(segmentMap.firstKey(), 0);
+        }
+
+        //4.定期重放
+        long intervalMillis = properties.getReplayInterval().toMillis();
+        replayExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create().setNamePrefix(name + "-journal-replay-").setDaemon(true).build());
+        replayExecutor.scheduleWithFixedDelay(this::replay, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (Objects.nonNull(replayExecutor)) {
+            replayExecutor.shutdown();
+            replayExecutor.awaitTermination(properties.getReplayInterval().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        synchronized (this) {
+            for (Segment segment : segmentMap.values()) {
+                segment.close();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void spill(List<T> entries) {
+        //1.先序列化整批日志，剩余空间放不下整批日志时整批拒绝，不会只追加其中一部分
+        List<byte[]> payloads = new ArrayList<>(entries.size());
+        for (T entry : entries) {
+            payloads.add(JSON.toJSONBytes(entry));
+        }
+        ensureCapacity(payloads);
+
+        //2.追加整批日志
+        try {
+            for (byte[] payload : payloads) {
+                append(payload);
+                appendedCounter.increment();
+            }
+        } finally {
+            committed = new Position(writeSegment.seq, writeSegment.writeOffset);
+        }
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 确认剩余空间放得下一批记录，按照追加时切换分段文件的规则计算，放不下时抛出异常
+     *
+     * @param payloads 一批记录内容
+     * @author Telechow
+     * @since 2023/4/25 18:45
+     */
+    private void ensureCapacity(List<byte[]> payloads) {
+        int offset = writeSegment.writeOffset;
+        int segmentCount = segmentMap.size();
+        for (byte[] payload : payloads) {
+            final int recordBytes = HEADER_BYTES + payload.length;
+            if (recordBytes > segmentBytes) {
+                throw new IllegalStateException(name + "溢出日志单条记录超过分段文件的大小");
+            }
+            if (offset + recordBytes > segmentBytes) {
+                if (segmentCount >= properties.getMaxSegments()) {
+                    throw new IllegalStateException(name + "溢出日志文件已满");
+                }
+                segmentCount++;
+                offset = 0;
+            }
+            offset += recordBytes;
+        }
+    }
+
+    /**
+     * 追加一条记录，当前分段文件剩余空间不足时切换到新的分段文件
+     *
+     * @param payload 记录内容
+     * @author Telechow
+     * @since 2023/4/24 14:30
+     */
+    private void append(byte[] payload) {
+        //1.单条记录不能超过分段文件的大小
+        final int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalStateException(name + "溢出日志单条记录超过分段文件的大小");
+        }
+
+        //2.剩余空间不足时切换到新的分段文件，分段文件个数达到上限时拒绝
+        if (writeSegment.writeOffset + recordBytes > segmentBytes) {
+            if (segmentMap.size() >= properties.getMaxSegments()) {
+                throw new IllegalStateException(name + "溢出日志文件已满");
+            }
+            writeSegment.force();
+            long seq = writeSegment.seq + 1;
+            try {
+                writeSegment = Segment.open(segmentPath(seq), seq, segmentBytes);
+            } catch (IOException e) {
+                throw new IllegalStateException(name + "溢出日志分段文件创建失败", e);
+            }
+            segmentMap.put(seq, writeSegment);
+        }
+
+        //3.先写内容和校验值，最后写长度
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload);
+        int offset = writeSegment.writeOffset;
+        MappedByteBuffer buffer = writeSegment.buffer;
+        buffer.put(offset + HEADER_BYTES, payload);
+        buffer.putInt(offset + 4, (int) crc32.getValue());
+        buffer.putInt(offset, payload.length);
+        writeSegment.writeOffset = offset + recordBytes;
+    }
+
+    /**
+     * 重放溢出的日志，数据库写入失败时等待下一次重放
+     *
+     * @author Telechow
+     * @since 2023/4/24 14:40
+     */
+    private void replay() {
+        try {
+            //1.把已经追加的记录刷到磁盘
+            synchronized (this) {
+                writeSegment.force();
+            }
+
+            //2.从检查点开始批量读取记录写入数据库，每批写入成功后保存检查点
+            final int batchSize = Math.max(1, properties.getReplayBatchSize());
+            while (!Thread.currentThread().isInterrupted()) {
+                List<T> batch = new ArrayList<>(batchSize);
+                Position position = read(checkpoint, committed, batch, batchSize);
+                if (!batch.isEmpty()) {
+                    replayWriter.accept(batch);
+                    replayedCounter.increment(batch.size());
+                }
+                if (!position.equals(checkpoint)) {
+                    checkpoint = position;
+                    writeCheckpoint(position);
+                    deleteConsumedSegments();
+                }
+                if (batch.size() < batchSize) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            replayFailedCounter.increment();
+            log.warn("{}溢出日志重放失败，稍后重试", name, e);
+        }
+    }
+
+    /**
+     * 从指定位置开始读取记录，最多读到已经完整写入的位置
+     *
+     * @param from      开始位置
+     * @param end       已经完整写入的位置
+     * @param batch     读取到的记录
+     * @param batchSize 最多读取的记录条数
+     * @return io.github.telechow.garoupa.web.log.journal.SpillJournal.Position 读取结束的位置
+     * @author Telechow
+     * @since 2023/4/24 14:45
+     */
+    private Position read(Position from, Position end, List<T> batch, int batchSize) {
+        long seq = from.seq();
+        int offset = from.offset();
+        while (batch.size() < batchSize && seq <= end.seq()) {
+            //1.分段文件不存在或者已经读完时，切换到下一个分段文件；正在追加的分段文件只读到已经完整写入的位置
+            Segment segment = segmentMap.get(seq);
+            int limit = seq == end.seq() ? end.offset() : segmentBytes;
+            int length = Objects.isNull(segment) || offset + HEADER_BYTES > limit ? 0 : segment.buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > limit) {
+                if (seq == end.seq()) {
+                    break;
+                }
+                Long nextSeq = segmentMap.higherKey(seq);
+                if (Objects.isNull(nextSeq)) {
+                    break;
+                }
+                seq = nextSeq;
+                offset = 0;
+                continue;
+            }
+
+            //2.读取记录并校验，校验失败说明此分段文件剩余内容已损坏，跳到下一个分段文件
+            byte[] payload = new byte[length];
+            segment.buffer.get(offset + HEADER_BYTES, payload);
+            CRC32 crc32 = new CRC32();
+            crc32.update(payload);
+            if ((int) crc32.getValue() != segment.buffer.getInt(offset + 4)) {
+                log.warn("{}溢出日志分段文件{}在位置{}处校验失败，跳过剩余内容", name, seq, offset);
+                offset = limit;
+                continue;
+            }
+            offset += HEADER_BYTES + length;
+
+            //3.反序列化记录，反序列化失败的记录跳过
+            try {
+                batch.add(JSON.parseObject(payload, entryType));
+            } catch (Exception e) {
+                log.warn("{}溢出日志记录反序列化失败，已跳过：{}", name
+                        , new String(payload, StandardCharsets.UTF_8), e);
+            }
+        }
+        return new Position(seq, offset);
+    }
+
+    /**
+     * 删除检查点之前已经消费完的分段文件
+     *
+     * @author Telechow
+     * @since 2023/4/24 14:50
+     */
+    private synchronized void deleteConsumedSegments() {
+        for (Segment segment : segmentMap.headMap(checkpoint.seq()).values()) {
+            if (segment == writeSegment) {
+                continue;
+            }
+            segmentMap.remove(segment.seq);
+            segment.close();
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("{}溢出日志分段文件{}删除失败", name, segment.path, e);
+            }
+        }
+    }
+
+    /**
+     * 找到分段文件中有效内容的结束位置
+     *
+     * @param segment 分段文件
+     * @return int 有效内容的结束位置
+     * @author Telechow
+     * @since 2023/4/24 14:55
+     */
+    private int scanEnd(Segment segment) {
+        int offset = 0;
+        byte[] payload;
+        while (offset + HEADER_BYTES <= segmentBytes) {
+            int length = segment.buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > segmentBytes) {
+                break;
+            }
+            payload = new byte[length];
+            segment.buffer.get(offset + HEADER_BYTES, payload);
+            CRC32 crc32 = new CRC32();
+            crc32.update(payload);
+            if ((int) crc32.getValue() != segment.buffer.getInt(offset + 4)) {
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    /**
+     * 读取检查点文件，文件不存在或者内容错误时从头开始
+     *
+     * @return io.github.telechow.garoupa.web.log.journal.SpillJournal.Position 检查点
+     * @author Telechow
+     * @since 2023/4/24 15:00
+     */
+    private Position readCheckpoint() {
+        Path checkpointPath = directory.resolve(CHECKPOINT_FILE_NAME);
+        try {
+            if (Files.exists(checkpointPath)) {
+                String[] parts = Files.readString(checkpointPath, StandardCharsets.UTF_8).trim().split(" ");
+                return new Position(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+            }
+        } catch (Exception e) {
+            log.warn("{}溢出日志检查点读取失败，从头开始重放", name, e);
+        }
+        return new Position(segmentMap.firstKey(), 0);
+    }
+
+    /**
+     * 保存检查点，先写临时文件再原子替换，避免检查点文件损坏
+     *
+     * @param position 检查点
+     * @author Telechow
+     * @since 2023/4/24 15:02
+     */
+    private void writeCheckpoint(Position position) throws IOException {
+        Path tempPath = directory.resolve(CHECKPOINT_FILE_NAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE
+                , StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap((position.seq() + " " + position.offset())
+                    .getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+        Files.move(tempPath, directory.resolve(CHECKPOINT_FILE_NAME), StandardCopyOption.REPLACE_EXISTING
+                , StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 分段文件路径，文件名是补齐20位的序号，按文件名排序即按序号排序
+     *
+     * @param seq 分段文件序号
+     * @return java.nio.file.Path 分段文件路径
+     * @author Telechow
+     * @since 2023/4/24 15:04
+     */
+    private Path segmentPath(long seq) {
+        return directory.resolve(String.format("%020d", seq) + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * 等待重放的记录字节数
+     *
+     * @return double 等待重放的记录字节数
+     * @author Telechow
+     * @since 2023/4/24 15:06
+     */
+    private double pendingBytes() {
+        Position end = committed;
+        Position start = checkpoint;
+        if (Objects.isNull(end) || Objects.isNull(start)) {
+            return 0D;
+        }
+        return (double) (end.seq() - start.seq()) * segmentBytes + end.offset() - start.offset();
+    }
+
+    /**
+     * 文件中的位置
+     *
+     * @param seq    分段文件序号
+     * @param offset 分段文件中的偏移量
+     * @author Telechow
+     * @since 2023/4/24 14:24
+     */
+    private record Position(long seq, int offset) {
+
+    }
+
+    /**
+     * 内存映射的分段文件
+     *
+     * @author Telechow
+     * @since 2023/4/24 14:25
+     */
+    private static final class Segment {
+
+        private static final byte[] ZERO_BLOCK = new byte[4096];
+
+        private final long seq;
+
+        private final Path path;
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        /**
+         * 追加位置，只对正在追加的分段文件有意义
+         */
+        private int writeOffset;
+
+        private Segment(long seq, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.seq = seq;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment open(Path path, long seq, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ
+                    , StandardOpenOption.WRITE);
+            return new Segment(seq, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        private void clearFrom(int offset) {
+            for (int i = offset; i < buffer.capacity(); i += ZERO_BLOCK.length) {
+                buffer.put(i, ZERO_BLOCK, 0, Math.min(ZERO_BLOCK.length, buffer.capacity() - i));
+            }
+        }
+
+        private void force() {
+            buffer.force();
+        }
+
+        private void close() {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (Exception e) {
+                log.warn("溢出日志分段文件{}关闭失败", path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.journal;
+
+import lombok.Data;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 溢出日志文件配置参数
+ *
+ * @author Telechow
+ * @since 2023/4/24 14:05
+ */
+@Data
+public class SpillJournalProperties {
+
+    /**
+     * 是否启用溢出日志文件，不启用时溢出的日志只输出到日志文件
+     */
+    private boolean enabled = true;
+
+    /**
+     * 溢出日志文件的根目录，每个写入器使用以自己名称命名的子目录
+     */
+    private String directory = "logs/Garoupa/journal";
+
+    /**
+     * 每个分段文件的大小，分段文件通过内存映射读写
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(16L);
+
+    /**
+     * 最多保留的分段文件个数，达到上限后不再接收新的日志
+     */
+    private int maxSegments = 64;
+
+    /**
+     * 重放溢出日志的间隔时间，数据库不可用时每隔此时间重试一次
+     */
+    private Duration replayInterval = Duration.ofSeconds(5L);
+
+    /**
+     * 每次重放写入数据库的最大日志条数
+     */
+    private int replayBatchSize = 200;
+}
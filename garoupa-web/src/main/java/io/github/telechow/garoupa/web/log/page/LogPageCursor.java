@@ -0,0 +1,76 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.page;
+
+import cn.hutool.core.util.StrUtil;
+import io.github.telechow.garoupa.api.enums.ResponseCode;
+import io.github.telechow.garoupa.config.exception.ServiceException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * 日志游标分页的游标
+ * <li>日志按照创建时间降序、id升序排序，游标记录上一页最后一条日志的创建时间和id</li>
+ * <li>此排序与创建时间降序索引（InnoDB二级索引隐含主键升序）的顺序一致，查询时沿索引扫描，无需偏移和文件排序</li>
+ * <li>对外以base64url编码的不透明字符串传递，前端无需关心其内容</li>
+ *
+ * @param createTime 上一页最后一条日志的创建时间
+ * @param id         上一页最后一条日志的id
+ * @author Telechow
+ * @since 2023/4/24 16:15
+ */
+public record LogPageCursor(LocalDateTime createTime, Long id) {
+
+    private static final char SEPARATOR = '_';
+
+    /**
+     * 编码成游标字符串
+     *
+     * @return java.lang.String 游标字符串
+     * @author Telechow
+     * @since 2023/4/24 16:16
+     */
+    public String encode() {
+        String raw = createTime.toEpochSecond(ZoneOffset.UTC) + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 解码游标字符串，游标字符串为空时返回null，表示查询第一页
+     *
+     * @param cursor 游标字符串
+     * @return io.github.telechow.garoupa.web.log.page.LogPageCursor 日志游标分页的游标
+     * @author Telechow
+     * @since 2023/4/24 16:18
+     */
+    public static LogPageCursor decode(String cursor) {
+        if (StrUtil.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separatorIndex = raw.indexOf(SEPARATOR);
+            long epochSecond = Long.parseLong(raw.substring(0, separatorIndex));
+            long id = Long.parseLong(raw.substring(separatorIndex + 1));
+            return new LogPageCursor(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC), id);
+        } catch (RuntimeException e) {
+            throw new ServiceException(ResponseCode.PAGE_CURSOR_ILLEGAL);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.partition;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 日志分区归档器
+ * <li>为某张日志表注册归档器后，此表的旧分区由归档器转存到其他存储，转存成功后由分区维护任务删除分区</li>
+ * <li>注册了归档器的日志表不再按照保留月数删除分区，避免未转存的分区被删除</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 10:20
+ */
+public interface LogPartitionArchiver {
+
+    /**
+     * 归档器负责的日志表名
+     *
+     * @return java.lang.String 日志表名
+     * @author Telechow
+     * @since 2023/4/25 10:21
+     */
+    String tableName();
+
+    /**
+     * 归档器是否启用，不启用时此表按照保留月数删除分区
+     *
+     * @return boolean 是否启用
+     * @author Telechow
+     * @since 2023/4/25 10:22
+     */
+    boolean isEnabled();
+
+    /**
+     * 归档截止日期，上界不晚于此日期的分区需要归档
+     *
+     * @return java.time.LocalDate 归档截止日期
+     * @author Telechow
+     * @since 2023/4/25 10:23
+     */
+    LocalDate archiveBefore();
+
+    /**
+     * 转存一个分区中的数据，方法返回即表示转存完成，分区可以删除；同一个分区重复转存时应该直接返回
+     *
+     * @param partitionName 分区名称
+     * @param begin         分区的下界（含）
+     * @param end           分区的上界（不含）
+     * @author Telechow
+     * @since 2023/4/25 10:24
+     */
+    void archive(String partitionName, LocalDateTime begin, LocalDateTime end);
+
+    /**
+     * 清理已经过期的归档数据
+     *
+     * @author Telechow
+     * @since 2023/4/25 10:25
+     */
+    void expire();
+}
@@ -0,0 +1,302 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.partition;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import io.github.telechow.garoupa.api.enums.system.param.SystemParamEnum;
+import io.github.telechow.garoupa.web.helper.SystemParamHelper;
+import io.github.telechow.garoupa.web.mapper.LogPartitionMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志分区维护任务
+ * <li>日志表按照创建时间每月一个分区，分区名称形如p202304，另有一个兜底分区p_future容纳超出所有月分区的数据</li>
+ * <li>定时从兜底分区中拆分出未来几个月的分区，兜底分区通常为空，拆分只修改元数据</li>
+ * <li>超出保留月数的分区直接删除，或者先与归档表交换再删除，都不需要逐行删除数据</li>
+ * <li>注册了{@link LogPartitionArchiver}的日志表，旧分区先由归档器转存再删除</li>
+ * <li>多个节点同时运行时，通过redis分布式锁保证同一时间只有一个节点执行维护</li>
+ *
+ * @author Telechow
+ * @since 2023/4/24 17:20
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LogPartitionMaintainer implements InitializingBean, DisposableBean {
+
+    private static final String METRIC_PREFIX = "garoupa.log.partition";
+
+    private static final String LOCK_KEY = "Garoupa:LogPartition:Lock";
+
+    private static final String FUTURE_PARTITION_NAME = "p_future";
+
+    private static final String PARTITION_NAME_PREFIX = "p";
+
+    private static final DateTimeFormatter PARTITION_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final LogPartitionProperties logPartitionProperties;
+
+    private final LogPartitionMapper logPartitionMapper;
+
+    private final SystemParamHelper systemParamHelper;
+
+    private final RedissonClient redissonClient;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectProvider<LogPartitionArchiver> logPartitionArchivers;
+
+    private ScheduledExecutorService executor;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!logPartitionProperties.isEnabled()) {
+            return;
+        }
+        long intervalMillis = Math.max(1L, logPartitionProperties.getCheckInterval().toMillis());
+        executor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create().setNamePrefix("log-partition-").setDaemon(true).build());
+        executor.scheduleWithFixedDelay(this::maintain, 0L, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(executor)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 维护所有日志表的分区，获取不到分布式锁时说明其他节点正在维护，直接跳过
+     *
+     * @author Telechow
+     * @since 2023/4/24 17:25
+     */
+    public void maintain() {
+        RLock lock = redissonClient.getLock(LOCK_KEY);
+        try {
+            if (!lock.tryLock()) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("获取日志分区维护锁失败", e);
+            return;
+        }
+        try {
+            for (String tableName : logPartitionProperties.getTables()) {
+                try {
+                    this.maintainTable(tableName);
+                } catch (Exception e) {
+                    log.error("日志表[{}]分区维护失败", tableName, e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 维护一张日志表的分区
+     *
+     * @param tableName 日志表名
+     * @author Telechow
+     * @since 2023/4/24 17:28
+     */
+    private void maintainTable(String tableName) {
+        //1.查询已有的分区，没有兜底分区说明此表没有按照约定分区，不做维护
+        List<String> partitionNames = logPartitionMapper.selectPartitionNames(tableName);
+        if (!partitionNames.contains(FUTURE_PARTITION_NAME)) {
+            log.warn("日志表[{}]没有兜底分区{}，跳过分区维护", tableName, FUTURE_PARTITION_NAME);
+            return;
+        }
+        YearMonth currentMonth = YearMonth.now();
+
+        //2.从兜底分区中拆分出当前月和未来几个月的分区，月份必须递增，已经存在的月份跳过
+        YearMonth lastMonth = partitionNames.stream()
+                .filter(n -> !FUTURE_PARTITION_NAME.equals(n))
+                .map(this::partitionMonth)
+                .filter(Objects::nonNull)
+                .max(YearMonth::compareTo)
+                .orElse(currentMonth.minusMonths(1L));
+        YearMonth targetMonth = currentMonth.plusMonths(Math.max(0, logPartitionProperties.getFutureMonths()));
+        for (YearMonth month = lastMonth.plusMonths(1L); !month.isAfter(targetMonth); month = month.plusMonths(1L)) {
+            String partitionName = this.partitionName(month);
+            logPartitionMapper.reorganizeFuturePartition(tableName, partitionName
+                    , month.plusMonths(1L).atDay(1).toString());
+            this.count(tableName, "create");
+            log.info("日志表[{}]创建分区{}", tableName, partitionName);
+        }
+
+        //3.注册了归档器的日志表，由归档器转存超出归档时间的分区后删除分区，不再按照保留月数删除
+        LogPartitionArchiver logPartitionArchiver = logPartitionArchivers.orderedStream()
+                .filter(a -> a.isEnabled() && Objects.equals(a.tableName(), tableName))
+                .findFirst()
+                .orElse(null);
+        if (Objects.nonNull(logPartitionArchiver)) {
+            this.archiveWithArchiver(tableName, partitionNames, logPartitionArchiver);
+            return;
+        }
+
+        //4.删除或归档超出保留月数的分区，保留月数小于等于0时不清理
+        int retentionMonths = systemParamHelper.getIntegerValue(SystemParamEnum.LOG_RETENTION_MONTHS);
+        if (retentionMonths <= 0) {
+            return;
+        }
+        boolean archive = Boolean.parseBoolean(
+                systemParamHelper.getStringValue(SystemParamEnum.LOG_ARCHIVE_EXPIRED_PARTITION));
+        LocalDate cutoff = currentMonth.minusMonths(retentionMonths).atDay(1);
+        for (String partitionName : partitionNames) {
+            YearMonth month = this.partitionMonth(partitionName);
+            //4.1.分区的上界不晚于截止日期，说明分区中的数据都已过期
+            if (Objects.isNull(month) || month.plusMonths(1L).atDay(1).isAfter(cutoff)) {
+                continue;
+            }
+            if (archive) {
+                this.archivePartition(tableName, partitionName);
+            }
+            logPartitionMapper.dropPartition(tableName, partitionName);
+            this.count(tableName, "drop");
+            log.info("日志表[{}]删除过期分区{}", tableName, partitionName);
+        }
+    }
+
+    /**
+     * 使用归档器转存超出归档时间的分区，转存成功后删除分区，最后清理过期的归档数据
+     * <li>某个分区转存失败时保留此分区，下次维护时重试</li>
+     *
+     * @param tableName            日志表名
+     * @param partitionNames       日志表的所有分区名称
+     * @param logPartitionArchiver 日志分区归档器
+     * @author Telechow
+     * @since 2023/4/25 10:30
+     */
+    private void archiveWithArchiver(String tableName, List<String> partitionNames
+            , LogPartitionArchiver logPartitionArchiver) {
+        LocalDate archiveBefore = logPartitionArchiver.archiveBefore();
+        for (String partitionName : partitionNames) {
+            YearMonth month = this.partitionMonth(partitionName);
+            if (Objects.isNull(month) || month.plusMonths(1L).atDay(1).isAfter(archiveBefore)) {
+                continue;
+            }
+            LocalDateTime begin = month.atDay(1).atStartOfDay();
+            LocalDateTime end = month.plusMonths(1L).atDay(1).atStartOfDay();
+            try {
+                logPartitionArchiver.archive(partitionName, begin, end);
+            } catch (Exception e) {
+                log.error("日志表[{}]的分区{}转存失败，保留此分区", tableName, partitionName, e);
+                continue;
+            }
+            this.count(tableName, "archive");
+            logPartitionMapper.dropPartition(tableName, partitionName);
+            this.count(tableName, "drop");
+            log.info("日志表[{}]的分区{}转存完成并删除", tableName, partitionName);
+        }
+        logPartitionArchiver.expire();
+    }
+
+    /**
+     * 将分区中的数据交换到归档表中，交换后分区为空
+     * <li>每个分区对应一张归档表，表名形如garoupa_login_log_archive_202304</li>
+     * <li>归档表已经有数据说明上次交换成功但删除分区失败，不再重复交换</li>
+     *
+     * @param tableName     日志表名
+     * @param partitionName 分区名称
+     * @author Telechow
+     * @since 2023/4/24 17:32
+     */
+    private void archivePartition(String tableName, String partitionName) {
+        String archiveTableName = tableName + "_archive_" + partitionName.substring(PARTITION_NAME_PREFIX.length());
+        logPartitionMapper.createArchiveTable(tableName, archiveTableName);
+        if (!logPartitionMapper.selectPartitionNames(archiveTableName).isEmpty()) {
+            logPartitionMapper.removeArchiveTablePartitioning(archiveTableName);
+        }
+        if (logPartitionMapper.existsRows(archiveTableName)) {
+            return;
+        }
+        logPartitionMapper.exchangePartition(tableName, partitionName, archiveTableName);
+        this.count(tableName, "archive");
+        log.info("日志表[{}]的分区{}归档到{}", tableName, partitionName, archiveTableName);
+    }
+
+    /**
+     * 根据月份生成分区名称
+     *
+     * @param month 月份
+     * @return java.lang.String 分区名称，形如p202304
+     * @author Telechow
+     * @since 2023/4/24 17:34
+     */
+    private String partitionName(YearMonth month) {
+        return PARTITION_NAME_PREFIX + month.format(PARTITION_NAME_FORMATTER);
+    }
+
+    /**
+     * 解析分区名称对应的月份
+     *
+     * @param partitionName 分区名称
+     * @return java.time.YearMonth 月份，不是月分区时返回null
+     * @author Telechow
+     * @since 2023/4/24 17:35
+     */
+    private YearMonth partitionMonth(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_NAME_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partitionName.substring(PARTITION_NAME_PREFIX.length()), PARTITION_NAME_FORMATTER);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 记录分区维护操作的指标
+     *
+     * @param tableName 日志表名
+     * @param action    操作；create：创建分区，archive：归档分区，drop：删除分区
+     * @author Telechow
+     * @since 2023/4/24 17:36
+     */
+    private void count(String tableName, String action) {
+        Counter.builder(METRIC_PREFIX + ".operations")
+                .description("日志分区维护操作次数")
+                .tag("table", tableName)
+                .tag("action", action)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.partition;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 日志分区配置参数
+ * <li>日志表按照创建时间每月一个分区，保留月数和过期分区是否归档由系统参数控制</li>
+ *
+ * @author Telechow
+ * @since 2023/4/24 17:05
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "garoupa.log-partition")
+public class LogPartitionProperties {
+
+    /**
+     * 是否启用日志分区维护任务
+     */
+    private boolean enabled = true;
+
+    /**
+     * 需要维护分区的日志表
+     */
+    private List<String> tables = new ArrayList<>(List.of("garoupa_audit_log", "garoupa_login_log"));
+
+    /**
+     * 提前创建的未来分区月数，不包含当前月
+     */
+    private int futureMonths = 3;
+
+    /**
+     * 分区维护任务的执行间隔
+     */
+    private Duration checkInterval = Duration.ofHours(1L);
+
+    /**
+     * 查询日志时没有指定开始时间，默认只查询最近多长时间内的日志，使查询只扫描最近的几个分区
+     */
+    private Period defaultQueryWindow = Period.ofMonths(3);
+}
@@ -0,0 +1,290 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.writer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 批量日志写入器
+ * <li>请求线程只把日志放入有界的缓冲区，由一个后台线程批量写入数据库，请求不再等待单行insert</li>
+ * <li>缓冲区中的日志达到一批的数量，或者第一条日志等待超过写入间隔时，执行一次批量写入</li>
+ * <li>缓冲区满时按照{@link OverflowPolicy}阻塞等待、丢弃或交给溢出处理器，并记录次数；应用关闭时在超时时间内写完缓冲区中剩余的日志</li>
+ * <li>写入数据库失败的一批日志交给溢出处理器，由溢出处理器负责之后的重放</li>
+ *
+ * @author Telechow
+ * @since 2023/4/23 19:20
+ */
+@Slf4j
+public class BatchingLogWriter<T> implements InitializingBean, DisposableBean {
+
+    private static final String METRIC_PREFIX = "garoupa.log.writer";
+
+    private static final String NAME_TAG = "name";
+
+    private final String name;
+
+    private final BatchingLogWriterProperties properties;
+
+    private final Consumer<List<T>> batchWriter;
+
+    private final LogSpiller<T> spiller;
+
+    private final BlockingQueue<T> queue;
+
+    private final Counter writtenCounter;
+
+    private final Counter droppedCounter;
+
+    private final Counter failedCounter;
+
+    private final Counter spilledCounter;
+
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+
+    private Thread writerThread;
+
+    /**
+     * 构造批量日志写入器
+     *
+     * @param name          写入器名称，用于线程名称和指标标签
+     * @param properties    批量日志写入器配置参数
+     * @param batchWriter   将一批日志写入数据库的逻辑
+     * @param meterRegistry 指标注册中心
+     * @author Telechow
+     * @since 2023/4/23 19:22
+     */
+    public BatchingLogWriter(String name, BatchingLogWriterProperties properties, Consumer<List<T>> batchWriter
+            , MeterRegistry meterRegistry) {
+        this(name, properties, batchWriter, null, meterRegistry);
+    }
+
+    /**
+     * 构造带有溢出处理器的批量日志写入器
+     *
+     * @param name          写入器名称，用于线程名称和指标标签
+     * @param properties    批量日志写入器配置参数
+     * @param batchWriter   将一批日志写入数据库的逻辑
+     * @param spiller       日志溢出处理器，处理策略为溢出或写入数据库失败时使用，可以为null
+     * @param meterRegistry 指标注册中心
+     * @author Telechow
+     * @since 2023/4/24 9:15
+     */
+    public BatchingLogWriter(String name, BatchingLogWriterProperties properties, Consumer<List<T>> batchWriter
+            , LogSpiller<T> spiller, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.properties = properties;
+        this.batchWriter = batchWriter;
+        this.spiller = spiller;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getCapacity()));
+
+        //注册指标
+        this.writtenCounter = Counter.builder(METRIC_PREFIX + ".entries")
+                .description("批量日志写入器处理的日志条数")
+                .tag(NAME_TAG, name)
+                .tag("result", "written")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder(METRIC_PREFIX + ".entries")
+                .description("批量日志写入器处理的日志条数")
+                .tag(NAME_TAG, name)
+                .tag("result", "dropped")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder(METRIC_PREFIX + ".entries")
+                .description("批量日志写入器处理的日志条数")
+                .tag(NAME_TAG, name)
+                .tag("result", "failed")
+                .register(meterRegistry);
+        this.spilledCounter = Counter.builder(METRIC_PREFIX + ".entries")
+                .description("批量日志写入器处理的日志条数")
+                .tag(NAME_TAG, name)
+                .tag("result", "spilled")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder(METRIC_PREFIX + ".flush")
+                .description("批量日志写入器每批日志的写入时间")
+                .tag(NAME_TAG, name)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".buffer.size", queue, BlockingQueue::size)
+                .description("缓冲区中等待写入的日志条数")
+                .tag(NAME_TAG, name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        writerThread = new Thread(this::work, name + "-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        //停止接收新的批次等待，后台线程写完缓冲区中剩余的日志后退出
+        running = false;
+        if (Objects.nonNull(writerThread)) {
+            writerThread.join(properties.getShutdownTimeout().toMillis());
+            if (writerThread.isAlive()) {
+                log.warn("{}关闭超时，缓冲区中还有{}条日志未写入", name, queue.size());
+            }
+        }
+    }
+
+    /**
+     * 将日志放入缓冲区，缓冲区已满时按照处理策略处理
+     *
+     * @param entry 日志
+     * @return boolean 是否成功放入缓冲区
+     * @author Telechow
+     * @since 2023/4/23 19:30
+     */
+    public boolean offer(T entry) {
+        //1.写入器运行中才放入缓冲区，已停止时按照缓冲区已满处理
+        if (running) {
+            //2.缓冲区有空位直接放入
+            if (queue.offer(entry)) {
+                return true;
+            }
+            //3.处理策略为阻塞时，在阻塞等待时间内等待缓冲区出现空位
+            if (properties.getOverflowPolicy() == OverflowPolicy.BLOCK) {
+                try {
+                    if (queue.offer(entry, properties.getBlockTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        //4.处理策略为溢出时交给溢出处理器，否则丢弃
+        if (properties.getOverflowPolicy() == OverflowPolicy.SPILL && spill(List.of(entry))) {
+            return false;
+        }
+        droppedCounter.increment();
+        return false;
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 后台线程持续从缓冲区中取出日志批量写入，停止后写完缓冲区中剩余的日志再退出
+     *
+     * @author Telechow
+     * @since 2023/4/23 19:32
+     */
+    private void work() {
+        final int batchSize = Math.max(1, properties.getBatchSize());
+        final long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        List<T> batch = new ArrayList<>(batchSize);
+        try {
+            while (running) {
+                //1.等待第一条日志，等待时间不超过写入间隔，以便及时发现写入器已停止
+                T first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (Objects.isNull(first)) {
+                    continue;
+                }
+                batch.add(first);
+
+                //2.凑满一批或者到达写入间隔后写入
+                final long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remainingNanos = deadline - System.nanoTime();
+                    T next = remainingNanos > 0 ? queue.poll(remainingNanos, TimeUnit.NANOSECONDS) : null;
+                    if (Objects.isNull(next)) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        //3.写完缓冲区中剩余的日志
+        flush(batch);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+        }
+    }
+
+    /**
+     * 将日志交给溢出处理器，没有溢出处理器或者溢出处理器抛出异常时返回false
+     *
+     * @param entries 日志列表
+     * @return boolean 是否成功交给溢出处理器
+     * @author Telechow
+     * @since 2023/4/24 9:20
+     */
+    private boolean spill(List<T> entries) {
+        if (Objects.isNull(spiller)) {
+            return false;
+        }
+        try {
+            spiller.spill(entries);
+            spilledCounter.increment(entries.size());
+            return true;
+        } catch (Exception e) {
+            log.error("{}溢出{}条日志失败", name, entries.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 写入一批日志并清空批次，写入失败只记录日志，不影响后续批次
+     *
+     * @param batch 一批日志
+     * @author Telechow
+     * @since 2023/4/23 19:35
+     */
+    private void flush(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        final long startNanos = System.nanoTime();
+        try {
+            batchWriter.accept(batch);
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            //写入失败时交给溢出处理器，没有溢出处理器或者溢出失败时记录失败次数
+            log.error("{}批量写入{}条日志失败", name, batch.size(), e);
+            if (!spill(batch)) {
+                failedCounter.increment(batch.size());
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            batch.clear();
+        }
+    }
+}
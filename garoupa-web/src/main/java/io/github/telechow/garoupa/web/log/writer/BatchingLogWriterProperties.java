@@ -0,0 +1,60 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.writer;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * 批量日志写入器配置参数
+ *
+ * @author Telechow
+ * @since 2023/4/23 19:10
+ */
+@Data
+public class BatchingLogWriterProperties {
+
+    /**
+     * 缓冲区最多容纳的日志条数
+     */
+    private int capacity = 8192;
+
+    /**
+     * 缓冲区满时的处理策略
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+    /**
+     * 处理策略为阻塞时，最长的阻塞等待时间
+     */
+    private Duration blockTimeout = Duration.ofMillis(100L);
+
+    /**
+     * 每次写入数据库的最大日志条数，缓冲区中的日志达到此数量时立即写入
+     */
+    private int batchSize = 200;
+
+    /**
+     * 日志在缓冲区中的最长等待时间，到达此时间时即使不满一批也会写入
+     */
+    private Duration flushInterval = Duration.ofSeconds(1L);
+
+    /**
+     * 应用关闭时等待缓冲区中的日志写完的最长时间
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10L);
+}
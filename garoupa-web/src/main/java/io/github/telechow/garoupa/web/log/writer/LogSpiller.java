@@ -0,0 +1,38 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.writer;
+
+import java.util.List;
+
+/**
+ * 日志溢出处理器
+ * <li>批量日志写入器无法及时写入的日志交给溢出处理器保存，避免日志丢失</li>
+ *
+ * @author Telechow
+ * @since 2023/4/24 9:08
+ */
+@FunctionalInterface
+public interface LogSpiller<T> {
+
+    /**
+     * 保存无法及时写入的日志
+     *
+     * @param entries 日志列表
+     * @author Telechow
+     * @since 2023/4/24 9:09
+     */
+    void spill(List<T> entries);
+}
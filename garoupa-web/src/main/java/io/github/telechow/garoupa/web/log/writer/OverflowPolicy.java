@@ -0,0 +1,40 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.writer;
+
+/**
+ * 批量日志写入器缓冲区满时的处理策略
+ *
+ * @author Telechow
+ * @since 2023/4/24 9:05
+ */
+public enum OverflowPolicy {
+
+    /**
+     * 阻塞等待缓冲区有空位，超过阻塞等待时间后丢弃
+     */
+    BLOCK,
+
+    /**
+     * 立即丢弃
+     */
+    DROP,
+
+    /**
+     * 交给溢出处理器保存，没有溢出处理器时丢弃
+     */
+    SPILL
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.writer;
+
+import com.alibaba.fastjson2.JSON;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * 输出到日志文件的日志溢出处理器
+ * <li>将溢出的日志以json的形式逐条输出到名为garoupa.log.spill的日志记录器，可以从日志文件中找回</li>
+ *
+ * @author Telechow
+ * @since 2023/4/24 9:12
+ */
+@Slf4j(topic = "garoupa.log.spill")
+public class Slf4jLogSpiller<T> implements LogSpiller<T> {
+
+    private final String name;
+
+    public Slf4jLogSpiller(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void spill(List<T> entries) {
+        for (T entry : entries) {
+            log.warn("{} {}", name, JSON.toJSONString(entry));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.login.log.config;
+
+import io.github.telechow.garoupa.api.entity.LoginLog;
+import io.github.telechow.garoupa.web.auto.service.ILoginLogAutoService;
+import io.github.telechow.garoupa.web.log.journal.SpillJournal;
+import io.github.telechow.garoupa.web.log.journal.SpillJournalProperties;
+import io.github.telechow.garoupa.web.log.writer.BatchingLogWriter;
+import io.github.telechow.garoupa.web.log.writer.LogSpiller;
+import io.github.telechow.garoupa.web.log.writer.Slf4jLogSpiller;
+import io.github.telechow.garoupa.web.login.log.properties.LoginLogProperties;
+import io.github.telechow.garoupa.web.login.log.statistics.LoginStatisticsRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 登录日志配置
+ *
+ * @author Telechow
+ * @since 2023/4/23 19:55
+ */
+@Configuration
+@RequiredArgsConstructor
+public class LoginLogConfiguration {
+
+    private static final String NAME = "login-log";
+
+    private final ILoginLogAutoService loginLogAutoService;
+
+    private final LoginLogProperties loginLogProperties;
+
+    /**
+     * 登录日志溢出处理器的Bean
+     * <li>启用溢出日志文件时，溢出的登录日志追加到本地的溢出日志文件，数据库恢复后重放</li>
+     * <li>不启用时，溢出的登录日志以json的形式输出到日志文件</li>
+     *
+     * @param meterRegistry 指标注册中心
+     * @return io.github.telechow.garoupa.web.log.writer.LogSpiller<io.github.telechow.garoupa.api.entity.LoginLog> 登录日志溢出处理器的Bean
+     * @author Telechow
+     * @since 2023/4/24 15:35
+     */
+    @Bean
+    public LogSpiller<LoginLog> loginLogSpiller(MeterRegistry meterRegistry) {
+        SpillJournalProperties journalProperties = loginLogProperties.getJournal();
+        if (!journalProperties.isEnabled()) {
+            return new Slf4jLogSpiller<>(NAME);
+        }
+        return new SpillJournal<>(NAME, journalProperties, LoginLog.class
+                , loginLogAutoService::insertBatchIgnoreDuplicate, meterRegistry);
+    }
+
+    /**
+     * 登录日志批量写入器的Bean，认证成功和认证失败的登录日志都通过它写入数据库
+     * <li>溢出前先分配好id，重放时与首次写入使用相同的id</li>
+     * <li>写入或溢出成功后累加登录统计，写入失败转为溢出的一批登录日志只统计一次</li>
+     *
+     * @param loginLogSpiller         登录日志溢出处理器
+     * @param loginStatisticsRecorder 登录统计记录器
+     * @param meterRegistry           指标注册中心
+     * @return io.github.telechow.garoupa.web.log.writer.BatchingLogWriter<io.github.telechow.garoupa.api.entity.LoginLog> 登录日志批量写入器的Bean
+     * @author Telechow
+     * @since 2023/4/23 19:56
+     */
+    @Bean
+    public BatchingLogWriter<LoginLog> loginLogWriter(LogSpiller<LoginLog> loginLogSpiller
+            , LoginStatisticsRecorder loginStatisticsRecorder, MeterRegistry meterRegistry) {
+        return new BatchingLogWriter<>(NAME, loginLogProperties.getWriter()
+                , loginLogs -> {
+                    loginLogAutoService.insertBatch(loginLogs);
+                    loginStatisticsRecorder.record(loginLogs);
+                }
+                , loginLogs -> {
+                    loginLogAutoService.fillIdAndCreateTime(loginLogs);
+                    loginLogSpiller.spill(loginLogs);
+                    loginStatisticsRecorder.record(loginLogs);
+                }, meterRegistry);
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.login.log.properties;
+
+import io.github.telechow.garoupa.web.log.journal.SpillJournalProperties;
+import io.github.telechow.garoupa.web.log.writer.BatchingLogWriterProperties;
+import io.github.telechow.garoupa.web.log.writer.OverflowPolicy;
+import io.github.telechow.garoupa.web.login.log.statistics.LoginStatisticsProperties;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 登录日志配置参数
+ *
+ * @author Telechow
+ * @since 2023/4/23 19:50
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "garoupa.login-log")
+public class LoginLogProperties {
+
+    /**
+     * 登录日志批量写入器配置，登录日志默认不丢弃，缓冲区满时交给溢出处理器
+     */
+    private BatchingLogWriterProperties writer = defaultWriter();
+
+    /**
+     * 登录日志溢出日志文件配置，缓冲区已满或写入数据库失败的登录日志保存在此文件中，数据库恢复后重放
+     */
+    private SpillJournalProperties journal = new SpillJournalProperties();
+
+    /**
+     * 登录统计配置
+     */
+    private LoginStatisticsProperties statistics = new LoginStatisticsProperties();
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 登录日志批量写入器的默认配置
+     *
+     * @return io.github.telechow.garoupa.web.log.writer.BatchingLogWriterProperties 批量日志写入器配置参数
+     * @author Telechow
+     * @since 2023/4/24 15:30
+     */
+    private static BatchingLogWriterProperties defaultWriter() {
+        BatchingLogWriterProperties writer = new BatchingLogWriterProperties();
+        writer.setOverflowPolicy(OverflowPolicy.SPILL);
+        return writer;
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.login.log.statistics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 登录统计的redis键
+ * <li>每个小时、每一天各一个hash，字段为“登录方式:计数项”，登录方式为*的字段是所有登录方式的合计</li>
+ * <li>每个小时、每一天各两个HyperLogLog，分别估算登录成功的独立用户数和独立ip数</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 14:52
+ */
+final class LoginStatisticsKeys {
+
+    /**
+     * 所有登录方式的合计
+     */
+    static final String ALL_LOGIN_MODE = "*";
+
+    /**
+     * 没有登录方式时使用的登录方式
+     */
+    static final String UNKNOWN_LOGIN_MODE = "unknown";
+
+    static final String TOTAL = "total";
+
+    static final String FAILURE = "failure";
+
+    private static final char FIELD_SEPARATOR = ':';
+
+    private static final String PREFIX = "Garoupa:LoginStatistics:";
+
+    private static final String USER_SUFFIX = ":User";
+
+    private static final String IP_SUFFIX = ":Ip";
+
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private LoginStatisticsKeys() {
+    }
+
+    static String hourKey(LocalDateTime hour) {
+        return PREFIX + "Hour:" + HOUR_FORMATTER.format(hour);
+    }
+
+    static String dayKey(LocalDate day) {
+        return PREFIX + "Day:" + DAY_FORMATTER.format(day);
+    }
+
+    static String userKey(String counterKey) {
+        return counterKey + USER_SUFFIX;
+    }
+
+    static String ipKey(String counterKey) {
+        return counterKey + IP_SUFFIX;
+    }
+
+    static String field(String loginMode, String item) {
+        return loginMode + FIELD_SEPARATOR + item;
+    }
+
+    /**
+     * 从hash字段中拆分出登录方式，登录方式中可能包含分隔符，以最后一个分隔符拆分
+     *
+     * @param field hash字段
+     * @return java.lang.String 登录方式；字段格式错误时返回null
+     * @author Telechow
+     * @since 2023/4/25 14:54
+     */
+    static String loginModeOf(String field) {
+        int index = field.lastIndexOf(FIELD_SEPARATOR);
+        return index <= 0 ? null : field.substring(0, index);
+    }
+
+    /**
+     * 从hash字段中拆分出计数项
+     *
+     * @param field hash字段
+     * @return java.lang.String 计数项
+     * @author Telechow
+     * @since 2023/4/25 14:55
+     */
+    static String itemOf(String field) {
+        return field.substring(field.lastIndexOf(FIELD_SEPARATOR) + 1);
+    }
+}
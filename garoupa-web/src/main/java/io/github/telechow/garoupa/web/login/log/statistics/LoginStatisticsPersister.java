@@ -0,0 +1,181 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.login.log.statistics;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import io.github.telechow.garoupa.api.entity.LoginStatistics;
+import io.github.telechow.garoupa.api.enums.login.log.StatisticsPeriodEnum;
+import io.github.telechow.garoupa.web.auto.service.ILoginStatisticsAutoService;
+import io.github.telechow.garoupa.web.login.log.properties.LoginLogProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录统计持久化任务
+ * <li>定时读取redis中回溯时间内每个小时、每一天的计数和HyperLogLog估算值，批量写入登录统计表</li>
+ * <li>redis中保存的是累计值，重复写入结果不变，持久化任务中断后下次执行时自动补齐</li>
+ * <li>多个节点同时运行时，通过redis分布式锁保证同一时间只有一个节点执行持久化</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 15:06
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginStatisticsPersister implements InitializingBean, DisposableBean {
+
+    private static final String LOCK_KEY = "Garoupa:LoginStatistics:Lock";
+
+    private final LoginLogProperties loginLogProperties;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ILoginStatisticsAutoService loginStatisticsAutoService;
+
+    private final RedissonClient redissonClient;
+
+    private ScheduledExecutorService executor;
+
+    @Override
+    public void afterPropertiesSet() {
+        LoginStatisticsProperties statisticsProperties = loginLogProperties.getStatistics();
+        if (!statisticsProperties.isEnabled()) {
+            return;
+        }
+        long intervalMillis = Math.max(1L, statisticsProperties.getPersistInterval().toMillis());
+        executor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create().setNamePrefix("login-statistics-").setDaemon(true).build());
+        executor.scheduleWithFixedDelay(this::persist, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(executor)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 将回溯时间内的登录统计写入登录统计表，获取不到分布式锁时说明其他节点正在持久化，直接跳过
+     *
+     * @author Telechow
+     * @since 2023/4/25 15:08
+     */
+    public void persist() {
+        RLock lock = redissonClient.getLock(LOCK_KEY);
+        try {
+            if (!lock.tryLock()) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("获取登录统计持久化锁失败", e);
+            return;
+        }
+        try {
+            //1.回溯时间内的每个小时
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime currentHour = now.truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime fromHour = now.minus(loginLogProperties.getStatistics().getPersistLookback())
+                    .truncatedTo(ChronoUnit.HOURS);
+            List<LoginStatistics> loginStatisticsList = new ArrayList<>();
+            for (LocalDateTime hour = fromHour; !hour.isAfter(currentHour); hour = hour.plusHours(1L)) {
+                loginStatisticsList.addAll(this.read(StatisticsPeriodEnum.HOUR, hour
+                        , LoginStatisticsKeys.hourKey(hour), now));
+            }
+
+            //2.回溯时间内的每一天
+            for (LocalDate day = fromHour.toLocalDate(); !day.isAfter(now.toLocalDate()); day = day.plusDays(1L)) {
+                loginStatisticsList.addAll(this.read(StatisticsPeriodEnum.DAY, day.atStartOfDay()
+                        , LoginStatisticsKeys.dayKey(day), now));
+            }
+
+            //3.批量写入登录统计表
+            loginStatisticsAutoService.upsertBatch(loginStatisticsList);
+        } catch (Exception e) {
+            log.error("登录统计持久化失败", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 读取一个统计周期在redis中的计数，每个登录方式一条登录统计，独立用户数和独立ip数只记录在合计中
+     *
+     * @param period      统计周期
+     * @param periodStart 统计周期的开始时间
+     * @param counterKey  统计周期的redis键
+     * @param now         当前时间
+     * @return java.util.List<io.github.telechow.garoupa.api.entity.LoginStatistics> 登录统计实体列表；没有计数时为空
+     * @author Telechow
+     * @since 2023/4/25 15:10
+     */
+    private List<LoginStatistics> read(StatisticsPeriodEnum period, LocalDateTime periodStart, String counterKey
+            , LocalDateTime now) {
+        //1.读取计数，按照登录方式分组
+        Map<Object, Object> fieldMap = stringRedisTemplate.opsForHash().entries(counterKey);
+        if (fieldMap.isEmpty()) {
+            return List.of();
+        }
+        Map<String, LoginStatistics> loginStatisticsMap = new LinkedHashMap<>(8);
+        fieldMap.forEach((field, value) -> {
+            String loginMode = LoginStatisticsKeys.loginModeOf(field.toString());
+            if (Objects.isNull(loginMode)) {
+                return;
+            }
+            LoginStatistics loginStatistics = loginStatisticsMap.computeIfAbsent(loginMode, m -> new LoginStatistics()
+                    .setPeriodType(period.getCode()).setPeriodStart(periodStart).setLoginMode(m)
+                    .setTotalCount(0L).setFailureCount(0L).setUniqueUserCount(0L).setUniqueIpCount(0L)
+                    .setUpdateTime(now));
+            long count = Long.parseLong(value.toString());
+            switch (LoginStatisticsKeys.itemOf(field.toString())) {
+                case LoginStatisticsKeys.TOTAL -> loginStatistics.setTotalCount(count);
+                case LoginStatisticsKeys.FAILURE -> loginStatistics.setFailureCount(count);
+                default -> {
+                }
+            }
+        });
+
+        //2.合计中记录独立用户数和独立ip数的估算值
+        LoginStatistics total = loginStatisticsMap.get(LoginStatisticsKeys.ALL_LOGIN_MODE);
+        if (Objects.nonNull(total)) {
+            total.setUniqueUserCount(stringRedisTemplate.opsForHyperLogLog()
+                    .size(LoginStatisticsKeys.userKey(counterKey)));
+            total.setUniqueIpCount(stringRedisTemplate.opsForHyperLogLog()
+                    .size(LoginStatisticsKeys.ipKey(counterKey)));
+        }
+        return new ArrayList<>(loginStatisticsMap.values());
+    }
+}
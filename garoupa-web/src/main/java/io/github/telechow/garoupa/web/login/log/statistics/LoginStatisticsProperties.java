@@ -0,0 +1,52 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.login.log.statistics;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * 登录统计配置参数
+ * <li>登录日志写入时在redis中累加每小时、每天的计数器，独立用户和独立ip使用HyperLogLog估算</li>
+ * <li>定时将redis中最近的统计值写入登录统计表，查询统计时只读登录统计表</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 14:50
+ */
+@Data
+public class LoginStatisticsProperties {
+
+    /**
+     * 是否启用登录统计
+     */
+    private boolean enabled = true;
+
+    /**
+     * redis中统计键的过期时间，必须大于持久化回溯时间，过期前统计值已经写入登录统计表
+     */
+    private Duration redisTtl = Duration.ofDays(3L);
+
+    /**
+     * 将redis中的统计值写入登录统计表的间隔时间
+     */
+    private Duration persistInterval = Duration.ofMinutes(1L);
+
+    /**
+     * 每次持久化回溯的时间，回溯时间内的每个小时和每一天都重新写入，兜底持久化任务的短暂中断
+     */
+    private Duration persistLookback = Duration.ofHours(2L);
+}
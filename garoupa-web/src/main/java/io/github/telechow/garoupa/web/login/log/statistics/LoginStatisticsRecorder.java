@@ -0,0 +1,162 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.login.log.statistics;
+
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.util.StrUtil;
+import io.github.telechow.garoupa.api.entity.LoginLog;
+import io.github.telechow.garoupa.web.login.log.properties.LoginLogProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 登录统计记录器
+ * <li>登录日志批量写入器每写入一批登录日志，先在内存中按小时、按天合并计数，再通过一次redis管道累加</li>
+ * <li>计数使用HINCRBY，独立用户和独立ip使用PFADD，每个键都设置过期时间</li>
+ * <li>记录失败只输出日志，不影响登录日志的写入</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 14:58
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginStatisticsRecorder {
+
+    /**
+     * 所有登录方式的合计在登录统计中的登录方式
+     */
+    public static final String ALL_LOGIN_MODE = LoginStatisticsKeys.ALL_LOGIN_MODE;
+
+    private final LoginLogProperties loginLogProperties;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 记录一批登录日志，登录日志的创建时间必须已经补齐
+     *
+     * @param loginLogs 登录日志实体列表
+     * @author Telechow
+     * @since 2023/4/25 15:00
+     */
+    public void record(List<LoginLog> loginLogs) {
+        LoginStatisticsProperties statisticsProperties = loginLogProperties.getStatistics();
+        if (!statisticsProperties.isEnabled() || CollectionUtil.isEmpty(loginLogs)) {
+            return;
+        }
+        try {
+            //1.在内存中按小时、按天合并计数和独立用户、独立ip
+            Map<String, Map<String, Long>> counterMap = new HashMap<>(8);
+            Map<String, Set<String>> hyperLogLogMap = new HashMap<>(16);
+            for (LoginLog loginLog : loginLogs) {
+                LocalDateTime createTime = loginLog.getCreateTime();
+                if (Objects.isNull(createTime)) {
+                    continue;
+                }
+                String hourKey = LoginStatisticsKeys.hourKey(createTime.truncatedTo(ChronoUnit.HOURS));
+                String dayKey = LoginStatisticsKeys.dayKey(createTime.toLocalDate());
+                this.accumulate(counterMap, hyperLogLogMap, hourKey, loginLog);
+                this.accumulate(counterMap, hyperLogLogMap, dayKey, loginLog);
+            }
+
+            //2.通过一次redis管道累加所有计数，并刷新过期时间
+            long ttlSeconds = statisticsProperties.getRedisTtl().toSeconds();
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                counterMap.forEach((key, fieldMap) -> {
+                    byte[] rawKey = this.raw(key);
+                    fieldMap.forEach((field, delta) -> connection.hashCommands().hIncrBy(rawKey, this.raw(field), delta));
+                    connection.keyCommands().expire(rawKey, ttlSeconds);
+                });
+                hyperLogLogMap.forEach((key, values) -> this.pfAdd(connection, key, values, ttlSeconds));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("登录统计记录失败，共{}条登录日志", loginLogs.size(), e);
+        }
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 将一条登录日志合并到某个统计周期的计数中
+     *
+     * @param counterMap     计数，键为统计周期的redis键，值为hash字段和增量
+     * @param hyperLogLogMap 登录成功的独立用户和独立ip，键为HyperLogLog的redis键
+     * @param counterKey     统计周期的redis键
+     * @param loginLog       登录日志实体
+     * @author Telechow
+     * @since 2023/4/25 15:02
+     */
+    private void accumulate(Map<String, Map<String, Long>> counterMap, Map<String, Set<String>> hyperLogLogMap
+            , String counterKey, LoginLog loginLog) {
+        String loginMode = StrUtil.isBlank(loginLog.getLoginMode())
+                ? LoginStatisticsKeys.UNKNOWN_LOGIN_MODE : loginLog.getLoginMode();
+        boolean failure = !Boolean.TRUE.equals(loginLog.getIsSuccess());
+        Map<String, Long> fieldMap = counterMap.computeIfAbsent(counterKey, k -> new HashMap<>(8));
+        for (String mode : new String[]{LoginStatisticsKeys.ALL_LOGIN_MODE, loginMode}) {
+            fieldMap.merge(LoginStatisticsKeys.field(mode, LoginStatisticsKeys.TOTAL), 1L, Long::sum);
+            if (failure) {
+                fieldMap.merge(LoginStatisticsKeys.field(mode, LoginStatisticsKeys.FAILURE), 1L, Long::sum);
+            }
+        }
+        //独立用户和独立ip只统计登录成功的登录日志，失败的登录（如撞库）不计入
+        if (failure) {
+            return;
+        }
+        if (Objects.nonNull(loginLog.getUserId())) {
+            hyperLogLogMap.computeIfAbsent(LoginStatisticsKeys.userKey(counterKey), k -> new HashSet<>())
+                    .add(loginLog.getUserId().toString());
+        }
+        if (StrUtil.isNotBlank(loginLog.getRemoteIp())) {
+            hyperLogLogMap.computeIfAbsent(LoginStatisticsKeys.ipKey(counterKey), k -> new HashSet<>())
+                    .add(loginLog.getRemoteIp());
+        }
+    }
+
+    /**
+     * 向HyperLogLog中添加元素，并刷新过期时间
+     *
+     * @param connection redis连接
+     * @param key        HyperLogLog的redis键
+     * @param values     元素集合
+     * @param ttlSeconds 过期时间，单位秒
+     * @author Telechow
+     * @since 2023/4/25 15:04
+     */
+    private void pfAdd(RedisConnection connection, String key, Set<String> values, long ttlSeconds) {
+        byte[] rawKey = this.raw(key);
+        connection.hyperLogLogCommands().pfAdd(rawKey, values.stream().map(this::raw).toArray(byte[][]::new));
+        connection.keyCommands().expire(rawKey, ttlSeconds);
+    }
+
+    private byte[] raw(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
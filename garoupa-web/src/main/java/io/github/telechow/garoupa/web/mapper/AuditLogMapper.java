@@ -16,7 +16,13 @@
 package io.github.telechow.garoupa.web.mapper;
 
 import io.github.telechow.garoupa.api.entity.AuditLog;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.util.List;
 
 /**
  * <p>
@@ -28,4 +34,26 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface AuditLogMapper extends BaseMapper<AuditLog> {
 
+    /**
+     * 使用一条多行insert语句批量插入审计日志
+     * <li>审计日志的id和请求时间需要提前设置好，此方法不会自动填充</li>
+     *
+     * @param auditLogList    审计日志实体列表，不能为空
+     * @param ignoreDuplicate 是否忽略已经存在的记录，重放溢出日志时使用
+     * @return int 插入的行数
+     * @author Telechow
+     * @since 2023/4/24 9:30
+     */
+    int insertBatch(@Param("auditLogList") List<AuditLog> auditLogList, @Param("ignoreDuplicate") boolean ignoreDuplicate);
+
+    /**
+     * 以流式游标查询审计日志，一次只从数据库读取一行，用于导出
+     * <li>游标必须在事务中使用，遍历结束前数据库连接一直被占用</li>
+     *
+     * @param queryWrapper 查询条件
+     * @return org.apache.ibatis.cursor.Cursor<io.github.telechow.garoupa.api.entity.AuditLog> 审计日志游标
+     * @author Telechow
+     * @since 2023/4/25 9:30
+     */
+    Cursor<AuditLog> selectCursor(@Param(Constants.WRAPPER) Wrapper<AuditLog> queryWrapper);
 }
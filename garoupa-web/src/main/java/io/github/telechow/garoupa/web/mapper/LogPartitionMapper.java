@@ -0,0 +1,105 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.mapper;
+
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 日志表分区维护 Mapper 接口
+ * </p>
+ * <li>表名和分区名由分区维护任务根据配置和日期生成，不接受外部输入</li>
+ *
+ * @author Telechow
+ * @since 2023/4/24 17:10
+ */
+public interface LogPartitionMapper {
+
+    /**
+     * 查询表的所有分区名称，按照分区顺序排序
+     *
+     * @param tableName 表名
+     * @return java.util.List<java.lang.String> 分区名称列表，表没有分区时为空
+     * @author Telechow
+     * @since 2023/4/24 17:11
+     */
+    List<String> selectPartitionNames(@Param("tableName") String tableName);
+
+    /**
+     * 从兜底分区中拆分出一个新的分区，兜底分区为空时只修改元数据
+     *
+     * @param tableName     表名
+     * @param partitionName 新的分区名称
+     * @param lessThan      新的分区的上界（不含），格式为yyyy-MM-dd
+     * @author Telechow
+     * @since 2023/4/24 17:12
+     */
+    void reorganizeFuturePartition(@Param("tableName") String tableName, @Param("partitionName") String partitionName
+            , @Param("lessThan") String lessThan);
+
+    /**
+     * 删除分区，分区中的数据一起删除
+     *
+     * @param tableName     表名
+     * @param partitionName 分区名称
+     * @author Telechow
+     * @since 2023/4/24 17:13
+     */
+    void dropPartition(@Param("tableName") String tableName, @Param("partitionName") String partitionName);
+
+    /**
+     * 按照日志表的结构创建不分区的归档表
+     *
+     * @param tableName        日志表名
+     * @param archiveTableName 归档表名
+     * @author Telechow
+     * @since 2023/4/24 17:14
+     */
+    void createArchiveTable(@Param("tableName") String tableName, @Param("archiveTableName") String archiveTableName);
+
+    /**
+     * 移除归档表的分区定义，只有不分区的表才能和分区交换数据
+     *
+     * @param archiveTableName 归档表名
+     * @author Telechow
+     * @since 2023/4/24 17:15
+     */
+    void removeArchiveTablePartitioning(@Param("archiveTableName") String archiveTableName);
+
+    /**
+     * 表中是否有数据
+     *
+     * @param tableName 表名
+     * @return boolean 表中是否有数据
+     * @author Telechow
+     * @since 2023/4/24 17:16
+     */
+    boolean existsRows(@Param("tableName") String tableName);
+
+    /**
+     * 将分区中的数据与归档表交换，只修改元数据，不复制数据
+     *
+     * @param tableName        日志表名
+     * @param partitionName    分区名称
+     * @param archiveTableName 归档表名，必须为空表
+     * @author Telechow
+     * @since 2023/4/24 17:16
+     */
+    void exchangePartition(@Param("tableName") String tableName, @Param("partitionName") String partitionName
+            , @Param("archiveTableName") String archiveTableName);
+}
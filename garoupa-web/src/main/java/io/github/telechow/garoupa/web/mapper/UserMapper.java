@@ -15,8 +15,10 @@
  */
 package io.github.telechow.garoupa.web.mapper;
 
+import io.github.telechow.garoupa.api.domain.AuthorizationSnapshot;
 import io.github.telechow.garoupa.api.entity.User;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 
 /**
  * <p>
@@ -28,4 +30,14 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface UserMapper extends BaseMapper<User> {
 
+    /**
+     * 根据用户id查询用户授权快照，用户实体、权限编码和资源编码由一条sql查询
+     *
+     * @param userId 用户id
+     * @return io.github.telechow.garoupa.api.domain.AuthorizationSnapshot 用户授权快照，用户不存在时返回null
+     * @author Telechow
+     * @since 2023/4/22 9:20
+     */
+    AuthorizationSnapshot getAuthorizationSnapshotByUserId(@Param("userId") Long userId);
+
 }
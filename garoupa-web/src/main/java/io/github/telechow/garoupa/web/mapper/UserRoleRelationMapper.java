@@ -17,6 +17,9 @@ package io.github.telechow.garoupa.web.mapper;
 
 import io.github.telechow.garoupa.api.entity.UserRoleRelation;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * <p>
@@ -28,4 +31,24 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface UserRoleRelationMapper extends BaseMapper<UserRoleRelation> {
 
+    /**
+     * 根据资源id查询关联了此资源的角色所关联的用户id列表
+     *
+     * @param resourceId 资源id
+     * @return java.util.List<java.lang.Long> 去重后的用户id列表
+     * @author Telechow
+     * @since 2023/4/22 14:10
+     */
+    List<Long> listUserIdByResourceId(@Param("resourceId") Long resourceId);
+
+    /**
+     * 根据权限id查询关联了此权限的角色所关联的用户id列表
+     *
+     * @param permissionId 权限id
+     * @return java.util.List<java.lang.Long> 去重后的用户id列表
+     * @author Telechow
+     * @since 2023/4/22 14:12
+     */
+    List<Long> listUserIdByPermissionId(@Param("permissionId") Long permissionId);
+
 }
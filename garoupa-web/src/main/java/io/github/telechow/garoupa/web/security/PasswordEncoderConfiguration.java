@@ -15,6 +15,9 @@
  */
 package io.github.telechow.garoupa.web.security;
 
+import io.github.telechow.garoupa.web.security.crypto.BoundedPasswordEncoder;
+import io.github.telechow.garoupa.web.security.properties.PasswordHashingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -31,13 +34,17 @@ public class PasswordEncoderConfiguration {
 
     /**
      * 密码编码器的Bean
+     * <li>BCrypt散列在专用的有界线程池中执行，不占用web容器的工作线程</li>
      *
+     * @param passwordHashingProperties 密码散列配置参数
+     * @param meterRegistry             指标注册中心
      * @return org.springframework.security.crypto.password.PasswordEncoder BCrypt密码编码器的Bean
      * @author Telechow
      * @since 2023/3/29 10:46
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties passwordHashingProperties
+            , MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingProperties, meterRegistry);
     }
 }
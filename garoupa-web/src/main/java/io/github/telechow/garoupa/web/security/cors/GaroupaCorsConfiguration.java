@@ -53,6 +53,8 @@ public class GaroupaCorsConfiguration {
         corsConfiguration.setAllowedOrigins(corsProperties.getAllowOrigins());
         //是否允许cookie
         corsConfiguration.setAllowCredentials(corsProperties.getAllowCredentials());
+        //允许前端读取的响应头
+        corsConfiguration.setExposedHeaders(corsProperties.getExposeHeaders());
         //一次Option请求的时间段
         corsConfiguration.setMaxAge(corsProperties.getMaxAge());
 
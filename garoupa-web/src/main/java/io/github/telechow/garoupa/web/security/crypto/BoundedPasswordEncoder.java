@@ -0,0 +1,184 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.security.crypto;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import io.github.telechow.garoupa.api.enums.ResponseCode;
+import io.github.telechow.garoupa.config.exception.ServiceException;
+import io.github.telechow.garoupa.web.security.properties.PasswordHashingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 有界的密码编码器
+ * <li>密码散列（如BCrypt）是cpu密集型操作，在专用的有界线程池中执行，避免登录高峰时占满web容器的工作线程</li>
+ * <li>等待散列的任务数达到上限时立即拒绝，等待结果超时也会放弃，两种情况都抛出{@link ResponseCode#PASSWORD_HASHING_BUSY}业务异常</li>
+ * <li>记录排队时间、散列时间、拒绝次数以及线程池的排队数和活跃线程数指标</li>
+ *
+ * @author Telechow
+ * @since 2023/4/23 9:20
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final String METRIC_PREFIX = "garoupa.password.hashing";
+
+    private static final String OPERATION_ENCODE = "encode";
+
+    private static final String OPERATION_MATCHES = "matches";
+
+    private final PasswordEncoder delegate;
+
+    private final long timeoutNanos;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer queueTimer;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Counter rejectedCounter;
+
+    private final Counter timeoutCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingProperties passwordHashingProperties
+            , MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutNanos = passwordHashingProperties.getTimeout().toNanos();
+
+        //1.构造线程数和排队数都有上限的线程池，队列满时直接拒绝
+        int threads = Objects.nonNull(passwordHashingProperties.getThreads())
+                ? passwordHashingProperties.getThreads()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS
+                , new ArrayBlockingQueue<>(passwordHashingProperties.getQueueCapacity())
+                , ThreadFactoryBuilder.create().setNamePrefix("password-hashing-").setDaemon(true).build()
+                , new ThreadPoolExecutor.AbortPolicy());
+
+        //2.注册指标
+        this.queueTimer = Timer.builder(METRIC_PREFIX + ".queue")
+                .description("密码散列任务的排队时间")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder(METRIC_PREFIX + ".duration")
+                .description("密码散列的执行时间")
+                .tag("operation", OPERATION_ENCODE)
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder(METRIC_PREFIX + ".duration")
+                .description("密码散列的执行时间")
+                .tag("operation", OPERATION_MATCHES)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("密码散列任务被拒绝的次数")
+                .tag("reason", "queue-full")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("密码散列任务被拒绝的次数")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue.size", executor, e -> e.getQueue().size())
+                .description("等待散列的任务数")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在散列的线程数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        //只解析散列值的格式，不做散列计算，直接在调用线程执行
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 提交散列任务到线程池，并等待结果
+     *
+     * @param hashTimer 散列时间计时器
+     * @param task      散列任务
+     * @return T 散列结果
+     * @author Telechow
+     * @since 2023/4/23 9:35
+     */
+    private <T> T submit(Timer hashTimer, Callable<T> task) {
+        //1.提交任务，队列已满时立即拒绝
+        final long submitNanos = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueTimer.record(System.nanoTime() - submitNanos, TimeUnit.NANOSECONDS);
+                return hashTimer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceException(ResponseCode.PASSWORD_HASHING_BUSY);
+        }
+
+        //2.等待结果，超时则取消任务
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeoutCounter.increment();
+            throw new ServiceException(ResponseCode.PASSWORD_HASHING_BUSY);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceException(ResponseCode.PASSWORD_HASHING_BUSY);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -15,21 +15,24 @@
  */
 package io.github.telechow.garoupa.web.security.expression.root;
 
-import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.text.CharPool;
+import cn.hutool.core.util.ArrayUtil;
+import io.github.telechow.garoupa.api.domain.GaroupaUser;
+import io.github.telechow.garoupa.api.domain.PermissionSet;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.AntPathMatcher;
 
-import java.util.Collection;
-import java.util.List;
+import java.util.Objects;
 
 /**
  * Garoupa表达式根
  * <li>支持通配符*匹配</li>
  * <li>权限标识符形如:a:b:c,则支持a:*:*,a:b:*,a:**这样的匹配</li>
- * <li>使用{@link AntPathMatcher}进行通配符匹配，并使用半角冒号:作为分隔符，?代表一个字符，*号代表零个或多个字符，**代表任意个分隔符中的任意个字符</li>
+ * <li>使用半角冒号:作为分隔符，?代表一个字符，*号代表零个或多个字符，**代表任意个分隔符中的任意个字符</li>
+ * <li>登录用户为{@link GaroupaUser}时使用其{@link PermissionSet}做位测试，否则使用{@link AntPathMatcher}逐一匹配</li>
  *
  * @author Telechow
  * @since 2023/4/4 14:52
@@ -52,14 +55,12 @@ public class GaroupaExpressionRoot {
      * @since 2023/4/4 14:53
      */
     public final boolean hasAuthority(String authority) {
-        Collection<? extends GrantedAuthority> authorities = SecurityContextHolder.getContext()
-                .getAuthentication().getAuthorities();
-        for (GrantedAuthority grantedAuthority : authorities) {
-            if (antPathMatcher.match(grantedAuthority.getAuthority(), authority)) {
-                return true;
-            }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        PermissionSet permissionSet = getPermissionSet(authentication);
+        if (Objects.nonNull(permissionSet)) {
+            return permissionSet.matches(authority);
         }
-        return false;
+        return antPathMatch(authentication, authority);
     }
 
     /**
@@ -72,16 +73,17 @@ public class GaroupaExpressionRoot {
      * @since 2023/4/4 15:29
      */
     public final boolean hasAnyAuthorities(String... authorities) {
-        if (CollectionUtil.isEmpty(List.of(authorities))) {
+        if (ArrayUtil.isEmpty(authorities)) {
             return false;
         }
-        Collection<? extends GrantedAuthority> grantedAuthorities = SecurityContextHolder.getContext()
-                .getAuthentication().getAuthorities();
-        for (GrantedAuthority grantedAuthority : grantedAuthorities) {
-            for (String authority : authorities) {
-                if (antPathMatcher.match(grantedAuthority.getAuthority(), authority)) {
-                    return true;
-                }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        PermissionSet permissionSet = getPermissionSet(authentication);
+        if (Objects.nonNull(permissionSet)) {
+            return permissionSet.matchesAny(authorities);
+        }
+        for (String authority : authorities) {
+            if (antPathMatch(authentication, authority)) {
+                return true;
             }
         }
         return false;
@@ -97,23 +99,58 @@ public class GaroupaExpressionRoot {
      * @since 2023/4/4 15:31
      */
     public final boolean hasAllAuthorities(String... authorities) {
-        if (CollectionUtil.isEmpty(List.of(authorities))) {
+        if (ArrayUtil.isEmpty(authorities)) {
             return false;
         }
-        Collection<? extends GrantedAuthority> grantedAuthorities = SecurityContextHolder.getContext()
-                .getAuthentication().getAuthorities();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        PermissionSet permissionSet = getPermissionSet(authentication);
+        if (Objects.nonNull(permissionSet)) {
+            return permissionSet.matchesAll(authorities);
+        }
         for (String authority : authorities) {
-            boolean flag = false;
-            for (GrantedAuthority grantedAuthority : grantedAuthorities) {
-                if (antPathMatcher.match(grantedAuthority.getAuthority(), authority)) {
-                    flag = true;
-                }
-            }
-            if (!flag) {
+            if (!antPathMatch(authentication, authority)) {
                 return false;
             }
         }
         return true;
     }
 
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 获取登录用户的权限集合，如果登录用户不是GaroupaUser则返回null
+     *
+     * @param authentication 认证对象
+     * @return io.github.telechow.garoupa.api.domain.PermissionSet 权限集合
+     * @author Telechow
+     * @since 2023/4/21 14:40
+     */
+    private PermissionSet getPermissionSet(Authentication authentication) {
+        if (Objects.nonNull(authentication) && authentication.getPrincipal() instanceof GaroupaUser garoupaUser) {
+            return garoupaUser.getPermissionSet();
+        }
+        return null;
+    }
+
+    /**
+     * 使用AntPathMatcher将权限标识符与认证对象的每个权限逐一匹配，有一个匹配立即返回
+     *
+     * @param authentication 认证对象
+     * @param authority      权限标识符
+     * @return boolean 是否匹配
+     * @author Telechow
+     * @since 2023/4/21 14:42
+     */
+    private boolean antPathMatch(Authentication authentication, String authority) {
+        if (Objects.isNull(authentication)) {
+            return false;
+        }
+        for (GrantedAuthority grantedAuthority : authentication.getAuthorities()) {
+            if (antPathMatcher.match(grantedAuthority.getAuthority(), authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
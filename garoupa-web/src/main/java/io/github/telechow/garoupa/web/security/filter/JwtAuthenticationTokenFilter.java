@@ -16,18 +16,10 @@
 package io.github.telechow.garoupa.web.security.filter;
 
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.jwt.JWT;
-import cn.hutool.jwt.JWTPayload;
-import cn.hutool.jwt.JWTUtil;
-import io.github.telechow.garoupa.api.entity.Permission;
-import io.github.telechow.garoupa.api.entity.Resource;
-import io.github.telechow.garoupa.api.entity.User;
 import io.github.telechow.garoupa.api.enums.ResponseCode;
-import io.github.telechow.garoupa.web.auto.service.IPermissionAutoService;
-import io.github.telechow.garoupa.web.auto.service.IResourceAutoService;
-import io.github.telechow.garoupa.web.auto.service.IUserAutoService;
 import io.github.telechow.garoupa.api.domain.GaroupaUser;
-import io.github.telechow.garoupa.web.security.properties.JwtProperties;
+import io.github.telechow.garoupa.web.helper.AuthorizationSnapshotHelper;
+import io.github.telechow.garoupa.web.security.jwt.JwtTokenHelper;
 import jakarta.annotation.Nonnull;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -35,7 +27,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
-import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -45,8 +36,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -59,11 +48,9 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class JwtAuthenticationTokenFilter extends OncePerRequestFilter {
 
-    private final IUserAutoService userAutoService;
-    private final IPermissionAutoService permissionAutoService;
-    private final IResourceAutoService resourceAutoService;
+    private final AuthorizationSnapshotHelper authorizationSnapshotHelper;
 
-    private final JwtProperties jwtProperties;
+    private final JwtTokenHelper jwtTokenHelper;
 
     private final AuthenticationEntryPoint authenticationEntryPoint;
 
@@ -79,31 +66,14 @@ public class JwtAuthenticationTokenFilter extends OncePerRequestFilter {
                 return;
             }
 
-            //2.验证token，并解析token
-            //2.1.验证token，如果验证失败，抛出异常
-            final boolean verifyError = !JWTUtil.verify(token, jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
-            if (verifyError) {
-                throw new BadCredentialsException(ResponseCode.AUTHENTICATION_TOKEN_ILLEGAL.getMsg());
-            }
-            //2.2.解析token，获取用户id
-            JWT jwt = JWTUtil.parseToken(token);
-            Long userId = Long.valueOf(jwt.getPayload(JWTPayload.SUBJECT).toString());
+            //2.验证token，并获取用户id，如果验证失败或token已过期，抛出异常；验证过的token会被缓存，无需重复验证签名
+            Long userId = jwtTokenHelper.verifyAndGetUserId(token);
 
-            //3.获取用户信息
-            User user = userAutoService.getUerByIdPutCache(userId);
+            //3.根据用户授权快照获取用户信息，用户实体、权限和资源只需读取一次缓存
+            GaroupaUser garoupaUser = authorizationSnapshotHelper.getGaroupaUser(userId);
             //3.1.如果用户实体不存在，抛出异常
-            Optional.ofNullable(user)
+            Optional.ofNullable(garoupaUser)
                     .orElseThrow(() -> new UsernameNotFoundException(ResponseCode.AUTHENTICATION_TOKEN_SUBJECT_NOT_EXIST.getMsg()));
-            //3.2.查询用户拥有的权限和资源
-            List<Permission> permissions = permissionAutoService.listPermissionByUserIdPutCache(userId);
-            List<String> permissionCodeList = permissions.stream()
-                    .map(Permission::getPermissionCode)
-                    .toList();
-            List<Resource> resources = resourceAutoService.listResourceByUserIdPutCache(userId);
-            List<String> resourceCodeList = resources.stream()
-                    .map(Resource::getResourceCode)
-                    .toList();
-            GaroupaUser garoupaUser = new GaroupaUser(user, permissionCodeList, resourceCodeList);
 
             //4.构造token，传入SecurityContextHolder中，然后放行
             PreAuthenticatedAuthenticationToken authenticationToken = new PreAuthenticatedAuthenticationToken
@@ -19,7 +19,7 @@ import com.alibaba.fastjson2.JSON;
 import io.github.telechow.garoupa.api.entity.LoginLog;
 import io.github.telechow.garoupa.api.enums.ResponseCode;
 import io.github.telechow.garoupa.api.vo.ResponseResult;
-import io.github.telechow.garoupa.web.auto.service.ILoginLogAutoService;
+import io.github.telechow.garoupa.web.log.writer.BatchingLogWriter;
 import io.github.telechow.garoupa.web.wrapper.LoginLogWrapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -48,7 +48,7 @@ public class GaroupaAuthenticationFailureHandler implements AuthenticationFailur
 
     private final LoginLogWrapper loginLogWrapper;
 
-    private final ILoginLogAutoService loginLogAutoService;
+    private final BatchingLogWriter<LoginLog> loginLogWriter;
 
     @Override
     public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response
@@ -58,10 +58,10 @@ public class GaroupaAuthenticationFailureHandler implements AuthenticationFailur
         response.setCharacterEncoding(StandardCharsets.UTF_8.name());
         response.setStatus(HttpStatus.UNAUTHORIZED.value());
 
-        //2.写入登良路成功日志，如果此逻辑抛出异常，则捕获异常，不要让其影响正常登录
+        //2.写入登录失败日志，日志放入缓冲区后由后台线程批量写入；如果此逻辑抛出异常，则捕获异常，不要让其影响正常登录
         try {
             LoginLog loginLog = loginLogWrapper.instance(request, null, false);
-            loginLogAutoService.save(loginLog);
+            loginLogWriter.offer(loginLog);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
@@ -16,16 +16,15 @@
 package io.github.telechow.garoupa.web.security.handler;
 
 import cn.hutool.jwt.JWTPayload;
-import cn.hutool.jwt.JWTUtil;
 import com.alibaba.fastjson2.JSON;
 import io.github.telechow.garoupa.api.entity.LoginLog;
 import io.github.telechow.garoupa.api.enums.system.param.SystemParamEnum;
 import io.github.telechow.garoupa.api.vo.ResponseResult;
 import io.github.telechow.garoupa.api.vo.login.LoginVo;
 import io.github.telechow.garoupa.api.domain.GaroupaUser;
-import io.github.telechow.garoupa.web.auto.service.ILoginLogAutoService;
 import io.github.telechow.garoupa.web.helper.SystemParamHelper;
-import io.github.telechow.garoupa.web.security.properties.JwtProperties;
+import io.github.telechow.garoupa.web.log.writer.BatchingLogWriter;
+import io.github.telechow.garoupa.web.security.jwt.JwtTokenHelper;
 import io.github.telechow.garoupa.web.wrapper.LoginLogWrapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -57,11 +56,11 @@ public class GaroupaAuthenticationSuccessHandler implements AuthenticationSucces
 
     private final LoginLogWrapper loginLogWrapper;
 
-    private final ILoginLogAutoService loginLogAutoService;
+    private final BatchingLogWriter<LoginLog> loginLogWriter;
 
     private final SystemParamHelper systemParamHelper;
 
-    private final JwtProperties jwtProperties;
+    private final JwtTokenHelper jwtTokenHelper;
 
     @Override
     public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response
@@ -78,13 +77,13 @@ public class GaroupaAuthenticationSuccessHandler implements AuthenticationSucces
         Map<String, Object> payloadMap = Map.of(JWTPayload.EXPIRES_AT
                 , LocalDateTime.now().plusSeconds(expireSecond).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
                 , JWTPayload.SUBJECT, garoupaUser.getUser().getId());
-        String jwt = JWTUtil.createToken(payloadMap, jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+        String jwt = jwtTokenHelper.createToken(payloadMap);
         response.setHeader(HttpHeaders.AUTHORIZATION, jwt);
 
-        //3.写入登良路成功日志，如果此逻辑抛出异常，则捕获异常，不要让其影响正常登录
+        //3.写入登录成功日志，日志放入缓冲区后由后台线程批量写入；如果此逻辑抛出异常，则捕获异常，不要让其影响正常登录
         try {
             LoginLog loginLog = loginLogWrapper.instance(request, garoupaUser, true);
-            loginLogAutoService.save(loginLog);
+            loginLogWriter.offer(loginLog);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
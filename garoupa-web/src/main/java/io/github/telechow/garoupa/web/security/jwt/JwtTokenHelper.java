@@ -0,0 +1,160 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.security.jwt;
+
+import cn.hutool.jwt.JWT;
+import cn.hutool.jwt.JWTPayload;
+import cn.hutool.jwt.signers.JWTSigner;
+import cn.hutool.jwt.signers.JWTSignerUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.telechow.garoupa.api.enums.ResponseCode;
+import io.github.telechow.garoupa.web.security.properties.JwtProperties;
+import jakarta.annotation.Nonnull;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * jwt帮助类
+ * <li>jwt签名器根据{@link JwtProperties}只构造一次，签发和验证共用</li>
+ * <li>验证通过的jwt会缓存解析出的用户id和过期时间，同一个jwt再次请求时无需重新计算签名和解析载荷</li>
+ * <li>缓存以完整的jwt作为键，被篡改的jwt一定无法命中缓存；缓存条目最晚在jwt过期时失效，命中时也会再次检查过期时间</li>
+ *
+ * @author Telechow
+ * @since 2023/4/21 16:10
+ */
+@Component
+public class JwtTokenHelper {
+
+    private final JWTSigner jwtSigner;
+
+    private final Cache<String, VerifiedJwt> verifiedJwtCache;
+
+    public JwtTokenHelper(JwtProperties jwtProperties) {
+        this.jwtSigner = JWTSignerUtil.hs256(jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+        final long maxTtlNanos = jwtProperties.getVerifiedCacheTtl().toNanos();
+        this.verifiedJwtCache = Caffeine.newBuilder()
+                .maximumSize(jwtProperties.getVerifiedCacheMaximumSize())
+                .expireAfter(new Expiry<String, VerifiedJwt>() {
+                    @Override
+                    public long expireAfterCreate(@Nonnull String key, @Nonnull VerifiedJwt value, long currentTime) {
+                        long untilExpireNanos = TimeUnit.MILLISECONDS.toNanos(
+                                value.expiresAt() - System.currentTimeMillis());
+                        return Math.max(0L, Math.min(maxTtlNanos, untilExpireNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(@Nonnull String key, @Nonnull VerifiedJwt value, long currentTime
+                            , long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(@Nonnull String key, @Nonnull VerifiedJwt value, long currentTime
+                            , long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 签发jwt
+     *
+     * @param payloadMap jwt载荷
+     * @return java.lang.String jwt
+     * @author Telechow
+     * @since 2023/4/21 16:15
+     */
+    public String createToken(Map<String, Object> payloadMap) {
+        return JWT.create().addPayloads(payloadMap).setSigner(jwtSigner).sign();
+    }
+
+    /**
+     * 验证jwt，并获取jwt中的用户id
+     * <li>验证失败、jwt格式错误或jwt已过期时抛出异常</li>
+     *
+     * @param token jwt
+     * @return java.lang.Long 用户id
+     * @author Telechow
+     * @since 2023/4/21 16:18
+     */
+    public Long verifyAndGetUserId(String token) {
+        //1.优先从缓存中获取已经验证过的jwt
+        VerifiedJwt verifiedJwt = verifiedJwtCache.getIfPresent(token);
+
+        //2.缓存中没有，验证签名并解析载荷，验证通过后写入缓存
+        if (Objects.isNull(verifiedJwt)) {
+            verifiedJwt = verify(token);
+            verifiedJwtCache.put(token, verifiedJwt);
+        }
+
+        //3.验证jwt是否过期
+        if (verifiedJwt.expiresAt() <= System.currentTimeMillis()) {
+            verifiedJwtCache.invalidate(token);
+            throw new BadCredentialsException(ResponseCode.AUTHENTICATION_TOKEN_ILLEGAL.getMsg());
+        }
+        return verifiedJwt.userId();
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 验证jwt签名，并解析出用户id和过期时间，jwt只解析一次
+     *
+     * @param token jwt
+     * @return io.github.telechow.garoupa.web.security.jwt.JwtTokenHelper.VerifiedJwt 验证通过的jwt信息
+     * @author Telechow
+     * @since 2023/4/21 16:22
+     */
+    private VerifiedJwt verify(String token) {
+        try {
+            JWT jwt = JWT.of(token);
+            if (!jwt.verify(jwtSigner)) {
+                throw new BadCredentialsException(ResponseCode.AUTHENTICATION_TOKEN_ILLEGAL.getMsg());
+            }
+            Object subject = jwt.getPayload(JWTPayload.SUBJECT);
+            Object expiresAt = jwt.getPayload(JWTPayload.EXPIRES_AT);
+            if (Objects.isNull(subject) || !(expiresAt instanceof Number)) {
+                throw new BadCredentialsException(ResponseCode.AUTHENTICATION_TOKEN_ILLEGAL.getMsg());
+            }
+            //过期时间在签发时以毫秒时间戳写入载荷
+            return new VerifiedJwt(Long.valueOf(subject.toString()), ((Number) expiresAt).longValue());
+        } catch (BadCredentialsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BadCredentialsException(ResponseCode.AUTHENTICATION_TOKEN_ILLEGAL.getMsg(), e);
+        }
+    }
+
+    /**
+     * 验证通过的jwt信息
+     *
+     * @param userId    用户id
+     * @param expiresAt 过期时间的毫秒时间戳
+     * @author Telechow
+     * @since 2023/4/21 16:12
+     */
+    private record VerifiedJwt(Long userId, long expiresAt) {
+
+    }
+}
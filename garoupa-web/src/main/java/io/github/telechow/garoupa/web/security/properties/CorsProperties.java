@@ -53,6 +53,11 @@ public class CorsProperties {
      */
     private Boolean allowCredentials;
 
+    /**
+     * 允许前端读取的响应头
+     */
+    private List<String> exposeHeaders;
+
     /**
      * 最大生存时间
      */
@@ -19,6 +19,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * jwt配置参数
  *
@@ -34,4 +36,14 @@ public class JwtProperties {
 	 * jwt签名密钥
 	 */
 	private String secret;
+
+	/**
+	 * 已验证jwt缓存的最大条目数
+	 */
+	private long verifiedCacheMaximumSize = 10000L;
+
+	/**
+	 * 已验证jwt缓存条目的最长存活时间，jwt先过期则以jwt过期时间为准
+	 */
+	private Duration verifiedCacheTtl = Duration.ofMinutes(10L);
 }
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.security.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 密码散列配置参数
+ *
+ * @author Telechow
+ * @since 2023/4/23 9:10
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "garoupa.password-hashing")
+public class PasswordHashingProperties {
+
+    /**
+     * 密码散列线程数，为空则使用cpu核数的一半（至少为1）
+     */
+    private Integer threads;
+
+    /**
+     * 等待散列的最大任务数，超出后立即拒绝
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * 等待散列结果的最长时间，超时后放弃并提示服务器正忙
+     */
+    private Duration timeout = Duration.ofSeconds(5L);
+}
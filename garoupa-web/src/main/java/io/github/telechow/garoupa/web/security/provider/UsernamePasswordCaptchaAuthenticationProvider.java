@@ -19,6 +19,7 @@ import cn.hutool.core.util.StrUtil;
 import io.github.telechow.garoupa.api.constant.CaptchaConstant;
 import io.github.telechow.garoupa.api.enums.ResponseCode;
 import io.github.telechow.garoupa.api.domain.GaroupaUser;
+import io.github.telechow.garoupa.config.exception.ServiceException;
 import io.github.telechow.garoupa.web.security.service.UserNamePasswordUserDetailService;
 import io.github.telechow.garoupa.web.security.token.UsernamePasswordCaptchaAuthenticationToken;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +27,7 @@ import org.redisson.api.RBucket;
 import org.redisson.api.RedissonClient;
 import org.redisson.client.codec.StringCodec;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
@@ -83,8 +85,14 @@ public class UsernamePasswordCaptchaAuthenticationProvider implements Authentica
         if (StrUtil.isBlank(authenticationToken.getCredentials().toString())) {
             throw new BadCredentialsException(ResponseCode.USERNAME_PASSWORD_CAPTCHA_AUTHENTICATION_NOT_INPUT_PASSWORD.getMsg());
         }
-        final boolean notMatches = !passwordEncoder.matches(
-                authenticationToken.getCredentials().toString(), userDetails.getPassword());
+        //3.1.密码散列在有界线程池中执行，线程池繁忙时转换成认证异常，交由认证失败处理器响应
+        final boolean notMatches;
+        try {
+            notMatches = !passwordEncoder.matches(authenticationToken.getCredentials().toString()
+                    , userDetails.getPassword());
+        } catch (ServiceException e) {
+            throw new AuthenticationServiceException(e.getMessage(), e);
+        }
         if (notMatches) {
             throw new BadCredentialsException(ResponseCode.USERNAME_PASSWORD_CAPTCHA_AUTHENTICATION_PASSWORD_NOT_MATCHES.getMsg());
         }
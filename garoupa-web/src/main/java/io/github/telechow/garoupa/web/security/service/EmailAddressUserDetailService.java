@@ -16,13 +16,10 @@
 package io.github.telechow.garoupa.web.security.service;
 
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
-import io.github.telechow.garoupa.api.entity.Permission;
-import io.github.telechow.garoupa.api.entity.Resource;
 import io.github.telechow.garoupa.api.entity.User;
 import io.github.telechow.garoupa.api.enums.ResponseCode;
-import io.github.telechow.garoupa.web.auto.service.IPermissionAutoService;
-import io.github.telechow.garoupa.web.auto.service.IResourceAutoService;
 import io.github.telechow.garoupa.web.auto.service.IUserAutoService;
+import io.github.telechow.garoupa.web.helper.AuthorizationSnapshotHelper;
 import io.github.telechow.garoupa.api.domain.GaroupaUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -30,7 +27,6 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -44,8 +40,7 @@ import java.util.Optional;
 public class EmailAddressUserDetailService implements UserDetailsService {
 
     private final IUserAutoService userAutoService;
-    private final IPermissionAutoService permissionAutoService;
-    private final IResourceAutoService resourceAutoService;
+    private final AuthorizationSnapshotHelper authorizationSnapshotHelper;
 
     @Override
     public UserDetails loadUserByUsername(String emailAddress) throws UsernameNotFoundException {
@@ -58,19 +53,9 @@ public class EmailAddressUserDetailService implements UserDetailsService {
         Optional.ofNullable(user)
                 .orElseThrow(() -> new UsernameNotFoundException(ResponseCode.AUTHENTICATION_EMAIL_NOT_EXIST.getMsg()));
 
-        //2.查询权限信息
-        List<Permission> permissions = permissionAutoService.listPermissionByUserIdPutCache(user.getId());
-        List<String> permissionCodes = permissions.stream()
-                .map(Permission::getPermissionCode)
-                .toList();
-
-        //3.查询资源信息
-        List<Resource> resources = resourceAutoService.listResourceByUserIdPutCache(user.getId());
-        List<String> resourceCodes = resources.stream()
-                .map(Resource::getResourceCode)
-                .toList();
-
-        //4.将用户信息封装成UserDetails返回
-        return new GaroupaUser(user, permissionCodes, resourceCodes);
+        //2.根据用户授权快照获取权限和资源信息，并封装成UserDetails返回；密码以刚查询到的用户实体为准
+        GaroupaUser garoupaUser = authorizationSnapshotHelper.getGaroupaUser(user);
+        return Optional.ofNullable(garoupaUser)
+                .orElseThrow(() -> new UsernameNotFoundException(ResponseCode.AUTHENTICATION_USER_NOT_EXIST.getMsg()));
     }
 }
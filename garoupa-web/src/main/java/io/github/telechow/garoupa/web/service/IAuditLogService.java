@@ -16,8 +16,16 @@
 package io.github.telechow.garoupa.web.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.github.telechow.garoupa.api.dto.audit.log.ExportAuditLogDto;
+import io.github.telechow.garoupa.api.dto.audit.log.CursorPageAuditLogDto;
 import io.github.telechow.garoupa.api.dto.audit.log.PageAuditLogDto;
+import io.github.telechow.garoupa.api.vo.common.CursorPageVo;
 import io.github.telechow.garoupa.api.vo.audit.log.AuditLogPageVo;
+import io.github.telechow.garoupa.api.vo.audit.log.EndpointLatencyVo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 
 /**
  * 审计日志service接口
@@ -30,6 +38,7 @@ public interface IAuditLogService {
     /**
      * 分页查询审计日志
      * <li>按照创建时间降序排序</li>
+     * <li>没有指定开始时间时，只查询默认时间窗口内的日志</li>
      *
      * @param dto 分页查询审计日志dto
      * @return com.baomidou.mybatisplus.extension.plugins.pagination.Page < io.github.telechow.garoupa.api.vo.audit.log.AuditLogPageVo> 分页的审计日志分页vo
@@ -37,4 +46,41 @@ public interface IAuditLogService {
      * @since 2023/4/20 10:13
      */
     Page<AuditLogPageVo> page(PageAuditLogDto dto);
+
+    /**
+     * 游标分页查询审计日志
+     * <li>按照创建时间降序排序，创建时间相同时按照id升序排序</li>
+     * <li>没有指定开始时间时，只查询默认时间窗口内的日志</li>
+     * <li>从上一页返回的游标处继续查询，不使用偏移量；默认不查询总条数</li>
+     *
+     * @param dto 游标分页查询审计日志dto
+     * @return io.github.telechow.garoupa.api.vo.common.CursorPageVo<io.github.telechow.garoupa.api.vo.audit.log.AuditLogPageVo> 游标分页的审计日志分页vo
+     * @author Telechow
+     * @since 2023/4/24 16:36
+     */
+    CursorPageVo<AuditLogPageVo> cursorPage(CursorPageAuditLogDto dto);
+
+    /**
+     * 导出审计日志
+     * <li>按照创建时间降序排序，以流式游标逐行查询并写入输出流，内存占用与导出条数无关</li>
+     * <li>没有指定开始时间时，只查询默认时间窗口内的日志</li>
+     *
+     * @param dto          导出审计日志dto
+     * @param outputStream 输出流，通常是响应的输出流，此方法不关闭输出流
+     * @throws IOException 写入失败，通常是客户端断开了连接
+     * @author Telechow
+     * @since 2023/4/25 9:45
+     */
+    void export(ExportAuditLogDto dto, OutputStream outputStream) throws IOException;
+
+    /**
+     * 查询接口耗时统计
+     * <li>统计最近一段时间内各接口的请求次数、错误率和耗时的百分位数，按照请求次数降序排序</li>
+     * <li>统计值来自内存中的耗时直方图，不查询审计日志表；多节点部署时只返回当前节点的统计</li>
+     *
+     * @return java.util.List<io.github.telechow.garoupa.api.vo.audit.log.EndpointLatencyVo> 接口耗时统计vo列表
+     * @author Telechow
+     * @since 2023/4/25 14:08
+     */
+    List<EndpointLatencyVo> listEndpointLatency();
 }
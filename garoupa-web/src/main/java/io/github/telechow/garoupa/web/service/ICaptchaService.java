@@ -15,6 +15,7 @@
  */
 package io.github.telechow.garoupa.web.service;
 
+import io.github.telechow.garoupa.api.vo.captcha.CaptchaImageVo;
 import io.github.telechow.garoupa.api.vo.captcha.CaptchaVo;
 
 /**
@@ -36,9 +37,21 @@ public interface ICaptchaService {
      */
     CaptchaVo get();
 
+    /**
+     * 获取一个二进制图片验证码
+     * <li>此接口可以匿名访问</li>
+     * <li>验证码的图片以png二进制的形式返回，不做base64编码</li>
+     *
+     * @return io.github.telechow.garoupa.api.vo.captcha.CaptchaImageVo 二进制图片验证码vo
+     * @author Telechow
+     * @since 2023/4/23 14:45
+     */
+    CaptchaImageVo getImage();
+
     /**
      * 获取一个邮件验证码
      * <li>需要验证是否存在指定邮箱的用户，如果不存在抛出异常</li>
+     * <li>邮件验证码放入发件箱后立即返回，由后台线程异步发送；有效期内同一个邮箱只发送一次</li>
      *
      * @param email 邮箱
      * @author Telechow
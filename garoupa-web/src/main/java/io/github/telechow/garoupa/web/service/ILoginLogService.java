@@ -16,8 +16,17 @@
 package io.github.telechow.garoupa.web.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.github.telechow.garoupa.api.dto.login.log.ExportLoginLogDto;
+import io.github.telechow.garoupa.api.dto.login.log.CursorPageLoginLogDto;
+import io.github.telechow.garoupa.api.dto.login.log.LoginStatisticsDto;
 import io.github.telechow.garoupa.api.dto.login.log.PageLoginLogDto;
+import io.github.telechow.garoupa.api.vo.common.CursorPageVo;
 import io.github.telechow.garoupa.api.vo.login.log.LoginLogPageVo;
+import io.github.telechow.garoupa.api.vo.login.log.LoginStatisticsVo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 
 /**
  * 登录日志service接口
@@ -30,6 +39,7 @@ public interface ILoginLogService {
     /**
      * 分页查询登录日志
      * <li>按照创建时间降序排序</li>
+     * <li>没有指定开始时间时，只查询默认时间窗口内的日志</li>
      *
      * @param dto 分页查询登录日志dto
      * @return com.baomidou.mybatisplus.extension.plugins.pagination.Page < io.github.telechow.garoupa.api.vo.login.log.LoginLogPageVo> 分页的登录日志分页vo
@@ -37,4 +47,42 @@ public interface ILoginLogService {
      * @since 2023/4/18 17:40
      */
     Page<LoginLogPageVo> page(PageLoginLogDto dto);
+
+    /**
+     * 游标分页查询登录日志
+     * <li>按照创建时间降序排序，创建时间相同时按照id升序排序</li>
+     * <li>没有指定开始时间时，只查询默认时间窗口内的日志</li>
+     * <li>从上一页返回的游标处继续查询，不使用偏移量；默认不查询总条数</li>
+     *
+     * @param dto 游标分页查询登录日志dto
+     * @return io.github.telechow.garoupa.api.vo.common.CursorPageVo<io.github.telechow.garoupa.api.vo.login.log.LoginLogPageVo> 游标分页的登录日志分页vo
+     * @author Telechow
+     * @since 2023/4/24 16:35
+     */
+    CursorPageVo<LoginLogPageVo> cursorPage(CursorPageLoginLogDto dto);
+
+    /**
+     * 导出登录日志
+     * <li>按照创建时间降序排序，以流式游标逐行查询并写入输出流，内存占用与导出条数无关</li>
+     * <li>没有指定开始时间时，只查询默认时间窗口内的日志</li>
+     *
+     * @param dto          导出登录日志dto
+     * @param outputStream 输出流，通常是响应的输出流，此方法不关闭输出流
+     * @throws IOException 写入失败，通常是客户端断开了连接
+     * @author Telechow
+     * @since 2023/4/25 9:45
+     */
+    void export(ExportLoginLogDto dto, OutputStream outputStream) throws IOException;
+
+    /**
+     * 查询登录统计
+     * <li>按照统计周期的开始时间升序排序，只读登录统计表，不查询登录日志表</li>
+     * <li>登录统计每隔一段时间从redis写入登录统计表，最近的统计值可能稍有延迟</li>
+     *
+     * @param dto 查询登录统计dto
+     * @return java.util.List<io.github.telechow.garoupa.api.vo.login.log.LoginStatisticsVo> 登录统计vo列表
+     * @author Telechow
+     * @since 2023/4/25 15:16
+     */
+    List<LoginStatisticsVo> statistics(LoginStatisticsDto dto);
 }
@@ -19,20 +19,40 @@ import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.github.telechow.garoupa.api.dto.audit.log.ExportAuditLogDto;
+import io.github.telechow.garoupa.api.dto.audit.log.CursorPageAuditLogDto;
 import io.github.telechow.garoupa.api.dto.audit.log.PageAuditLogDto;
 import io.github.telechow.garoupa.api.entity.AuditLog;
 import io.github.telechow.garoupa.api.vo.audit.log.AuditLogPageVo;
+import io.github.telechow.garoupa.api.vo.audit.log.EndpointLatencyVo;
+import io.github.telechow.garoupa.api.vo.common.CursorPageVo;
+import io.github.telechow.garoupa.web.audit.log.archive.AuditLogArchiveQuery;
+import io.github.telechow.garoupa.web.audit.log.archive.AuditLogArchiveReader;
+import io.github.telechow.garoupa.web.audit.log.archive.AuditLogArchiveResult;
+import io.github.telechow.garoupa.web.audit.log.latency.EndpointLatencyRecorder;
 import io.github.telechow.garoupa.web.auto.service.IAuditLogAutoService;
+import io.github.telechow.garoupa.web.helper.LogPartitionHelper;
+import io.github.telechow.garoupa.web.log.export.LogExportWriter;
+import io.github.telechow.garoupa.web.log.ip.IpAddressRange;
+import io.github.telechow.garoupa.web.log.page.LogPageCursor;
 import io.github.telechow.garoupa.web.service.IAuditLogService;
 import io.github.telechow.garoupa.web.wrapper.AuditLogWrapper;
 import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * 审计日志实现
+ * <li>分页查询和游标分页查询的时间范围超出审计日志表时，继续从审计日志归档中查询，归档的审计日志都早于表中的审计日志</li>
  *
  * @author Telechow
  * @since 2023/4/20 9:59
@@ -43,41 +63,180 @@ public class AuditLogServiceImpl implements IAuditLogService {
 
     private final AuditLogWrapper auditLogWrapper;
 
+    private final LogPartitionHelper logPartitionHelper;
+
     private final IAuditLogAutoService auditLogAutoService;
 
+    private final AuditLogArchiveReader auditLogArchiveReader;
+
+    private final EndpointLatencyRecorder endpointLatencyRecorder;
+
     @Override
     public Page<AuditLogPageVo> page(PageAuditLogDto dto) {
         //1.查询数据
+        IpAddressRange remoteIpRange = IpAddressRange.resolve(dto.getRemoteIp(), dto.getRemoteIpCidr());
         Page<AuditLog> page = new Page<>(dto.getCurrent(), dto.getSize());
-        LambdaQueryWrapper<AuditLog> lambdaQueryWrapper = Wrappers.<AuditLog>lambdaQuery()
+        LambdaQueryWrapper<AuditLog> lambdaQueryWrapper = this.buildQueryWrapper(dto.getTitle(), dto.getUserId()
+                        , remoteIpRange, dto.getLogType(), dto.getCreateTimeBegin(), dto.getCreateTimeEnd(), false)
                 //1.1.按照创建时间降序排序
                 .orderByDesc(AuditLog::getCreateTime);
-        //1.2.设置审计日志标题查询条件
-        if (StrUtil.isNotBlank(dto.getTitle())) {
-            lambdaQueryWrapper.eq(AuditLog::getTitle, dto.getTitle());
-        }
-        //1.3.设置请求用户id查询条件
-        Optional.ofNullable(dto.getUserId())
-                .ifPresent(uid -> lambdaQueryWrapper.eq(AuditLog::getUserId, uid));
-        //1.4.设置用户ip查询条件
-        if (StrUtil.isNotBlank(dto.getRemoteIp())) {
-            lambdaQueryWrapper.apply("match(remote_ip) against({0} in boolean mode)", "+" + dto.getRemoteIp());
-        }
-        //1.5.设置日志类型查询条件
-        Optional.ofNullable(dto.getLogType())
-                .ifPresent(lt -> lambdaQueryWrapper.eq(AuditLog::getLogType, lt));
-        //1.6.设置请求时间查询条件
-        Optional.ofNullable(dto.getCreateTimeBegin())
-                .ifPresent(cte -> lambdaQueryWrapper.ge(AuditLog::getCreateTime, dto.getCreateTimeBegin()));
-        Optional.ofNullable(dto.getCreateTimeEnd())
-                .ifPresent(ctb -> lambdaQueryWrapper.lt(AuditLog::getCreateTime, dto.getCreateTimeEnd()));
         page = auditLogAutoService.page(page, lambdaQueryWrapper);
+        List<AuditLog> auditLogs = page.getRecords();
+        long total = page.getTotal();
+
+        //2.时间范围超出审计日志表时，从归档中查询本页剩余的条数，并累加归档中满足条件的总条数
+        LocalDateTime createTimeBegin = dto.getCreateTimeBegin();
+        if (auditLogArchiveReader.overlaps(createTimeBegin, dto.getCreateTimeEnd())) {
+            long skip = Math.max(0L, (dto.getCurrent() - 1) * dto.getSize() - page.getTotal());
+            AuditLogArchiveResult archiveResult = auditLogArchiveReader.query(new AuditLogArchiveQuery(
+                    dto.getTitle(), dto.getUserId(), remoteIpRange, dto.getLogType(), createTimeBegin
+                    , dto.getCreateTimeEnd(), null, skip, dto.getSize() - auditLogs.size(), true));
+            auditLogs = new ArrayList<>(auditLogs);
+            auditLogs.addAll(archiveResult.records());
+            total += archiveResult.total();
+        }
 
-        //2.包装数据
-        List<AuditLogPageVo> auditLogPageVos = auditLogWrapper
-                .auditLogCollectionToAuditLogPageVoList(page.getRecords());
-        Page<AuditLogPageVo> result = new Page<>(page.getCurrent(), page.getSize(), page.getTotal());
+        //3.包装数据
+        List<AuditLogPageVo> auditLogPageVos = auditLogWrapper.auditLogCollectionToAuditLogPageVoList(auditLogs);
+        Page<AuditLogPageVo> result = new Page<>(page.getCurrent(), page.getSize(), total);
         result.setRecords(auditLogPageVos);
         return result;
     }
+
+    @Override
+    public CursorPageVo<AuditLogPageVo> cursorPage(CursorPageAuditLogDto dto) {
+        //1.解码游标，游标为空时查询第一页；解析ip地址查询条件
+        LogPageCursor cursor = LogPageCursor.decode(dto.getCursor());
+        IpAddressRange remoteIpRange = IpAddressRange.resolve(dto.getRemoteIp(), dto.getRemoteIpCidr());
+        CursorPageVo<AuditLogPageVo> result = new CursorPageVo<>();
+
+        //2.按需查询总条数，总条数不受游标影响
+        if (Boolean.TRUE.equals(dto.getSearchCount())) {
+            result.setTotal(auditLogAutoService.count(this.buildQueryWrapper(dto.getTitle(), dto.getUserId()
+                    , remoteIpRange, dto.getLogType(), dto.getCreateTimeBegin(), dto.getCreateTimeEnd(), true)));
+        }
+
+        //3.从游标处继续查询
+        LambdaQueryWrapper<AuditLog> lambdaQueryWrapper = this.buildQueryWrapper(dto.getTitle(), dto.getUserId()
+                        , remoteIpRange, dto.getLogType(), dto.getCreateTimeBegin(), dto.getCreateTimeEnd(), true)
+                //3.1.按照创建时间降序、id升序排序，与创建时间索引的顺序一致
+                .orderByDesc(AuditLog::getCreateTime)
+                .orderByAsc(AuditLog::getId);
+        //3.2.设置游标条件，创建时间小于游标，或创建时间等于游标且id大于游标
+        Optional.ofNullable(cursor)
+                .ifPresent(c -> lambdaQueryWrapper.le(AuditLog::getCreateTime, c.createTime())
+                        .and(w -> w.lt(AuditLog::getCreateTime, c.createTime())
+                                .or().gt(AuditLog::getId, c.id())));
+        //3.3.多查询一条用于判断是否有下一页，不查询总条数
+        Page<AuditLog> page = auditLogAutoService.page(new Page<>(1L, dto.getSize() + 1, false), lambdaQueryWrapper);
+        List<AuditLog> auditLogs = page.getRecords();
+
+        //4.时间范围超出审计日志表时，继续从归档中查询，归档的审计日志都早于表中的审计日志
+        LocalDateTime createTimeBegin = logPartitionHelper.resolveCreateTimeBegin(dto.getCreateTimeBegin()
+                , dto.getCreateTimeEnd());
+        if (auditLogArchiveReader.overlaps(createTimeBegin, dto.getCreateTimeEnd())) {
+            //4.1.审计日志表中不足一页时，从游标处查询归档补足本页
+            if (auditLogs.size() <= dto.getSize()) {
+                AuditLogArchiveResult archiveResult = auditLogArchiveReader.query(new AuditLogArchiveQuery(
+                        dto.getTitle(), dto.getUserId(), remoteIpRange, dto.getLogType(), createTimeBegin
+                        , dto.getCreateTimeEnd(), cursor, 0L, dto.getSize() + 1 - auditLogs.size(), false));
+                auditLogs = new ArrayList<>(auditLogs);
+                auditLogs.addAll(archiveResult.records());
+            }
+            //4.2.按需累加归档中满足条件的总条数，总条数不受游标影响
+            if (Objects.nonNull(result.getTotal())) {
+                AuditLogArchiveResult countResult = auditLogArchiveReader.query(new AuditLogArchiveQuery(
+                        dto.getTitle(), dto.getUserId(), remoteIpRange, dto.getLogType(), createTimeBegin
+                        , dto.getCreateTimeEnd(), null, 0L, 0L, true));
+                result.setTotal(result.getTotal() + countResult.total());
+            }
+        }
+
+        //5.包装数据
+        boolean hasNext = auditLogs.size() > dto.getSize();
+        if (hasNext) {
+            auditLogs = auditLogs.subList(0, dto.getSize().intValue());
+            AuditLog last = auditLogs.get(auditLogs.size() - 1);
+            result.setNextCursor(new LogPageCursor(last.getCreateTime(), last.getId()).encode());
+        }
+        result.setHasNext(hasNext)
+                .setRecords(auditLogWrapper.auditLogCollectionToAuditLogPageVoList(auditLogs));
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true, rollbackFor = Exception.class)
+    public void export(ExportAuditLogDto dto, OutputStream outputStream) throws IOException {
+        //1.写入表头，导出列在导出前一次性准备好
+        LogExportWriter<AuditLog> logExportWriter = new LogExportWriter<>(dto.getFormat()
+                , auditLogWrapper.auditLogExportColumns(), outputStream);
+        logExportWriter.writeHeader();
+
+        //2.以流式游标逐行查询并写入，按照创建时间降序排序
+        IpAddressRange remoteIpRange = IpAddressRange.resolve(dto.getRemoteIp(), dto.getRemoteIpCidr());
+        LambdaQueryWrapper<AuditLog> lambdaQueryWrapper = this.buildQueryWrapper(dto.getTitle(), dto.getUserId()
+                        , remoteIpRange, dto.getLogType(), dto.getCreateTimeBegin(), dto.getCreateTimeEnd(), true)
+                .orderByDesc(AuditLog::getCreateTime);
+        try (Cursor<AuditLog> cursor = auditLogAutoService.cursor(lambdaQueryWrapper)) {
+            for (AuditLog auditLog : cursor) {
+                logExportWriter.write(auditLog);
+            }
+        }
+        logExportWriter.flush();
+    }
+
+    @Override
+    public List<EndpointLatencyVo> listEndpointLatency() {
+        return endpointLatencyRecorder.snapshot();
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 构造审计日志查询条件，分页查询、游标分页查询和导出共用
+     * <li>游标分页查询和导出没有指定开始时间时使用默认查询时间窗口，只扫描最近的分区</li>
+     * <li>分页查询按照调用方指定的时间范围查询，没有指定开始时间时查询全部，不会悄悄丢弃较早的审计日志</li>
+     * <li>用户ip查询条件转换成二进制ip地址的等值或范围查询，走ip地址和创建时间的联合索引</li>
+     *
+     * @param title              审计日志标题查询条件
+     * @param userId             请求用户id查询条件
+     * @param remoteIpRange      用户ip地址区间查询条件
+     * @param logType            日志类型查询条件
+     * @param createTimeBegin    请求时间起（含）
+     * @param createTimeEnd      请求时间止（不含）
+     * @param applyDefaultWindow 没有指定开始时间时是否使用默认查询时间窗口
+     * @return com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<io.github.telechow.garoupa.api.entity.AuditLog> 审计日志查询条件
+     * @author Telechow
+     * @since 2023/4/24 16:30
+     */
+    private LambdaQueryWrapper<AuditLog> buildQueryWrapper(String title, Long userId, IpAddressRange remoteIpRange
+            , Integer logType, LocalDateTime createTimeBegin, LocalDateTime createTimeEnd, boolean applyDefaultWindow) {
+        LambdaQueryWrapper<AuditLog> lambdaQueryWrapper = Wrappers.lambdaQuery();
+        //1.设置审计日志标题查询条件
+        if (StrUtil.isNotBlank(title)) {
+            lambdaQueryWrapper.eq(AuditLog::getTitle, title);
+        }
+        //2.设置请求用户id查询条件
+        Optional.ofNullable(userId)
+                .ifPresent(uid -> lambdaQueryWrapper.eq(AuditLog::getUserId, uid));
+        //3.设置用户ip查询条件，单个ip地址等值查询，网段范围查询
+        Optional.ofNullable(remoteIpRange)
+                .ifPresent(r -> {
+                    if (r.isSingle()) {
+                        lambdaQueryWrapper.eq(AuditLog::getRemoteIpBin, r.lower());
+                    } else {
+                        lambdaQueryWrapper.between(AuditLog::getRemoteIpBin, r.lower(), r.upper());
+                    }
+                });
+        //4.设置日志类型查询条件
+        Optional.ofNullable(logType)
+                .ifPresent(lt -> lambdaQueryWrapper.eq(AuditLog::getLogType, lt));
+        //5.设置请求时间查询条件，需要时没有开始时间则使用默认查询时间窗口
+        Optional.ofNullable(applyDefaultWindow
+                        ? logPartitionHelper.resolveCreateTimeBegin(createTimeBegin, createTimeEnd) : createTimeBegin)
+                .ifPresent(ctb -> lambdaQueryWrapper.ge(AuditLog::getCreateTime, ctb));
+        Optional.ofNullable(createTimeEnd)
+                .ifPresent(cte -> lambdaQueryWrapper.lt(AuditLog::getCreateTime, cte));
+        return lambdaQueryWrapper;
+    }
 }
@@ -15,26 +15,28 @@
  */
 package io.github.telechow.garoupa.web.service.impl;
 
-import cn.hutool.captcha.CaptchaUtil;
-import cn.hutool.captcha.ShearCaptcha;
 import cn.hutool.core.util.RandomUtil;
 import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import io.github.telechow.garoupa.api.constant.CaptchaConstant;
 import io.github.telechow.garoupa.api.entity.User;
+import io.github.telechow.garoupa.api.enums.ResponseCode;
+import io.github.telechow.garoupa.api.vo.captcha.CaptchaImageVo;
 import io.github.telechow.garoupa.api.vo.captcha.CaptchaVo;
-import io.github.telechow.garoupa.config.email.properties.EmailProperties;
+import io.github.telechow.garoupa.config.exception.ServiceException;
 import io.github.telechow.garoupa.web.auto.service.IUserAutoService;
+import io.github.telechow.garoupa.web.captcha.email.EmailCodeOutbox;
+import io.github.telechow.garoupa.web.captcha.pool.CaptchaPool;
+import io.github.telechow.garoupa.web.captcha.pool.PreRenderedCaptcha;
+import io.github.telechow.garoupa.web.captcha.properties.CaptchaProperties;
+import io.github.telechow.garoupa.web.captcha.properties.EmailCodeProperties;
 import io.github.telechow.garoupa.web.service.ICaptchaService;
 import lombok.RequiredArgsConstructor;
 import org.redisson.api.RBucket;
 import org.redisson.api.RedissonClient;
 import org.redisson.client.codec.StringCodec;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
-import java.awt.*;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
@@ -52,25 +54,39 @@ public class CaptchaServiceImpl implements ICaptchaService {
 
     private final RedissonClient redissonClient;
 
-    private final JavaMailSender javaMailSender;
+    private final CaptchaPool captchaPool;
 
-    private final EmailProperties emailProperties;
+    private final CaptchaProperties captchaProperties;
+
+    private final EmailCodeOutbox emailCodeOutbox;
+
+    private final EmailCodeProperties emailCodeProperties;
 
     @Override
     public CaptchaVo get() {
-        //1.生成验证码
-        ShearCaptcha shearCaptcha = CaptchaUtil.createShearCaptcha(240, 60, 6, 4);
-        shearCaptcha.setFont(new Font(null, Font.PLAIN, 40));
+        //1.从验证码池中取出一个验证码
+        PreRenderedCaptcha captcha = captchaPool.take();
 
         //2.将验证码写入redis中，并设置过期时间
-        String captchaKey = IdWorker.get32UUID();
-        RBucket<String> captchaBucket = redissonClient.getBucket(
-                CaptchaConstant.CAPTCHA_KEY_PREFIX + captchaKey, StringCodec.INSTANCE);
-        captchaBucket.set(shearCaptcha.getCode(), 30L, TimeUnit.SECONDS);
+        String captchaKey = saveCaptcha(captcha);
 
         //3.返回结果
         CaptchaVo vo = new CaptchaVo();
-        vo.setCaptchaKey(captchaKey).setCaptchaImageBase64(shearCaptcha.getImageBase64Data());
+        vo.setCaptchaKey(captchaKey).setCaptchaImageBase64(captcha.imageBase64Data());
+        return vo;
+    }
+
+    @Override
+    public CaptchaImageVo getImage() {
+        //1.从验证码池中取出一个验证码
+        PreRenderedCaptcha captcha = captchaPool.take();
+
+        //2.将验证码写入redis中，并设置过期时间
+        String captchaKey = saveCaptcha(captcha);
+
+        //3.返回结果
+        CaptchaImageVo vo = new CaptchaImageVo();
+        vo.setCaptchaKey(captchaKey).setImageBytes(captcha.imageBytes());
         return vo;
     }
 
@@ -86,18 +102,43 @@ public class CaptchaServiceImpl implements ICaptchaService {
             return;
         }
 
-        //2.生成邮件验证码，并发送邮件
+        //2.有效期内已经给此邮箱发送过邮件验证码，则不再重复发送
         final String emailCode = RandomUtil.randomString(6);
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(emailProperties.getUsername());
-        message.setTo(email);
-        message.setSubject("Garoupa邮件验证码");
-        message.setText("你的邮件验证码是：" + emailCode);
-        javaMailSender.send(message);
+        final long ttlMillis = emailCodeProperties.getTtl().toMillis();
+        RBucket<String> sentBucket = redissonClient.getBucket(
+                CaptchaConstant.EMAIL_CODE_SENT_KEY_PREFIX + email, StringCodec.INSTANCE);
+        if (!sentBucket.trySet(emailCode, ttlMillis, TimeUnit.MILLISECONDS)) {
+            return;
+        }
 
         //3.将邮件验证码写入Redis
         RBucket<String> emailCodeBucket = redissonClient.getBucket(
                 CaptchaConstant.EMAIL_CODE_KEY_PREFIX + emailCode, StringCodec.INSTANCE);
-        emailCodeBucket.set(emailCode, 1, TimeUnit.MINUTES);
+        emailCodeBucket.set(emailCode, ttlMillis, TimeUnit.MILLISECONDS);
+
+        //4.将邮件验证码放入发件箱，由后台线程异步发送；发件箱已满时撤销本次邮件验证码并抛出异常
+        if (!emailCodeOutbox.offer(email, emailCode)) {
+            emailCodeBucket.delete();
+            sentBucket.delete();
+            throw new ServiceException(ResponseCode.EMAIL_CODE_OUTBOX_BUSY);
+        }
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 将验证码写入redis中，并设置过期时间
+     *
+     * @param captcha 预生成的图片验证码
+     * @return java.lang.String 验证码key
+     * @author Telechow
+     * @since 2023/4/23 14:50
+     */
+    private String saveCaptcha(PreRenderedCaptcha captcha) {
+        String captchaKey = IdWorker.get32UUID();
+        RBucket<String> captchaBucket = redissonClient.getBucket(
+                CaptchaConstant.CAPTCHA_KEY_PREFIX + captchaKey, StringCodec.INSTANCE);
+        captchaBucket.set(captcha.code(), captchaProperties.getTtl().toMillis(), TimeUnit.MILLISECONDS);
+        return captchaKey;
     }
 }
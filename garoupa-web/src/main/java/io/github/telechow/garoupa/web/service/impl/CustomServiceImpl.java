@@ -29,13 +29,13 @@ import io.github.telechow.garoupa.api.enums.rbac.user.UserTypeEnum;
 import io.github.telechow.garoupa.api.vo.user.UserPageVo;
 import io.github.telechow.garoupa.web.auto.service.IUserAutoService;
 import io.github.telechow.garoupa.web.auto.service.IUserRoleRelationAutoService;
+import io.github.telechow.garoupa.web.helper.AuthorizationSnapshotHelper;
 import io.github.telechow.garoupa.web.service.ICustomService;
 import io.github.telechow.garoupa.web.validator.CustomValidator;
 import io.github.telechow.garoupa.web.validator.RoleValidator;
 import io.github.telechow.garoupa.web.wrapper.UserRoleRelationWrapper;
 import io.github.telechow.garoupa.web.wrapper.UserWrapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -62,6 +62,8 @@ public class CustomServiceImpl implements ICustomService {
     private final IUserAutoService userAutoService;
     private final IUserRoleRelationAutoService userRoleRelationAutoService;
 
+    private final AuthorizationSnapshotHelper authorizationSnapshotHelper;
+
     private final CacheManager cacheManager;
 
     @Override
@@ -82,10 +84,7 @@ public class CustomServiceImpl implements ICustomService {
         //4.清除缓存
         Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.USER_GET_BY_ID_CACHE_NAME))
                 .ifPresent(c -> c.evict(id));
-        Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.RESOURCE_LIST_BY_USER_ID_CACHE_NAME))
-                .ifPresent(Cache::clear);
-        Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.PERMISSION_LIST_BY_USER_ID_CACHE_NAME))
-                .ifPresent(Cache::clear);
+        authorizationSnapshotHelper.evict(id);
     }
 
     @Override
@@ -115,10 +114,7 @@ public class CustomServiceImpl implements ICustomService {
             userRoleRelationAutoService.saveBatch(userRoleRelations);
         } finally {
             //6.清除缓存
-            Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.RESOURCE_LIST_BY_USER_ID_CACHE_NAME))
-                    .ifPresent(Cache::clear);
-            Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.PERMISSION_LIST_BY_USER_ID_CACHE_NAME))
-                    .ifPresent(Cache::clear);
+            authorizationSnapshotHelper.evict(id);
         }
     }
 
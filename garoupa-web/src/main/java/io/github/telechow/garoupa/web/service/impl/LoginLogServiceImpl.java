@@ -19,15 +19,32 @@ import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.github.telechow.garoupa.api.dto.login.log.ExportLoginLogDto;
+import io.github.telechow.garoupa.api.dto.login.log.CursorPageLoginLogDto;
+import io.github.telechow.garoupa.api.dto.login.log.LoginStatisticsDto;
 import io.github.telechow.garoupa.api.dto.login.log.PageLoginLogDto;
 import io.github.telechow.garoupa.api.entity.LoginLog;
+import io.github.telechow.garoupa.api.entity.LoginStatistics;
+import io.github.telechow.garoupa.api.vo.common.CursorPageVo;
 import io.github.telechow.garoupa.api.vo.login.log.LoginLogPageVo;
+import io.github.telechow.garoupa.api.vo.login.log.LoginStatisticsVo;
 import io.github.telechow.garoupa.web.auto.service.ILoginLogAutoService;
+import io.github.telechow.garoupa.web.auto.service.ILoginStatisticsAutoService;
+import io.github.telechow.garoupa.web.helper.LogPartitionHelper;
+import io.github.telechow.garoupa.web.log.export.LogExportWriter;
+import io.github.telechow.garoupa.web.log.ip.IpAddressRange;
+import io.github.telechow.garoupa.web.log.page.LogPageCursor;
+import io.github.telechow.garoupa.web.login.log.statistics.LoginStatisticsRecorder;
 import io.github.telechow.garoupa.web.service.ILoginLogService;
 import io.github.telechow.garoupa.web.wrapper.LoginLogWrapper;
 import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -43,27 +60,21 @@ public class LoginLogServiceImpl implements ILoginLogService {
 
     private final LoginLogWrapper loginLogWrapper;
 
+    private final LogPartitionHelper logPartitionHelper;
+
     private final ILoginLogAutoService loginLogAutoService;
 
+    private final ILoginStatisticsAutoService loginStatisticsAutoService;
+
     @Override
     public Page<LoginLogPageVo> page(PageLoginLogDto dto) {
         //1.查询数据
+        IpAddressRange remoteIpRange = IpAddressRange.resolve(dto.getRemoteIp(), dto.getRemoteIpCidr());
         Page<LoginLog> page = new Page<>(dto.getCurrent(), dto.getSize());
-        LambdaQueryWrapper<LoginLog> lambdaQueryWrapper = Wrappers.<LoginLog>lambdaQuery()
+        LambdaQueryWrapper<LoginLog> lambdaQueryWrapper = this.buildQueryWrapper(dto.getIsSuccess(), remoteIpRange
+                        , dto.getCreateTimeBegin(), dto.getCreateTimeEnd(), false)
                 //1.1.按照创建时间降序排序
                 .orderByDesc(LoginLog::getCreateTime);
-        //1.2.设置是否登录成功查询条件
-        Optional.ofNullable(dto.getIsSuccess())
-                .ifPresent(s -> lambdaQueryWrapper.eq(LoginLog::getIsSuccess, s));
-        //1.3.设置用户ip查询条件
-        if (StrUtil.isNotBlank(dto.getRemoteIp())) {
-            lambdaQueryWrapper.apply("match(remote_ip) against({0} in boolean mode)", "+" + dto.getRemoteIp());
-        }
-        //1.4.设置登录时间查询条件
-        Optional.ofNullable(dto.getCreateTimeBegin())
-                .ifPresent(cte -> lambdaQueryWrapper.ge(LoginLog::getCreateTime, dto.getCreateTimeBegin()));
-        Optional.ofNullable(dto.getCreateTimeEnd())
-                .ifPresent(ctb -> lambdaQueryWrapper.lt(LoginLog::getCreateTime, dto.getCreateTimeEnd()));
         page = loginLogAutoService.page(page, lambdaQueryWrapper);
 
         //2.包装数据
@@ -73,4 +84,122 @@ public class LoginLogServiceImpl implements ILoginLogService {
         result.setRecords(loginLogPageVos);
         return result;
     }
+
+    @Override
+    public CursorPageVo<LoginLogPageVo> cursorPage(CursorPageLoginLogDto dto) {
+        //1.解码游标，游标为空时查询第一页；解析ip地址查询条件
+        LogPageCursor cursor = LogPageCursor.decode(dto.getCursor());
+        IpAddressRange remoteIpRange = IpAddressRange.resolve(dto.getRemoteIp(), dto.getRemoteIpCidr());
+        CursorPageVo<LoginLogPageVo> result = new CursorPageVo<>();
+
+        //2.按需查询总条数，总条数不受游标影响
+        if (Boolean.TRUE.equals(dto.getSearchCount())) {
+            result.setTotal(loginLogAutoService.count(this.buildQueryWrapper(dto.getIsSuccess(), remoteIpRange
+                    , dto.getCreateTimeBegin(), dto.getCreateTimeEnd(), true)));
+        }
+
+        //3.从游标处继续查询
+        LambdaQueryWrapper<LoginLog> lambdaQueryWrapper = this.buildQueryWrapper(dto.getIsSuccess(), remoteIpRange
+                        , dto.getCreateTimeBegin(), dto.getCreateTimeEnd(), true)
+                //3.1.按照创建时间降序、id升序排序，与创建时间索引的顺序一致
+                .orderByDesc(LoginLog::getCreateTime)
+                .orderByAsc(LoginLog::getId);
+        //3.2.设置游标条件，创建时间小于游标，或创建时间等于游标且id大于游标
+        Optional.ofNullable(cursor)
+                .ifPresent(c -> lambdaQueryWrapper.le(LoginLog::getCreateTime, c.createTime())
+                        .and(w -> w.lt(LoginLog::getCreateTime, c.createTime())
+                                .or().gt(LoginLog::getId, c.id())));
+        //3.3.多查询一条用于判断是否有下一页，不查询总条数
+        Page<LoginLog> page = loginLogAutoService.page(new Page<>(1L, dto.getSize() + 1, false), lambdaQueryWrapper);
+        List<LoginLog> loginLogs = page.getRecords();
+
+        //4.包装数据
+        boolean hasNext = loginLogs.size() > dto.getSize();
+        if (hasNext) {
+            loginLogs = loginLogs.subList(0, dto.getSize().intValue());
+            LoginLog last = loginLogs.get(loginLogs.size() - 1);
+            result.setNextCursor(new LogPageCursor(last.getCreateTime(), last.getId()).encode());
+        }
+        result.setHasNext(hasNext)
+                .setRecords(loginLogWrapper.loginLogCollectionToLoginLogPageVoList(loginLogs));
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true, rollbackFor = Exception.class)
+    public void export(ExportLoginLogDto dto, OutputStream outputStream) throws IOException {
+        //1.写入表头，导出列在导出前一次性准备好
+        LogExportWriter<LoginLog> logExportWriter = new LogExportWriter<>(dto.getFormat()
+                , loginLogWrapper.loginLogExportColumns(), outputStream);
+        logExportWriter.writeHeader();
+
+        //2.以流式游标逐行查询并写入，按照创建时间降序排序
+        IpAddressRange remoteIpRange = IpAddressRange.resolve(dto.getRemoteIp(), dto.getRemoteIpCidr());
+        LambdaQueryWrapper<LoginLog> lambdaQueryWrapper = this.buildQueryWrapper(dto.getIsSuccess(), remoteIpRange
+                        , dto.getCreateTimeBegin(), dto.getCreateTimeEnd(), true)
+                .orderByDesc(LoginLog::getCreateTime);
+        try (Cursor<LoginLog> cursor = loginLogAutoService.cursor(lambdaQueryWrapper)) {
+            for (LoginLog loginLog : cursor) {
+                logExportWriter.write(loginLog);
+            }
+        }
+        logExportWriter.flush();
+    }
+
+    @Override
+    public List<LoginStatisticsVo> statistics(LoginStatisticsDto dto) {
+        //1.查询登录统计，登录方式为空时查询所有登录方式的合计
+        String loginMode = StrUtil.isBlank(dto.getLoginMode()) ? LoginStatisticsRecorder.ALL_LOGIN_MODE
+                : dto.getLoginMode();
+        List<LoginStatistics> loginStatistics = loginStatisticsAutoService.list(Wrappers.<LoginStatistics>lambdaQuery()
+                .eq(LoginStatistics::getPeriodType, dto.getPeriod().getCode())
+                .eq(LoginStatistics::getLoginMode, loginMode)
+                .ge(LoginStatistics::getPeriodStart, dto.getCreateTimeBegin())
+                .lt(LoginStatistics::getPeriodStart, dto.getCreateTimeEnd())
+                .orderByAsc(LoginStatistics::getPeriodStart));
+
+        //2.包装数据
+        return loginLogWrapper.loginStatisticsCollectionToLoginStatisticsVoList(loginStatistics);
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    /**
+     * 构造登录日志查询条件，分页查询、游标分页查询和导出共用
+     * <li>游标分页查询和导出没有指定开始时间时使用默认查询时间窗口，只扫描最近的分区</li>
+     * <li>分页查询按照调用方指定的时间范围查询，没有指定开始时间时查询全部，不会悄悄丢弃较早的登录日志</li>
+     * <li>用户ip查询条件转换成二进制ip地址的等值或范围查询，走ip地址和创建时间的联合索引</li>
+     *
+     * @param isSuccess          是否登录成功查询条件
+     * @param remoteIpRange      用户ip地址区间查询条件
+     * @param createTimeBegin    登录时间起（含）
+     * @param createTimeEnd      登录时间止（不含）
+     * @param applyDefaultWindow 没有指定开始时间时是否使用默认查询时间窗口
+     * @return com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<io.github.telechow.garoupa.api.entity.LoginLog> 登录日志查询条件
+     * @author Telechow
+     * @since 2023/4/24 16:25
+     */
+    private LambdaQueryWrapper<LoginLog> buildQueryWrapper(Boolean isSuccess, IpAddressRange remoteIpRange
+            , LocalDateTime createTimeBegin, LocalDateTime createTimeEnd, boolean applyDefaultWindow) {
+        LambdaQueryWrapper<LoginLog> lambdaQueryWrapper = Wrappers.lambdaQuery();
+        //1.设置是否登录成功查询条件
+        Optional.ofNullable(isSuccess)
+                .ifPresent(s -> lambdaQueryWrapper.eq(LoginLog::getIsSuccess, s));
+        //2.设置用户ip查询条件，单个ip地址等值查询，网段范围查询
+        Optional.ofNullable(remoteIpRange)
+                .ifPresent(r -> {
+                    if (r.isSingle()) {
+                        lambdaQueryWrapper.eq(LoginLog::getRemoteIpBin, r.lower());
+                    } else {
+                        lambdaQueryWrapper.between(LoginLog::getRemoteIpBin, r.lower(), r.upper());
+                    }
+                });
+        //3.设置登录时间查询条件，需要时没有开始时间则使用默认查询时间窗口
+        Optional.ofNullable(applyDefaultWindow
+                        ? logPartitionHelper.resolveCreateTimeBegin(createTimeBegin, createTimeEnd) : createTimeBegin)
+                .ifPresent(ctb -> lambdaQueryWrapper.ge(LoginLog::getCreateTime, ctb));
+        Optional.ofNullable(createTimeEnd)
+                .ifPresent(cte -> lambdaQueryWrapper.lt(LoginLog::getCreateTime, cte));
+        return lambdaQueryWrapper;
+    }
 }
@@ -25,6 +25,7 @@ import io.github.telechow.garoupa.api.dto.permission.UpdatePermissionDto;
 import io.github.telechow.garoupa.api.entity.Permission;
 import io.github.telechow.garoupa.api.vo.permission.PermissionPageVo;
 import io.github.telechow.garoupa.web.auto.service.IPermissionAutoService;
+import io.github.telechow.garoupa.web.helper.AuthorizationSnapshotHelper;
 import io.github.telechow.garoupa.web.service.IPermissionService;
 import io.github.telechow.garoupa.web.validator.PermissionValidator;
 import io.github.telechow.garoupa.web.validator.ResourceValidator;
@@ -56,6 +57,8 @@ public class PermissionServiceImpl implements IPermissionService {
 
     private final IPermissionAutoService permissionAutoService;
 
+    private final AuthorizationSnapshotHelper authorizationSnapshotHelper;
+
     private final CacheManager cacheManager;
 
     @Override
@@ -72,6 +75,8 @@ public class PermissionServiceImpl implements IPermissionService {
         //3.清除缓存
         Optional.ofNullable(cacheManager.getCache(RbacCacheConstant.PERMISSION_PAGE_BY_MENU_ID_CACHE_NAME))
                 .ifPresent(Cache::clear);
+        Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.PERMISSION_DICTIONARY_CACHE_NAME))
+                .ifPresent(Cache::clear);
     }
 
     @Override
@@ -89,8 +94,9 @@ public class PermissionServiceImpl implements IPermissionService {
         //3.清除缓存
         Optional.ofNullable(cacheManager.getCache(RbacCacheConstant.PERMISSION_PAGE_BY_MENU_ID_CACHE_NAME))
                 .ifPresent(Cache::clear);
-        Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.PERMISSION_LIST_BY_USER_ID_CACHE_NAME))
+        Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.PERMISSION_DICTIONARY_CACHE_NAME))
                 .ifPresent(Cache::clear);
+        authorizationSnapshotHelper.evictByPermissionId(id);
     }
 
     @Override
@@ -106,8 +112,9 @@ public class PermissionServiceImpl implements IPermissionService {
         //3.清除缓存
         Optional.ofNullable(cacheManager.getCache(RbacCacheConstant.PERMISSION_PAGE_BY_MENU_ID_CACHE_NAME))
                 .ifPresent(Cache::clear);
-        Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.PERMISSION_LIST_BY_USER_ID_CACHE_NAME))
+        Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.PERMISSION_DICTIONARY_CACHE_NAME))
                 .ifPresent(Cache::clear);
+        authorizationSnapshotHelper.evictByPermissionId(id);
     }
 
     @Override
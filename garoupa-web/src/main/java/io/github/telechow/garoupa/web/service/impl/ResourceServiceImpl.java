@@ -17,7 +17,6 @@ package io.github.telechow.garoupa.web.service.impl;
 
 import cn.hutool.core.lang.tree.Tree;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
-import io.github.telechow.garoupa.api.constant.AuthenticationCacheConstant;
 import io.github.telechow.garoupa.api.constant.RbacCacheConstant;
 import io.github.telechow.garoupa.api.dto.resource.CreateResourceDto;
 import io.github.telechow.garoupa.api.dto.resource.UpdateResourceDto;
@@ -25,6 +24,7 @@ import io.github.telechow.garoupa.api.entity.Resource;
 import io.github.telechow.garoupa.api.enums.rbac.resource.ResourceTypeEnum;
 import io.github.telechow.garoupa.api.enums.system.dict.SystemDictEnum;
 import io.github.telechow.garoupa.web.auto.service.IResourceAutoService;
+import io.github.telechow.garoupa.web.helper.AuthorizationSnapshotHelper;
 import io.github.telechow.garoupa.web.service.IResourceService;
 import io.github.telechow.garoupa.web.validator.CommonValidator;
 import io.github.telechow.garoupa.web.validator.ResourceValidator;
@@ -56,6 +56,8 @@ public class ResourceServiceImpl implements IResourceService {
 
     private final IResourceAutoService resourceAutoService;
 
+    private final AuthorizationSnapshotHelper authorizationSnapshotHelper;
+
     private final CacheManager cacheManager;
 
     @Override
@@ -99,8 +101,7 @@ public class ResourceServiceImpl implements IResourceService {
                 .ifPresent(Cache::clear);
         Optional.ofNullable(cacheManager.getCache(RbacCacheConstant.RESOURCE_MENU_TREE_LIST_CACHE_NAME))
                 .ifPresent(Cache::clear);
-        Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.RESOURCE_LIST_BY_USER_ID_CACHE_NAME))
-                .ifPresent(Cache::clear);
+        authorizationSnapshotHelper.evictByResourceId(id);
     }
 
     @Override
@@ -122,13 +123,12 @@ public class ResourceServiceImpl implements IResourceService {
                 .ifPresent(Cache::clear);
         Optional.ofNullable(cacheManager.getCache(RbacCacheConstant.RESOURCE_MENU_TREE_LIST_CACHE_NAME))
                 .ifPresent(Cache::clear);
-        Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.RESOURCE_LIST_BY_USER_ID_CACHE_NAME))
-                .ifPresent(Cache::clear);
+        authorizationSnapshotHelper.evictByResourceId(id);
     }
 
     @Override
     @Cacheable(value = RbacCacheConstant.RESOURCE_TREE_LIST_CACHE_NAME + "#2592000000"
-            , key = "#root.method.name", unless = "T(cn.hutool.core.collection.CollectionUtil).isEmpty(#result)")
+            , key = "#root.method.name", sync = true)
     public List<Tree<Long>> treeList() {
         //1.查询所有资源实体
         List<Resource> resources = resourceAutoService.list();
@@ -139,7 +139,7 @@ public class ResourceServiceImpl implements IResourceService {
 
     @Override
     @Cacheable(value = RbacCacheConstant.RESOURCE_MENU_TREE_LIST_CACHE_NAME + "#2592000000"
-            , key = "#root.method.name", unless = "T(cn.hutool.core.collection.CollectionUtil).isEmpty(#result)")
+            , key = "#root.method.name", sync = true)
     public List<Tree<Long>> menuTreeList() {
         //1.查询所有的菜单资源实体
         List<Resource> resources = resourceAutoService.list(Wrappers.<Resource>lambdaQuery()
@@ -19,7 +19,6 @@ import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.lang.tree.Tree;
 import cn.hutool.core.lang.tree.TreeUtil;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
-import io.github.telechow.garoupa.api.constant.AuthenticationCacheConstant;
 import io.github.telechow.garoupa.api.constant.RbacCacheConstant;
 import io.github.telechow.garoupa.api.dto.role.CreateRoleDto;
 import io.github.telechow.garoupa.api.dto.role.RoleAssociatePermissionDto;
@@ -31,6 +30,7 @@ import io.github.telechow.garoupa.api.entity.RoleResourceRelation;
 import io.github.telechow.garoupa.web.auto.service.IRoleAutoService;
 import io.github.telechow.garoupa.web.auto.service.IRolePermissionRelationAutoService;
 import io.github.telechow.garoupa.web.auto.service.IRoleResourceRelationAutoService;
+import io.github.telechow.garoupa.web.helper.AuthorizationSnapshotHelper;
 import io.github.telechow.garoupa.web.service.IRoleService;
 import io.github.telechow.garoupa.web.validator.PermissionValidator;
 import io.github.telechow.garoupa.web.validator.ResourceValidator;
@@ -71,6 +71,8 @@ public class RoleServiceImpl implements IRoleService {
     private final IRoleResourceRelationAutoService roleResourceRelationAutoService;
     private final IRolePermissionRelationAutoService rolePermissionRelationAutoService;
 
+    private final AuthorizationSnapshotHelper authorizationSnapshotHelper;
+
     private final CacheManager cacheManager;
 
     @Override
@@ -165,10 +167,7 @@ public class RoleServiceImpl implements IRoleService {
             //6.清除缓存
             Optional.ofNullable(cacheManager.getCache(RbacCacheConstant.ROLE_TREE_LIST_CACHE_NAME))
                     .ifPresent(Cache::clear);
-            Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.RESOURCE_LIST_BY_USER_ID_CACHE_NAME))
-                    .ifPresent(Cache::clear);
-            Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.PERMISSION_LIST_BY_USER_ID_CACHE_NAME))
-                    .ifPresent(Cache::clear);
+            authorizationSnapshotHelper.evictByRoleId(id);
         }
     }
 
@@ -204,16 +203,12 @@ public class RoleServiceImpl implements IRoleService {
             //6.清除缓存
             Optional.ofNullable(cacheManager.getCache(RbacCacheConstant.ROLE_TREE_LIST_CACHE_NAME))
                     .ifPresent(Cache::clear);
-            Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.RESOURCE_LIST_BY_USER_ID_CACHE_NAME))
-                    .ifPresent(Cache::clear);
-            Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.PERMISSION_LIST_BY_USER_ID_CACHE_NAME))
-                    .ifPresent(Cache::clear);
+            authorizationSnapshotHelper.evictByRoleId(id);
         }
     }
 
     @Override
-    @Cacheable(value = RbacCacheConstant.ROLE_TREE_LIST_CACHE_NAME, key = "#root.method.name"
-            , unless = "T(cn.hutool.core.collection.CollectionUtil).isEmpty(#result)")
+    @Cacheable(value = RbacCacheConstant.ROLE_TREE_LIST_CACHE_NAME, key = "#root.method.name", sync = true)
     public List<Tree<Long>> treeList() {
         //1.查询所有角色实体
         List<Role> roles = roleAutoService.list();
@@ -29,6 +29,7 @@ import io.github.telechow.garoupa.api.enums.system.param.SystemParamEnum;
 import io.github.telechow.garoupa.api.vo.user.UserPageVo;
 import io.github.telechow.garoupa.web.auto.service.IUserAutoService;
 import io.github.telechow.garoupa.web.auto.service.IUserRoleRelationAutoService;
+import io.github.telechow.garoupa.web.helper.AuthorizationSnapshotHelper;
 import io.github.telechow.garoupa.web.helper.SystemParamHelper;
 import io.github.telechow.garoupa.web.service.IUserService;
 import io.github.telechow.garoupa.web.utils.AuthenticationUtil;
@@ -38,9 +39,9 @@ import io.github.telechow.garoupa.web.validator.UserValidator;
 import io.github.telechow.garoupa.web.wrapper.UserRoleRelationWrapper;
 import io.github.telechow.garoupa.web.wrapper.UserWrapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -74,6 +75,8 @@ public class UserServiceImpl implements IUserService {
 
     private final PasswordEncoder passwordEncoder;
 
+    private final AuthorizationSnapshotHelper authorizationSnapshotHelper;
+
     private final CacheManager cacheManager;
 
     @Override
@@ -102,15 +105,16 @@ public class UserServiceImpl implements IUserService {
         //4.清除缓存
         Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.USER_GET_BY_ID_CACHE_NAME))
                 .ifPresent(c -> c.evict(id));
-        Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.RESOURCE_LIST_BY_USER_ID_CACHE_NAME))
-                .ifPresent(Cache::clear);
-        Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.PERMISSION_LIST_BY_USER_ID_CACHE_NAME))
-                .ifPresent(Cache::clear);
+        authorizationSnapshotHelper.evict(id);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    @CacheEvict(value = AuthenticationCacheConstant.USER_GET_BY_ID_CACHE_NAME + "#2592000000", key = "#id")
+    @Caching(evict = {
+            @CacheEvict(value = AuthenticationCacheConstant.USER_GET_BY_ID_CACHE_NAME + "#2592000000", key = "#id"),
+            @CacheEvict(value = AuthenticationCacheConstant.AUTHORIZATION_SNAPSHOT_GET_BY_USER_ID_CACHE_NAME + "#2592000000"
+                    , key = "#id")
+    })
     public void resetPassword(long id) {
         //1.数据验证
         //1.1.验证用户是否存在，如果不存在抛出异常
@@ -152,10 +156,7 @@ public class UserServiceImpl implements IUserService {
             userRoleRelationAutoService.saveBatch(userRoleRelations);
         } finally {
             //6.清除缓存
-            Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.RESOURCE_LIST_BY_USER_ID_CACHE_NAME))
-                    .ifPresent(Cache::clear);
-            Optional.ofNullable(cacheManager.getCache(AuthenticationCacheConstant.PERMISSION_LIST_BY_USER_ID_CACHE_NAME))
-                    .ifPresent(Cache::clear);
+            authorizationSnapshotHelper.evict(id);
         }
     }
 
@@ -211,12 +212,19 @@ public class UserServiceImpl implements IUserService {
         User updateUser = new User();
         updateUser.setId(Objects.requireNonNull(user).getId()).setPassword(passwordEncoder.encode(dto.getNeoPassword()));
         userAutoService.updateById(updateUser);
+
+        //3.清除缓存
+        authorizationSnapshotHelper.evict(user.getId());
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    @CacheEvict(value = AuthenticationCacheConstant.USER_GET_BY_ID_CACHE_NAME + "#2592000000"
-            , key = "T(io.github.telechow.garoupa.web.utils.AuthenticationUtil).getUserId()")
+    @Caching(evict = {
+            @CacheEvict(value = AuthenticationCacheConstant.USER_GET_BY_ID_CACHE_NAME + "#2592000000"
+                    , key = "T(io.github.telechow.garoupa.web.utils.AuthenticationUtil).getUserId()"),
+            @CacheEvict(value = AuthenticationCacheConstant.AUTHORIZATION_SNAPSHOT_GET_BY_USER_ID_CACHE_NAME + "#2592000000"
+                    , key = "T(io.github.telechow.garoupa.web.utils.AuthenticationUtil).getUserId()")
+    })
     public void updateSelf(UpdateSelfDto dto) {
         //1.数据验证
         //1.1.验证用户类型为用户，如果不是抛出异常
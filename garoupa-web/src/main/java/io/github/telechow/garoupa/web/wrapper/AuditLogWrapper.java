@@ -22,10 +22,12 @@ import io.github.telechow.garoupa.api.enums.system.dict.SystemDictEnum;
 import io.github.telechow.garoupa.api.vo.audit.log.AuditLogPageVo;
 import io.github.telechow.garoupa.api.vo.system.dict.item.SystemDictItemVo;
 import io.github.telechow.garoupa.web.helper.SystemDictHelper;
+import io.github.telechow.garoupa.web.log.export.LogExportColumn;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * 审计日志包装器
@@ -79,4 +81,40 @@ public class AuditLogWrapper {
         }
         return auditLogPageVos;
     }
+
+    /**
+     * 审计日志的导出列
+     * <li>审计日志日志类型系统字典在导出前一次性查询并转换成映射，导出每一行时直接查找，不再遍历字典项</li>
+     *
+     * @return java.util.List<io.github.telechow.garoupa.web.log.export.LogExportColumn<io.github.telechow.garoupa.api.entity.AuditLog>> 审计日志的导出列
+     * @author Telechow
+     * @since 2023/4/25 9:42
+     */
+    public List<LogExportColumn<AuditLog>> auditLogExportColumns() {
+        //1.数据准备
+        //1.1.审计日志日志类型系统字典，字典值到字典文本的映射
+        Map<String, String> logTypeNameMap = systemDictHelper
+                .listSystemDictItemByDictCode(SystemDictEnum.AUDIT_LOG_LOG_TYPE.getDictCode())
+                .stream()
+                .collect(Collectors.toMap(SystemDictItemVo::getItemValue, SystemDictItemVo::getItemText, (a, b) -> a));
+
+        //2.导出列
+        return List.of(
+                new LogExportColumn<>("id", "审计日志id", AuditLog::getId),
+                new LogExportColumn<>("title", "审计日志标题", AuditLog::getTitle),
+                new LogExportColumn<>("userId", "请求用户id", AuditLog::getUserId),
+                new LogExportColumn<>("remoteIp", "请求用户ip地址", AuditLog::getRemoteIp),
+                new LogExportColumn<>("userAgent", "用户代理", AuditLog::getUserAgent),
+                new LogExportColumn<>("requestUri", "请求uri", AuditLog::getRequestUri),
+                new LogExportColumn<>("method", "请求方法", AuditLog::getMethod),
+                new LogExportColumn<>("requestParams", "请求参数", AuditLog::getRequestParams),
+                new LogExportColumn<>("executeDuration", "执行时长（毫秒）", AuditLog::getExecuteDuration),
+                new LogExportColumn<>("logType", "日志类型", AuditLog::getLogType),
+                new LogExportColumn<>("logTypeName", "日志类型名称", al -> Optional.ofNullable(al.getLogType())
+                        .map(lt -> logTypeNameMap.get(lt.toString()))
+                        .orElse(null)),
+                new LogExportColumn<>("exceptionMessage", "异常信息", AuditLog::getExceptionMessage),
+                new LogExportColumn<>("createTime", "请求时间", AuditLog::getCreateTime)
+        );
+    }
 }
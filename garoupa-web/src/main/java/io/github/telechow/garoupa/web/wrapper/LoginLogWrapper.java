@@ -21,17 +21,23 @@ import cn.hutool.extra.servlet.JakartaServletUtil;
 import com.alibaba.fastjson2.JSON;
 import io.github.telechow.garoupa.api.domain.GaroupaUser;
 import io.github.telechow.garoupa.api.entity.LoginLog;
+import io.github.telechow.garoupa.api.entity.LoginStatistics;
 import io.github.telechow.garoupa.api.enums.system.dict.SystemDictEnum;
 import io.github.telechow.garoupa.api.vo.login.log.LoginLogPageVo;
+import io.github.telechow.garoupa.api.vo.login.log.LoginStatisticsVo;
 import io.github.telechow.garoupa.api.vo.system.dict.item.SystemDictItemVo;
 import io.github.telechow.garoupa.web.helper.SystemDictHelper;
+import io.github.telechow.garoupa.web.log.export.LogExportColumn;
+import io.github.telechow.garoupa.web.log.ip.IpAddressCodec;
 import io.github.telechow.garoupa.web.security.details.GaroupaWebAuthenticationDetails;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * 登录日志包装器
@@ -72,10 +78,13 @@ public class LoginLogWrapper {
         //3.3.用户ip、用户代理
         String clientIP = JakartaServletUtil.getClientIP(request);
         String userAgent = request.getHeader(HttpHeaders.USER_AGENT);
-        loginLog.setRemoteIp(clientIP).setUserAgent(userAgent);
+        loginLog.setRemoteIp(clientIP).setRemoteIpBin(IpAddressCodec.encode(clientIP)).setUserAgent(userAgent);
 
         //3.4.登录参数
         loginLog.setLoginParam(JSON.toJSONString(request.getParameterMap()));
+
+        //3.5.创建时间，登录日志异步批量写入，使用登录时的时间而不是写入时的时间
+        loginLog.setCreateTime(LocalDateTime.now());
         return loginLog;
     }
 
@@ -117,4 +126,68 @@ public class LoginLogWrapper {
         }
         return loginLogPageVos;
     }
+
+    /**
+     * 将 登录统计实体集合 包装成 登录统计vo列表
+     *
+     * @param loginStatisticsCollection 登录统计实体集合
+     * @return java.util.List<io.github.telechow.garoupa.api.vo.login.log.LoginStatisticsVo> 登录统计vo列表
+     * @author Telechow
+     * @since 2023/4/25 15:14
+     */
+    public List<LoginStatisticsVo> loginStatisticsCollectionToLoginStatisticsVoList(
+            Collection<LoginStatistics> loginStatisticsCollection) {
+        //1.如果登录统计实体集合为空，则返回空列表
+        if (CollectionUtil.isEmpty(loginStatisticsCollection)) {
+            return Collections.emptyList();
+        }
+
+        //2.包装数据
+        List<LoginStatisticsVo> loginStatisticsVos = new ArrayList<>(loginStatisticsCollection.size());
+        for (LoginStatistics loginStatistics : loginStatisticsCollection) {
+            LoginStatisticsVo vo = new LoginStatisticsVo();
+            //2.1.复制同类型同名称的属性值
+            vo.setPeriodStart(loginStatistics.getPeriodStart()).setLoginMode(loginStatistics.getLoginMode())
+                    .setTotalCount(loginStatistics.getTotalCount()).setFailureCount(loginStatistics.getFailureCount())
+                    .setUniqueUserCount(loginStatistics.getUniqueUserCount())
+                    .setUniqueIpCount(loginStatistics.getUniqueIpCount());
+            //2.2.计算登录失败率
+            vo.setFailureRate(Objects.isNull(vo.getTotalCount()) || vo.getTotalCount() == 0L ? 0D
+                    : (double) vo.getFailureCount() / vo.getTotalCount());
+            loginStatisticsVos.add(vo);
+        }
+        return loginStatisticsVos;
+    }
+
+    /**
+     * 登录日志的导出列
+     * <li>是否系统字典在导出前一次性查询并转换成映射，导出每一行时直接查找，不再遍历字典项</li>
+     *
+     * @return java.util.List<io.github.telechow.garoupa.web.log.export.LogExportColumn<io.github.telechow.garoupa.api.entity.LoginLog>> 登录日志的导出列
+     * @author Telechow
+     * @since 2023/4/25 9:40
+     */
+    public List<LogExportColumn<LoginLog>> loginLogExportColumns() {
+        //1.数据准备
+        //1.1.是否系统字典，字典值到字典文本的映射
+        Map<String, String> isSuccessNameMap = systemDictHelper
+                .listSystemDictItemByDictCode(SystemDictEnum.TRUE_FALSE.getDictCode())
+                .stream()
+                .collect(Collectors.toMap(SystemDictItemVo::getItemValue, SystemDictItemVo::getItemText, (a, b) -> a));
+
+        //2.导出列
+        return List.of(
+                new LogExportColumn<>("id", "登录日志id", LoginLog::getId),
+                new LogExportColumn<>("userId", "用户id", LoginLog::getUserId),
+                new LogExportColumn<>("loginMode", "登录方式", LoginLog::getLoginMode),
+                new LogExportColumn<>("isSuccess", "是否登录成功", LoginLog::getIsSuccess),
+                new LogExportColumn<>("isSuccessName", "是否登录成功名称", ll -> Optional.ofNullable(ll.getIsSuccess())
+                        .map(is -> isSuccessNameMap.get(is.toString()))
+                        .orElse(null)),
+                new LogExportColumn<>("remoteIp", "用户ip", LoginLog::getRemoteIp),
+                new LogExportColumn<>("userAgent", "用户代理", LoginLog::getUserAgent),
+                new LogExportColumn<>("loginParam", "登录参数", LoginLog::getLoginParam),
+                new LogExportColumn<>("createTime", "登录时间", LoginLog::getCreateTime)
+        );
+    }
 }
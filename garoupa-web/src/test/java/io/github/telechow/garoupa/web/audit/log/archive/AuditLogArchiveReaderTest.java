@@ -0,0 +1,266 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.archive;
+
+import io.github.telechow.garoupa.api.entity.AuditLog;
+import io.github.telechow.garoupa.api.enums.audit.log.LogTypeEnum;
+import io.github.telechow.garoupa.web.audit.log.properties.AuditLogProperties;
+import io.github.telechow.garoupa.web.log.ip.IpAddressCodec;
+import io.github.telechow.garoupa.web.log.ip.IpAddressRange;
+import io.github.telechow.garoupa.web.log.page.LogPageCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 审计日志归档读取器测试，写入两个分段文件后按照分页查询的条件读回
+ * <li>较新的审计日志写在文件名较大的分段文件中，验证读取器按照创建时间而不是文件名排列分段文件</li>
+ * <li>行组很小，每个分段文件有多个行组，验证按照行组的最小值与最大值跳过行组时不会漏掉审计日志</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 19:00
+ */
+class AuditLogArchiveReaderTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2023, 1, 1, 0, 0, 0);
+
+    private static final int SECONDS = 24;
+
+    private static final int ROWS_PER_SECOND = 2;
+
+    private static final int ROW_GROUP_SIZE = 5;
+
+    private static final long NO_LIMIT = 1000L;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * 按照创建时间降序、id升序排列的所有审计日志，即数据库分页查询返回的顺序
+     */
+    private final List<AuditLog> auditLogs = auditLogs();
+
+    private AuditLogArchiveReader reader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        //1.较新的一半写入文件名较大的分段文件，较旧的一半写入文件名较小的分段文件
+        int half = auditLogs.size() / 2;
+        writeSegment(tempDir.resolve("00000002" + AuditLogArchiveReader.SEGMENT_SUFFIX), auditLogs.subList(0, half));
+        writeSegment(tempDir.resolve("00000001" + AuditLogArchiveReader.SEGMENT_SUFFIX)
+                , auditLogs.subList(half, auditLogs.size()));
+
+        //2.只刷新一次，不启动定时刷新
+        AuditLogProperties auditLogProperties = new AuditLogProperties();
+        auditLogProperties.getArchive().setEnabled(true);
+        auditLogProperties.getArchive().setDirectory(tempDir.toString());
+        reader = new AuditLogArchiveReader(auditLogProperties);
+        reader.refresh();
+    }
+
+    @Test
+    void roundTripKeepsEveryColumnInCreateTimeDescIdAscOrder() {
+        assertEquals(2, reader.segments().size());
+        assertTrue(reader.segments().get(0).minCreateTime() > reader.segments().get(1).maxCreateTime());
+        assertTrue(reader.segments().get(0).rowGroups().size() > 1);
+
+        AuditLogArchiveResult result = reader.query(query(null, null, null, null, null, null, null, 0L, NO_LIMIT
+                , true));
+
+        assertEquals(auditLogs.size(), result.total());
+        assertEquals(auditLogs.size(), result.records().size());
+        for (int i = 0; i < auditLogs.size(); i++) {
+            AuditLog expected = auditLogs.get(i);
+            AuditLog actual = result.records().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getUserId(), actual.getUserId());
+            assertEquals(expected.getRemoteIp(), actual.getRemoteIp());
+            assertEquals(expected.getUserAgent(), actual.getUserAgent());
+            assertEquals(expected.getRequestUri(), actual.getRequestUri());
+            assertEquals(expected.getMethod(), actual.getMethod());
+            assertEquals(expected.getRequestParams(), actual.getRequestParams());
+            assertEquals(expected.getExecuteDuration(), actual.getExecuteDuration());
+            assertEquals(expected.getLogType(), actual.getLogType());
+            assertEquals(expected.getExceptionMessage(), actual.getExceptionMessage());
+            assertEquals(expected.getCreateTime(), actual.getCreateTime());
+        }
+    }
+
+    @Test
+    void filtersMatchSameRowsAsDatabaseQuery() {
+        //1.标题、用户id、日志类型
+        assertMatches(query("修改用户", null, null, null, null, null, null, 0L, NO_LIMIT, true)
+                , a -> "修改用户".equals(a.getTitle()));
+        assertMatches(query(null, 3L, null, null, null, null, null, 0L, NO_LIMIT, true)
+                , a -> a.getUserId() == 3L);
+        assertMatches(query(null, null, null, LogTypeEnum.ERROR.getCode(), null, null, null, 0L, NO_LIMIT, true)
+                , a -> Objects.equals(LogTypeEnum.ERROR.getCode(), a.getLogType()));
+
+        //2.ip地址网段和单个IPv6地址
+        IpAddressRange cidr = IpAddressCodec.parseCidr("192.168.1.0/24");
+        assertMatches(query(null, null, cidr, null, null, null, null, 0L, NO_LIMIT, true)
+                , a -> a.getRemoteIp().startsWith("192.168.1."));
+        byte[] ipv6 = IpAddressCodec.encode("2001:db8::2");
+        assertMatches(query(null, null, new IpAddressRange(ipv6, ipv6), null, null, null, null, 0L, NO_LIMIT, true)
+                , a -> "2001:db8::2".equals(a.getRemoteIp()));
+
+        //3.请求时间起（含）不足一秒的部分向上取整，请求时间止（不含）
+        LocalDateTime begin = BASE_TIME.plusSeconds(5L).plusNanos(1L);
+        LocalDateTime end = BASE_TIME.plusSeconds(15L);
+        assertMatches(query(null, null, null, null, begin, end, null, 0L, NO_LIMIT, true)
+                , a -> !a.getCreateTime().isBefore(begin) && a.getCreateTime().isBefore(end));
+
+        //4.组合条件
+        assertMatches(query("登录", 1L, null, null, begin, null, null, 0L, NO_LIMIT, true)
+                , a -> "登录".equals(a.getTitle()) && a.getUserId() == 1L && !a.getCreateTime().isBefore(begin));
+    }
+
+    @Test
+    void skipAndLimitPageAcrossSegments() {
+        //1.偏移量落在第一个分段文件内、跨越两个分段文件、落在第二个分段文件内、超出总条数
+        int half = auditLogs.size() / 2;
+        for (long skip : new long[]{0L, 5L, half - 2L, half, half + 3L, auditLogs.size() - 1L, auditLogs.size()}) {
+            List<AuditLog> expected = auditLogs.subList((int) skip, (int) Math.min(auditLogs.size(), skip + 5L));
+            AuditLogArchiveResult counted = reader.query(query(null, null, null, null, null, null, null, skip, 5L
+                    , true));
+            assertIds(expected, counted.records());
+            assertEquals(auditLogs.size(), counted.total());
+
+            AuditLogArchiveResult uncounted = reader.query(query(null, null, null, null, null, null, null, skip, 5L
+                    , false));
+            assertIds(expected, uncounted.records());
+            assertNull(uncounted.total());
+        }
+
+        //2.偏移量只计算满足条件的审计日志
+        List<AuditLog> userTwo = auditLogs.stream().filter(a -> a.getUserId() == 2L).toList();
+        AuditLogArchiveResult result = reader.query(query(null, 2L, null, null, null, null, null, 3L, 4L, true));
+        assertIds(userTwo.subList(3, 7), result.records());
+        assertEquals(userTwo.size(), result.total());
+    }
+
+    @Test
+    void cursorSeeksPastSameCreateTimeByIdAndAcrossSegments() {
+        //1.游标是同一秒内的第一条时，下一条是同一秒内id更大的审计日志；游标是第一个分段文件的最后一条时，从第二个分段文件继续
+        int half = auditLogs.size() / 2;
+        for (int index : new int[]{0, 6, half - 2, half - 1, half, auditLogs.size() - 2}) {
+            AuditLog last = auditLogs.get(index);
+            LogPageCursor cursor = new LogPageCursor(last.getCreateTime(), last.getId());
+            AuditLogArchiveResult result = reader.query(query(null, null, null, null, null, null, cursor, 0L, 3L
+                    , false));
+            assertIds(auditLogs.subList(index + 1, Math.min(auditLogs.size(), index + 4)), result.records());
+        }
+
+        //2.用每页最后一条审计日志作为游标翻页，翻完所有页得到全部审计日志，不重复也不遗漏
+        List<AuditLog> pages = new ArrayList<>();
+        LogPageCursor cursor = null;
+        while (true) {
+            List<AuditLog> page = reader.query(query(null, null, null, null, null, null, cursor, 0L, 5L, false))
+                    .records();
+            if (page.isEmpty()) {
+                break;
+            }
+            pages.addAll(page);
+            AuditLog last = page.get(page.size() - 1);
+            cursor = new LogPageCursor(last.getCreateTime(), last.getId());
+        }
+        assertIds(auditLogs, pages);
+
+        //3.游标与过滤条件同时使用
+        List<AuditLog> userOne = auditLogs.stream().filter(a -> a.getUserId() == 1L).toList();
+        AuditLog last = userOne.get(2);
+        AuditLogArchiveResult result = reader.query(query(null, 1L, null, null, null, null
+                , new LogPageCursor(last.getCreateTime(), last.getId()), 0L, NO_LIMIT, false));
+        assertIds(userOne.subList(3, userOne.size()), result.records());
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    private void assertMatches(AuditLogArchiveQuery query, Predicate<AuditLog> predicate) {
+        List<AuditLog> expected = auditLogs.stream().filter(predicate).toList();
+        assertTrue(!expected.isEmpty() && expected.size() < auditLogs.size());
+        AuditLogArchiveResult result = reader.query(query);
+        assertIds(expected, result.records());
+        assertEquals(expected.size(), result.total());
+    }
+
+    private static void assertIds(List<AuditLog> expected, List<AuditLog> actual) {
+        assertEquals(expected.stream().map(AuditLog::getId).toList(), actual.stream().map(AuditLog::getId).toList());
+    }
+
+    private static AuditLogArchiveQuery query(String title, Long userId, IpAddressRange remoteIpRange
+            , Integer logType, LocalDateTime createTimeBegin, LocalDateTime createTimeEnd, LogPageCursor cursor
+            , long skip, long limit, boolean searchCount) {
+        return new AuditLogArchiveQuery(title, userId, remoteIpRange, logType, createTimeBegin, createTimeEnd, cursor
+                , skip, limit, searchCount);
+    }
+
+    private static void writeSegment(Path path, List<AuditLog> segmentAuditLogs) throws IOException {
+        try (AuditLogSegmentWriter writer = new AuditLogSegmentWriter(path, ROW_GROUP_SIZE, 6)) {
+            for (AuditLog auditLog : segmentAuditLogs) {
+                writer.write(auditLog);
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * 构造测试数据，每秒两条审计日志；同一秒内id升序，不同秒之间id没有规律
+     */
+    private static List<AuditLog> auditLogs() {
+        List<AuditLog> auditLogs = new ArrayList<>();
+        String[] titles = {"登录", "修改用户", "删除角色"};
+        for (int second = SECONDS - 1; second >= 0; second--) {
+            for (int k = 0; k < ROWS_PER_SECOND; k++) {
+                int i = auditLogs.size();
+                boolean error = i % 5 == 0;
+                String remoteIp = switch (i % 4) {
+                    case 0 -> "192.168.1." + i;
+                    case 1 -> "10.0.0." + i;
+                    case 2 -> "2001:db8::" + Integer.toHexString(i);
+                    default -> "192.168.2." + i;
+                };
+                auditLogs.add(new AuditLog()
+                        .setId((second * 37L % 50L) * 10L + k + 1L)
+                        .setTitle(titles[i % titles.length])
+                        .setUserId(i % 4 + 1L)
+                        .setRemoteIp(remoteIp)
+                        .setUserAgent("Mozilla/5.0 测试-" + i)
+                        .setRequestUri("/audit/" + i)
+                        .setMethod(i % 2 == 0 ? "GET" : "POST")
+                        .setRequestParams("{\"i\":" + i + ",\"name\":\"名称\"}")
+                        .setExecuteDuration(i * 3L)
+                        .setLogType(error ? LogTypeEnum.ERROR.getCode() : LogTypeEnum.NORMAL.getCode())
+                        .setExceptionMessage(error ? "异常" + i : null)
+                        .setCreateTime(BASE_TIME.plusSeconds(second)));
+            }
+        }
+        return auditLogs;
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.latency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 耗时直方图测试
+ *
+ * @author Telechow
+ * @since 2023/4/25 19:10
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void bucketBoundariesAroundFirstDoubling() {
+        //1.小于32微秒每微秒一个桶
+        assertEquals(31, LatencyHistogram.bucketIndex(31L));
+        assertEquals(31L, LatencyHistogram.bucketUpperBound(31));
+
+        //2.[32, 64)每2微秒一个桶
+        assertEquals(32, LatencyHistogram.bucketIndex(32L));
+        assertEquals(32, LatencyHistogram.bucketIndex(33L));
+        assertEquals(33, LatencyHistogram.bucketIndex(34L));
+        assertEquals(33L, LatencyHistogram.bucketUpperBound(32));
+        assertEquals(47, LatencyHistogram.bucketIndex(63L));
+        assertEquals(63L, LatencyHistogram.bucketUpperBound(47));
+
+        //3.[64, 128)每4微秒一个桶
+        assertEquals(48, LatencyHistogram.bucketIndex(64L));
+        assertEquals(67L, LatencyHistogram.bucketUpperBound(48));
+    }
+
+    @Test
+    void lastBucketEndsAtMaxTrackableMicros() {
+        int lastIndex = LatencyHistogram.BUCKET_COUNT - 1;
+        assertEquals(lastIndex, LatencyHistogram.bucketIndex(LatencyHistogram.MAX_TRACKABLE_MICROS));
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_MICROS, LatencyHistogram.bucketUpperBound(lastIndex));
+
+        //超出最大值的耗时记录在最后一个桶中，负数记录为0
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(LatencyHistogram.MAX_TRACKABLE_MICROS * 4, false);
+        histogram.record(-5L, false);
+        LatencyHistogram.Merged merged = merged(histogram);
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_MICROS, merged.maxMicros());
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_MICROS, merged.percentile(100D));
+        assertEquals(0L, merged.percentile(50D));
+    }
+
+    @Test
+    void bucketsAreContiguousAndUpperBoundsMapBack() {
+        for (int index = 0; index < LatencyHistogram.BUCKET_COUNT; index++) {
+            long upperBound = LatencyHistogram.bucketUpperBound(index);
+            assertEquals(index, LatencyHistogram.bucketIndex(upperBound));
+            if (index + 1 < LatencyHistogram.BUCKET_COUNT) {
+                assertEquals(index + 1, LatencyHistogram.bucketIndex(upperBound + 1));
+            }
+        }
+    }
+
+    @Test
+    void percentilesAreWithinOneSixteenthAboveExactValue() {
+        //1.耗时在对数尺度上均匀分布，覆盖微秒到十几分钟
+        Random random = new Random(20230425L);
+        long[] values = new long[20000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.pow(10D, random.nextDouble() * 9D);
+            histogram.record(values[i], i % 10 == 0);
+        }
+        Arrays.sort(values);
+        LatencyHistogram.Merged merged = merged(histogram);
+        assertEquals(values.length, merged.count());
+        assertEquals(values.length / 10, merged.errorCount());
+        assertEquals(Arrays.stream(values).sum(), merged.totalMicros());
+        assertEquals(values[values.length - 1], merged.maxMicros());
+
+        //2.百分位数不小于精确值，且超出的部分不超过精确值的1/16
+        for (double percentile : new double[]{1D, 50D, 90D, 95D, 99D, 99.9D, 100D}) {
+            long exact = values[(int) Math.ceil(values.length * percentile / 100D) - 1];
+            long estimated = merged.percentile(percentile);
+            assertTrue(estimated >= exact, percentile + "百分位数" + estimated + "小于精确值" + exact);
+            assertTrue((estimated - exact) * 16 <= exact, percentile + "百分位数" + estimated + "超出精确值" + exact
+                    + "的1/16");
+        }
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        assertEquals(0L, merged(new LatencyHistogram()).percentile(99D));
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    private static LatencyHistogram.Merged merged(LatencyHistogram histogram) {
+        LatencyHistogram.Merged merged = new LatencyHistogram.Merged();
+        histogram.mergeInto(merged);
+        return merged;
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.audit.log.latency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 滚动窗口的耗时直方图测试，时间由测试传入，不依赖真实的时钟
+ *
+ * @author Telechow
+ * @since 2023/4/25 19:12
+ */
+class RollingLatencyWindowTest {
+
+    private static final long SLOT_NANOS = TimeUnit.SECONDS.toNanos(1L);
+
+    private static final int SLOT_COUNT = 10;
+
+    @Test
+    void mergeDropsSlotsOutsideWindow() {
+        RollingLatencyWindow window = new RollingLatencyWindow(SLOT_NANOS * SLOT_COUNT, SLOT_COUNT);
+        window.record(0L, 100L, false);
+        window.record(5 * SLOT_NANOS, 200L, true);
+
+        //1.两个时间片都在窗口内
+        LatencyHistogram.Merged merged = window.merge(10 * SLOT_NANOS - 1);
+        assertEquals(2L, merged.count());
+        assertEquals(1L, merged.errorCount());
+        assertEquals(300L, merged.totalMicros());
+
+        //2.第一个时间片刚好滑出窗口
+        merged = window.merge(10 * SLOT_NANOS);
+        assertEquals(1L, merged.count());
+        assertEquals(200L, merged.maxMicros());
+
+        //3.两个时间片都滑出窗口
+        assertEquals(0L, window.merge(15 * SLOT_NANOS).count());
+    }
+
+    @Test
+    void recordReplacesExpiredSlotOnRing() {
+        RollingLatencyWindow window = new RollingLatencyWindow(SLOT_NANOS * SLOT_COUNT, SLOT_COUNT);
+        window.record(0L, 100L, false);
+        window.record(5 * SLOT_NANOS, 200L, false);
+
+        //时间片0过期后，同一个环位置被时间片10复用，旧的耗时不再计入
+        window.record(10 * SLOT_NANOS, 300L, false);
+        LatencyHistogram.Merged merged = window.merge(10 * SLOT_NANOS);
+        assertEquals(2L, merged.count());
+        assertEquals(500L, merged.totalMicros());
+        assertEquals(300L, merged.maxMicros());
+
+        //比当前时间片旧的记录不会替换较新的时间片
+        window.record(0L, 400L, false);
+        merged = window.merge(10 * SLOT_NANOS);
+        assertEquals(3L, merged.count());
+        assertEquals(900L, merged.totalMicros());
+    }
+
+    @Test
+    void concurrentRecordsIntoNewSlotAreNotLost() throws Exception {
+        int threads = 8;
+        int rounds = 500;
+        int recordsPerRound = 10;
+        RollingLatencyWindow[] windows = new RollingLatencyWindow[rounds];
+        for (int round = 0; round < rounds; round++) {
+            windows[round] = new RollingLatencyWindow(SLOT_NANOS * SLOT_COUNT, SLOT_COUNT);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        try {
+            //每一轮所有线程同时向一个新的时间片记录，时间片只能被替换一次，否则先记录的耗时会随被覆盖的时间片丢失
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int round = 0; round < rounds; round++) {
+                        barrier.await(30L, TimeUnit.SECONDS);
+                        for (int i = 0; i < recordsPerRound; i++) {
+                            windows[round].record(SLOT_NANOS, i, false);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60L, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (RollingLatencyWindow window : windows) {
+            assertEquals((long) threads * recordsPerRound, window.merge(SLOT_NANOS).count());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.captcha.email;
+
+import io.github.telechow.garoupa.api.constant.CaptchaConstant;
+import io.github.telechow.garoupa.config.email.properties.EmailProperties;
+import io.github.telechow.garoupa.web.captcha.properties.EmailCodeProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 邮件验证码发件箱测试，使用{@link LocalSmtpServer}代替真实的邮件服务器
+ *
+ * @author Telechow
+ * @since 2023/4/25 17:42
+ */
+class EmailCodeOutboxTest {
+
+    private LocalSmtpServer smtpServer;
+
+    private RedissonClient redissonClient;
+
+    private EmailCodeProperties emailCodeProperties;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtpServer = new LocalSmtpServer();
+        redissonClient = mock(RedissonClient.class);
+        doReturn(mock(RBucket.class)).when(redissonClient).getBucket(anyString(), any(Codec.class));
+        emailCodeProperties = new EmailCodeProperties();
+        emailCodeProperties.getOutbox().setRetryBackoff(Duration.ofMillis(10L));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        smtpServer.close();
+    }
+
+    @Test
+    void sendsQueuedCodesInOneBatchOverOneConnection() throws Exception {
+        EmailCodeOutbox outbox = outbox();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(outbox.offer("user" + i + "@garoupa.local", "code0" + i));
+        }
+        outbox.afterPropertiesSet();
+        try {
+            awaitReceived(3);
+            assertEquals(1, smtpServer.getConnectionCount());
+            assertEquals(Set.of("code00", "code01", "code02"), receivedCodes());
+        } finally {
+            outbox.destroy();
+        }
+        verify(redissonClient, never()).getBucket(anyString(), any(Codec.class));
+    }
+
+    @Test
+    void destroyDrainsQueuedCodesBeforeShutdown() throws Exception {
+        emailCodeProperties.getOutbox().setBatchSize(1);
+        EmailCodeOutbox outbox = outbox();
+        outbox.afterPropertiesSet();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(outbox.offer("user" + i + "@garoupa.local", "code0" + i));
+        }
+
+        outbox.destroy();
+
+        assertEquals(5, smtpServer.getReceivedMails().size());
+        assertFalse(outbox.offer("late@garoupa.local", "late00"));
+        verify(redissonClient, never()).getBucket(anyString(), any(Codec.class));
+    }
+
+    @Test
+    void destroyRevokesCodesStillUnsentAfterTimeout() throws Exception {
+        smtpServer.setGreetingDelayMillis(2000L);
+        emailCodeProperties.getOutbox().setBatchSize(1);
+        emailCodeProperties.getOutbox().setShutdownTimeout(Duration.ofMillis(200L));
+        EmailCodeOutbox outbox = outbox();
+        outbox.afterPropertiesSet();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(outbox.offer("user" + i + "@garoupa.local", "code0" + i));
+        }
+
+        long begin = System.nanoTime();
+        outbox.destroy();
+        assertTrue(Duration.ofNanos(System.nanoTime() - begin).toMillis() < 1000L);
+
+        //邮件服务器响应超时的那一批邮件由发送线程撤销，其余的在关闭时撤销
+        for (int i = 0; i < 5; i++) {
+            verify(redissonClient, timeout(5000L)).getBucket(
+                    eq(CaptchaConstant.EMAIL_CODE_KEY_PREFIX + "code0" + i), any(Codec.class));
+            verify(redissonClient, timeout(5000L)).getBucket(
+                    eq(CaptchaConstant.EMAIL_CODE_SENT_KEY_PREFIX + "user" + i + "@garoupa.local"), any(Codec.class));
+        }
+        assertTrue(smtpServer.getReceivedMails().isEmpty());
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    private EmailCodeOutbox outbox() {
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("127.0.0.1");
+        javaMailSender.setPort(smtpServer.getPort());
+        javaMailSender.setDefaultEncoding(StandardCharsets.UTF_8.name());
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.setProperty("mail.smtp.connectiontimeout", "500");
+        javaMailProperties.setProperty("mail.smtp.timeout", "500");
+        javaMailSender.setJavaMailProperties(javaMailProperties);
+
+        EmailProperties emailProperties = new EmailProperties();
+        emailProperties.setUsername("noreply@garoupa.local");
+        return new EmailCodeOutbox(javaMailSender, emailProperties, emailCodeProperties, redissonClient
+                , new SimpleMeterRegistry());
+    }
+
+    private void awaitReceived(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (smtpServer.getReceivedMails().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertEquals(count, smtpServer.getReceivedMails().size());
+    }
+
+    private Set<String> receivedCodes() throws Exception {
+        Session session = Session.getInstance(new Properties());
+        List<LocalSmtpServer.ReceivedMail> receivedMails = smtpServer.getReceivedMails();
+        Set<String> codes = new HashSet<>();
+        for (LocalSmtpServer.ReceivedMail receivedMail : receivedMails) {
+            MimeMessage message = new MimeMessage(session
+                    , new ByteArrayInputStream(receivedMail.data().getBytes(StandardCharsets.UTF_8)));
+            String text = message.getContent().toString().trim();
+            codes.add(text.substring(text.length() - 6));
+        }
+        return codes;
+    }
+}
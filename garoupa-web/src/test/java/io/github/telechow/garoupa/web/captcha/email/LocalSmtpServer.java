@@ -0,0 +1,185 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.captcha.email;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用的本地smtp服务器
+ * <li>只监听回环地址，接收并记录邮件，不做任何投递，替代真实的邮件服务器</li>
+ * <li>只实现发送邮件需要的最小命令集，不支持STARTTLS和AUTH</li>
+ * <li>可以设置问候语的延迟时间，模拟响应缓慢的邮件服务器</li>
+ *
+ * @author Telechow
+ * @since 2023/4/25 17:40
+ */
+public class LocalSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final List<ReceivedMail> receivedMails = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private volatile long greetingDelayMillis;
+
+    public LocalSmtpServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor.execute(this::accept);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public List<ReceivedMail> getReceivedMails() {
+        return receivedMails;
+    }
+
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    public void setGreetingDelayMillis(long greetingDelayMillis) {
+        this.greetingDelayMillis = greetingDelayMillis;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connectionCount.incrementAndGet();
+                executor.execute(() -> handle(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()
+                     , StandardCharsets.UTF_8));
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()
+                     , StandardCharsets.UTF_8))) {
+            //1.发送问候语，需要时模拟响应缓慢的邮件服务器
+            if (greetingDelayMillis > 0) {
+                Thread.sleep(greetingDelayMillis);
+            }
+            reply(writer, "220 localhost ESMTP");
+
+            //2.逐条处理命令，一个连接上可以发送多封邮件
+            String from = null;
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(writer, "250 localhost");
+                    case "MAIL" -> {
+                        from = address(line);
+                        recipients.clear();
+                        reply(writer, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        recipients.add(address(line));
+                        reply(writer, "250 OK");
+                    }
+                    case "DATA" -> {
+                        reply(writer, "354 End data with <CR><LF>.<CR><LF>");
+                        receivedMails.add(new ReceivedMail(from, List.copyOf(recipients), readData(reader)));
+                        reply(writer, "250 OK");
+                    }
+                    case "RSET", "NOOP" -> reply(writer, "250 OK");
+                    case "QUIT" -> {
+                        reply(writer, "221 Bye");
+                        return;
+                    }
+                    default -> reply(writer, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            //客户端断开连接
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void reply(BufferedWriter writer, String response) throws IOException {
+        writer.write(response);
+        writer.write("\r\n");
+        writer.flush();
+    }
+
+    private static String address(String line) {
+        int begin = line.indexOf('<');
+        int end = line.indexOf('>', begin + 1);
+        return begin < 0 || end < 0 ? line.substring(line.indexOf(':') + 1).trim() : line.substring(begin + 1, end);
+    }
+
+    private static String readData(BufferedReader reader) throws IOException {
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null && !".".equals(line)) {
+            //去掉透明处理时加上的点
+            data.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+        }
+        return data.toString();
+    }
+
+    /**
+     * 接收到的邮件
+     *
+     * @param from       发件人
+     * @param recipients 收件人
+     * @param data       邮件原文
+     * @author Telechow
+     * @since 2023/4/25 17:40
+     */
+    public record ReceivedMail(String from, List<String> recipients, String data) {
+
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.ip;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * ip地址编解码器测试
+ *
+ * @author Telechow
+ * @since 2023/4/25 18:10
+ */
+class IpAddressCodecTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"::", "::1", "1::", "1::8", "2001:db8::1", "ABCD:ef01::", "1:2:3:4:5:6:7:8"
+            , "2001:0db8:0000:0000:0000:ff00:0042:8329", "::ffff:192.168.0.1", "1:2:3:4:5:6:1.2.3.4"
+            , "192.168.0.1", "0.0.0.0"})
+    void encodesLiteralsSameAsInetAddress(String ip) throws Exception {
+        byte[] expected = InetAddress.getByName(ip).getAddress();
+        if (expected.length == 4) {
+            byte[] mapped = new byte[IpAddressCodec.LENGTH];
+            mapped[10] = (byte) 0xff;
+            mapped[11] = (byte) 0xff;
+            System.arraycopy(expected, 0, mapped, 12, 4);
+            expected = mapped;
+        }
+        assertArrayEquals(expected, IpAddressCodec.encode(ip));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"g:1", "localhost:1", "example.com", ":::", "1:::2", "1::2::3", ":1", "1:", "12345::"
+            , "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7::8", "::1.2.3", "::1.2.3.4.5", "1.2.3.4::", "fe80::1%"
+            , "256.0.0.1", "１::"})
+    void rejectsMalformedInputWithoutResolving(String ip) {
+        assertNull(IpAddressCodec.encode(ip));
+    }
+}
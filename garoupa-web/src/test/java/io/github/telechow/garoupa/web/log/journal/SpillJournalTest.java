@@ -0,0 +1,391 @@
+/**
+ * Copyright 2023 telechow
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.telechow.garoupa.web.log.journal;
+
+import io.github.telechow.garoupa.web.log.writer.BatchingLogWriter;
+import io.github.telechow.garoupa.web.log.writer.BatchingLogWriterProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 溢出日志文件测试，数据库用按照id忽略重复的内存表代替
+ *
+ * @author Telechow
+ * @since 2023/4/25 18:50
+ */
+class SpillJournalTest {
+
+    private static final String NAME = "test-log";
+
+    /**
+     * 重放间隔很长的日志文件只追加不重放，用于在重启之前准备分段文件
+     */
+    private static final Duration NO_REPLAY = Duration.ofHours(1L);
+
+    private static final Duration FAST_REPLAY = Duration.ofMillis(20L);
+
+    private static final long AWAIT_MILLIS = 5000L;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * 模拟数据库中的表，insert忽略已经存在的id
+     */
+    private final Map<Long, JournalEntry> rows = new ConcurrentHashMap<>();
+
+    /**
+     * 重放交给数据库的记录条数，包括被忽略的重复记录
+     */
+    private final AtomicInteger deliveries = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void replayAfterCrashBetweenInsertAndCheckpointWritesEachEntryOnce() throws Exception {
+        //1.追加后不重放就重启
+        SpillJournal<JournalEntry> journal = open(NO_REPLAY, 64, this::insertIgnore);
+        journal.spill(entries(1, 5));
+        journal.destroy();
+
+        //2.重放时写入数据库成功但保存检查点之前进程退出
+        journal = open(FAST_REPLAY, 64, batch -> {
+            insertIgnore(batch);
+            throw new IllegalStateException("保存检查点之前进程退出");
+        });
+        await(() -> rows.size() == 5);
+        journal.destroy();
+        assertTrue(Files.notExists(checkpointPath()));
+
+        //3.重启后从头重放，重复的记录被忽略，检查点保存后不再重放
+        deliveries.set(0);
+        journal = open(FAST_REPLAY, 64, this::insertIgnore);
+        await(() -> Files.exists(checkpointPath()));
+        journal.destroy();
+        assertEquals(5, deliveries.get());
+        assertEquals(ids(1, 5), rows.keySet());
+
+        deliveries.set(0);
+        journal = open(FAST_REPLAY, 64, this::insertIgnore);
+        Thread.sleep(FAST_REPLAY.toMillis() * 10);
+        journal.destroy();
+        assertEquals(0, deliveries.get());
+    }
+
+    @Test
+    void truncatedTrailingRecordIsCutOffOnOpen() throws Exception {
+        SpillJournal<JournalEntry> journal = open(NO_REPLAY, 64, this::insertIgnore);
+        journal.spill(entries(1, 3));
+        journal.destroy();
+
+        //1.模拟进程在写入记录的过程中退出，末尾只留下记录头和一部分内容
+        Path segmentPath = segmentPath(0L);
+        int end = endOffset(segmentPath);
+        byte[] partialPayload = new byte[60];
+        Arrays.fill(partialPayload, (byte) 0x7f);
+        writeAt(segmentPath, end, ByteBuffer.allocate(8 + partialPayload.length).putInt(64).putInt(0x12345678)
+                .put(partialPayload).flip());
+
+        //2.打开时截掉半条记录，新记录从截断的位置开始追加，之后残留的内容清零
+        journal = open(NO_REPLAY, 64, this::insertIgnore);
+        journal.spill(entries(4, 4));
+        journal.destroy();
+        List<Integer> offsets = recordOffsets(segmentPath);
+        assertEquals(4, offsets.size());
+        assertEquals(end, offsets.get(3));
+        assertTrue(isZero(segmentPath, endOffset(segmentPath), 8 + partialPayload.length));
+
+        //3.重放只得到完整的记录
+        journal = open(FAST_REPLAY, 64, this::insertIgnore);
+        await(() -> rows.size() == 4);
+        journal.destroy();
+        assertEquals(ids(1, 4), rows.keySet());
+    }
+
+    @Test
+    void corruptTrailingRecordIsCutOffOnOpen() throws Exception {
+        SpillJournal<JournalEntry> journal = open(NO_REPLAY, 64, this::insertIgnore);
+        journal.spill(entries(1, 3));
+        journal.destroy();
+
+        //1.最后一条记录长度完整，但内容与校验值不一致
+        Path segmentPath = segmentPath(0L);
+        flipPayloadByte(segmentPath, recordOffsets(segmentPath).get(2));
+
+        //2.打开时从损坏的记录处截断，新记录覆盖损坏的记录
+        journal = open(NO_REPLAY, 64, this::insertIgnore);
+        journal.spill(entries(4, 4));
+        journal.destroy();
+
+        journal = open(FAST_REPLAY, 64, this::insertIgnore);
+        await(() -> rows.size() == 3);
+        journal.destroy();
+        assertEquals(Set.of(1L, 2L, 4L), rows.keySet());
+    }
+
+    @Test
+    void checksumMismatchSkipsRestOfSegment() throws Exception {
+        //1.追加到多个分段文件
+        SpillJournal<JournalEntry> journal = open(NO_REPLAY, 64, this::insertIgnore);
+        journal.spill(entries(1, 10));
+        journal.destroy();
+        int firstSegmentRecords = recordOffsets(segmentPath(0L)).size();
+        assertTrue(firstSegmentRecords >= 3 && firstSegmentRecords < 10);
+
+        //2.第一个分段文件中第二条记录损坏
+        flipPayloadByte(segmentPath(0L), recordOffsets(segmentPath(0L)).get(1));
+
+        //3.损坏记录之后的内容被跳过，从下一个分段文件继续重放
+        Set<Long> expected = new TreeSet<>(ids(firstSegmentRecords + 1, 10));
+        expected.add(1L);
+        journal = open(FAST_REPLAY, 64, this::insertIgnore);
+        await(() -> rows.size() == expected.size() && Files.exists(checkpointPath()));
+        journal.destroy();
+        assertEquals(expected, rows.keySet());
+    }
+
+    @Test
+    void segmentsBeforeCheckpointAreDeleted() throws Exception {
+        SpillJournal<JournalEntry> journal = open(NO_REPLAY, 64, this::insertIgnore);
+        journal.spill(entries(1, 20));
+        journal.destroy();
+        List<Path> segments = segmentPaths();
+        assertTrue(segments.size() >= 3);
+
+        //重放完成后只保留正在追加的最后一个分段文件
+        Path lastSegment = segments.get(segments.size() - 1);
+        journal = open(FAST_REPLAY, 64, this::insertIgnore);
+        await(() -> rows.size() == 20 && segmentPaths().size() == 1);
+        journal.destroy();
+        assertEquals(List.of(lastSegment), segmentPaths());
+        assertEquals(ids(1, 20), rows.keySet());
+    }
+
+    @Test
+    void fullJournalRejectsWholeBatch() throws Exception {
+        SpillJournal<JournalEntry> journal = open(NO_REPLAY, 2, this::insertIgnore);
+        try {
+            //1.放不下整批日志时整批拒绝，不追加其中任何一条
+            assertThrows(IllegalStateException.class, () -> journal.spill(entries(1, 40)));
+            assertEquals(0D, journalRecords("appended"));
+
+            //2.放得下的批次仍然可以追加
+            journal.spill(entries(1, 2));
+            assertEquals(2D, journalRecords("appended"));
+        } finally {
+            journal.destroy();
+        }
+    }
+
+    @Test
+    void writerCountsBatchAsFailedWhenJournalIsFull() throws Exception {
+        //1.用短记录填满溢出日志文件，之后更长的记录都放不下
+        SpillJournal<JournalEntry> journal = open(NO_REPLAY, 2, this::insertIgnore);
+        long id = 0;
+        try {
+            while (true) {
+                id++;
+                journal.spill(List.of(new JournalEntry(id, "x")));
+            }
+        } catch (IllegalStateException e) {
+            assertTrue(id > 2);
+        }
+
+        //2.写入数据库失败的批次溢出时日志文件已满，整批记为失败
+        BatchingLogWriterProperties writerProperties = new BatchingLogWriterProperties();
+        writerProperties.setFlushInterval(Duration.ofMillis(20L));
+        BatchingLogWriter<JournalEntry> writer = new BatchingLogWriter<>(NAME, writerProperties, batch -> {
+            throw new IllegalStateException("数据库不可用");
+        }, journal, meterRegistry);
+        writer.afterPropertiesSet();
+        List<JournalEntry> batch = entries(1000, 1009);
+        for (JournalEntry entry : batch) {
+            assertTrue(writer.offer(entry));
+        }
+        writer.destroy();
+        journal.destroy();
+
+        assertEquals(10D, writerEntries("failed"));
+        assertEquals(0D, writerEntries("spilled"));
+        assertEquals(id - 1, journalRecords("appended"));
+    }
+
+    /// ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓ 私有方法 ↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓↓
+
+    private SpillJournal<JournalEntry> open(Duration replayInterval, int maxSegments
+            , Consumer<List<JournalEntry>> replayWriter) throws IOException {
+        SpillJournalProperties properties = new SpillJournalProperties();
+        properties.setDirectory(tempDir.toString());
+        properties.setSegmentSize(DataSize.ofBytes(256L));
+        properties.setMaxSegments(maxSegments);
+        properties.setReplayInterval(replayInterval);
+        SpillJournal<JournalEntry> journal = new SpillJournal<>(NAME, properties, JournalEntry.class, replayWriter
+                , meterRegistry);
+        journal.afterPropertiesSet();
+        return journal;
+    }
+
+    private void insertIgnore(List<JournalEntry> batch) {
+        for (JournalEntry entry : batch) {
+            deliveries.incrementAndGet();
+            rows.putIfAbsent(entry.getId(), entry);
+        }
+    }
+
+    private static List<JournalEntry> entries(long fromId, long toId) {
+        List<JournalEntry> entries = new ArrayList<>();
+        for (long id = fromId; id <= toId; id++) {
+            entries.add(new JournalEntry(id, "entry-" + id));
+        }
+        return entries;
+    }
+
+    private static Set<Long> ids(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId).boxed().collect(Collectors.toSet());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + AWAIT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(10L);
+        }
+    }
+
+    private Path journalDirectory() {
+        return tempDir.resolve(NAME);
+    }
+
+    private Path checkpointPath() {
+        return journalDirectory().resolve("checkpoint");
+    }
+
+    private Path segmentPath(long seq) {
+        return journalDirectory().resolve(String.format("%020d", seq) + ".seg");
+    }
+
+    private List<Path> segmentPaths() {
+        try (Stream<Path> paths = Files.list(journalDirectory())) {
+            return paths.filter(p -> p.getFileName().toString().endsWith(".seg")).sorted().toList();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 按照长度字段依次找到分段文件中每条记录的起始位置，不校验内容
+     */
+    private static List<Integer> recordOffsets(Path segmentPath) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segmentPath));
+        List<Integer> offsets = new ArrayList<>();
+        int offset = 0;
+        while (offset + 8 <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + 8 + length > buffer.capacity()) {
+                break;
+            }
+            offsets.add(offset);
+            offset += 8 + length;
+        }
+        return offsets;
+    }
+
+    private static int endOffset(Path segmentPath) throws IOException {
+        List<Integer> offsets = recordOffsets(segmentPath);
+        if (offsets.isEmpty()) {
+            return 0;
+        }
+        int last = offsets.get(offsets.size() - 1);
+        return last + 8 + ByteBuffer.wrap(Files.readAllBytes(segmentPath)).getInt(last);
+    }
+
+    private static void flipPayloadByte(Path segmentPath, int recordOffset) throws IOException {
+        int position = recordOffset + 8 + 2;
+        byte[] bytes = Files.readAllBytes(segmentPath);
+        writeAt(segmentPath, position, ByteBuffer.wrap(new byte[]{(byte) (bytes[position] ^ 0x01)}));
+    }
+
+    private static void writeAt(Path path, int position, ByteBuffer content) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(content, position);
+            channel.force(true);
+        }
+    }
+
+    private static boolean isZero(Path path, int from, int length) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        for (int i = from; i < from + length && i < bytes.length; i++) {
+            if (bytes[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double journalRecords(String result) {
+        return meterRegistry.get("garoupa.log.journal.records").tag("result", result).counter().count();
+    }
+
+    private double writerEntries(String result) {
+        return meterRegistry.get("garoupa.log.writer.entries").tag("result", result).counter().count();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class JournalEntry {
+
+        private Long id;
+
+        private String text;
+    }
+}
@@ -60,6 +60,7 @@ CREATE TABLE `garoupa_audit_log` (
   `title` char(250) COLLATE utf8mb4_general_ci NOT NULL COMMENT '审计日志标题，非空；限250字',
   `user_id` bigint NOT NULL COMMENT '请求用户id，非空',
   `remote_ip` varchar(2000) COLLATE utf8mb4_general_ci NOT NULL COMMENT '请求用户ip地址，非空',
+  `remote_ip_bin` varbinary(16) DEFAULT NULL COMMENT 'ip地址的16字节二进制，IPv4地址编码成IPv4映射的IPv6地址；ip地址格式错误时为null',
   `user_agent` varchar(2000) COLLATE utf8mb4_general_ci NOT NULL COMMENT '用户代理，非空',
   `request_uri` varchar(1000) COLLATE utf8mb4_general_ci NOT NULL COMMENT '请求uri，非空',
   `method` char(20) COLLATE utf8mb4_general_ci NOT NULL COMMENT '请求方法，非空；http的请求方法',
@@ -68,10 +69,17 @@ CREATE TABLE `garoupa_audit_log` (
   `log_type` int NOT NULL COMMENT '日志类型，非空；0：正常；10：错误',
   `exception_message` varchar(5000) COLLATE utf8mb4_general_ci DEFAULT NULL COMMENT '异常信息，只有日志类型为错误才存在异常信息',
   `create_time` datetime NOT NULL COMMENT '请求时间，非空',
-  PRIMARY KEY (`id`),
+  PRIMARY KEY (`id`,`create_time`),
   KEY `garoupa_audit_log_title_user_id_create_time_index` (`title`,`user_id`,`create_time` DESC),
-  FULLTEXT KEY `garoupa_audit_log_remote_ip_fulltext_index` (`remote_ip`) /*!50100 WITH PARSER `ngram` */ 
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='审计日志表';
+  KEY `garoupa_audit_log_create_time_index` (`create_time` DESC),
+  KEY `garoupa_audit_log_remote_ip_bin_create_time_index` (`remote_ip_bin`,`create_time` DESC)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='审计日志表'
+/*!50500 PARTITION BY RANGE  COLUMNS(create_time)
+(PARTITION p202304 VALUES LESS THAN ('2023-05-01') ENGINE = InnoDB,
+ PARTITION p202305 VALUES LESS THAN ('2023-06-01') ENGINE = InnoDB,
+ PARTITION p202306 VALUES LESS THAN ('2023-07-01') ENGINE = InnoDB,
+ PARTITION p202307 VALUES LESS THAN ('2023-08-01') ENGINE = InnoDB,
+ PARTITION p_future VALUES LESS THAN (MAXVALUE) ENGINE = InnoDB) */;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
 --
@@ -80,7 +88,7 @@ CREATE TABLE `garoupa_audit_log` (
 
 LOCK TABLES `garoupa_audit_log` WRITE;
 /*!40000 ALTER TABLE `garoupa_audit_log` DISABLE KEYS */;
-INSERT INTO `garoupa_audit_log` VALUES (11,'设置系统字典的锁定标识',1,'127.0.0.1','Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/16','PUT','{}',143,0,NULL,'2023-04-20 09:45:32'),(12,'设置系统字典的锁定标识',1,'127.0.0.1','Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/17','PUT','{}',13,0,NULL,'2023-04-20 09:46:29'),(13,'设置系统字典的锁定标识',1,'127.0.0.1','Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/98','PUT','{}',10,0,NULL,'2023-04-20 09:46:33'),(14,'设置系统字典的锁定标识',1,'127.0.0.1','Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/309','PUT','{}',10,0,NULL,'2023-04-20 09:46:38'),(15,'设置系统字典的锁定标识',1,'127.0.0.1','Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/340','PUT','{}',11,0,NULL,'2023-04-20 09:46:42'),(16,'设置系统字典的锁定标识',1,'127.0.0.1','Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/431','PUT','{}',11,0,NULL,'2023-04-20 09:46:46'),(17,'设置系统字典的锁定标识',1,'127.0.0.1','Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/462','PUT','{}',13,0,NULL,'2023-04-20 09:46:51'),(60,'修改权限',1,'127.0.0.1','Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/permission/update/2861','PUT','{\"dto\":{\"permissionCode\":\"log:audit-log:page\",\"permissionName\":\"分页查询审计日志\"},\"id\":\"2861\"}',126,0,NULL,'2023-04-20 10:50:03');
+INSERT INTO `garoupa_audit_log` VALUES (11,'设置系统字典的锁定标识',1,'127.0.0.1',0x00000000000000000000FFFF7F000001,'Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/16','PUT','{}',143,0,NULL,'2023-04-20 09:45:32'),(12,'设置系统字典的锁定标识',1,'127.0.0.1',0x00000000000000000000FFFF7F000001,'Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/17','PUT','{}',13,0,NULL,'2023-04-20 09:46:29'),(13,'设置系统字典的锁定标识',1,'127.0.0.1',0x00000000000000000000FFFF7F000001,'Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/98','PUT','{}',10,0,NULL,'2023-04-20 09:46:33'),(14,'设置系统字典的锁定标识',1,'127.0.0.1',0x00000000000000000000FFFF7F000001,'Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/309','PUT','{}',10,0,NULL,'2023-04-20 09:46:38'),(15,'设置系统字典的锁定标识',1,'127.0.0.1',0x00000000000000000000FFFF7F000001,'Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/340','PUT','{}',11,0,NULL,'2023-04-20 09:46:42'),(16,'设置系统字典的锁定标识',1,'127.0.0.1',0x00000000000000000000FFFF7F000001,'Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/431','PUT','{}',11,0,NULL,'2023-04-20 09:46:46'),(17,'设置系统字典的锁定标识',1,'127.0.0.1',0x00000000000000000000FFFF7F000001,'Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/system/dict/set/lock/462','PUT','{}',13,0,NULL,'2023-04-20 09:46:51'),(60,'修改权限',1,'127.0.0.1',0x00000000000000000000FFFF7F000001,'Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36','/m/permission/update/2861','PUT','{\"dto\":{\"permissionCode\":\"log:audit-log:page\",\"permissionName\":\"分页查询审计日志\"},\"id\":\"2861\"}',126,0,NULL,'2023-04-20 10:50:03');
 /*!40000 ALTER TABLE `garoupa_audit_log` ENABLE KEYS */;
 UNLOCK TABLES;
 
@@ -97,13 +105,20 @@ CREATE TABLE `garoupa_login_log` (
   `login_mode` char(255) COLLATE utf8mb4_general_ci NOT NULL COMMENT '登录方式，非空',
   `is_success` tinyint(1) NOT NULL COMMENT '是否登录成功，非空；false：失败，true：成功',
   `remote_ip` varchar(2000) COLLATE utf8mb4_general_ci NOT NULL COMMENT '用户ip，非空',
+  `remote_ip_bin` varbinary(16) DEFAULT NULL COMMENT 'ip地址的16字节二进制，IPv4地址编码成IPv4映射的IPv6地址；ip地址格式错误时为null',
   `user_agent` varchar(2000) COLLATE utf8mb4_general_ci NOT NULL COMMENT '用户代理，非空',
   `login_param` varchar(5000) COLLATE utf8mb4_general_ci NOT NULL COMMENT '登录参数，非空；将多个参数转换成json',
   `create_time` datetime NOT NULL COMMENT '创建时间，非空',
-  PRIMARY KEY (`id`),
+  PRIMARY KEY (`id`,`create_time`),
   KEY `garoupa_login_log_create_time_index` (`create_time` DESC),
-  FULLTEXT KEY `garoupa_login_log_remote_ip_fulltext_index` (`remote_ip`) /*!50100 WITH PARSER `ngram` */ 
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='登录日志表';
+  KEY `garoupa_login_log_remote_ip_bin_create_time_index` (`remote_ip_bin`,`create_time` DESC)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='登录日志表'
+/*!50500 PARTITION BY RANGE  COLUMNS(create_time)
+(PARTITION p202304 VALUES LESS THAN ('2023-05-01') ENGINE = InnoDB,
+ PARTITION p202305 VALUES LESS THAN ('2023-06-01') ENGINE = InnoDB,
+ PARTITION p202306 VALUES LESS THAN ('2023-07-01') ENGINE = InnoDB,
+ PARTITION p202307 VALUES LESS THAN ('2023-08-01') ENGINE = InnoDB,
+ PARTITION p_future VALUES LESS THAN (MAXVALUE) ENGINE = InnoDB) */;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
 --
@@ -112,10 +127,30 @@ CREATE TABLE `garoupa_login_log` (
 
 LOCK TABLES `garoupa_login_log` WRITE;
 /*!40000 ALTER TABLE `garoupa_login_log` DISABLE KEYS */;
-INSERT INTO `garoupa_login_log` VALUES (11,NULL,'username-password-captcha',0,'127.0.0.1','PostmanRuntime-ApipostRuntime/1.1.0','{\"password\":[\"Garoupa2023\"],\"username\":[\"Garoupa\"]}','2023-04-18 16:16:09'),(52,1,'username-password-captcha',1,'127.0.0.1','PostmanRuntime-ApipostRuntime/1.1.0','{\"password\":[\"Garoupa2023\"],\"username\":[\"Garoupa\"]}','2023-04-18 16:31:25');
+INSERT INTO `garoupa_login_log` VALUES (11,NULL,'username-password-captcha',0,'127.0.0.1',0x00000000000000000000FFFF7F000001,'PostmanRuntime-ApipostRuntime/1.1.0','{\"password\":[\"Garoupa2023\"],\"username\":[\"Garoupa\"]}','2023-04-18 16:16:09'),(52,1,'username-password-captcha',1,'127.0.0.1',0x00000000000000000000FFFF7F000001,'PostmanRuntime-ApipostRuntime/1.1.0','{\"password\":[\"Garoupa2023\"],\"username\":[\"Garoupa\"]}','2023-04-18 16:31:25');
 /*!40000 ALTER TABLE `garoupa_login_log` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `garoupa_login_statistics`
+--
+
+DROP TABLE IF EXISTS `garoupa_login_statistics`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `garoupa_login_statistics` (
+  `period_type` int NOT NULL COMMENT '统计周期，非空；1：小时；2：天',
+  `period_start` datetime NOT NULL COMMENT '统计周期的开始时间，非空',
+  `login_mode` char(255) COLLATE utf8mb4_general_ci NOT NULL COMMENT '登录方式，非空；*表示所有登录方式',
+  `total_count` bigint NOT NULL COMMENT '登录次数，非空',
+  `failure_count` bigint NOT NULL COMMENT '登录失败次数，非空',
+  `unique_user_count` bigint NOT NULL COMMENT '登录成功的独立用户数，非空；HyperLogLog估算值，只统计所有登录方式',
+  `unique_ip_count` bigint NOT NULL COMMENT '登录成功的独立ip数，非空；HyperLogLog估算值，只统计所有登录方式',
+  `update_time` datetime NOT NULL COMMENT '更新时间，非空',
+  PRIMARY KEY (`period_type`,`login_mode`,`period_start`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='登录统计表';
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `garoupa_permission`
 --
@@ -145,7 +180,7 @@ CREATE TABLE `garoupa_permission` (
 
 LOCK TABLES `garoupa_permission` WRITE;
 /*!40000 ALTER TABLE `garoupa_permission` DISABLE KEYS */;
-INSERT INTO `garoupa_permission` VALUES (1,'*:*:*','超级管理员权限',1,1,'2023-03-30 22:29:10',1,'2023-03-30 22:29:10',0),(2481,'rbac:resource:create','创建资源',2455,1,'2023-04-14 20:19:40',1,'2023-04-14 20:19:40',0),(2482,'rbac:resource:update','修改资源',2455,1,'2023-04-14 20:19:56',1,'2023-04-14 20:19:56',0),(2483,'rbac:resource:logic-delete','逻辑删除资源',2455,1,'2023-04-14 20:20:20',1,'2023-04-14 20:20:20',0),(2484,'rbac:resource:tree-list','查询资源树列表',2455,1,'2023-04-14 20:20:34',1,'2023-04-14 20:20:34',0),(2485,'rbac:resource:menu-tree-list','查询菜单资源树列表',2455,1,'2023-04-14 20:20:48',1,'2023-04-14 20:20:48',0),(2486,'system-param:category:create','创建系统参数分类',2487,1,'2023-04-14 20:22:40',1,'2023-04-14 20:22:40',0),(2487,'system-param:category:update','修改系统参数分类',2487,1,'2023-04-14 20:22:54',1,'2023-04-14 20:22:54',0),(2488,'system-param:category:logic-delete','删除系统参数分类',2487,1,'2023-04-14 20:23:09',1,'2023-04-14 20:23:09',0),(2489,'system-param:category:list','查询系统参数分类列表',2487,1,'2023-04-14 20:23:23',1,'2023-04-14 20:23:23',0),(2490,'system-param:category:set-lock','设置系统参数分类的锁定标识',2487,1,'2023-04-14 20:23:36',1,'2023-04-14 20:23:36',0),(2491,'system-param:param:create','创建系统参数',2487,1,'2023-04-14 20:23:54',1,'2023-04-14 20:23:54',0),(2492,'system-param:param:update','修改系统参数',2487,1,'2023-04-14 20:24:06',1,'2023-04-14 20:24:06',0),(2493,'system-param:param:logic-delete','逻辑删除系统参数',2487,1,'2023-04-14 20:24:18',1,'2023-04-14 20:24:18',0),(2494,'system-param:param:page-by-category','根据系统参数分类分页查询系统参数',2487,1,'2023-04-14 20:24:32',1,'2023-04-14 20:24:32',0),(2495,'system-param:param:set-lock','设置系统参数的锁定标识',2487,1,'2023-04-14 20:24:46',1,'2023-04-14 20:24:46',0),(2496,'system-dict:dict:create','创建系统字典',2488,1,'2023-04-14 20:26:00',1,'2023-04-14 20:26:00',0),(2497,'system-dict:dict:update','修改系统字典',2488,1,'2023-04-14 20:26:11',1,'2023-04-14 20:26:11',0),(2498,'system-dict:dict:logic-delete','删除系统字典',2488,1,'2023-04-14 20:26:24',1,'2023-04-14 20:26:24',0),(2499,'system-dict:dict:set-lock','设置系统字典的锁定标识',2488,1,'2023-04-14 20:26:38',1,'2023-04-14 20:26:38',0),(2500,'system-dict:dict:page','分页查询系统字典',2488,1,'2023-04-14 20:26:51',1,'2023-04-14 20:26:51',0),(2501,'system-dict:dict-item:create','创建系统字典项',2488,1,'2023-04-14 20:27:09',1,'2023-04-14 20:27:09',0),(2502,'system-dict:dict-item:update','修改系统字典项',2488,1,'2023-04-14 20:27:20',1,'2023-04-14 20:27:20',0),(2503,'system-dict:dict-item:logic-delete','逻辑删除系统字典项',2488,1,'2023-04-14 20:27:39',1,'2023-04-14 20:27:39',0),(2504,'system-dict:dict-item:set-lock','设置系统字典项的锁定标识',2488,1,'2023-04-14 20:27:54',1,'2023-04-14 20:27:54',0),(2505,'system-dict:dict-item:set-effective-status','设置系统字典项的有效状态',2488,1,'2023-04-14 20:28:09',1,'2023-04-14 20:28:09',0),(2506,'system-dict:dict-item:list-by-system-dict','根据系统字典id查询系统字典项列表',2488,1,'2023-04-14 20:28:23',1,'2023-04-14 20:28:23',0),(2507,'system-dict:dict-item:list-by-system-dict-code','根据系统字典编码查询系统字典项列表',2488,1,'2023-04-14 20:28:40',1,'2023-04-14 20:28:40',0),(2508,'rbac:permission:create','创建权限',2456,1,'2023-04-14 20:29:35',1,'2023-04-14 20:29:35',0),(2509,'rbac:permission:update','修改权限',2456,1,'2023-04-14 20:29:48',1,'2023-04-14 20:29:48',0),(2510,'rbac:permission:logic-delete','逻辑删除权限',2456,1,'2023-04-14 20:30:03',1,'2023-04-14 20:30:03',0),(2511,'rbac:permission:page-by-menu-id','分页查询指定菜单中的权限',2456,1,'2023-04-14 20:30:16',1,'2023-04-14 20:30:16',0),(2672,'rbac:role:create','创建角色',2454,1,'2023-04-16 13:05:00',1,'2023-04-16 13:05:00',0),(2673,'rbac:role:update','修改角色',2454,1,'2023-04-16 13:05:11',1,'2023-04-16 13:05:11',0),(2674,'rbac:role:logic-delete','逻辑删除角色',2454,1,'2023-04-16 13:05:24',1,'2023-04-16 13:05:24',0),(2675,'rbac:role:associate-resources','给角色关联资源',2454,1,'2023-04-16 13:05:59',1,'2023-04-16 13:05:59',0),(2680,'rbac:role:associate-permission','给角色关联权限',2454,1,'2023-04-16 13:06:59',1,'2023-04-16 13:06:59',0),(2681,'rbac:role:tree-list','查询角色列表树',2454,1,'2023-04-16 13:07:12',1,'2023-04-16 13:07:12',0),(2682,'rbac:user:create','创建用户',2452,1,'2023-04-16 21:07:33',1,'2023-04-16 21:07:33',0),(2683,'rbac:user:logic-delete','逻辑删除用户',2452,1,'2023-04-16 21:07:46',1,'2023-04-16 21:07:46',0),(2684,'rbac:user:reset-password','重置用户的密码',2452,1,'2023-04-16 21:07:58',1,'2023-04-16 21:07:58',0),(2685,'rbac:user:associate-role','设置用户关联的角色',2452,1,'2023-04-16 21:08:10',1,'2023-04-16 21:08:10',0),(2686,'rbac:user:page','分页查询用户',2452,1,'2023-04-16 21:08:25',1,'2023-04-16 21:08:25',0),(2717,'rbac:custom:logic-delete','逻辑删除客户',2453,1,'2023-04-17 17:24:55',1,'2023-04-17 17:24:55',0),(2718,'rbac:custom:associate-role','设置客户关联的角色',2453,1,'2023-04-17 17:25:09',1,'2023-04-17 17:25:09',0),(2719,'rbac:custom:page','分页查询客户',2453,1,'2023-04-17 17:25:26',1,'2023-04-17 17:25:26',0),(2820,'log:login-log:page','分页查询登录日志',2779,1,'2023-04-18 18:08:33',1,'2023-04-18 18:08:33',0),(2861,'log:audit-log:page','分页查询审计日志',2780,1,'2023-04-20 10:30:11',1,'2023-04-20 10:50:03',0);
+INSERT INTO `garoupa_permission` VALUES (1,'*:*:*','超级管理员权限',1,1,'2023-03-30 22:29:10',1,'2023-03-30 22:29:10',0),(2481,'rbac:resource:create','创建资源',2455,1,'2023-04-14 20:19:40',1,'2023-04-14 20:19:40',0),(2482,'rbac:resource:update','修改资源',2455,1,'2023-04-14 20:19:56',1,'2023-04-14 20:19:56',0),(2483,'rbac:resource:logic-delete','逻辑删除资源',2455,1,'2023-04-14 20:20:20',1,'2023-04-14 20:20:20',0),(2484,'rbac:resource:tree-list','查询资源树列表',2455,1,'2023-04-14 20:20:34',1,'2023-04-14 20:20:34',0),(2485,'rbac:resource:menu-tree-list','查询菜单资源树列表',2455,1,'2023-04-14 20:20:48',1,'2023-04-14 20:20:48',0),(2486,'system-param:category:create','创建系统参数分类',2487,1,'2023-04-14 20:22:40',1,'2023-04-14 20:22:40',0),(2487,'system-param:category:update','修改系统参数分类',2487,1,'2023-04-14 20:22:54',1,'2023-04-14 20:22:54',0),(2488,'system-param:category:logic-delete','删除系统参数分类',2487,1,'2023-04-14 20:23:09',1,'2023-04-14 20:23:09',0),(2489,'system-param:category:list','查询系统参数分类列表',2487,1,'2023-04-14 20:23:23',1,'2023-04-14 20:23:23',0),(2490,'system-param:category:set-lock','设置系统参数分类的锁定标识',2487,1,'2023-04-14 20:23:36',1,'2023-04-14 20:23:36',0),(2491,'system-param:param:create','创建系统参数',2487,1,'2023-04-14 20:23:54',1,'2023-04-14 20:23:54',0),(2492,'system-param:param:update','修改系统参数',2487,1,'2023-04-14 20:24:06',1,'2023-04-14 20:24:06',0),(2493,'system-param:param:logic-delete','逻辑删除系统参数',2487,1,'2023-04-14 20:24:18',1,'2023-04-14 20:24:18',0),(2494,'system-param:param:page-by-category','根据系统参数分类分页查询系统参数',2487,1,'2023-04-14 20:24:32',1,'2023-04-14 20:24:32',0),(2495,'system-param:param:set-lock','设置系统参数的锁定标识',2487,1,'2023-04-14 20:24:46',1,'2023-04-14 20:24:46',0),(2496,'system-dict:dict:create','创建系统字典',2488,1,'2023-04-14 20:26:00',1,'2023-04-14 20:26:00',0),(2497,'system-dict:dict:update','修改系统字典',2488,1,'2023-04-14 20:26:11',1,'2023-04-14 20:26:11',0),(2498,'system-dict:dict:logic-delete','删除系统字典',2488,1,'2023-04-14 20:26:24',1,'2023-04-14 20:26:24',0),(2499,'system-dict:dict:set-lock','设置系统字典的锁定标识',2488,1,'2023-04-14 20:26:38',1,'2023-04-14 20:26:38',0),(2500,'system-dict:dict:page','分页查询系统字典',2488,1,'2023-04-14 20:26:51',1,'2023-04-14 20:26:51',0),(2501,'system-dict:dict-item:create','创建系统字典项',2488,1,'2023-04-14 20:27:09',1,'2023-04-14 20:27:09',0),(2502,'system-dict:dict-item:update','修改系统字典项',2488,1,'2023-04-14 20:27:20',1,'2023-04-14 20:27:20',0),(2503,'system-dict:dict-item:logic-delete','逻辑删除系统字典项',2488,1,'2023-04-14 20:27:39',1,'2023-04-14 20:27:39',0),(2504,'system-dict:dict-item:set-lock','设置系统字典项的锁定标识',2488,1,'2023-04-14 20:27:54',1,'2023-04-14 20:27:54',0),(2505,'system-dict:dict-item:set-effective-status','设置系统字典项的有效状态',2488,1,'2023-04-14 20:28:09',1,'2023-04-14 20:28:09',0),(2506,'system-dict:dict-item:list-by-system-dict','根据系统字典id查询系统字典项列表',2488,1,'2023-04-14 20:28:23',1,'2023-04-14 20:28:23',0),(2507,'system-dict:dict-item:list-by-system-dict-code','根据系统字典编码查询系统字典项列表',2488,1,'2023-04-14 20:28:40',1,'2023-04-14 20:28:40',0),(2508,'rbac:permission:create','创建权限',2456,1,'2023-04-14 20:29:35',1,'2023-04-14 20:29:35',0),(2509,'rbac:permission:update','修改权限',2456,1,'2023-04-14 20:29:48',1,'2023-04-14 20:29:48',0),(2510,'rbac:permission:logic-delete','逻辑删除权限',2456,1,'2023-04-14 20:30:03',1,'2023-04-14 20:30:03',0),(2511,'rbac:permission:page-by-menu-id','分页查询指定菜单中的权限',2456,1,'2023-04-14 20:30:16',1,'2023-04-14 20:30:16',0),(2672,'rbac:role:create','创建角色',2454,1,'2023-04-16 13:05:00',1,'2023-04-16 13:05:00',0),(2673,'rbac:role:update','修改角色',2454,1,'2023-04-16 13:05:11',1,'2023-04-16 13:05:11',0),(2674,'rbac:role:logic-delete','逻辑删除角色',2454,1,'2023-04-16 13:05:24',1,'2023-04-16 13:05:24',0),(2675,'rbac:role:associate-resources','给角色关联资源',2454,1,'2023-04-16 13:05:59',1,'2023-04-16 13:05:59',0),(2680,'rbac:role:associate-permission','给角色关联权限',2454,1,'2023-04-16 13:06:59',1,'2023-04-16 13:06:59',0),(2681,'rbac:role:tree-list','查询角色列表树',2454,1,'2023-04-16 13:07:12',1,'2023-04-16 13:07:12',0),(2682,'rbac:user:create','创建用户',2452,1,'2023-04-16 21:07:33',1,'2023-04-16 21:07:33',0),(2683,'rbac:user:logic-delete','逻辑删除用户',2452,1,'2023-04-16 21:07:46',1,'2023-04-16 21:07:46',0),(2684,'rbac:user:reset-password','重置用户的密码',2452,1,'2023-04-16 21:07:58',1,'2023-04-16 21:07:58',0),(2685,'rbac:user:associate-role','设置用户关联的角色',2452,1,'2023-04-16 21:08:10',1,'2023-04-16 21:08:10',0),(2686,'rbac:user:page','分页查询用户',2452,1,'2023-04-16 21:08:25',1,'2023-04-16 21:08:25',0),(2717,'rbac:custom:logic-delete','逻辑删除客户',2453,1,'2023-04-17 17:24:55',1,'2023-04-17 17:24:55',0),(2718,'rbac:custom:associate-role','设置客户关联的角色',2453,1,'2023-04-17 17:25:09',1,'2023-04-17 17:25:09',0),(2719,'rbac:custom:page','分页查询客户',2453,1,'2023-04-17 17:25:26',1,'2023-04-17 17:25:26',0),(2820,'log:login-log:page','分页查询登录日志',2779,1,'2023-04-18 18:08:33',1,'2023-04-18 18:08:33',0),(2861,'log:audit-log:page','分页查询审计日志',2780,1,'2023-04-20 10:30:11',1,'2023-04-20 10:50:03',0),(2862,'log:login-log:export','导出登录日志',2779,1,'2023-04-25 09:55:00',1,'2023-04-25 09:55:00',0),(2863,'log:audit-log:export','导出审计日志',2780,1,'2023-04-25 09:55:00',1,'2023-04-25 09:55:00',0),(2864,'log:audit-log:latency','查询接口耗时统计',2780,1,'2023-04-25 14:10:00',1,'2023-04-25 14:10:00',0),(2865,'log:login-log:statistics','查询登录统计',2779,1,'2023-04-25 15:20:00',1,'2023-04-25 15:20:00',0);
 /*!40000 ALTER TABLE `garoupa_permission` ENABLE KEYS */;
 UNLOCK TABLES;
 
@@ -382,7 +417,7 @@ CREATE TABLE `garoupa_system_param` (
 
 LOCK TABLES `garoupa_system_param` WRITE;
 /*!40000 ALTER TABLE `garoupa_system_param` DISABLE KEYS */;
-INSERT INTO `garoupa_system_param` VALUES (381,13,'jwt.expireSecond','Jwt过期时间（单位秒）','2592000',1,1,'2023-04-07 23:48:06',1,'2023-04-12 23:30:50',0),(842,866,'rbac.userDefaultPassword','用户默认密码','Garoupa2023',0,1,'2023-04-16 13:34:33',1,'2023-04-16 13:34:33',0),(843,866,'rbac.userDefaultNicknamePrefix','用户默认昵称前缀','管理员',0,1,'2023-04-16 13:49:13',1,'2023-04-16 13:49:13',0),(844,866,'rbac.userPasswordValidRegularExpression','用户密码校验正则表达式','^(?=.*\\d)(?=.*[a-z])(?=.*[A-Z]).{8,50}$',0,1,'2023-04-16 20:41:20',1,'2023-04-16 20:41:20',0),(845,866,'rbac.userPasswordValidRegularExpressionTextRequirement','用户密码校验正则表达式文字要求','密码至少包含一个大写字母，一个小写字母，一个数字，长度8-50位',0,1,'2023-04-16 21:49:13',1,'2023-04-16 21:49:13',0);
+INSERT INTO `garoupa_system_param` VALUES (381,13,'jwt.expireSecond','Jwt过期时间（单位秒）','2592000',1,1,'2023-04-07 23:48:06',1,'2023-04-12 23:30:50',0),(842,866,'rbac.userDefaultPassword','用户默认密码','Garoupa2023',0,1,'2023-04-16 13:34:33',1,'2023-04-16 13:34:33',0),(843,866,'rbac.userDefaultNicknamePrefix','用户默认昵称前缀','管理员',0,1,'2023-04-16 13:49:13',1,'2023-04-16 13:49:13',0),(844,866,'rbac.userPasswordValidRegularExpression','用户密码校验正则表达式','^(?=.*\\d)(?=.*[a-z])(?=.*[A-Z]).{8,50}$',0,1,'2023-04-16 20:41:20',1,'2023-04-16 20:41:20',0),(845,866,'rbac.userPasswordValidRegularExpressionTextRequirement','用户密码校验正则表达式文字要求','密码至少包含一个大写字母，一个小写字母，一个数字，长度8-50位',0,1,'2023-04-16 21:49:13',1,'2023-04-16 21:49:13',0),(846,867,'log.retentionMonths','日志保留月数','6',0,1,'2023-04-24 17:45:00',1,'2023-04-24 17:45:00',0),(847,867,'log.archiveExpiredPartition','删除过期日志分区前是否先归档','false',0,1,'2023-04-24 17:45:00',1,'2023-04-24 17:45:00',0);
 /*!40000 ALTER TABLE `garoupa_system_param` ENABLE KEYS */;
 UNLOCK TABLES;
 
@@ -414,7 +449,7 @@ CREATE TABLE `garoupa_system_param_category` (
 
 LOCK TABLES `garoupa_system_param_category` WRITE;
 /*!40000 ALTER TABLE `garoupa_system_param_category` DISABLE KEYS */;
-INSERT INTO `garoupa_system_param_category` VALUES (13,'JWT参数',1,1,'2023-04-06 22:05:38',1,'2023-04-08 00:00:33',0),(866,'RBAC参数',0,1,'2023-04-16 13:33:53',1,'2023-04-16 13:33:53',0);
+INSERT INTO `garoupa_system_param_category` VALUES (13,'JWT参数',1,1,'2023-04-06 22:05:38',1,'2023-04-08 00:00:33',0),(866,'RBAC参数',0,1,'2023-04-16 13:33:53',1,'2023-04-16 13:33:53',0),(867,'日志参数',0,1,'2023-04-24 17:45:00',1,'2023-04-24 17:45:00',0);
 /*!40000 ALTER TABLE `garoupa_system_param_category` ENABLE KEYS */;
 UNLOCK TABLES;
 